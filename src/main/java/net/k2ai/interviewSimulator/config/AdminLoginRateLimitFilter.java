@@ -6,7 +6,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.k2ai.interviewSimulator.exception.RateLimitException;
 import net.k2ai.interviewSimulator.service.ClientIpResolver;
 import net.k2ai.interviewSimulator.service.RateLimitService;
 import org.springframework.stereotype.Component;
@@ -40,9 +39,7 @@ public class AdminLoginRateLimitFilter extends OncePerRequestFilter {
 		}
 
 		String clientIp = clientIpResolver.resolve(request);
-		try {
-			rateLimitService.checkRateLimit("admin-login", clientIp, MAX_ATTEMPTS, WINDOW_MS);
-		} catch (RateLimitException e) {
+		if (!rateLimitService.tryAcquire("admin-login", clientIp, MAX_ATTEMPTS, WINDOW_MS)) {
 			log.warn("Admin login rate limit exceeded for IP: {}", clientIp);
 			response.sendRedirect("/admin/login?error=true");
 			return;
@@ -9,7 +9,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Getter
@@ -23,6 +25,9 @@ public class GeminiConfig {
 
 	private String apiKey;
 
+	// REST endpoint root; overridable so tests can point grading at a local mock server
+	private String apiBaseUrl = "https://generativelanguage.googleapis.com/v1beta";
+
 	private String liveModel = "gemini-2.0-flash-exp";
 
 	private String gradingModel = "gemini-2.5-pro-preview-05-06";
@@ -32,9 +37,46 @@ public class GeminiConfig {
 	// Comma-separated list of grading models for fallback rotation (PROD + REVIEWER)
 	private String gradingModels;
 
+	// Comma-separated live-model fallback chain, most preferred first (all modes)
+	private String liveModels;
+
 	// Comma-separated list of reviewer API keys (REVIEWER mode only)
 	private String reviewerKeys;
 
+	// Per-model quotas each API key is kept under (gemini.quota.models[<model>].rpm etc.)
+	private Quota quota = new Quota();
+
+
+	/**
+	 * Quotas the {@code GeminiQuotaLedger} checks before a call. A limit of 0,
+	 * or a model without an entry, is not limited.
+	 */
+	@Getter
+	@Setter
+	public static class Quota {
+
+		private boolean enabled = true;
+
+		private Map<String, ModelLimits> models = new LinkedHashMap<>();
+
+	}//Quota
+
+
+	@Getter
+	@Setter
+	public static class ModelLimits {
+
+		// Requests per minute
+		private int rpm;
+
+		// Input plus output tokens per minute
+		private long tpm;
+
+		// Concurrent Live API sessions
+		private int liveSessions;
+
+	}//ModelLimits
+
 
 	@PostConstruct
 	public void validate() {
@@ -89,6 +131,21 @@ public class GeminiConfig {
 	}//getGradingModelList
 
 
+	/**
+	 * Returns the live-model fallback chain.
+	 * Falls back to the single liveModel if not configured.
+	 */
+	public List<String> getLiveModelList() {
+		if (liveModels != null && !liveModels.isBlank()) {
+			return Arrays.stream(liveModels.split(","))
+					.map(String::trim)
+					.filter(s -> !s.isEmpty())
+					.toList();
+		}
+		return List.of(liveModel);
+	}//getLiveModelList
+
+
 	/**
 	 * Returns the list of reviewer API keys.
 	 */
@@ -0,0 +1,238 @@
+package net.k2ai.interviewSimulator.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-session message and byte budgets for STOMP frames sent to {@code /app}
+ * destinations, enforced on the client inbound channel.
+ *
+ * <p>Each session gets a token bucket per destination, so a flood on one
+ * (say {@code /app/interview/ping}) never eats into the audio budget. Audio is
+ * tuned for the recorder's cadence - 4096 samples at 16kHz, about four ~11KB
+ * frames a second, or up to three times that when the browser captures at
+ * 48kHz - with a burst of {@value #BURST_SECONDS} seconds' worth to ride out
+ * network jitter. Everything else is a control message a client sends a few
+ * times a minute.
+ *
+ * <p>Frames over budget are dropped here, while the payload is still raw
+ * bytes, so they never reach payload conversion, the controller or the Gemini
+ * socket. Drops are counted as {@code ws.inbound.dropped}, tagged with the
+ * destination and whether the message or the byte budget ran out.
+ */
+@Slf4j
+@Component
+public class InboundMessageRateInterceptor implements ChannelInterceptor, MeterBinder {
+
+	private static final int BURST_SECONDS = 2;
+
+	// Slot per destination; any other /app destination shares the last one
+	private static final List<String> DESTINATIONS = List.of(
+			"audio", "ping", "mic-off", "mode-switch", "end", "start", "resume", "other");
+
+	private static final int AUDIO = 0;
+
+	private static final int OTHER = DESTINATIONS.size() - 1;
+
+	private static final String DESTINATION_PREFIX = "/app/interview/";
+
+	private final double[] messagesPerMilli = new double[DESTINATIONS.size()];
+
+	private final double[] bytesPerMilli = new double[DESTINATIONS.size()];
+
+	private final Clock clock;
+
+	private final Map<String, SessionBudget> sessions = new ConcurrentHashMap<>();
+
+	private final LongAdder[] droppedMessages = newCounters();
+
+	private final LongAdder[] droppedBytes = newCounters();
+
+
+	// Token buckets for one WebSocket session, one per destination slot
+	private final class SessionBudget {
+
+		private final double[] messages = new double[DESTINATIONS.size()];
+
+		private final double[] bytes = new double[DESTINATIONS.size()];
+
+		private final long[] updatedAt = new long[DESTINATIONS.size()];
+
+		private final boolean[] warned = new boolean[DESTINATIONS.size()];
+
+
+		private SessionBudget(long now) {
+			for (int slot = 0; slot < messages.length; slot++) {
+				messages[slot] = messageCapacity(slot);
+				bytes[slot] = byteCapacity(slot);
+				updatedAt[slot] = now;
+			}
+		}//SessionBudget
+
+
+		// Returns null if the frame fits, otherwise the counters to charge the drop to
+		private synchronized LongAdder[] take(int slot, int size, long now) {
+			long elapsed = now - updatedAt[slot];
+			if (elapsed > 0) {
+				messages[slot] = Math.min(messageCapacity(slot), messages[slot] + elapsed * messagesPerMilli[slot]);
+				bytes[slot] = Math.min(byteCapacity(slot), bytes[slot] + elapsed * bytesPerMilli[slot]);
+				updatedAt[slot] = now;
+			}
+			if (messages[slot] < 1) {
+				return droppedMessages;
+			}
+			if (bytes[slot] < size) {
+				return droppedBytes;
+			}
+			messages[slot] -= 1;
+			bytes[slot] -= size;
+			return null;
+		}//take
+
+
+		// True the first time the session goes over budget on the destination
+		private synchronized boolean firstViolation(int slot) {
+			if (warned[slot]) {
+				return false;
+			}
+			warned[slot] = true;
+			return true;
+		}//firstViolation
+
+	}//SessionBudget
+
+
+	public InboundMessageRateInterceptor(
+			@Value("${app.ws.inbound.audio.messages-per-second:25}") double audioMessagesPerSecond,
+			@Value("${app.ws.inbound.audio.bytes-per-second:262144}") double audioBytesPerSecond,
+			@Value("${app.ws.inbound.control.messages-per-second:5}") double controlMessagesPerSecond,
+			@Value("${app.ws.inbound.control.bytes-per-second:65536}") double controlBytesPerSecond) {
+		this(audioMessagesPerSecond, audioBytesPerSecond, controlMessagesPerSecond, controlBytesPerSecond,
+				Clock.systemUTC());
+	}//InboundMessageRateInterceptor
+
+
+	InboundMessageRateInterceptor(double audioMessagesPerSecond, double audioBytesPerSecond,
+								  double controlMessagesPerSecond, double controlBytesPerSecond, Clock clock) {
+		for (int slot = 0; slot < DESTINATIONS.size(); slot++) {
+			boolean audio = slot == AUDIO;
+			messagesPerMilli[slot] = (audio ? audioMessagesPerSecond : controlMessagesPerSecond) / 1000;
+			bytesPerMilli[slot] = (audio ? audioBytesPerSecond : controlBytesPerSecond) / 1000;
+		}
+		this.clock = clock;
+	}//InboundMessageRateInterceptor
+
+
+	@Override
+	public Message<?> preSend(Message<?> message, MessageChannel channel) {
+		MessageHeaders headers = message.getHeaders();
+		SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+		String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+		if (sessionId == null) {
+			return message;
+		}
+		if (type == SimpMessageType.DISCONNECT) {
+			sessions.remove(sessionId);
+			return message;
+		}
+		if (type != SimpMessageType.MESSAGE) {
+			return message;
+		}
+
+		int slot = slotOf(SimpMessageHeaderAccessor.getDestination(headers));
+		int size = message.getPayload() instanceof byte[] payload ? payload.length : 0;
+		long now = clock.millis();
+		SessionBudget budget = sessions.computeIfAbsent(sessionId, id -> new SessionBudget(now));
+		LongAdder[] dropped = budget.take(slot, size, now);
+		if (dropped == null) {
+			return message;
+		}
+
+		dropped[slot].increment();
+		if (budget.firstViolation(slot)) {
+			log.warn("WebSocket session {} is over its {} budget - dropping frames", sessionId, DESTINATIONS.get(slot));
+		}
+		return null;
+	}//preSend
+
+
+	public long getDroppedMessages(String destination) {
+		return droppedMessages[DESTINATIONS.indexOf(destination)].sum();
+	}//getDroppedMessages
+
+
+	public long getDroppedBytes(String destination) {
+		return droppedBytes[DESTINATIONS.indexOf(destination)].sum();
+	}//getDroppedBytes
+
+
+	public int getTrackedSessions() {
+		return sessions.size();
+	}//getTrackedSessions
+
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (int slot = 0; slot < DESTINATIONS.size(); slot++) {
+			FunctionCounter.builder("ws.inbound.dropped", droppedMessages[slot], LongAdder::sum)
+					.description("Inbound STOMP frames dropped for exceeding a session's budget")
+					.tag("destination", DESTINATIONS.get(slot))
+					.tag("budget", "messages")
+					.register(registry);
+			FunctionCounter.builder("ws.inbound.dropped", droppedBytes[slot], LongAdder::sum)
+					.description("Inbound STOMP frames dropped for exceeding a session's budget")
+					.tag("destination", DESTINATIONS.get(slot))
+					.tag("budget", "bytes")
+					.register(registry);
+		}
+		Gauge.builder("ws.inbound.sessions", sessions, Map::size)
+				.description("WebSocket sessions with inbound budgets")
+				.register(registry);
+	}//bindTo
+
+
+	private double messageCapacity(int slot) {
+		return Math.max(1, messagesPerMilli[slot] * 1000 * BURST_SECONDS);
+	}//messageCapacity
+
+
+	private double byteCapacity(int slot) {
+		return bytesPerMilli[slot] * 1000 * BURST_SECONDS;
+	}//byteCapacity
+
+
+	private static int slotOf(String destination) {
+		if (destination == null || !destination.startsWith(DESTINATION_PREFIX)) {
+			return OTHER;
+		}
+		int slot = DESTINATIONS.indexOf(destination.substring(DESTINATION_PREFIX.length()));
+		return slot < 0 ? OTHER : slot;
+	}//slotOf
+
+
+	private static LongAdder[] newCounters() {
+		LongAdder[] counters = new LongAdder[DESTINATIONS.size()];
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new LongAdder();
+		}
+		return counters;
+	}//newCounters
+
+}//InboundMessageRateInterceptor
@@ -2,6 +2,7 @@ package net.k2ai.interviewSimulator.config;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -14,14 +15,16 @@ import org.springframework.web.socket.config.annotation.WebSocketTransportRegist
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
 	// Caps on a single inbound STOMP message and on the server→client buffer.
-	// Audio chunks are ~8KB base64; 512KB gives headroom for the initial
-	// cvText payload (sanitized to 100KB by the backend) plus other fields,
-	// without leaving memory wide open to a crafted message.
-	private static final int MAX_MESSAGE_SIZE = 512 * 1024;
+	// Audio chunks are ~11KB base64 and the start message carries only a CV
+	// handle, so 64KB leaves headroom without leaving memory open to a
+	// crafted message.
+	private static final int MAX_MESSAGE_SIZE = 64 * 1024;
 	private static final int MAX_SEND_BUFFER_SIZE = 1024 * 1024;
 
 	private final WebSocketHandshakeInterceptor handshakeInterceptor;
 
+	private final InboundMessageRateInterceptor inboundMessageRateInterceptor;
+
 
 	@Override
 	public void configureMessageBroker(MessageBrokerRegistry config) {
@@ -35,6 +38,13 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 	}//configureMessageBroker
 
 
+	@Override
+	public void configureClientInboundChannel(ChannelRegistration registration) {
+		// Drops frames over the session's budget before they are converted or handled
+		registration.interceptors(inboundMessageRateInterceptor);
+	}//configureClientInboundChannel
+
+
 	@Override
 	public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
 		registration.setMessageSizeLimit(MAX_MESSAGE_SIZE);
@@ -2,7 +2,9 @@ package net.k2ai.interviewSimulator.config;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.service.ClusterSessionDirectory;
 import net.k2ai.interviewSimulator.service.GeminiIntegrationService;
+import net.k2ai.interviewSimulator.service.InterviewAdmissionService;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
@@ -16,12 +18,19 @@ public class WebSocketEventListener {
 
 	private final GeminiIntegrationService geminiIntegrationService;
 
+	private final ClusterSessionDirectory clusterDirectory;
+
+	private final InterviewAdmissionService admissionService;
+
 
 	@EventListener
 	public void handleWebSocketConnected(SessionConnectedEvent event) {
 		StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
 		String sessionId = headerAccessor.getSessionId();
 		log.info("WebSocket connected: {}", sessionId);
+
+		// Record that this node holds the socket so other nodes can route to it
+		clusterDirectory.register(sessionId);
 	}//handleWebSocketConnected
 
 
@@ -33,6 +42,9 @@ public class WebSocketEventListener {
 
 		// Cleanup any active interview session
 		geminiIntegrationService.handleDisconnect(sessionId);
+		// Leave the waiting room (or free the slot) if the candidate gave up
+		admissionService.release(sessionId);
+		clusterDirectory.unregister(sessionId);
 	}//handleWebSocketDisconnect
 
 }//WebSocketEventListener
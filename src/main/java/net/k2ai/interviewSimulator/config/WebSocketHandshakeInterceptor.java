@@ -2,7 +2,6 @@ package net.k2ai.interviewSimulator.config;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.k2ai.interviewSimulator.exception.RateLimitException;
 import net.k2ai.interviewSimulator.service.ClientIpResolver;
 import net.k2ai.interviewSimulator.service.RateLimitService;
 import org.springframework.http.server.ServerHttpRequest;
@@ -41,16 +40,14 @@ public class WebSocketHandshakeInterceptor implements HandshakeInterceptor {
 		}
 		attributes.put("clientIp", clientIp);
 
-		try {
-			rateLimitService.checkRateLimit("ws-handshake", clientIp, MAX_HANDSHAKES_PER_MINUTE, WINDOW_MS);
-			return true;
-		} catch (RateLimitException e) {
+		if (!rateLimitService.tryAcquire("ws-handshake", clientIp, MAX_HANDSHAKES_PER_MINUTE, WINDOW_MS)) {
 			log.warn("WS handshake rate limit exceeded for IP: {}", clientIp);
 			if (response instanceof ServletServerHttpResponse servletResponse) {
 				servletResponse.getServletResponse().setStatus(429);
 			}
 			return false;
 		}
+		return true;
 	}//beforeHandshake
 
 
@@ -5,10 +5,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.k2ai.interviewSimulator.entity.InterviewFeedback;
 import net.k2ai.interviewSimulator.entity.InterviewSession;
-import net.k2ai.interviewSimulator.exception.RateLimitException;
 import net.k2ai.interviewSimulator.repository.InterviewFeedbackRepository;
 import net.k2ai.interviewSimulator.service.AdminService;
 import net.k2ai.interviewSimulator.service.ClientIpResolver;
+import net.k2ai.interviewSimulator.service.GeminiIntegrationService;
 import net.k2ai.interviewSimulator.service.RateLimitService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -40,6 +40,8 @@ public class AdminController {
 
 	private final ClientIpResolver clientIpResolver;
 
+	private final GeminiIntegrationService geminiIntegrationService;
+
 
 	@GetMapping("/login")
 	public String loginPage(
@@ -144,9 +146,7 @@ public class AdminController {
 		// current password (the request is already authenticated, but a session
 		// hijack scenario is what this guards against).
 		String clientIp = clientIpResolver.resolve(request);
-		try {
-			rateLimitService.checkRateLimit("admin-change-password", clientIp, 5, 300_000);
-		} catch (RateLimitException e) {
+		if (!rateLimitService.tryAcquire("admin-change-password", clientIp, 5, 300_000)) {
 			log.warn("Admin change-password rate limit exceeded for IP: {}", clientIp);
 			redirectAttributes.addFlashAttribute("passwordError", "admin.password.rateLimited");
 			return "redirect:/admin/dashboard";
@@ -172,4 +172,17 @@ public class AdminController {
 		return "redirect:/admin/dashboard";
 	}//changePassword
 
+
+	/**
+	 * Puts this node into drain mode ahead of a redeploy: new interviews are
+	 * refused and live ones are handed off so candidates reconnect elsewhere.
+	 */
+	@PostMapping("/drain")
+	public String drainNode(RedirectAttributes redirectAttributes) {
+		int migrated = geminiIntegrationService.drain();
+		log.warn("Admin triggered node drain - {} live interview(s) handed off", migrated);
+		redirectAttributes.addFlashAttribute("drainedCount", migrated);
+		return "redirect:/admin/dashboard";
+	}//drainNode
+
 }//AdminController
@@ -1,19 +1,28 @@
 package net.k2ai.interviewSimulator.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.k2ai.interviewSimulator.exception.RateLimitException;
+import net.k2ai.interviewSimulator.exception.CvParserBusyException;
+import net.k2ai.interviewSimulator.exception.CvUploadOffsetException;
 import net.k2ai.interviewSimulator.service.ClientIpResolver;
 import net.k2ai.interviewSimulator.service.CvProcessingService;
+import net.k2ai.interviewSimulator.service.CvUploadService;
 import net.k2ai.interviewSimulator.service.RateLimitService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Slf4j
@@ -23,6 +32,7 @@ import java.util.Map;
 public class CvController {
 
 	private final CvProcessingService cvProcessingService;
+	private final CvUploadService cvUploadService;
 	private final RateLimitService rateLimitService;
 	private final ClientIpResolver clientIpResolver;
 
@@ -33,9 +43,7 @@ public class CvController {
 		// Limit CV parsing to 5 uploads per minute per IP. Parsing PDF/DOCX is
 		// heavy; unthrottled it's an easy heap/CPU DoS vector.
 		String clientIp = clientIpResolver.resolve(request);
-		try {
-			rateLimitService.checkRateLimit("cv-upload", clientIp, 5, 60_000);
-		} catch (RateLimitException e) {
+		if (!rateLimitService.tryAcquire("cv-upload", clientIp, 5, 60_000)) {
 			log.warn("CV upload rate limit exceeded for IP: {}", clientIp);
 			return ResponseEntity.status(429).body(Map.of(
 					"success", false,
@@ -44,7 +52,7 @@ public class CvController {
 		}
 
 		try {
-			String extractedText = cvProcessingService.extractText(file);
+			String extractedText = cvProcessingService.extractText(file, request.getSession().getId());
 
 			log.info("CV processed successfully, extracted {} characters", extractedText.length());
 
@@ -53,6 +61,8 @@ public class CvController {
 					"text", extractedText,
 					"characterCount", extractedText.length()
 			));
+		} catch (CvParserBusyException e) {
+			return busy(e);
 		} catch (IllegalArgumentException e) {
 			log.warn("CV validation failed: {}", e.getMessage());
 			return ResponseEntity.badRequest().body(Map.of(
@@ -69,4 +79,181 @@ public class CvController {
 		}
 	}//uploadCv
 
+
+
+	// ========== Chunked, resumable uploads ==========
+
+	/**
+	 * Opens a chunked upload. Counts against the same per-IP limit as a
+	 * single-request upload; the chunks themselves don't.
+	 */
+	@PostMapping("/uploads")
+	public ResponseEntity<Map<String, Object>> startUpload(@RequestParam("fileName") String fileName,
+														   @RequestParam("contentType") String contentType,
+														   @RequestParam("size") long size,
+														   HttpServletRequest request) {
+		String clientIp = clientIpResolver.resolve(request);
+		if (!rateLimitService.tryAcquire("cv-upload", clientIp, 5, 60_000)) {
+			log.warn("CV upload rate limit exceeded for IP: {}", clientIp);
+			return ResponseEntity.status(429).body(Map.of(
+					"success", false,
+					"error", "Too many uploads. Please wait a minute and try again."
+			));
+		}
+
+		try {
+			CvUploadService.UploadStatus status = cvUploadService.start(fileName, contentType, size,
+					request.getSession().getId());
+			return ResponseEntity.status(201).body(statusBody(status));
+		} catch (CvParserBusyException e) {
+			return busy(e);
+		} catch (IllegalArgumentException e) {
+			log.warn("CV upload rejected: {}", e.getMessage());
+			return ResponseEntity.badRequest().body(Map.of(
+					"success", false,
+					"error", e.getMessage()
+			));
+		} catch (IOException e) {
+			log.error("Could not open CV upload", e);
+			return ResponseEntity.internalServerError().body(Map.of(
+					"success", false,
+					"error", "Failed to process CV."
+			));
+		}
+	}//startUpload
+
+
+	/**
+	 * Reports how many bytes have arrived, so an interrupted client knows where to resume.
+	 */
+	@GetMapping("/uploads/{uploadId}")
+	public ResponseEntity<Map<String, Object>> uploadStatus(@PathVariable String uploadId,
+															HttpServletRequest request) {
+		HttpSession session = request.getSession(false);
+		return cvUploadService.status(uploadId, session != null ? session.getId() : null)
+				.map(status -> ResponseEntity.ok(statusBody(status)))
+				.orElseGet(this::uploadNotFound);
+	}//uploadStatus
+
+
+	/**
+	 * Appends the raw request body at {@code offset}. A chunk at the wrong offset
+	 * gets 409 with the offset the server has.
+	 */
+	@PutMapping(value = "/uploads/{uploadId}", consumes = "application/octet-stream")
+	public ResponseEntity<Map<String, Object>> uploadChunk(@PathVariable String uploadId,
+														   @RequestParam("offset") long offset,
+														   HttpServletRequest request) {
+		HttpSession session = request.getSession(false);
+		String sessionId = session != null ? session.getId() : null;
+		if (cvUploadService.status(uploadId, sessionId).isEmpty()) {
+			return uploadNotFound();
+		}
+
+		try {
+			CvUploadService.UploadStatus status = cvUploadService.append(uploadId, sessionId, offset,
+					request.getInputStream());
+			return ResponseEntity.ok(statusBody(status));
+		} catch (CvUploadOffsetException e) {
+			return ResponseEntity.status(409).body(Map.of(
+					"success", false,
+					"error", e.getMessage(),
+					"offset", e.getExpectedOffset()
+			));
+		} catch (IllegalArgumentException e) {
+			log.warn("CV upload chunk rejected: {}", e.getMessage());
+			return ResponseEntity.badRequest().body(Map.of(
+					"success", false,
+					"error", e.getMessage()
+			));
+		} catch (IOException e) {
+			// Usually the client went away mid-chunk; what arrived is kept
+			log.debug("CV upload chunk interrupted: {}", e.getMessage());
+			return ResponseEntity.internalServerError().body(Map.of(
+					"success", false,
+					"error", "Upload interrupted. Please resume."
+			));
+		}
+	}//uploadChunk
+
+
+	/**
+	 * Extracts the text of a fully received upload; same response as {@code /upload}.
+	 */
+	@PostMapping("/uploads/{uploadId}/extract")
+	public ResponseEntity<Map<String, Object>> extractUpload(@PathVariable String uploadId,
+															 HttpServletRequest request) {
+		HttpSession session = request.getSession(false);
+		if (session == null) {
+			return uploadNotFound();
+		}
+
+		try {
+			CvUploadService.CompletedUpload upload = cvUploadService.complete(uploadId, session.getId());
+			String extractedText = cvProcessingService.extractText(upload, session.getId());
+
+			log.info("CV processed successfully, extracted {} characters", extractedText.length());
+
+			return ResponseEntity.ok(Map.of(
+					"success", true,
+					"text", extractedText,
+					"characterCount", extractedText.length()
+			));
+		} catch (CvParserBusyException e) {
+			return busy(e);
+		} catch (IllegalArgumentException e) {
+			log.warn("CV validation failed: {}", e.getMessage());
+			return ResponseEntity.badRequest().body(Map.of(
+					"success", false,
+					"error", e.getMessage()
+			));
+		} catch (Exception e) {
+			log.error("CV processing failed", e);
+			return ResponseEntity.internalServerError().body(Map.of(
+					"success", false,
+					"error", "Failed to process CV."
+			));
+		}
+	}//extractUpload
+
+
+	@DeleteMapping("/uploads/{uploadId}")
+	public ResponseEntity<Void> abortUpload(@PathVariable String uploadId, HttpServletRequest request) {
+		HttpSession session = request.getSession(false);
+		if (session != null) {
+			cvUploadService.abort(uploadId, session.getId());
+		}
+		return ResponseEntity.noContent().build();
+	}//abortUpload
+
+
+	private Map<String, Object> statusBody(CvUploadService.UploadStatus status) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("success", true);
+		body.put("uploadId", status.uploadId());
+		body.put("offset", status.offset());
+		body.put("size", status.size());
+		body.put("chunkSize", status.chunkSize());
+		body.put("complete", status.isComplete());
+		return body;
+	}//statusBody
+
+
+	private ResponseEntity<Map<String, Object>> uploadNotFound() {
+		return ResponseEntity.status(404).body(Map.of(
+				"success", false,
+				"error", "Upload not found"
+		));
+	}//uploadNotFound
+
+
+	private ResponseEntity<Map<String, Object>> busy(CvParserBusyException e) {
+		return ResponseEntity.status(503)
+				.header("Retry-After", "5")
+				.body(Map.of(
+						"success", false,
+						"error", e.getMessage()
+				));
+	}//busy
+
 }//CvController
@@ -2,9 +2,10 @@ package net.k2ai.interviewSimulator.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.k2ai.interviewSimulator.exception.RateLimitException;
+import net.k2ai.interviewSimulator.service.CvHandleStore;
 import net.k2ai.interviewSimulator.service.GeminiIntegrationService;
 import net.k2ai.interviewSimulator.service.InputSanitizerService;
+import net.k2ai.interviewSimulator.service.InterviewAdmissionService;
 import net.k2ai.interviewSimulator.service.RateLimitService;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -30,6 +31,8 @@ public class InterviewWebSocketController {
 	private final SimpMessagingTemplate messagingTemplate;
 	private final InputSanitizerService sanitizerService;
 	private final RateLimitService rateLimitService;
+	private final InterviewAdmissionService admissionService;
+	private final CvHandleStore cvHandleStore;
 
 
 	@MessageMapping("/interview/start")
@@ -41,9 +44,7 @@ public class InterviewWebSocketController {
 		// WebSocketHandshakeInterceptor. Without this, an unauthenticated caller
 		// could spam starts and drain the backend Gemini API key.
 		String clientIp = resolveClientIp(headerAccessor);
-		try {
-			rateLimitService.checkRateLimit("ws-start", clientIp, 5, 60_000);
-		} catch (RateLimitException e) {
+		if (!rateLimitService.tryAcquire("ws-start", clientIp, 5, 60_000)) {
 			log.warn("Interview-start rate limit exceeded for IP: {}", clientIp);
 			sendError(sessionIdStr, "Too many interview starts. Please wait a minute and try again.");
 			return;
@@ -63,7 +64,12 @@ public class InterviewWebSocketController {
 		String difficulty = payload.getOrDefault("difficulty", "Standard");
 		String language = payload.getOrDefault("language", "en");
 		String interviewLength = payload.getOrDefault("interviewLength", "Standard");
-		String cvText = sanitizerService.sanitizeCvText(payload.get("cvText"));
+		// Sanitized and condensed at upload; an unknown or expired handle means no CV
+		String cvHandle = payload.get("cvHandle");
+		String cvText = cvHandleStore.resolve(cvHandle);
+		if (cvHandle != null && cvText == null) {
+			log.warn("CV handle not found or expired - starting without CV");
+		}
 		String voiceId = payload.get("voiceId");
 		String interviewerNameEN = sanitizerService.sanitizeName(payload.get("interviewerNameEN"));
 		String interviewerNameBG = sanitizerService.sanitizeName(payload.get("interviewerNameBG"));
@@ -112,17 +118,55 @@ public class InterviewWebSocketController {
 			interviewerNameBG = "Георги";
 		}
 
-		UUID interviewSessionId = geminiIntegrationService.startInterview(
-				sessionIdStr, candidateName, position, difficulty, language, cvText,
+		// Starts immediately when the node has capacity, otherwise waits in the admission queue
+		submitStart(sessionIdStr, clientIp, candidateName, position, difficulty, language, cvText,
 				voiceId, interviewerNameEN, interviewerNameBG, userApiKey, interviewLength, pttMode);
+	}//startInterview
+
+
+	private void submitStart(String sessionIdStr, String clientIp, String candidateName, String position,
+							 String difficulty, String language, String cvText, String voiceId,
+							 String interviewerNameEN, String interviewerNameBG, String userApiKey,
+							 String interviewLength, boolean pttMode) {
+		admissionService.submit(sessionIdStr, clientIp, () -> {
+			UUID interviewSessionId = geminiIntegrationService.startInterview(
+					sessionIdStr, candidateName, position, difficulty, language, cvText,
+					voiceId, interviewerNameEN, interviewerNameBG, userApiKey, interviewLength, pttMode);
 
-		if (interviewSessionId != null) {
-			log.info("Interview started - WebSocket: {}, Interview Session: {}, Language: {}, Voice: {}, CV provided: {}, User API key: {}",
-					sessionIdStr, interviewSessionId, language, voiceId, cvText != null && !cvText.isBlank(), userApiKey != null);
-		} else {
+			if (interviewSessionId != null) {
+				log.info("Interview started - WebSocket: {}, Interview Session: {}, Language: {}, Voice: {}, CV provided: {}, User API key: {}",
+						sessionIdStr, interviewSessionId, language, voiceId, cvText != null && !cvText.isBlank(), userApiKey != null);
+				return true;
+			}
 			log.warn("Interview start failed for WebSocket: {}", sessionIdStr);
+			return false;
+		});
+	}//submitStart
+
+
+	@MessageMapping("/interview/resume")
+	public void resumeInterview(@Payload Map<String, String> payload, SimpMessageHeaderAccessor headerAccessor) {
+		String sessionIdStr = headerAccessor.getSessionId();
+
+		if (geminiIntegrationService.hasActiveSession(sessionIdStr)) {
+			log.warn("Interview already active for WebSocket session: {}", sessionIdStr);
+			sendError(sessionIdStr, "An interview is already in progress on this connection.");
+			return;
 		}
-	}//startInterview
+
+		// The token is an unguessable single-use id issued by the draining node
+		UUID migrationToken;
+		try {
+			migrationToken = UUID.fromString(payload.getOrDefault("token", ""));
+		} catch (IllegalArgumentException e) {
+			log.warn("Validation failed: invalid migration token");
+			sendError(sessionIdStr, "Invalid resume token");
+			return;
+		}
+
+		log.info("Resuming migrated interview for WebSocket session: {}", sessionIdStr);
+		geminiIntegrationService.resumeInterview(sessionIdStr, migrationToken);
+	}//resumeInterview
 
 
 	@MessageMapping("/interview/audio")
@@ -5,7 +5,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.k2ai.interviewSimulator.config.GeminiConfig;
 import net.k2ai.interviewSimulator.dto.InterviewSetupDTO;
+import net.k2ai.interviewSimulator.exception.CvParserBusyException;
+import net.k2ai.interviewSimulator.service.CvCondensationService;
+import net.k2ai.interviewSimulator.service.CvHandleStore;
 import net.k2ai.interviewSimulator.service.CvProcessingService;
+import net.k2ai.interviewSimulator.service.CvUploadService;
 import net.k2ai.interviewSimulator.service.InputSanitizerService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -30,6 +34,9 @@ public class SetupController {
 
 	private final GeminiConfig geminiConfig;
 	private final CvProcessingService cvProcessingService;
+	private final CvCondensationService cvCondensationService;
+	private final CvHandleStore cvHandleStore;
+	private final CvUploadService cvUploadService;
 	private final InputSanitizerService sanitizerService;
 	private final Validator validator;
 
@@ -116,6 +123,7 @@ public class SetupController {
 
 		// Handle CV removal
 		if (Boolean.TRUE.equals(clearCv)) {
+			cvHandleStore.release(form.getCvHandle());
 			form.clearCv();
 			return "redirect:/setup/step2";
 		}
@@ -132,20 +140,39 @@ public class SetupController {
 			@ModelAttribute("setupForm") InterviewSetupDTO form,
 			BindingResult bindingResult,
 			@RequestParam(value = "cvFile", required = false) MultipartFile cvFile,
+			@RequestParam(value = "cvUploadId", required = false) String cvUploadId,
 			@RequestParam(value = "cvUploadOnly", required = false) Boolean cvUploadOnly,
+			HttpSession session,
 			Model model
 	) {
-		// Process CV if uploaded (do this first, before validation)
+		// Process CV if uploaded (do this first, before validation), either in this
+		// request or beforehand in chunks through /api/cv/uploads
 		boolean cvWasUploaded = false;
-		if (cvFile != null && !cvFile.isEmpty()) {
+		boolean hasCvFile = cvFile != null && !cvFile.isEmpty();
+		if (hasCvFile || (cvUploadId != null && !cvUploadId.isBlank())) {
 			try {
-				String extractedText = cvProcessingService.extractText(cvFile);
-				// Sanitize extracted CV text
+				String fileName;
+				String extractedText;
+				if (hasCvFile) {
+					fileName = cvFile.getOriginalFilename();
+					extractedText = cvProcessingService.extractText(cvFile, session.getId());
+				} else {
+					CvUploadService.CompletedUpload upload = cvUploadService.complete(cvUploadId, session.getId());
+					fileName = upload.fileName();
+					extractedText = cvProcessingService.extractText(upload, session.getId());
+				}
+				// Sanitize extracted CV text, then condense it once to what the interviewer needs
 				String sanitizedCvText = sanitizerService.sanitizeCvText(extractedText);
-				form.setCvText(sanitizedCvText);
-				form.setCvFileName(cvFile.getOriginalFilename());
-				log.info("CV processed: {} ({} chars)", cvFile.getOriginalFilename(), sanitizedCvText.length());
+				String condensedCvText = cvCondensationService.condense(sanitizedCvText);
+				// Only the handle goes into the session and the interview page
+				cvHandleStore.release(form.getCvHandle());
+				form.setCvHandle(cvHandleStore.store(condensedCvText, session.getId()));
+				form.setCvFileName(fileName);
+				log.info("CV processed: {} ({} chars, {} after condensing)", fileName,
+						sanitizedCvText.length(), condensedCvText.length());
 				cvWasUploaded = true;
+			} catch (CvParserBusyException e) {
+				bindingResult.rejectValue("cvFile", "validation.cv.busy");
 			} catch (IllegalArgumentException e) {
 				bindingResult.rejectValue("cvFile", "validation.cv.invalid");
 			} catch (Exception e) {
@@ -189,7 +216,7 @@ public class SetupController {
 		}
 
 		log.debug("Step 2 completed (difficulty: {}, hasCV: {})",
-				form.getDifficulty(), form.getCvText() != null);
+				form.getDifficulty(), form.getCvHandle() != null);
 		return "redirect:/setup/step3";
 	}// processStep2
 
@@ -36,9 +36,9 @@ public class InterviewSetupDTO implements Serializable {
 	@ValidInterviewLength
 	private String interviewLength = "Standard";
 
-	// CV - transient (not serializable), extracted text stored instead
+	// CV - transient (not serializable); the extracted text stays in CvHandleStore
 	private transient MultipartFile cvFile;
-	private String cvText;
+	private String cvHandle;
 	private String cvFileName;
 
 	// Step 3: Voice & Language
@@ -68,7 +68,7 @@ public class InterviewSetupDTO implements Serializable {
 	 */
 	public void clearCv() {
 		this.cvFile = null;
-		this.cvText = null;
+		this.cvHandle = null;
 		this.cvFileName = null;
 	}// clearCv
 
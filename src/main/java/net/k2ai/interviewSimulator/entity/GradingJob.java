@@ -0,0 +1,71 @@
+package net.k2ai.interviewSimulator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pending grading work for a finished interview. The transcript (and the API key
+ * needed to grade it) is stored encrypted in {@code payload} and the row is
+ * deleted as soon as grading completes.
+ */
+@Entity
+@Table(name = "grading_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingJob {
+
+	public static final String STATUS_PENDING = "PENDING";
+
+	public static final String STATUS_RUNNING = "RUNNING";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.UUID)
+	private UUID id;
+
+	@Column(nullable = false)
+	private UUID sessionId;
+
+	@Column(length = 100)
+	private String wsSessionId;
+
+	@Column(length = 10)
+	private String language;
+
+	@Column(nullable = false)
+	private byte[] payload;
+
+	@Column(nullable = false, length = 20)
+	private String status;
+
+	@Column(nullable = false)
+	private Integer attempts;
+
+	@Column(nullable = false)
+	private LocalDateTime nextAttemptAt;
+
+	@Column(length = 100)
+	private String lockedBy;
+
+	private LocalDateTime lockedAt;
+
+	@Column(length = 500)
+	private String lastError;
+
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+
+
+	@PrePersist
+	protected void onCreate() {
+		createdAt = LocalDateTime.now();
+	}//onCreate
+
+}//GradingJob
@@ -0,0 +1,29 @@
+package net.k2ai.interviewSimulator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A (key, model) combo the grading rotation skips until {@code expiresAt}. The
+ * combo key holds a SHA-256 fingerprint of the API key, never the key itself.
+ */
+@Entity
+@Table(name = "model_cooldowns")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModelCooldown {
+
+	@Id
+	private String comboKey;
+
+	@Column(nullable = false)
+	private LocalDateTime expiresAt;
+
+}//ModelCooldown
@@ -0,0 +1,47 @@
+package net.k2ai.interviewSimulator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A live interview handed off by a draining node. The row id doubles as the
+ * single-use token the browser presents to a peer node; everything needed to
+ * resume the Gemini session is stored encrypted in {@code payload}.
+ */
+@Entity
+@Table(name = "session_migrations")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionMigration {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.UUID)
+	private UUID id;
+
+	@Column(nullable = false)
+	private UUID sessionId;
+
+	@Column(nullable = false)
+	private byte[] payload;
+
+	@Column(nullable = false)
+	private LocalDateTime expiresAt;
+
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+
+
+	@PrePersist
+	protected void onCreate() {
+		createdAt = LocalDateTime.now();
+	}//onCreate
+
+}//SessionMigration
@@ -0,0 +1,12 @@
+package net.k2ai.interviewSimulator.exception;
+
+/**
+ * Exception thrown when every CV parser thread is busy and the wait queue is full
+ */
+public class CvParserBusyException extends RuntimeException {
+
+	public CvParserBusyException(String message) {
+		super(message);
+	}//CvParserBusyException
+
+}//CvParserBusyException
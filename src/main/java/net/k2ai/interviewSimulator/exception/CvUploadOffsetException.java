@@ -0,0 +1,21 @@
+package net.k2ai.interviewSimulator.exception;
+
+/**
+ * Exception thrown when a CV upload chunk does not start where the bytes received so far end
+ */
+public class CvUploadOffsetException extends RuntimeException {
+
+	private final long expectedOffset;
+
+
+	public CvUploadOffsetException(long expectedOffset) {
+		super("Upload offset mismatch - expected " + expectedOffset);
+		this.expectedOffset = expectedOffset;
+	}//CvUploadOffsetException
+
+
+	public long getExpectedOffset() {
+		return expectedOffset;
+	}//getExpectedOffset
+
+}//CvUploadOffsetException
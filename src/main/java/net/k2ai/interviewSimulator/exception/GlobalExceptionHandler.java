@@ -136,6 +136,20 @@ public class GlobalExceptionHandler {
 	}// handleRateLimitException
 
 
+	/**
+	 * Handles CV uploads turned away because the parser pool is saturated.
+	 */
+	@ExceptionHandler(CvParserBusyException.class)
+	public ResponseEntity<Map<String, Object>> handleCvParserBusy(CvParserBusyException ex) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header("Retry-After", "5")
+				.body(Map.of(
+						"success", false,
+						"error", ex.getMessage()
+				));
+	}// handleCvParserBusy
+
+
 	/**
 	 * Handles missing static resources (favicon.ico, .well-known, etc).
 	 * Silently returns 404 without logging errors for common browser requests.
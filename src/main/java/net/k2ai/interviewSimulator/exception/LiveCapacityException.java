@@ -0,0 +1,16 @@
+package net.k2ai.interviewSimulator.exception;
+
+/**
+ * Exception thrown when no Gemini key/model can take another Live session
+ * right now - every placement is cooling down, at its session limit or out of
+ * tokens for the current minute. The start should wait for capacity instead of
+ * being refused.
+ */
+public class LiveCapacityException extends RuntimeException {
+
+	public LiveCapacityException() {
+		// Expected under load - no stack trace needed
+		super("No live key/model placement has capacity", null, false, false);
+	}//LiveCapacityException
+
+}//LiveCapacityException
@@ -0,0 +1,24 @@
+package net.k2ai.interviewSimulator.exception;
+
+/**
+ * Exception thrown when every healthy Gemini key/model is only at its
+ * per-minute quota. The call should be retried after {@link #getRetryAfterMillis()}
+ * instead of blocking a thread until then.
+ */
+public class QuotaWaitException extends RuntimeException {
+
+	private final long retryAfterMillis;
+
+
+	public QuotaWaitException(long retryAfterMillis) {
+		// Expected under load - no stack trace needed
+		super("Gemini quota available again in " + retryAfterMillis + " ms", null, false, false);
+		this.retryAfterMillis = retryAfterMillis;
+	}//QuotaWaitException
+
+
+	public long getRetryAfterMillis() {
+		return retryAfterMillis;
+	}//getRetryAfterMillis
+
+}//QuotaWaitException
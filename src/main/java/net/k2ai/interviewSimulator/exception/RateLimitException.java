@@ -14,4 +14,13 @@ public class RateLimitException extends RuntimeException {
 		super(message, cause);
 	}//RateLimitException
 
+
+	/**
+	 * For rejections that are expected traffic rather than errors, where
+	 * filling in a stack trace would only cost time.
+	 */
+	public RateLimitException(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}//RateLimitException
+
 }//RateLimitException
@@ -0,0 +1,56 @@
+package net.k2ai.interviewSimulator.repository;
+
+import net.k2ai.interviewSimulator.entity.GradingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GradingJobRepository extends JpaRepository<GradingJob, UUID> {
+
+	/**
+	 * Locks up to {@code limit} due jobs for the calling transaction. Rows already
+	 * locked by another worker are skipped rather than waited on, so any number of
+	 * nodes can poll concurrently. RUNNING rows whose lock is older than
+	 * {@code staleBefore} belong to a worker that died and are reclaimed.
+	 */
+	@Query(value = """
+			SELECT * FROM grading_jobs
+			WHERE (status = 'PENDING' AND next_attempt_at <= :now)
+			   OR (status = 'RUNNING' AND locked_at < :staleBefore)
+			ORDER BY next_attempt_at
+			LIMIT :limit
+			FOR UPDATE SKIP LOCKED
+			""", nativeQuery = true)
+	List<GradingJob> lockClaimable(@Param("now") LocalDateTime now,
+								   @Param("staleBefore") LocalDateTime staleBefore,
+								   @Param("limit") int limit);
+
+
+	/**
+	 * Claims one specific job if it is still PENDING. Returns 0 when a worker
+	 * already took it, so a job is never graded by two parties.
+	 */
+	@Modifying
+	@Query("""
+			UPDATE GradingJob j
+			SET j.status = 'RUNNING', j.lockedBy = :lockedBy, j.lockedAt = :now, j.attempts = j.attempts + 1
+			WHERE j.id = :id AND j.status = 'PENDING'
+			""")
+	int claimIfPending(@Param("id") UUID id, @Param("lockedBy") String lockedBy, @Param("now") LocalDateTime now);
+
+
+	@Modifying
+	@Query("UPDATE GradingJob j SET j.nextAttemptAt = :now WHERE j.id = :id AND j.status = 'PENDING'")
+	int makeDue(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+
+	boolean existsBySessionId(UUID sessionId);
+
+}//GradingJobRepository
@@ -0,0 +1,38 @@
+package net.k2ai.interviewSimulator.repository;
+
+import net.k2ai.interviewSimulator.entity.ModelCooldown;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ModelCooldownRepository extends JpaRepository<ModelCooldown, String> {
+
+	/**
+	 * Inserts the cooldown or extends the stored one; a shorter cooldown never
+	 * replaces a longer one (e.g. a per-minute 429 after the daily limit).
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = """
+			INSERT INTO model_cooldowns (combo_key, expires_at) VALUES (:comboKey, :expiresAt)
+			ON CONFLICT (combo_key) DO UPDATE SET expires_at = GREATEST(model_cooldowns.expires_at, EXCLUDED.expires_at)
+			""", nativeQuery = true)
+	int upsert(@Param("comboKey") String comboKey, @Param("expiresAt") LocalDateTime expiresAt);
+
+
+	List<ModelCooldown> findByExpiresAtAfter(LocalDateTime now);
+
+
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM ModelCooldown c WHERE c.expiresAt <= :now")
+	int deleteExpired(@Param("now") LocalDateTime now);
+
+}//ModelCooldownRepository
@@ -0,0 +1,29 @@
+package net.k2ai.interviewSimulator.repository;
+
+import net.k2ai.interviewSimulator.entity.SessionMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface SessionMigrationRepository extends JpaRepository<SessionMigration, UUID> {
+
+	/**
+	 * Deletes the row and reports whether this caller was the one that removed
+	 * it, so two nodes presented the same token can't both resume the session.
+	 */
+	@Modifying
+	@Query("DELETE FROM SessionMigration m WHERE m.id = :id")
+	int deleteAndCount(@Param("id") UUID id);
+
+
+	@Modifying
+	@Query("DELETE FROM SessionMigration m WHERE m.expiresAt < :now")
+	int deleteExpired(@Param("now") LocalDateTime now);
+
+}//SessionMigrationRepository
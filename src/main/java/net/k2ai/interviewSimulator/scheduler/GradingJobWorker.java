@@ -0,0 +1,225 @@
+package net.k2ai.interviewSimulator.scheduler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.entity.InterviewFeedback;
+import net.k2ai.interviewSimulator.exception.QuotaWaitException;
+import net.k2ai.interviewSimulator.exception.RateLimitException;
+import net.k2ai.interviewSimulator.repository.InterviewFeedbackRepository;
+import net.k2ai.interviewSimulator.service.ClientMessagingService;
+import net.k2ai.interviewSimulator.service.GradingJobService;
+import net.k2ai.interviewSimulator.service.GradingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the durable grading queue. Each node claims at most as many jobs as it
+ * has free grading threads, so the pool never queues work that another node
+ * could be running instead.
+ */
+@Slf4j
+@Component
+public class GradingJobWorker {
+
+	private final GradingJobService jobService;
+
+	private final GradingService gradingService;
+
+	private final InterviewFeedbackRepository feedbackRepository;
+
+	private final ClientMessagingService clientMessagingService;
+
+	private final int maxConcurrent;
+
+	private final ExecutorService gradingExecutor;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+
+	public GradingJobWorker(GradingJobService jobService,
+							GradingService gradingService,
+							InterviewFeedbackRepository feedbackRepository,
+							ClientMessagingService clientMessagingService,
+							@Value("${app.grading.max-concurrent:4}") int maxConcurrent) {
+		this.jobService = jobService;
+		this.gradingService = gradingService;
+		this.feedbackRepository = feedbackRepository;
+		this.clientMessagingService = clientMessagingService;
+		this.maxConcurrent = maxConcurrent;
+		this.gradingExecutor = Executors.newFixedThreadPool(maxConcurrent, r -> {
+			Thread t = new Thread(r, "grading-worker");
+			t.setDaemon(true);
+			return t;
+		});
+	}//GradingJobWorker
+
+
+	@PreDestroy
+	public void shutdown() {
+		// Jobs still running here stay RUNNING in the DB and are reclaimed by any
+		// node once their lock goes stale, so there's nothing to hand off.
+		gradingExecutor.shutdown();
+		try {
+			if (!gradingExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+				gradingExecutor.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}//shutdown
+
+
+	@Scheduled(fixedDelayString = "${app.grading.poll-interval-ms:2000}")
+	public void poll() {
+		dispatchAvailable();
+	}//poll
+
+
+	/**
+	 * Claims and starts as many due jobs as there are idle grading threads.
+	 * Also called right after a job is queued so a fresh interview doesn't wait
+	 * for the next poll.
+	 */
+	public synchronized void dispatchAvailable() {
+		if (gradingExecutor.isShutdown()) {
+			return;
+		}
+
+		int free = maxConcurrent - inFlight.get();
+		if (free <= 0) {
+			return;
+		}
+
+		List<GradingJobService.ClaimedJob> jobs;
+		try {
+			jobs = jobService.claim(free);
+		} catch (Exception e) {
+			log.error("Failed to claim grading jobs", e);
+			return;
+		}
+
+		for (GradingJobService.ClaimedJob job : jobs) {
+			inFlight.incrementAndGet();
+			gradingExecutor.submit(() -> {
+				try {
+					runJob(job);
+				} finally {
+					inFlight.decrementAndGet();
+				}
+			});
+		}
+	}//dispatchAvailable
+
+
+	/**
+	 * Finishes a held job with the result of a speculative grading instead of
+	 * grading it again. If the speculation fails, the job is made due and graded
+	 * normally; if a worker claimed the job first, the speculative result is
+	 * discarded.
+	 */
+	public void adoptSpeculative(UUID jobId, UUID sessionId, String wsSessionId,
+								 CompletableFuture<InterviewFeedback> result) {
+		result.whenComplete((feedback, error) -> {
+			if (error != null || feedback == null) {
+				log.warn("Speculative grading failed for session {} - grading normally", sessionId);
+				jobService.releaseHeld(jobId);
+				dispatchAvailable();
+				return;
+			}
+
+			try {
+				if (!jobService.claimHeld(jobId)) {
+					log.info("Grading job {} already claimed - discarding speculative result", jobId);
+					return;
+				}
+				InterviewFeedback saved = gradingService.saveEvaluatedFeedback(sessionId, feedback);
+				jobService.complete(jobId);
+				log.info("Grading complete for session: {} (speculative). Score: {}", sessionId, saved.getOverallScore());
+				sendReport(wsSessionId, sessionId, saved);
+			} catch (Exception e) {
+				log.error("Failed to commit speculative grading for session: {}", sessionId, e);
+				jobService.fail(jobId, e.getMessage());
+			}
+		});
+	}//adoptSpeculative
+
+
+	private void runJob(GradingJobService.ClaimedJob job) {
+		try {
+			// A previous attempt may have saved feedback but died before deleting
+			// the job - don't grade (and bill) the same interview twice.
+			InterviewFeedback existing = feedbackRepository.findBySessionId(job.sessionId()).orElse(null);
+			if (existing == null && job.payloadLost()) {
+				// Grading without the transcript would only produce a made-up report
+				if (jobService.failUndecryptable(job.jobId())) {
+					return;
+				}
+				sendToClient(job.wsSessionId(), "/queue/error", Map.of(
+						"message", "Your interview could not be graded because its transcript was lost. Please try again.",
+						"gradingLost", true
+				));
+				return;
+			}
+			InterviewFeedback feedback = existing != null ? existing : gradingService.gradeInterview(
+					job.sessionId(), job.transcript(), job.apiKey(), job.language());
+
+			jobService.complete(job.jobId());
+			sendReport(job.wsSessionId(), job.sessionId(), feedback);
+		} catch (QuotaWaitException e) {
+			// Frees this thread; the job is claimed again once the quota has room
+			jobService.defer(job.jobId(), e.getRetryAfterMillis());
+		} catch (Exception e) {
+			boolean retrying = jobService.fail(job.jobId(), e.getMessage());
+			if (retrying) {
+				return;
+			}
+
+			if (e instanceof RateLimitException) {
+				log.error("Rate limit exceeded during grading for session: {}", job.sessionId());
+				sendToClient(job.wsSessionId(), "/queue/error", Map.of(
+						"message", "API rate limit exceeded. Please use a new API key.",
+						"rateLimited", true
+				));
+			} else {
+				log.error("Grading failed for session: {}", job.sessionId(), e);
+				sendToClient(job.wsSessionId(), "/queue/error", Map.of(
+						"message", "Failed to generate report. Please try again."
+				));
+			}
+		}
+	}//runJob
+
+
+	private void sendReport(String wsSessionId, UUID sessionId, InterviewFeedback feedback) {
+		Map<String, Object> reportData = new HashMap<>();
+		reportData.put("sessionId", sessionId.toString());
+		reportData.put("overallScore", feedback.getOverallScore());
+		reportData.put("communicationScore", feedback.getCommunicationScore());
+		reportData.put("technicalScore", feedback.getTechnicalScore());
+		reportData.put("confidenceScore", feedback.getConfidenceScore());
+		reportData.put("strengths", feedback.getStrengths());
+		reportData.put("improvements", feedback.getImprovements());
+		reportData.put("detailedAnalysis", feedback.getDetailedAnalysis());
+		reportData.put("verdict", feedback.getVerdict());
+
+		sendToClient(wsSessionId, "/queue/report", reportData);
+	}//sendReport
+
+
+	private void sendToClient(String wsSessionId, String destination, Map<String, Object> payload) {
+		// Routed cluster-wide: the browser socket may live on another node
+		clientMessagingService.send(wsSessionId, destination, payload);
+	}//sendToClient
+
+}//GradingJobWorker
@@ -0,0 +1,69 @@
+package net.k2ai.interviewSimulator.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Collects text up to a character limit, then aborts the producer by throwing
+ * {@link LimitReachedException} - used to stop document extraction early
+ * instead of extracting everything and truncating afterwards.
+ */
+final class BoundedWriter extends Writer {
+
+	private final StringBuilder buffer = new StringBuilder();
+
+	private final int limit;
+
+
+	static final class LimitReachedException extends IOException {
+
+		LimitReachedException(int limit) {
+			super("Text limit of " + limit + " characters reached");
+		}//LimitReachedException
+
+	}//LimitReachedException
+
+
+	BoundedWriter(int limit) {
+		this.limit = limit;
+	}//BoundedWriter
+
+
+	@Override
+	public void write(char[] chars, int offset, int length) throws IOException {
+		int remaining = limit - buffer.length();
+		if (length > remaining) {
+			buffer.append(chars, offset, remaining);
+			throw new LimitReachedException(limit);
+		}
+		buffer.append(chars, offset, length);
+	}//write
+
+
+	@Override
+	public void write(String text, int offset, int length) throws IOException {
+		int remaining = limit - buffer.length();
+		if (length > remaining) {
+			buffer.append(text, offset, offset + remaining);
+			throw new LimitReachedException(limit);
+		}
+		buffer.append(text, offset, offset + length);
+	}//write
+
+
+	@Override
+	public void flush() {
+	}//flush
+
+
+	@Override
+	public void close() {
+	}//close
+
+
+	@Override
+	public String toString() {
+		return buffer.toString();
+	}//toString
+
+}//BoundedWriter
@@ -0,0 +1,63 @@
+package net.k2ai.interviewSimulator.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Sends server→browser messages to a specific WebSocket session, wherever in the
+ * cluster that socket is connected. Local sockets are written directly; others
+ * are routed through {@link ClusterSessionDirectory}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ClientMessagingService {
+
+	private final SimpMessagingTemplate messagingTemplate;
+
+	private final ClusterSessionDirectory clusterDirectory;
+
+
+	public void send(String wsSessionId, String destination, Map<String, Object> payload) {
+		if (wsSessionId == null) {
+			return;
+		}
+
+		if (!clusterDirectory.isEnabled() || clusterDirectory.isLocal(wsSessionId)) {
+			sendLocal(wsSessionId, destination, payload);
+			return;
+		}
+
+		clusterDirectory.route(wsSessionId, destination, payload);
+	}//send
+
+
+	@EventListener
+	public void onRoutedMessage(ClusterSessionDirectory.RoutedMessage message) {
+		sendLocal(message.wsSessionId(), message.destination(), message.payload());
+	}//onRoutedMessage
+
+
+	private void sendLocal(String wsSessionId, String destination, Map<String, Object> payload) {
+		// Create headers targeting the specific WebSocket session
+		SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		headerAccessor.setSessionId(wsSessionId);
+		headerAccessor.setLeaveMutable(true);
+
+		// Send to the user destination with proper session targeting
+		messagingTemplate.convertAndSendToUser(
+				wsSessionId,
+				destination,
+				payload,
+				headerAccessor.getMessageHeaders()
+		);
+	}//sendLocal
+
+}//ClientMessagingService
@@ -0,0 +1,345 @@
+package net.k2ai.interviewSimulator.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes the node-local limits hold cluster-wide, through the same Postgres the
+ * {@link ClusterSessionDirectory} uses.
+ *
+ * <p>Rate limits: every node keeps checking its own in-memory buckets. Once per
+ * flush interval it adds the tokens it granted to its row per bucket and key in
+ * {@code rate_limit_hits} in one batch, reads back the rows peers changed
+ * recently and takes their increase off its own buckets with
+ * {@link RateLimitService#charge}. The last count seen per peer row is the near
+ * cache, so a row read twice is only charged once. A client spreading requests
+ * over N nodes gets the configured allowance plus at most a flush interval's
+ * worth per node, instead of N times the allowance.
+ *
+ * <p>Model cooldowns: a (key, model) combo flagged as exhausted, which
+ * {@link GeminiModelRotationService} has written to {@code model_cooldowns}, is
+ * announced with {@code NOTIFY cluster_cooldowns};
+ * the other nodes publish a {@link CooldownFlagged} event that
+ * {@link GeminiModelRotationService} adds to its own map, so a 429 is only
+ * discovered once. Unexpired cooldowns are loaded whenever the listener
+ * (re)connects.
+ *
+ * <p>Only active in cluster mode, unless {@code app.cluster.shared-limits=false}.
+ */
+@Slf4j
+@Service
+public class ClusterLimitSync {
+
+	static final String CHANNEL = "cluster_cooldowns";
+
+	private static final long LISTEN_TIMEOUT_MS = 5_000;
+
+	private static final long RECONNECT_DELAY_MS = 2_000;
+
+	// Longer than any rate limit window, so a reaped row carries nothing a peer still needs
+	private static final Duration HITS_RETENTION = Duration.ofMinutes(15);
+
+	private static final int MAX_KEY_LENGTH = 100;
+
+	private final DataSource dataSource;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final RateLimitService rateLimitService;
+
+	private final boolean enabled;
+
+	private final String nodeId;
+
+	private final long flushMillis;
+
+	private final Clock clock;
+
+	// Near cache: last hit count seen per peer row; only touched by flush
+	private final Map<PeerRow, SeenHits> seenHits = new HashMap<>();
+
+	private long lastPollMillis;
+
+	private boolean primed;
+
+	private volatile boolean running = false;
+
+	private Thread listenerThread;
+
+
+	/**
+	 * Published when another node flags a (key, model) combo as exhausted.
+	 */
+	public record CooldownFlagged(String comboKey, Instant expiresAt) {
+	}
+
+
+	private record PeerRow(String nodeId, String bucket, String key) {
+	}
+
+
+	private record SeenHits(long hits, long seenAtMillis) {
+	}
+
+
+	public ClusterLimitSync(DataSource dataSource,
+							JdbcTemplate jdbcTemplate,
+							ApplicationEventPublisher eventPublisher,
+							RateLimitService rateLimitService,
+							ClusterSessionDirectory clusterDirectory,
+							@Value("${app.cluster.shared-limits:true}") boolean sharedLimits,
+							@Value("${app.cluster.limits.flush-ms:1000}") long flushMillis) {
+		this(dataSource, jdbcTemplate, eventPublisher, rateLimitService,
+				clusterDirectory.isEnabled() && sharedLimits, clusterDirectory.getNodeId(), flushMillis,
+				Clock.systemUTC());
+	}//ClusterLimitSync
+
+
+	ClusterLimitSync(DataSource dataSource, JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+					 RateLimitService rateLimitService, boolean enabled, String nodeId, long flushMillis, Clock clock) {
+		this.dataSource = dataSource;
+		this.jdbcTemplate = jdbcTemplate;
+		this.eventPublisher = eventPublisher;
+		this.rateLimitService = rateLimitService;
+		this.enabled = enabled;
+		this.nodeId = nodeId;
+		this.flushMillis = flushMillis;
+		this.clock = clock;
+	}//ClusterLimitSync
+
+
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+
+		running = true;
+		rateLimitService.enableGrantTracking();
+
+		listenerThread = new Thread(this::listenLoop, "cluster-limits-listener");
+		listenerThread.setDaemon(true);
+		listenerThread.start();
+		log.info("Sharing rate limits and model cooldowns across the cluster (flush every {} ms)", flushMillis);
+	}//start
+
+
+	@PreDestroy
+	public void stop() {
+		if (!enabled || !running) {
+			return;
+		}
+
+		// Hand the last grants over before leaving
+		flush();
+		running = false;
+		if (listenerThread != null) {
+			listenerThread.interrupt();
+		}
+	}//stop
+
+
+	public boolean isEnabled() {
+		return enabled;
+	}//isEnabled
+
+
+	/**
+	 * Adds the tokens granted here since the last flush to this node's rows and
+	 * charges the local buckets with what peers granted meanwhile.
+	 */
+	@Scheduled(fixedDelayString = "${app.cluster.limits.flush-ms:1000}")
+	public synchronized void flush() {
+		if (!running) {
+			return;
+		}
+
+		try {
+			List<Object[]> batch = rateLimitService.drainGrants().stream()
+					.filter(grant -> grant.key().length() <= MAX_KEY_LENGTH)
+					.map(grant -> new Object[]{grant.bucket(), grant.key(), nodeId, grant.count(),
+							grant.maxAttempts(), grant.windowMillis()})
+					.toList();
+			if (!batch.isEmpty()) {
+				jdbcTemplate.batchUpdate("""
+						INSERT INTO rate_limit_hits (bucket, limit_key, node_id, hits, max_attempts, window_ms, updated_at)
+						VALUES (?, ?, ?, ?, ?, ?, NOW())
+						ON CONFLICT (bucket, limit_key, node_id) DO UPDATE SET
+						    hits = rate_limit_hits.hits + EXCLUDED.hits,
+						    max_attempts = EXCLUDED.max_attempts,
+						    window_ms = EXCLUDED.window_ms,
+						    updated_at = NOW()
+						""", batch);
+			}
+
+			chargePeerHits();
+		} catch (Exception e) {
+			// Grants drained before a failure stay local; limits are node-local until the database is back
+			log.warn("Rate limit flush failed for node {}: {}", nodeId, e.getMessage());
+		}
+	}//flush
+
+
+	/**
+	 * Tells the other nodes about a cooldown already stored in {@code model_cooldowns}.
+	 */
+	public void publishCooldown(String comboKey, Instant expiresAt) {
+		if (!running) {
+			return;
+		}
+
+		try {
+			jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL,
+					nodeId + "|" + expiresAt.toEpochMilli() + "|" + comboKey);
+		} catch (Exception e) {
+			log.warn("Could not share cooldown with the cluster: {}", e.getMessage());
+		}
+	}//publishCooldown
+
+
+	/**
+	 * Deletes hit rows idle for longer than any window.
+	 */
+	@Scheduled(fixedRateString = "${app.cluster.heartbeat-ms:10000}")
+	public void reap() {
+		if (!running) {
+			return;
+		}
+
+		try {
+			jdbcTemplate.update("DELETE FROM rate_limit_hits WHERE updated_at < NOW() - (? * INTERVAL '1 millisecond')",
+					HITS_RETENTION.toMillis());
+		} catch (Exception e) {
+			log.warn("Could not reap shared limit state: {}", e.getMessage());
+		}
+	}//reap
+
+
+	private void chargePeerHits() {
+		long now = clock.millis();
+		// Covers everything since the last successful poll, with slack for
+		// batches whose transaction committed after a later one
+		long lookbackMillis = primed ? now - lastPollMillis + 2 * flushMillis : HITS_RETENTION.toMillis();
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+				SELECT bucket, limit_key, node_id, hits, max_attempts, window_ms FROM rate_limit_hits
+				WHERE node_id <> ? AND updated_at > NOW() - (? * INTERVAL '1 millisecond')
+				""", nodeId, lookbackMillis);
+
+		for (Map<String, Object> row : rows) {
+			PeerRow peerRow = new PeerRow((String) row.get("node_id"), (String) row.get("bucket"),
+					(String) row.get("limit_key"));
+			long hits = ((Number) row.get("hits")).longValue();
+			SeenHits seen = seenHits.put(peerRow, new SeenHits(hits, now));
+			if (!primed) {
+				// Hits from before this node started are already spent
+				continue;
+			}
+
+			long delta;
+			if (seen == null) {
+				delta = hits;
+			} else if (hits < seen.hits()) {
+				// The row was reaped and started over
+				delta = hits;
+			} else {
+				delta = hits - seen.hits();
+			}
+			if (delta > 0) {
+				rateLimitService.charge(peerRow.bucket(), peerRow.key(), delta,
+						((Number) row.get("max_attempts")).intValue(), ((Number) row.get("window_ms")).longValue());
+			}
+		}
+
+		// Kept past the rows' own retention, so a row is never mistaken for a new one before it is reaped
+		Iterator<SeenHits> it = seenHits.values().iterator();
+		while (it.hasNext()) {
+			if (now - it.next().seenAtMillis() > 2 * HITS_RETENTION.toMillis()) {
+				it.remove();
+			}
+		}
+		lastPollMillis = now;
+		primed = true;
+	}//chargePeerHits
+
+
+	private void listenLoop() {
+		while (running) {
+			try (Connection connection = dataSource.getConnection()) {
+				PGConnection pgConnection = connection.unwrap(PGConnection.class);
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("LISTEN " + CHANNEL);
+				}
+				// Catch up on cooldowns flagged while we weren't listening
+				loadCooldowns();
+
+				while (running) {
+					PGNotification[] notifications = pgConnection.getNotifications((int) LISTEN_TIMEOUT_MS);
+					if (notifications == null) {
+						continue;
+					}
+					for (PGNotification notification : notifications) {
+						onNotification(notification.getParameter());
+					}
+				}
+			} catch (SQLException e) {
+				if (!running) {
+					return;
+				}
+				log.warn("Cluster limits listener connection lost, reconnecting: {}", e.getMessage());
+				try {
+					Thread.sleep(RECONNECT_DELAY_MS);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}//listenLoop
+
+
+	private void loadCooldowns() {
+		List<CooldownFlagged> cooldowns = jdbcTemplate.query(
+				"SELECT combo_key, expires_at FROM model_cooldowns WHERE expires_at > ?",
+				(rs, rowNum) -> new CooldownFlagged(rs.getString("combo_key"), rs.getTimestamp("expires_at").toInstant()),
+				Timestamp.from(clock.instant()));
+		cooldowns.forEach(eventPublisher::publishEvent);
+	}//loadCooldowns
+
+
+	// Payload: "<node id>|<expiry epoch millis>|<combo key>"
+	private void onNotification(String payload) {
+		String[] parts = payload.split("\\|", 3);
+		if (parts.length != 3 || nodeId.equals(parts[0])) {
+			return;
+		}
+		try {
+			eventPublisher.publishEvent(new CooldownFlagged(parts[2], Instant.ofEpochMilli(Long.parseLong(parts[1]))));
+		} catch (NumberFormatException e) {
+			log.warn("Ignoring malformed cooldown notification");
+		}
+	}//onNotification
+
+}//ClusterLimitSync
@@ -0,0 +1,321 @@
+package net.k2ai.interviewSimulator.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which node holds each browser STOMP socket and routes server→browser
+ * messages between nodes through Postgres (outbox table + {@code LISTEN/NOTIFY}),
+ * so a multi-node deployment needs nothing beyond the existing database.
+ *
+ * <p>Disabled by default ({@code app.cluster.enabled=false}): sockets are then
+ * only tracked in memory and every message is delivered locally, exactly as on
+ * a single node.
+ */
+@Slf4j
+@Service
+public class ClusterSessionDirectory {
+
+	static final String CHANNEL = "cluster_messages";
+
+	private static final long LISTEN_TIMEOUT_MS = 5_000;
+
+	private static final long RECONNECT_DELAY_MS = 2_000;
+
+	// A node that missed this many seconds of heartbeats is considered dead
+	private static final long NODE_EXPIRY_SECONDS = 60;
+
+	private final DataSource dataSource;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final boolean enabled;
+
+	private final String nodeId;
+
+	// Sockets connected to this node
+	private final Set<String> localSessions = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean running = false;
+
+	private Thread listenerThread;
+
+
+	/**
+	 * Published on the node that holds the socket when a message routed from
+	 * another node arrives.
+	 */
+	public record RoutedMessage(String wsSessionId, String destination, Map<String, Object> payload) {
+	}
+
+
+	public ClusterSessionDirectory(DataSource dataSource,
+								   JdbcTemplate jdbcTemplate,
+								   ApplicationEventPublisher eventPublisher,
+								   @Value("${app.cluster.enabled:false}") boolean enabled,
+								   @Value("${app.cluster.node-id:}") String nodeId) {
+		this.dataSource = dataSource;
+		this.jdbcTemplate = jdbcTemplate;
+		this.eventPublisher = eventPublisher;
+		this.enabled = enabled;
+		this.nodeId = nodeId == null || nodeId.isBlank()
+				? "node-" + UUID.randomUUID().toString().substring(0, 8)
+				: nodeId;
+	}//ClusterSessionDirectory
+
+
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+
+		running = true;
+		heartbeat();
+		// A restarted node with a fixed node-id must not keep routes to sockets it lost
+		jdbcTemplate.update("DELETE FROM live_sessions WHERE node_id = ?", nodeId);
+
+		listenerThread = new Thread(this::listenLoop, "cluster-listener");
+		listenerThread.setDaemon(true);
+		listenerThread.start();
+		log.info("Cluster mode enabled - node id: {}", nodeId);
+	}//start
+
+
+	@PreDestroy
+	public void stop() {
+		if (!enabled || !running) {
+			return;
+		}
+
+		running = false;
+		if (listenerThread != null) {
+			listenerThread.interrupt();
+		}
+		try {
+			jdbcTemplate.update("DELETE FROM live_sessions WHERE node_id = ?", nodeId);
+			jdbcTemplate.update("DELETE FROM cluster_nodes WHERE node_id = ?", nodeId);
+		} catch (Exception e) {
+			log.warn("Could not deregister node {} on shutdown: {}", nodeId, e.getMessage());
+		}
+	}//stop
+
+
+	public boolean isEnabled() {
+		return enabled;
+	}//isEnabled
+
+
+	public String getNodeId() {
+		return nodeId;
+	}//getNodeId
+
+
+	public boolean isLocal(String wsSessionId) {
+		return localSessions.contains(wsSessionId);
+	}//isLocal
+
+
+	public void register(String wsSessionId) {
+		localSessions.add(wsSessionId);
+		if (!enabled) {
+			return;
+		}
+
+		jdbcTemplate.update("""
+				INSERT INTO live_sessions (ws_session_id, node_id, connected_at) VALUES (?, ?, NOW())
+				ON CONFLICT (ws_session_id) DO UPDATE SET node_id = EXCLUDED.node_id, connected_at = EXCLUDED.connected_at
+				""", wsSessionId, nodeId);
+	}//register
+
+
+	public void attachInterview(String wsSessionId, UUID interviewSessionId) {
+		if (!enabled) {
+			return;
+		}
+		jdbcTemplate.update("UPDATE live_sessions SET interview_session_id = ? WHERE ws_session_id = ?",
+				interviewSessionId, wsSessionId);
+	}//attachInterview
+
+
+	public void unregister(String wsSessionId) {
+		localSessions.remove(wsSessionId);
+		if (!enabled) {
+			return;
+		}
+
+		jdbcTemplate.update("DELETE FROM live_sessions WHERE ws_session_id = ? AND node_id = ?", wsSessionId, nodeId);
+	}//unregister
+
+
+	/**
+	 * Number of browser sockets currently connected across the whole cluster
+	 * (or on this node when clustering is disabled).
+	 */
+	public int countLiveSessions() {
+		if (!enabled) {
+			return localSessions.size();
+		}
+		Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM live_sessions", Integer.class);
+		return count != null ? count : 0;
+	}//countLiveSessions
+
+
+	/**
+	 * Hands a message to the node holding {@code wsSessionId}.
+	 *
+	 * @return false if no live node holds the socket (message dropped)
+	 */
+	public boolean route(String wsSessionId, String destination, Map<String, Object> payload) {
+		List<String> owners = jdbcTemplate.queryForList(
+				"SELECT node_id FROM live_sessions WHERE ws_session_id = ?", String.class, wsSessionId);
+		if (owners.isEmpty()) {
+			log.debug("No node holds WebSocket session {} - dropping {}", wsSessionId, destination);
+			return false;
+		}
+
+		String targetNode = owners.get(0);
+		if (nodeId.equals(targetNode)) {
+			eventPublisher.publishEvent(new RoutedMessage(wsSessionId, destination, payload));
+			return true;
+		}
+
+		try {
+			jdbcTemplate.update(
+					"INSERT INTO cluster_messages (target_node, ws_session_id, destination, payload) VALUES (?, ?, ?, ?)",
+					targetNode, wsSessionId, destination, objectMapper.writeValueAsString(payload));
+			jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, targetNode);
+			return true;
+		} catch (Exception e) {
+			log.error("Failed to route {} to node {} for session {}", destination, targetNode, wsSessionId, e);
+			return false;
+		}
+	}//route
+
+
+	/**
+	 * Refreshes this node's heartbeat, reaps nodes that stopped heartbeating
+	 * (and their routes/undelivered messages), and drains the inbox in case a
+	 * notification was missed while the listener was reconnecting.
+	 */
+	@Scheduled(fixedRateString = "${app.cluster.heartbeat-ms:10000}")
+	public void heartbeat() {
+		if (!enabled || !running) {
+			return;
+		}
+
+		try {
+			jdbcTemplate.update("""
+					INSERT INTO cluster_nodes (node_id, heartbeat_at) VALUES (?, NOW())
+					ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = NOW()
+					""", nodeId);
+
+			// Compared with the database clock that wrote heartbeat_at, not this JVM's
+			List<String> deadNodes = jdbcTemplate.queryForList(
+					"SELECT node_id FROM cluster_nodes WHERE heartbeat_at < NOW() - make_interval(secs => ?)",
+					String.class, NODE_EXPIRY_SECONDS);
+			for (String deadNode : deadNodes) {
+				jdbcTemplate.update("DELETE FROM live_sessions WHERE node_id = ?", deadNode);
+				jdbcTemplate.update("DELETE FROM cluster_messages WHERE target_node = ?", deadNode);
+				jdbcTemplate.update("DELETE FROM cluster_nodes WHERE node_id = ?", deadNode);
+				log.warn("Reaped dead cluster node {}", deadNode);
+			}
+
+			drainInbox();
+		} catch (Exception e) {
+			log.error("Cluster heartbeat failed for node {}", nodeId, e);
+		}
+	}//heartbeat
+
+
+	private void listenLoop() {
+		while (running) {
+			try (Connection connection = dataSource.getConnection()) {
+				PGConnection pgConnection = connection.unwrap(PGConnection.class);
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("LISTEN " + CHANNEL);
+				}
+				// Catch up on anything sent while we weren't listening
+				drainInbox();
+
+				while (running) {
+					PGNotification[] notifications = pgConnection.getNotifications((int) LISTEN_TIMEOUT_MS);
+					if (notifications == null) {
+						continue;
+					}
+					for (PGNotification notification : notifications) {
+						if (nodeId.equals(notification.getParameter())) {
+							drainInbox();
+							break;
+						}
+					}
+				}
+			} catch (SQLException e) {
+				if (!running) {
+					return;
+				}
+				log.warn("Cluster listener connection lost, reconnecting: {}", e.getMessage());
+				try {
+					Thread.sleep(RECONNECT_DELAY_MS);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}//listenLoop
+
+
+	private void drainInbox() {
+		List<RoutedMessage> messages = jdbcTemplate.query(
+				"DELETE FROM cluster_messages WHERE target_node = ? RETURNING ws_session_id, destination, payload",
+				(rs, rowNum) -> new RoutedMessage(
+						rs.getString("ws_session_id"),
+						rs.getString("destination"),
+						readPayload(rs.getString("payload"))
+				),
+				nodeId);
+
+		for (RoutedMessage message : messages) {
+			if (message.payload() != null) {
+				eventPublisher.publishEvent(message);
+			}
+		}
+	}//drainInbox
+
+
+	private Map<String, Object> readPayload(String json) {
+		try {
+			return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {
+			});
+		} catch (Exception e) {
+			log.error("Dropping unreadable cluster message: {}", e.getMessage());
+			return null;
+		}
+	}//readPayload
+
+}//ClusterSessionDirectory
@@ -0,0 +1,271 @@
+package net.k2ai.interviewSimulator.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Incremental detector for the interviewer's closing phrases and questions.
+ *
+ * <p>All phrases (English, Bulgarian, the {@code [END_INTERVIEW]} token and
+ * {@code ?}) are compiled once into a single Aho–Corasick automaton flattened
+ * into a dense transition table. A detector instance carries the automaton
+ * state across {@link #feed} calls, so output-transcription fragments can be
+ * fed as they arrive and a phrase split over two fragments is still found -
+ * one table lookup per character, no buffering of the turn text.
+ *
+ * <p>Matching is case-insensitive for Cyrillic as well as ASCII, and a typographic
+ * apostrophe (’) matches a plain one.
+ *
+ * <p>Instances are not thread-safe; use one per turn (or {@link #reset} it).
+ */
+public final class ConclusionDetector {
+
+	public static final int CONCLUSION = 1;
+
+	public static final int QUESTION = 2;
+
+	static final String END_SIGNAL = "[END_INTERVIEW]";
+
+	// Alternations of the previous regex list, expanded into literal phrases
+	static final List<String> CONCLUSION_PHRASES = List.of(
+			END_SIGNAL,
+			// English
+			"thank you for your time",
+			"that concludes our interview",
+			"we have all the information we need",
+			"thank you for coming in",
+			"we'll be in touch",
+			"we will be in touch",
+			"this concludes",
+			"end of interview",
+			"end of the interview",
+			"end of our interview",
+			"end of this interview",
+			"that's all i have",
+			"that is all i have",
+			"that's all the questions i have",
+			"that is all the questions i have",
+			"best of luck",
+			"good luck with",
+			"it was nice meeting",
+			"it was nice talking",
+			"it was great meeting",
+			"it was great talking",
+			"it was a pleasure meeting",
+			"it was a pleasure talking",
+			// Bulgarian
+			"благодаря ви за отделеното време",
+			"благодаря ви за време",
+			"благодаря за отделеното време",
+			"благодаря за време",
+			"интервюто приключи",
+			"това е всичко от мен",
+			"ще се свържем с вас",
+			"успех",
+			"приятно ми беше",
+			"довиждане",
+			"нямам повече въпроси"
+	);
+
+	private static final byte[] CHAR_CLASS = new byte[Character.MAX_VALUE + 1];
+
+	// DELTA[state][charClass] -> next state; class 0 is "any other character"
+	private static final int[][] DELTA;
+
+	// Signal bits raised on entering each state
+	private static final int[] OUTPUT;
+
+	// One phrase ending at each state that has CONCLUSION output, for logging
+	private static final String[] MATCHED_PHRASE;
+
+	static {
+		List<String> phrases = new ArrayList<>(CONCLUSION_PHRASES);
+		phrases.add("?");
+
+		// Character classes: one per distinct folded character used in any phrase
+		int classes = 1;
+		for (String phrase : phrases) {
+			for (int i = 0; i < phrase.length(); i++) {
+				char c = fold(phrase.charAt(i));
+				if (CHAR_CLASS[c] == 0) {
+					if (classes == Byte.MAX_VALUE) {
+						throw new IllegalStateException("Too many distinct characters in conclusion phrases");
+					}
+					CHAR_CLASS[c] = (byte) classes++;
+				}
+			}
+		}
+
+		// Trie
+		List<int[]> trie = new ArrayList<>();
+		List<Integer> output = new ArrayList<>();
+		List<String> matched = new ArrayList<>();
+		trie.add(newRow(classes));
+		output.add(0);
+		matched.add(null);
+
+		for (String phrase : phrases) {
+			int state = 0;
+			for (int i = 0; i < phrase.length(); i++) {
+				int cls = CHAR_CLASS[fold(phrase.charAt(i))];
+				if (trie.get(state)[cls] < 0) {
+					trie.get(state)[cls] = trie.size();
+					trie.add(newRow(classes));
+					output.add(0);
+					matched.add(null);
+				}
+				state = trie.get(state)[cls];
+			}
+			if ("?".equals(phrase)) {
+				output.set(state, output.get(state) | QUESTION);
+			} else {
+				output.set(state, output.get(state) | CONCLUSION);
+				matched.set(state, phrase);
+			}
+		}
+
+		// Failure links by BFS, folded straight into a complete transition table
+		int[][] delta = trie.toArray(new int[0][]);
+		int[] fail = new int[delta.length];
+		Queue<Integer> queue = new ArrayDeque<>();
+		for (int cls = 0; cls < classes; cls++) {
+			if (delta[0][cls] < 0) {
+				delta[0][cls] = 0;
+			} else {
+				fail[delta[0][cls]] = 0;
+				queue.add(delta[0][cls]);
+			}
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			for (int cls = 0; cls < classes; cls++) {
+				int next = delta[state][cls];
+				if (next < 0) {
+					delta[state][cls] = delta[fail[state]][cls];
+				} else {
+					fail[next] = delta[fail[state]][cls];
+					output.set(next, output.get(next) | output.get(fail[next]));
+					if (matched.get(next) == null) {
+						matched.set(next, matched.get(fail[next]));
+					}
+					queue.add(next);
+				}
+			}
+		}
+
+		DELTA = delta;
+		OUTPUT = output.stream().mapToInt(Integer::intValue).toArray();
+		MATCHED_PHRASE = matched.toArray(new String[0]);
+	}
+
+	private int state = 0;
+
+	private int signals = 0;
+
+	private int length = 0;
+
+	private String matchedPhrase;
+
+
+	/**
+	 * Feeds the next fragment of the turn.
+	 *
+	 * @return signal bits ({@link #CONCLUSION}, {@link #QUESTION}) raised for the
+	 * first time by this fragment, 0 if none
+	 */
+	public int feed(CharSequence fragment) {
+		if (fragment == null) {
+			return 0;
+		}
+
+		int s = state;
+		int raised = 0;
+		for (int i = 0; i < fragment.length(); i++) {
+			s = DELTA[s][CHAR_CLASS[fold(fragment.charAt(i))]];
+			int out = OUTPUT[s];
+			if (out != 0) {
+				if ((out & CONCLUSION) != 0 && matchedPhrase == null) {
+					matchedPhrase = MATCHED_PHRASE[s];
+				}
+				raised |= out;
+			}
+		}
+		state = s;
+		length += fragment.length();
+
+		int newSignals = raised & ~signals;
+		signals |= raised;
+		return newSignals;
+	}//feed
+
+
+	/**
+	 * All signal bits raised since the last reset.
+	 */
+	public int getSignals() {
+		return signals;
+	}//getSignals
+
+
+	public boolean isConcluding() {
+		return (signals & CONCLUSION) != 0;
+	}//isConcluding
+
+
+	public boolean hasQuestion() {
+		return (signals & QUESTION) != 0;
+	}//hasQuestion
+
+
+	/**
+	 * The first closing phrase seen this turn, or null.
+	 */
+	public String getMatchedPhrase() {
+		return matchedPhrase;
+	}//getMatchedPhrase
+
+
+	/**
+	 * Number of characters fed since the last reset.
+	 */
+	public int getLength() {
+		return length;
+	}//getLength
+
+
+	public void reset() {
+		state = 0;
+		signals = 0;
+		length = 0;
+		matchedPhrase = null;
+	}//reset
+
+
+	/**
+	 * One-shot scan of a complete text.
+	 */
+	public static ConclusionDetector scan(CharSequence text) {
+		ConclusionDetector detector = new ConclusionDetector();
+		detector.feed(text);
+		return detector;
+	}//scan
+
+
+	private static char fold(char c) {
+		if (c == '’') {
+			return '\'';
+		}
+		return Character.toLowerCase(c);
+	}//fold
+
+
+	private static int[] newRow(int classes) {
+		int[] row = new int[classes];
+		Arrays.fill(row, -1);
+		return row;
+	}//newRow
+
+}//ConclusionDetector
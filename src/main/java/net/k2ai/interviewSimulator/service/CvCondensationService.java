@@ -0,0 +1,395 @@
+package net.k2ai.interviewSimulator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Shrinks extracted CV text to what the interviewer needs before it goes into
+ * the Live system instruction, which is resent on every reconnect.
+ *
+ * <p>Deterministic and local: whitespace and bullets are normalised, page
+ * numbers, title lines, consent clauses and contact-only lines are dropped,
+ * repeated lines (page headers/footers, copy-pasted bullets) are kept once, and
+ * the result is capped at a token budget. Lines are grouped by the CV section
+ * they appear in (EN/BG headings); when over budget, every section first keeps
+ * its opening lines and the rest of the budget goes to experience, skills and
+ * projects before education, languages and interests.
+ *
+ * <p>Results are cached by SHA-256 of the input (and of the output, which
+ * condenses to itself), so the same CV is only condensed once however many
+ * times an interview with it is started.
+ */
+@Slf4j
+@Service
+public class CvCondensationService {
+
+	static final String OMITTED_NOTE = "[Some less relevant CV details were omitted for length.]";
+
+	// Content lines per section kept before the budget is shared by priority
+	private static final int GUARANTEED_LINES_PER_SECTION = 2;
+
+	private static final int MAX_HEADING_LENGTH = 40;
+
+	// Longer lines (e.g. a whole page extracted without breaks) are cut at a word boundary
+	private static final int MAX_LINE_LENGTH = 1000;
+
+	private static final Pattern BULLET = Pattern.compile("^[\\-*•▪●◦‣–—·>]+\\s*");
+
+	private static final Pattern PAGE_NUMBER = Pattern.compile(
+			"^(?:(?:page|стр|страница)\\s*)?\\d{1,3}(?:\\s*(?:of|от)?\\s*\\d{1,3})?$");
+
+	private static final Pattern TITLE_LINE = Pattern.compile(
+			"^(?:curriculum vitae|resume|résumé|cv|автобиография|europass.*|европейски формат.*)$");
+
+	private static final Pattern REFERENCES_ON_REQUEST = Pattern.compile(
+			"references?\\s+(?:are\\s+)?available\\s+(?:up)?on\\s+request|препоръки\\s+при\\s+поискване");
+
+	private static final Pattern DATA_CONSENT = Pattern.compile(
+			"(?:consent|authori[sz]e|agree).*(?:process|processing).*personal\\s+data"
+					+ "|(?:съгласие|съгласен|съгласна|разрешавам).*обработ.*лични(?:те)?\\s+(?:ми\\s+)?данни");
+
+	private static final Pattern CONTACT = Pattern.compile(
+			"[\\w.+-]+@[\\w-]+(?:\\.[\\w-]+)+"
+					+ "|(?:https?://|www\\.)\\S+"
+					+ "|\\b(?:linkedin|github|gitlab)\\.com/\\S*"
+					// Phone numbers start with + or 0; no dots or slashes, so date ranges don't match
+					+ "|(?:\\+\\d{1,3}|\\(?\\b0)[\\d ()-]{6,}\\d");
+
+	private static final Pattern CONTACT_LABELS = Pattern.compile(
+			"(?i)\\b(?:e-?mail|phone|mobile|tel|address|linkedin|github|website|имейл|телефон|тел|адрес|мобилен)\\b\\.?");
+
+	private static final Map<String, SectionKind> HEADINGS = headings();
+
+	private final int maxTokens;
+
+	private final Map<String, String> cache;
+
+	private long cacheHits;
+
+	private long cacheMisses;
+
+
+	// Ordered by how much the interviewer gets out of them
+	enum SectionKind {
+		EXPERIENCE, SKILLS, PROJECTS, SUMMARY, HEADER, EDUCATION, CERTIFICATIONS, LANGUAGES, OTHER, INTERESTS,
+		// Never included: contact details, date of birth, referees
+		PERSONAL, REFERENCES
+	}
+
+
+	private static final class Section {
+
+		private final SectionKind kind;
+
+		private final String heading;
+
+		private final List<String> lines = new ArrayList<>();
+
+		private int included;
+
+
+		private Section(SectionKind kind, String heading) {
+			this.kind = kind;
+			this.heading = heading;
+		}//Section
+
+	}//Section
+
+
+	public CvCondensationService(@Value("${app.cv.condense.max-tokens:3000}") int maxTokens,
+								 @Value("${app.cv.condense.cache-size:256}") int cacheSize) {
+		this.maxTokens = maxTokens;
+		this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}//CvCondensationService
+
+
+	/**
+	 * Returns the condensed CV, or the input unchanged if it is null or blank.
+	 */
+	public String condense(String cvText) {
+		if (cvText == null || cvText.isBlank()) {
+			return cvText;
+		}
+
+		String key = sha256(cvText);
+		synchronized (cache) {
+			String condensed = cache.get(key);
+			if (condensed != null) {
+				cacheHits++;
+				return condensed;
+			}
+			cacheMisses++;
+		}
+
+		String condensed = condenseUncached(cvText);
+		synchronized (cache) {
+			cache.put(key, condensed);
+			// Condensing is idempotent: the condensed CV comes back with the interview start
+			cache.put(sha256(condensed), condensed);
+		}
+		log.info("Condensed CV from {} to {} characters (~{} tokens)",
+				cvText.length(), condensed.length(), estimateTokens(condensed));
+		return condensed;
+	}//condense
+
+
+	public long getCacheHits() {
+		synchronized (cache) {
+			return cacheHits;
+		}
+	}//getCacheHits
+
+
+	public long getCacheMisses() {
+		synchronized (cache) {
+			return cacheMisses;
+		}
+	}//getCacheMisses
+
+
+	String condenseUncached(String cvText) {
+		List<Section> sections = splitSections(cvText);
+
+		int used = 0;
+		boolean omitted = cvText.contains(OMITTED_NOTE);
+		List<Section> byPriority = new ArrayList<>(sections);
+		byPriority.sort(Comparator.comparing(section -> section.kind));
+		// Leave room for the note; it is stripped and re-added, so condensing twice changes nothing
+		int budget = maxTokens - estimateTokens(OMITTED_NOTE);
+
+		for (int pass = 0; pass < 2; pass++) {
+			for (Section section : byPriority) {
+				int limit = pass == 0 ? Math.min(GUARANTEED_LINES_PER_SECTION, section.lines.size()) : section.lines.size();
+				while (section.included < limit) {
+					int cost = estimateTokens(section.lines.get(section.included));
+					if (section.included == 0 && section.heading != null) {
+						cost += estimateTokens(section.heading);
+					}
+					if (used + cost > budget) {
+						break;
+					}
+					used += cost;
+					section.included++;
+				}
+			}
+		}
+
+		StringBuilder sb = new StringBuilder();
+		for (Section section : sections) {
+			omitted |= section.included < section.lines.size();
+			if (section.included == 0) {
+				continue;
+			}
+			if (!sb.isEmpty()) {
+				sb.append('\n');
+			}
+			if (section.heading != null) {
+				sb.append(section.heading).append('\n');
+			}
+			for (int i = 0; i < section.included; i++) {
+				sb.append(section.lines.get(i)).append('\n');
+			}
+		}
+		if (omitted) {
+			sb.append('\n').append(OMITTED_NOTE).append('\n');
+		}
+		return sb.toString().trim();
+	}//condenseUncached
+
+
+	/**
+	 * Rough token count for Gemini's tokenizer: about 4 characters per token for
+	 * Latin text and 2 for Cyrillic and other scripts.
+	 */
+	static int estimateTokens(String text) {
+		int ascii = 0;
+		int other = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) < 128) {
+				ascii++;
+			} else {
+				other++;
+			}
+		}
+		return (ascii + 3) / 4 + (other + 1) / 2;
+	}//estimateTokens
+
+
+	// Cleans the lines and groups them by section; repeated headings continue their section
+	private List<Section> splitSections(String cvText) {
+		Map<SectionKind, Section> sections = new EnumMap<>(SectionKind.class);
+		List<Section> ordered = new ArrayList<>();
+		Set<String> seen = new HashSet<>();
+
+		Section current = new Section(SectionKind.HEADER, null);
+		sections.put(SectionKind.HEADER, current);
+		ordered.add(current);
+
+		for (String rawLine : cvText.split("\\R")) {
+			String line = cleanLine(rawLine);
+			if (line.isEmpty()) {
+				continue;
+			}
+
+			if (line.equals(OMITTED_NOTE)) {
+				continue;
+			}
+
+			String key = dedupeKey(line);
+			SectionKind heading = line.length() <= MAX_HEADING_LENGTH ? HEADINGS.get(key) : null;
+			if (heading != null) {
+				current = sections.get(heading);
+				if (current == null) {
+					current = new Section(heading, line.endsWith(":") ? line.substring(0, line.length() - 1) : line);
+					sections.put(heading, current);
+					ordered.add(current);
+				}
+				continue;
+			}
+
+			if (key.isEmpty() || isBoilerplate(line, key) || !seen.add(key)) {
+				continue;
+			}
+			current.lines.add(line);
+		}
+
+		ordered.removeIf(section -> section.kind == SectionKind.PERSONAL || section.kind == SectionKind.REFERENCES);
+		return ordered;
+	}//splitSections
+
+
+	private static String cleanLine(String rawLine) {
+		StringBuilder sb = new StringBuilder(rawLine.length());
+		boolean space = false;
+		for (int i = 0; i < rawLine.length(); i++) {
+			char c = rawLine.charAt(i);
+			if (Character.isWhitespace(c) || Character.isSpaceChar(c) || Character.isISOControl(c)) {
+				space = true;
+			} else if (Character.getType(c) != Character.FORMAT) {
+				if (space && !sb.isEmpty()) {
+					sb.append(' ');
+				}
+				space = false;
+				sb.append(c);
+			}
+		}
+
+		String line = sb.toString();
+		if (line.length() > MAX_LINE_LENGTH) {
+			int cut = line.lastIndexOf(' ', MAX_LINE_LENGTH);
+			line = line.substring(0, cut > 0 ? cut : MAX_LINE_LENGTH) + " …";
+		}
+		if (BULLET.matcher(line).lookingAt()) {
+			String rest = BULLET.matcher(line).replaceFirst("");
+			return rest.isEmpty() ? "" : "- " + rest;
+		}
+		return line;
+	}//cleanLine
+
+
+	// Lower-case letters and digits only, single-spaced
+	private static String dedupeKey(String line) {
+		StringBuilder sb = new StringBuilder(line.length());
+		boolean space = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				if (space && !sb.isEmpty()) {
+					sb.append(' ');
+				}
+				space = false;
+				sb.append(Character.toLowerCase(c));
+			} else {
+				space = true;
+			}
+		}
+		return sb.toString();
+	}//dedupeKey
+
+
+	private static boolean isBoilerplate(String line, String key) {
+		if (PAGE_NUMBER.matcher(key).matches() || TITLE_LINE.matcher(key).matches()) {
+			return true;
+		}
+		String lower = line.toLowerCase(Locale.ROOT);
+		if (REFERENCES_ON_REQUEST.matcher(lower).find() || DATA_CONSENT.matcher(lower).find()) {
+			return true;
+		}
+
+		// Lines holding nothing but contact details and their labels
+		if (!CONTACT.matcher(line).find()) {
+			return false;
+		}
+		String rest = CONTACT_LABELS.matcher(CONTACT.matcher(line).replaceAll(" ")).replaceAll(" ");
+		return dedupeKey(rest).replace(" ", "").length() < 3;
+	}//isBoilerplate
+
+
+	private static Map<String, SectionKind> headings() {
+		Map<String, SectionKind> headings = new LinkedHashMap<>();
+		put(headings, SectionKind.EXPERIENCE, "experience", "work experience", "professional experience",
+				"employment", "employment history", "work history", "career history",
+				"опит", "професионален опит", "трудов опит", "трудов стаж", "работен опит");
+		put(headings, SectionKind.SKILLS, "skills", "technical skills", "key skills", "core skills",
+				"competencies", "core competencies", "technologies", "tech stack",
+				"умения", "технически умения", "ключови умения", "компетенции", "технологии");
+		put(headings, SectionKind.PROJECTS, "projects", "personal projects", "key projects", "selected projects",
+				"проекти", "лични проекти");
+		put(headings, SectionKind.SUMMARY, "summary", "profile", "professional summary", "professional profile",
+				"about me", "objective", "career objective",
+				"профил", "професионален профил", "резюме", "за мен", "обобщение");
+		put(headings, SectionKind.EDUCATION, "education", "academic background", "qualifications",
+				"образование", "квалификации");
+		put(headings, SectionKind.CERTIFICATIONS, "certifications", "certificates", "courses", "training",
+				"licenses and certifications", "сертификати", "курсове", "обучения");
+		put(headings, SectionKind.LANGUAGES, "languages", "language skills", "езици", "езикови умения", "чужди езици");
+		put(headings, SectionKind.INTERESTS, "interests", "hobbies", "hobbies and interests",
+				"интереси", "хобита", "хоби");
+		put(headings, SectionKind.OTHER, "additional information", "achievements", "awards", "volunteering",
+				"допълнителна информация", "постижения", "награди", "доброволчество");
+		put(headings, SectionKind.PERSONAL, "personal information", "personal details", "personal data",
+				"contact", "contacts", "contact information", "contact details",
+				"лична информация", "лични данни", "контакти", "данни за контакт");
+		put(headings, SectionKind.REFERENCES, "references", "referees", "препоръки");
+		return Map.copyOf(headings);
+	}//headings
+
+
+	private static void put(Map<String, SectionKind> headings, SectionKind kind, String... keys) {
+		for (String key : keys) {
+			headings.put(key, kind);
+		}
+	}//put
+
+
+	private static String sha256(String text) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}//sha256
+
+}//CvCondensationService
@@ -0,0 +1,198 @@
+package net.k2ai.interviewSimulator.service;
+
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory LRU of cleaned CV text keyed by the SHA-256 of the uploaded file,
+ * so re-uploading the same CV (retries, going back in the setup wizard) skips
+ * parsing.
+ *
+ * <p>Entries are weighted by their text size (2 bytes per char) against a
+ * byte budget, expire after a TTL, and are tied to the HTTP sessions that
+ * uploaded them: when the last of those sessions ends the entry is dropped.
+ * Nothing is ever written to disk or the database.
+ */
+@Slf4j
+@Component
+public class CvExtractionCache implements HttpSessionListener {
+
+	private final long maxBytes;
+
+	private final Duration ttl;
+
+	private final Clock clock;
+
+	// Access-ordered: iteration starts at the least recently used entry
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long totalBytes;
+
+	private long hits;
+
+	private long misses;
+
+
+	private static final class Entry {
+
+		private final String text;
+
+		private final long bytes;
+
+		private final Instant expiresAt;
+
+		private final Set<String> sessions = new HashSet<>();
+
+
+		private Entry(String text, Instant expiresAt) {
+			this.text = text;
+			this.bytes = 2L * text.length();
+			this.expiresAt = expiresAt;
+		}//Entry
+
+	}//Entry
+
+
+	public CvExtractionCache(@Value("${app.cv.extraction-cache.max-bytes:33554432}") long maxBytes,
+							 @Value("${app.cv.extraction-cache.ttl-minutes:30}") long ttlMinutes) {
+		this(maxBytes, Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+	}//CvExtractionCache
+
+
+	CvExtractionCache(long maxBytes, Duration ttl, Clock clock) {
+		this.maxBytes = maxBytes;
+		this.ttl = ttl;
+		this.clock = clock;
+	}//CvExtractionCache
+
+
+	/**
+	 * Returns the cached text for this file hash and records {@code sessionId}
+	 * as one of its owners, or null on a miss.
+	 */
+	public synchronized String get(String fileHash, String sessionId) {
+		Entry entry = entries.get(fileHash);
+		if (entry != null && !clock.instant().isBefore(entry.expiresAt)) {
+			remove(fileHash);
+			entry = null;
+		}
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+
+		hits++;
+		if (sessionId != null) {
+			entry.sessions.add(sessionId);
+		}
+		return entry.text;
+	}//get
+
+
+	/**
+	 * Caches {@code text} for this file hash. Without a session there is nothing
+	 * to tie the entry's lifetime to, so it isn't cached.
+	 */
+	public synchronized void put(String fileHash, String text, String sessionId) {
+		if (sessionId == null) {
+			return;
+		}
+
+		Entry entry = new Entry(text, clock.instant().plus(ttl));
+		if (entry.bytes > maxBytes) {
+			return;
+		}
+		Entry previous = entries.get(fileHash);
+		if (previous != null) {
+			entry.sessions.addAll(previous.sessions);
+			remove(fileHash);
+		}
+		entry.sessions.add(sessionId);
+
+		purgeExpired();
+		entries.put(fileHash, entry);
+		totalBytes += entry.bytes;
+
+		Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+		while (totalBytes > maxBytes && eldest.hasNext()) {
+			totalBytes -= eldest.next().getValue().bytes;
+			eldest.remove();
+		}
+	}//put
+
+
+	/**
+	 * Drops the session's claim on every entry, removing entries no other live
+	 * session uploaded.
+	 */
+	public synchronized void evictSession(String sessionId) {
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (entry.sessions.remove(sessionId) && entry.sessions.isEmpty()) {
+				totalBytes -= entry.bytes;
+				it.remove();
+			}
+		}
+	}//evictSession
+
+
+	@Override
+	public void sessionDestroyed(HttpSessionEvent event) {
+		evictSession(event.getSession().getId());
+	}//sessionDestroyed
+
+
+	public synchronized int size() {
+		return entries.size();
+	}//size
+
+
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}//getTotalBytes
+
+
+	public synchronized long getHits() {
+		return hits;
+	}//getHits
+
+
+	public synchronized long getMisses() {
+		return misses;
+	}//getMisses
+
+
+	private void remove(String fileHash) {
+		Entry removed = entries.remove(fileHash);
+		if (removed != null) {
+			totalBytes -= removed.bytes;
+		}
+	}//remove
+
+
+	private void purgeExpired() {
+		Instant now = clock.instant();
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (!now.isBefore(entry.expiresAt)) {
+				totalBytes -= entry.bytes;
+				it.remove();
+			}
+		}
+	}//purgeExpired
+
+}//CvExtractionCache
@@ -0,0 +1,317 @@
+package net.k2ai.interviewSimulator.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps the processed CV text on the server between the setup wizard and the
+ * interview start, handing out an opaque handle in its place.
+ *
+ * <p>The text is sanitized and condensed once when it is stored; the browser
+ * only ever sees the handle, which it echoes back in the
+ * {@code /app/interview/start} message. Handles are 128 random bits, so
+ * knowing one is what authorises its use.
+ *
+ * <p>Texts are deflated into direct buffers, so the heap only holds a small
+ * entry per handle however many wizards are left open. Entries are weighted by
+ * their compressed size against a global byte budget, least recently used
+ * first, expire after a TTL, and are dropped when the HTTP session that stored
+ * them ends.
+ *
+ * <p>Exports {@code cv.handles.entries}, {@code cv.handles.bytes} (compressed,
+ * off-heap), {@code cv.handles.raw.bytes} and the evicted/expired counts.
+ */
+@Slf4j
+@Component
+public class CvHandleStore implements HttpSessionListener, MeterBinder {
+
+	private static final int HANDLE_BYTES = 16;
+
+	// 16 random bytes in unpadded base64url
+	private static final int HANDLE_LENGTH = 22;
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	private final long maxBytes;
+
+	private final Duration ttl;
+
+	private final Clock clock;
+
+	// Access-ordered: iteration starts at the least recently used entry
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long totalBytes;
+
+	private long rawBytes;
+
+	private long evicted;
+
+	private long expired;
+
+
+	// data is the deflated UTF-8 text; rawLength its inflated length
+	private record Entry(ByteBuffer data, int rawLength, String sessionId, Instant expiresAt) {
+
+		private long bytes() {
+			return data.capacity();
+		}//bytes
+
+	}//Entry
+
+
+	public CvHandleStore(@Value("${app.cv.handles.max-bytes:16777216}") long maxBytes,
+						 @Value("${app.cv.handles.ttl-minutes:120}") long ttlMinutes) {
+		this(maxBytes, Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+	}//CvHandleStore
+
+
+	CvHandleStore(long maxBytes, Duration ttl, Clock clock) {
+		this.maxBytes = maxBytes;
+		this.ttl = ttl;
+		this.clock = clock;
+	}//CvHandleStore
+
+
+	/**
+	 * Stores already sanitized CV text and returns the handle for it. With a
+	 * {@code sessionId} the handle is released when that HTTP session ends.
+	 */
+	public String store(String cvText, String sessionId) {
+		byte[] bytes = new byte[HANDLE_BYTES];
+		RANDOM.nextBytes(bytes);
+		String handle = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+		byte[] raw = cvText.getBytes(StandardCharsets.UTF_8);
+		Entry entry = new Entry(deflate(raw), raw.length, sessionId, clock.instant().plus(ttl));
+		synchronized (this) {
+			purgeExpired();
+			entries.put(handle, entry);
+			totalBytes += entry.bytes();
+			rawBytes += entry.rawLength();
+
+			Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+			while (totalBytes > maxBytes && eldest.hasNext()) {
+				Map.Entry<String, Entry> victim = eldest.next();
+				if (victim.getKey().equals(handle)) {
+					break;
+				}
+				subtract(victim.getValue());
+				eldest.remove();
+				evicted++;
+				log.debug("CV handle store full - evicted least recently used entry");
+			}
+		}
+		return handle;
+	}//store
+
+
+	public String store(String cvText) {
+		return store(cvText, null);
+	}//store
+
+
+	/**
+	 * Returns the CV text for a handle, or null if it is unknown, malformed or expired.
+	 */
+	public String resolve(String handle) {
+		if (handle == null || handle.length() != HANDLE_LENGTH) {
+			return null;
+		}
+
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(handle);
+			if (entry == null) {
+				return null;
+			}
+			if (!clock.instant().isBefore(entry.expiresAt())) {
+				release(handle);
+				expired++;
+				return null;
+			}
+		}
+		// The buffer is never written after it is stored, so reading a duplicate needs no lock
+		return new String(inflate(entry.data().duplicate(), entry.rawLength()), StandardCharsets.UTF_8);
+	}//resolve
+
+
+	/**
+	 * Drops a handle, e.g. when the CV is replaced or removed in the wizard.
+	 */
+	public synchronized void release(String handle) {
+		if (handle == null) {
+			return;
+		}
+		Entry removed = entries.remove(handle);
+		if (removed != null) {
+			subtract(removed);
+		}
+	}//release
+
+
+	/**
+	 * Drops every handle stored for the session, so abandoned wizards free
+	 * their CV text when the session times out rather than at the TTL.
+	 */
+	public synchronized void releaseSession(String sessionId) {
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (sessionId.equals(entry.sessionId())) {
+				subtract(entry);
+				it.remove();
+			}
+		}
+	}//releaseSession
+
+
+	@Override
+	public void sessionDestroyed(HttpSessionEvent event) {
+		releaseSession(event.getSession().getId());
+	}//sessionDestroyed
+
+
+	public synchronized int size() {
+		return entries.size();
+	}//size
+
+
+	/**
+	 * Compressed bytes held off-heap.
+	 */
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}//getTotalBytes
+
+
+	/**
+	 * UTF-8 size of the stored texts before compression.
+	 */
+	public synchronized long getRawBytes() {
+		return rawBytes;
+	}//getRawBytes
+
+
+	public synchronized long getEvictedCount() {
+		return evicted;
+	}//getEvictedCount
+
+
+	public synchronized long getExpiredCount() {
+		return expired;
+	}//getExpiredCount
+
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("cv.handles.entries", this, CvHandleStore::size)
+				.description("CV texts waiting server-side for an interview start")
+				.register(registry);
+		Gauge.builder("cv.handles.bytes", this, CvHandleStore::getTotalBytes)
+				.description("Compressed CV text held off-heap")
+				.baseUnit("bytes")
+				.register(registry);
+		Gauge.builder("cv.handles.raw.bytes", this, CvHandleStore::getRawBytes)
+				.description("Size of the held CV texts before compression")
+				.baseUnit("bytes")
+				.register(registry);
+		FunctionCounter.builder("cv.handles.evicted", this, CvHandleStore::getEvictedCount)
+				.description("CV texts dropped to stay within the byte budget")
+				.register(registry);
+		FunctionCounter.builder("cv.handles.expired", this, CvHandleStore::getExpiredCount)
+				.description("CV texts dropped after their TTL")
+				.register(registry);
+	}//bindTo
+
+
+	private void subtract(Entry entry) {
+		totalBytes -= entry.bytes();
+		rawBytes -= entry.rawLength();
+	}//subtract
+
+
+	private void purgeExpired() {
+		Instant now = clock.instant();
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (!now.isBefore(entry.expiresAt())) {
+				subtract(entry);
+				it.remove();
+				expired++;
+			}
+		}
+	}//purgeExpired
+
+
+	// Deflates into a direct buffer sized to the compressed length
+	private static ByteBuffer deflate(byte[] raw) {
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(raw);
+			deflater.finish();
+			byte[] out = new byte[Math.max(64, raw.length / 2)];
+			int length = 0;
+			while (!deflater.finished()) {
+				if (length == out.length) {
+					out = Arrays.copyOf(out, out.length * 2);
+				}
+				length += deflater.deflate(out, length, out.length - length);
+			}
+			ByteBuffer data = ByteBuffer.allocateDirect(length);
+			data.put(out, 0, length).flip();
+			return data;
+		} finally {
+			deflater.end();
+		}
+	}//deflate
+
+
+	private static byte[] inflate(ByteBuffer data, int rawLength) {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data);
+			byte[] raw = new byte[rawLength];
+			int length = 0;
+			while (length < rawLength) {
+				int read = inflater.inflate(raw, length, rawLength - length);
+				if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+					break;
+				}
+				length += read;
+			}
+			if (length != rawLength) {
+				throw new IllegalStateException("Stored CV text is truncated");
+			}
+			return raw;
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Stored CV text is corrupt", e);
+		} finally {
+			inflater.end();
+		}
+	}//inflate
+
+}//CvHandleStore
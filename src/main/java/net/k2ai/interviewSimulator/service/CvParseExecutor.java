@@ -0,0 +1,192 @@
+package net.k2ai.interviewSimulator.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.exception.CvParserBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs CV parsing off the request threads on a small dedicated pool.
+ *
+ * <p>Concurrency is capped (half the cores by default) so uploads can't take
+ * every CPU; a few parses may wait in a short queue and the rest are turned
+ * away immediately with {@link CvParserBusyException} (HTTP 503). Each parse
+ * gets a wall-clock deadline: the parsers check it cooperatively and the
+ * request stops waiting and interrupts the worker when it passes.
+ *
+ * <p>Exports {@code cv.parse.duration} (by type and outcome), {@code cv.parse.size},
+ * the rejected/timed-out counts and the pool's active and queued parses.
+ */
+@Slf4j
+@Component
+public class CvParseExecutor implements MeterBinder {
+
+	private final ThreadPoolExecutor executor;
+
+	private final long timeoutMillis;
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final LongAdder timedOut = new LongAdder();
+
+	private volatile MeterRegistry meterRegistry;
+
+
+	@FunctionalInterface
+	interface ParseTask<T> {
+
+		T parse(ParseDeadline deadline) throws IOException;
+
+	}
+
+
+	public CvParseExecutor(@Value("${app.cv.parse.max-concurrent:0}") int maxConcurrent,
+						   @Value("${app.cv.parse.queue-capacity:8}") int queueCapacity,
+						   @Value("${app.cv.parse.timeout-ms:15000}") long timeoutMillis) {
+		int threads = maxConcurrent > 0 ? maxConcurrent : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		this.timeoutMillis = timeoutMillis;
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+			Thread t = new Thread(r, "cv-parse-" + threadNumber.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		this.executor.allowCoreThreadTimeOut(true);
+		log.info("CV parsing: {} threads, queue of {}, {} ms deadline", threads, queueCapacity, timeoutMillis);
+	}//CvParseExecutor
+
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}//shutdown
+
+
+	/**
+	 * Runs {@code task} on the parse pool and waits for it.
+	 *
+	 * @param type         document type, used as a metric tag
+	 * @param sizeBytes    upload size, recorded in {@code cv.parse.size}
+	 * @throws CvParserBusyException    if the pool and its queue are full
+	 * @throws IllegalArgumentException if the document could not be parsed within the deadline
+	 */
+	<T> T run(String type, long sizeBytes, ParseTask<T> task) throws IOException {
+		long submittedAt = System.nanoTime();
+		ParseDeadline deadline = ParseDeadline.afterMillis(timeoutMillis);
+
+		Future<T> future;
+		try {
+			future = executor.submit(() -> task.parse(deadline));
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			log.warn("CV parser busy - rejected {} upload of {} bytes", type, sizeBytes);
+			throw new CvParserBusyException("CV processing is busy. Please try again in a moment.");
+		}
+
+		String outcome = "failure";
+		try {
+			T result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+			outcome = "success";
+			return result;
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			outcome = "timeout";
+			throw deadlineExceeded(type, sizeBytes);
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for CV parsing", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof ParseDeadline.DeadlineExceededException) {
+				outcome = "timeout";
+				throw deadlineExceeded(type, sizeBytes);
+			}
+			if (cause instanceof IOException io) {
+				throw io;
+			}
+			if (cause instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new IOException("CV parsing failed", cause);
+		} finally {
+			record(type, outcome, System.nanoTime() - submittedAt, sizeBytes);
+		}
+	}//run
+
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}//getRejectedCount
+
+
+	public long getTimedOutCount() {
+		return timedOut.sum();
+	}//getTimedOutCount
+
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.meterRegistry = registry;
+		FunctionCounter.builder("cv.parse.rejected", rejected, LongAdder::sum)
+				.description("CV uploads turned away because all parser threads were busy")
+				.register(registry);
+		FunctionCounter.builder("cv.parse.timeouts", timedOut, LongAdder::sum)
+				.description("CV parses abandoned at their deadline")
+				.register(registry);
+		Gauge.builder("cv.parse.active", executor, ThreadPoolExecutor::getActiveCount)
+				.description("CV parses running")
+				.register(registry);
+		Gauge.builder("cv.parse.queued", executor, e -> e.getQueue().size())
+				.description("CV parses waiting for a thread")
+				.register(registry);
+	}//bindTo
+
+
+	private IllegalArgumentException deadlineExceeded(String type, long sizeBytes) {
+		timedOut.increment();
+		log.warn("CV parsing of a {} upload ({} bytes) exceeded {} ms - abandoned", type, sizeBytes, timeoutMillis);
+		return new IllegalArgumentException("The file took too long to process. Please upload a simpler PDF or DOCX.");
+	}//deadlineExceeded
+
+
+	private void record(String type, String outcome, long nanos, long sizeBytes) {
+		MeterRegistry registry = meterRegistry;
+		if (registry == null) {
+			return;
+		}
+		Timer.builder("cv.parse.duration")
+				.description("CV parse time including the wait for a thread")
+				.tag("type", type)
+				.tag("outcome", outcome)
+				.register(registry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+		DistributionSummary.builder("cv.parse.size")
+				.description("Size of parsed CV uploads")
+				.baseUnit("bytes")
+				.tag("type", type)
+				.register(registry)
+				.record(sizeBytes);
+	}//record
+
+}//CvParseExecutor
@@ -1,26 +1,41 @@
 package net.k2ai.interviewSimulator.service;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.poi.openxml4j.util.ZipSecureFile;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
 
 @Slf4j
+@RequiredArgsConstructor
 @Service
 public class CvProcessingService {
 
-	private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+	static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
 	private static final int MAX_EXTRACTED_LENGTH = 100_000; // 100KB max text
+	private static final int MAX_PDF_PAGES = 50;
+	// Heap PDFBox may use for stream buffers per document before spilling to a scratch file
+	private static final long PDF_MAIN_MEMORY_BYTES = 4L * 1024 * 1024;
 
 	// Zip-bomb protection for DOCX (which is a ZIP). Cap total inflated size at
 	// 100MB and require a min compression ratio of 0.01 (i.e. 100x max).
@@ -35,68 +50,108 @@ public class CvProcessingService {
 		ZipSecureFile.setMinInflateRatio(MIN_DOCX_INFLATE_RATIO);
 	}//configurePoiZipLimits
 
-	private static final String CONTENT_TYPE_PDF = "application/pdf";
-	private static final String CONTENT_TYPE_DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+	static final String CONTENT_TYPE_PDF = "application/pdf";
+	static final String CONTENT_TYPE_DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
 
 	// Magic bytes for file type verification
 	private static final byte[] PDF_MAGIC = {0x25, 0x50, 0x44, 0x46}; // %PDF
 	private static final byte[] DOCX_MAGIC = {0x50, 0x4B, 0x03, 0x04}; // PK (ZIP format)
 
+	private final CvExtractionCache extractionCache;
+
+	private final CvParseExecutor parseExecutor;
+
+
+	private record StoredUpload(Path path, String sha256) {
+	}
+
 
 	public String extractText(MultipartFile file) throws IOException {
-		validateFile(file);
+		return extractText(file, null);
+	}// extractText
+
 
+	/**
+	 * Extracts the cleaned CV text. Files already extracted for a live HTTP
+	 * session are served from the {@link CvExtractionCache} by content hash; the
+	 * entry is tied to {@code sessionId} and dropped when the session ends.
+	 * Parsing itself runs on the {@link CvParseExecutor} under a deadline.
+	 *
+	 * @throws net.k2ai.interviewSimulator.exception.CvParserBusyException if all parser threads are busy
+	 */
+	public String extractText(MultipartFile file, String sessionId) throws IOException {
+		if (file == null || file.isEmpty()) {
+			throw new IllegalArgumentException("File is empty or null");
+		}
 		String contentType = file.getContentType();
+		validateTypeAndSize(contentType, file.getSize());
+
 		log.info("Processing CV file: {} ({}), size: {} bytes",
 				sanitizeFilename(file.getOriginalFilename()), contentType, file.getSize());
 
-		String extractedText;
-		if (CONTENT_TYPE_PDF.equals(contentType)) {
-			extractedText = extractFromPdf(file);
-		} else if (CONTENT_TYPE_DOCX.equals(contentType)) {
-			extractedText = extractFromDocx(file);
-		} else {
-			throw new IllegalArgumentException("Unsupported file type: " + contentType);
-		}
+		StoredUpload upload = copyToTempFile(file, contentType);
+		return extract(upload, contentType, file.getSize(), sessionId);
+	}// extractText
 
-		// Limit extracted text length
-		if (extractedText.length() > MAX_EXTRACTED_LENGTH) {
-			log.warn("CV text truncated from {} to {} characters", extractedText.length(), MAX_EXTRACTED_LENGTH);
-			extractedText = extractedText.substring(0, MAX_EXTRACTED_LENGTH);
-		}
 
-		return extractedText;
+	/**
+	 * Extracts the cleaned CV text from a file assembled by {@link CvUploadService},
+	 * which has already checked its type, size and magic bytes and hashed it.
+	 * The file is parsed where it lies and deleted afterwards.
+	 */
+	public String extractText(CvUploadService.CompletedUpload upload, String sessionId) throws IOException {
+		log.info("Processing chunked CV upload: {} ({}), size: {} bytes",
+				sanitizeFilename(upload.fileName()), upload.contentType(), upload.size());
+
+		return extract(new StoredUpload(upload.path(), upload.sha256()), upload.contentType(), upload.size(),
+				sessionId);
 	}// extractText
 
 
-	private void validateFile(MultipartFile file) throws IOException {
-		if (file == null || file.isEmpty()) {
+	private String extract(StoredUpload upload, String contentType, long size, String sessionId) throws IOException {
+		boolean pdf = CONTENT_TYPE_PDF.equals(contentType);
+		try {
+			String cachedText = extractionCache.get(upload.sha256(), sessionId);
+			if (cachedText != null) {
+				log.info("CV already extracted ({} characters) - skipping parsing", cachedText.length());
+				return cachedText;
+			}
+
+			String extractedText = parseExecutor.run(pdf ? "pdf" : "docx", size, deadline -> pdf
+					? extractFromPdf(upload.path(), deadline)
+					: extractFromDocx(upload.path(), deadline));
+
+			// Limit extracted text length
+			if (extractedText.length() > MAX_EXTRACTED_LENGTH) {
+				log.warn("CV text truncated from {} to {} characters", extractedText.length(), MAX_EXTRACTED_LENGTH);
+				extractedText = extractedText.substring(0, MAX_EXTRACTED_LENGTH);
+			}
+
+			extractionCache.put(upload.sha256(), extractedText, sessionId);
+			return extractedText;
+		} finally {
+			Files.deleteIfExists(upload.path());
+		}
+	}// extract
+
+
+	static void validateTypeAndSize(String contentType, long size) {
+		if (size <= 0) {
 			throw new IllegalArgumentException("File is empty or null");
 		}
 
-		if (file.getSize() > MAX_FILE_SIZE) {
+		if (size > MAX_FILE_SIZE) {
 			throw new IllegalArgumentException("File size exceeds maximum allowed (10MB)");
 		}
 
-		String contentType = file.getContentType();
 		if (!CONTENT_TYPE_PDF.equals(contentType) && !CONTENT_TYPE_DOCX.equals(contentType)) {
 			throw new IllegalArgumentException("Invalid file type. Only PDF and DOCX are allowed.");
 		}
-
-		// Verify magic bytes to prevent content-type spoofing
-		verifyMagicBytes(file, contentType);
-	}// validateFile
+	}// validateTypeAndSize
 
 
-	private void verifyMagicBytes(MultipartFile file, String contentType) throws IOException {
-		byte[] fileHeader = new byte[4];
-		try (InputStream is = file.getInputStream()) {
-			int bytesRead = is.read(fileHeader);
-			if (bytesRead < 4) {
-				throw new IllegalArgumentException("File is too small or corrupted");
-			}
-		}
-
+	// Checks the first four bytes against the claimed type to prevent content-type spoofing
+	static void verifyMagicBytes(byte[] fileHeader, String contentType) {
 		if (CONTENT_TYPE_PDF.equals(contentType)) {
 			if (!Arrays.equals(Arrays.copyOf(fileHeader, 4), PDF_MAGIC)) {
 				log.warn("File claims to be PDF but magic bytes don't match: {}",
@@ -113,34 +168,90 @@ public class CvProcessingService {
 	}// verifyMagicBytes
 
 
-	private String extractFromPdf(MultipartFile file) throws IOException {
-		try (InputStream inputStream = file.getInputStream();
-			 PDDocument document = Loader.loadPDF(inputStream.readAllBytes())) {
-
-			PDFTextStripper stripper = new PDFTextStripper();
-			String text = stripper.getText(document);
+	/**
+	 * Parses the PDF from the temp copy of the upload, so it is never held on
+	 * the heap as a whole. PDFBox reads objects from the file on
+	 * demand and spills stream buffers beyond {@link #PDF_MAIN_MEMORY_BYTES} to a
+	 * scratch file. Text is collected page by page and extraction stops at
+	 * {@link #MAX_PDF_PAGES} pages or {@link #MAX_EXTRACTED_LENGTH} characters;
+	 * the deadline is checked before every content stream operator.
+	 */
+	private String extractFromPdf(Path pdfFile, ParseDeadline deadline) throws IOException {
+		try (PDDocument document = Loader.loadPDF(new RandomAccessReadBufferedFile(pdfFile.toFile()), "", null, null,
+				MemoryUsageSetting.setupMixed(PDF_MAIN_MEMORY_BYTES).streamCache)) {
+
+			PDFTextStripper stripper = new PDFTextStripper() {
+				@Override
+				protected void processOperator(Operator operator, List<COSBase> operands) throws IOException {
+					deadline.check();
+					super.processOperator(operator, operands);
+				}
+			};
+			stripper.setStartPage(1);
+			stripper.setEndPage(MAX_PDF_PAGES);
+
+			BoundedWriter writer = new BoundedWriter(MAX_EXTRACTED_LENGTH);
+			try {
+				stripper.writeText(document, writer);
+			} catch (BoundedWriter.LimitReachedException e) {
+				log.warn("CV text limit of {} characters reached - stopped PDF extraction early", MAX_EXTRACTED_LENGTH);
+			}
+			if (document.getNumberOfPages() > MAX_PDF_PAGES) {
+				log.warn("CV has {} pages - only the first {} were read", document.getNumberOfPages(), MAX_PDF_PAGES);
+			}
 
+			String text = writer.toString();
 			log.info("Extracted {} characters from PDF", text.length());
 			return cleanText(text);
 		}
 	}// extractFromPdf
 
 
-	private String extractFromDocx(MultipartFile file) throws IOException {
-		try (InputStream inputStream = file.getInputStream();
-			 XWPFDocument document = new XWPFDocument(inputStream)) {
+	/**
+	 * Streams {@code word/document.xml} with {@link DocxTextExtractor} instead of
+	 * building an {@code XWPFDocument}; tables are included and reading stops at
+	 * {@link #MAX_EXTRACTED_LENGTH} characters.
+	 */
+	private String extractFromDocx(Path docxFile, ParseDeadline deadline) throws IOException {
+		String text = DocxTextExtractor.extract(docxFile.toFile(), MAX_EXTRACTED_LENGTH, deadline);
+		if (text.length() >= MAX_EXTRACTED_LENGTH) {
+			log.warn("CV text limit of {} characters reached - stopped DOCX extraction early", MAX_EXTRACTED_LENGTH);
+		}
 
-			StringBuilder text = new StringBuilder();
+		log.info("Extracted {} characters from DOCX", text.length());
+		return cleanText(text);
+	}// extractFromDocx
 
-			for (XWPFParagraph paragraph : document.getParagraphs()) {
-				text.append(paragraph.getText()).append("\n");
-			}
 
-			String result = text.toString();
-			log.info("Extracted {} characters from DOCX", result.length());
-			return cleanText(result);
+	// Parsers read from disk, so the upload is never held on the heap as a whole.
+	// The upload stream is read once: the magic bytes are checked and the content
+	// hash computed on the way through.
+	private StoredUpload copyToTempFile(MultipartFile file, String contentType) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
 		}
-	}// extractFromDocx
+
+		try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+			byte[] fileHeader = inputStream.readNBytes(4);
+			if (fileHeader.length < 4) {
+				throw new IllegalArgumentException("File is too small or corrupted");
+			}
+			verifyMagicBytes(fileHeader, contentType);
+
+			Path tempFile = Files.createTempFile("cv-upload-", CONTENT_TYPE_PDF.equals(contentType) ? ".pdf" : ".docx");
+			try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+				outputStream.write(fileHeader);
+				inputStream.transferTo(outputStream);
+			} catch (IOException e) {
+				Files.deleteIfExists(tempFile);
+				throw e;
+			}
+			return new StoredUpload(tempFile, HexFormat.of().formatHex(digest.digest()));
+		}
+	}// copyToTempFile
 
 
 	private String cleanText(String text) {
@@ -149,12 +260,7 @@ public class CvProcessingService {
 		}
 
 		// Remove excessive whitespace while preserving paragraph structure
-		return text
-				.replaceAll("\\r\\n", "\n")
-				.replaceAll("\\r", "\n")
-				.replaceAll("[ \\t]+", " ")
-				.replaceAll("\\n{3,}", "\n\n")
-				.trim();
+		return TextSanitizer.normalizeLayout(text);
 	}// cleanText
 
 
@@ -167,7 +273,7 @@ public class CvProcessingService {
 	}// sanitizeFilename
 
 
-	private String bytesToHex(byte[] bytes) {
+	private static String bytesToHex(byte[] bytes) {
 		StringBuilder sb = new StringBuilder();
 		for (byte b : bytes) {
 			sb.append(String.format("%02X ", b));
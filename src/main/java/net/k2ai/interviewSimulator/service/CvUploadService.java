@@ -0,0 +1,392 @@
+package net.k2ai.interviewSimulator.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.exception.CvParserBusyException;
+import net.k2ai.interviewSimulator.exception.CvUploadOffsetException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable, chunked CV uploads.
+ *
+ * <p>Each upload streams its chunks straight into a private temp file (owner
+ * read/write only) at the offset the client sends; a chunk at any other
+ * offset is refused with the offset the server has, so a client whose
+ * connection dropped asks for the offset and carries on from there instead
+ * of re-sending the whole file. The magic bytes are checked as soon as the
+ * first chunk is in and the SHA-256 is updated as bytes arrive, so the
+ * finished file goes to {@link CvProcessingService} as is, without another
+ * copy or read.
+ *
+ * <p>Uploads belong to the HTTP session that started them; a session has at
+ * most one open upload. Partial files are deleted when the upload is aborted,
+ * replaced, idle for longer than the idle timeout, or its session ends.
+ */
+@Slf4j
+@Service
+public class CvUploadService implements HttpSessionListener {
+
+	private static final int UPLOAD_ID_BYTES = 16;
+
+	private static final int MAGIC_LENGTH = 4;
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	private final int chunkSize;
+
+	private final Duration idleTimeout;
+
+	private final int maxOpenUploads;
+
+	private final Clock clock;
+
+	private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Where an upload stands; {@code offset} is the number of bytes received.
+	 */
+	public record UploadStatus(String uploadId, long offset, long size, int chunkSize) {
+
+		public boolean isComplete() {
+			return offset == size;
+		}//isComplete
+
+	}//UploadStatus
+
+
+	/**
+	 * A fully received upload. The caller owns {@code path} and deletes it.
+	 */
+	public record CompletedUpload(Path path, String fileName, String contentType, long size, String sha256) {
+	}
+
+
+	private static final class Upload {
+
+		private final String id;
+
+		private final String sessionId;
+
+		private final String fileName;
+
+		private final String contentType;
+
+		private final long size;
+
+		private final Path path;
+
+		private final MessageDigest digest;
+
+		private final byte[] header = new byte[MAGIC_LENGTH];
+
+		private long received;
+
+		private boolean verified;
+
+		private boolean closed;
+
+		private Instant lastActivity;
+
+
+		private Upload(String id, String sessionId, String fileName, String contentType, long size, Path path,
+					   Instant now) {
+			this.id = id;
+			this.sessionId = sessionId;
+			this.fileName = fileName;
+			this.contentType = contentType;
+			this.size = size;
+			this.path = path;
+			this.digest = newSha256();
+			this.lastActivity = now;
+		}//Upload
+
+	}//Upload
+
+
+	public CvUploadService(@Value("${app.cv.upload.chunk-size:1048576}") int chunkSize,
+						   @Value("${app.cv.upload.idle-timeout-minutes:15}") long idleTimeoutMinutes,
+						   @Value("${app.cv.upload.max-open:64}") int maxOpenUploads) {
+		this(chunkSize, Duration.ofMinutes(idleTimeoutMinutes), maxOpenUploads, Clock.systemUTC());
+	}//CvUploadService
+
+
+	CvUploadService(int chunkSize, Duration idleTimeout, int maxOpenUploads, Clock clock) {
+		this.chunkSize = chunkSize;
+		this.idleTimeout = idleTimeout;
+		this.maxOpenUploads = maxOpenUploads;
+		this.clock = clock;
+	}//CvUploadService
+
+
+	/**
+	 * Opens an upload of {@code size} bytes for the session, replacing any
+	 * upload the session still has open.
+	 *
+	 * @throws IllegalArgumentException if the type or size is not acceptable
+	 * @throws CvParserBusyException    if too many uploads are open
+	 */
+	public UploadStatus start(String fileName, String contentType, long size, String sessionId) throws IOException {
+		CvProcessingService.validateTypeAndSize(contentType, size);
+		if (size < MAGIC_LENGTH) {
+			throw new IllegalArgumentException("File is too small or corrupted");
+		}
+
+		abortSession(sessionId);
+		if (uploads.size() >= maxOpenUploads) {
+			throw new CvParserBusyException("Too many CV uploads in progress. Please try again in a moment.");
+		}
+
+		byte[] idBytes = new byte[UPLOAD_ID_BYTES];
+		RANDOM.nextBytes(idBytes);
+		String uploadId = Base64.getUrlEncoder().withoutPadding().encodeToString(idBytes);
+
+		// On POSIX file systems temp files are created rw------- already
+		Path path = Files.createTempFile("cv-chunked-",
+				CvProcessingService.CONTENT_TYPE_PDF.equals(contentType) ? ".pdf" : ".docx");
+		uploads.put(uploadId, new Upload(uploadId, sessionId, fileName, contentType, size, path, clock.instant()));
+
+		log.debug("CV upload started ({} bytes, {} open)", size, uploads.size());
+		return new UploadStatus(uploadId, 0, size, chunkSize);
+	}//start
+
+
+	/**
+	 * Returns where the session's upload stands, or empty if it is unknown.
+	 */
+	public Optional<UploadStatus> status(String uploadId, String sessionId) {
+		Upload upload = find(uploadId, sessionId);
+		if (upload == null) {
+			return Optional.empty();
+		}
+		synchronized (upload) {
+			return Optional.of(statusOf(upload));
+		}
+	}//status
+
+
+	/**
+	 * Appends the bytes of {@code data} at {@code offset}. Bytes written before a
+	 * failure still count, so after an error the client resumes from
+	 * {@link #status}.
+	 *
+	 * @throws CvUploadOffsetException  if {@code offset} is not the received length
+	 * @throws IllegalArgumentException if the upload is unknown, the chunk is too
+	 *                                  large, or the first bytes are not a PDF/DOCX
+	 */
+	public UploadStatus append(String uploadId, String sessionId, long offset, InputStream data) throws IOException {
+		Upload upload = find(uploadId, sessionId);
+		if (upload == null) {
+			throw new IllegalArgumentException("Upload not found");
+		}
+
+		synchronized (upload) {
+			if (upload.closed) {
+				throw new IllegalArgumentException("Upload not found");
+			}
+			if (offset != upload.received) {
+				throw new CvUploadOffsetException(upload.received);
+			}
+
+			long limit = Math.min(chunkSize, upload.size - upload.received);
+			try (FileChannel channel = FileChannel.open(upload.path, StandardOpenOption.WRITE)) {
+				channel.position(upload.received);
+				byte[] buffer = new byte[8192];
+				long written = 0;
+				int read;
+				while ((read = data.read(buffer)) != -1) {
+					if (written + read > limit) {
+						throw new IllegalArgumentException("Chunk exceeds " + limit + " bytes");
+					}
+					ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+					while (bytes.hasRemaining()) {
+						channel.write(bytes);
+					}
+					upload.digest.update(buffer, 0, read);
+					if (upload.received < MAGIC_LENGTH) {
+						int headerBytes = (int) Math.min(read, MAGIC_LENGTH - upload.received);
+						System.arraycopy(buffer, 0, upload.header, (int) upload.received, headerBytes);
+					}
+					upload.received += read;
+					written += read;
+				}
+			} finally {
+				upload.lastActivity = clock.instant();
+			}
+
+			verifyHeader(upload);
+			return statusOf(upload);
+		}
+	}//append
+
+
+	/**
+	 * Hands the fully received file over to the caller and forgets the upload.
+	 *
+	 * @throws IllegalArgumentException if the upload is unknown or incomplete
+	 */
+	public CompletedUpload complete(String uploadId, String sessionId) {
+		Upload upload = find(uploadId, sessionId);
+		if (upload == null) {
+			throw new IllegalArgumentException("Upload not found");
+		}
+
+		synchronized (upload) {
+			if (upload.closed) {
+				throw new IllegalArgumentException("Upload not found");
+			}
+			if (upload.received != upload.size) {
+				throw new IllegalArgumentException("Upload is incomplete");
+			}
+			verifyHeader(upload);
+			upload.closed = true;
+			uploads.remove(upload.id);
+			return new CompletedUpload(upload.path, upload.fileName, upload.contentType, upload.size,
+					HexFormat.of().formatHex(upload.digest.digest()));
+		}
+	}//complete
+
+
+	/**
+	 * Cancels the upload and deletes what was received; unknown uploads are ignored.
+	 */
+	public void abort(String uploadId, String sessionId) {
+		Upload upload = find(uploadId, sessionId);
+		if (upload != null) {
+			discard(upload);
+		}
+	}//abort
+
+
+	@Override
+	public void sessionDestroyed(HttpSessionEvent event) {
+		abortSession(event.getSession().getId());
+	}//sessionDestroyed
+
+
+	/**
+	 * Deletes uploads nobody has written to for the idle timeout.
+	 */
+	@Scheduled(fixedDelayString = "${app.cv.upload.sweep-interval-ms:60000}")
+	public void purgeIdleUploads() {
+		Instant cutoff = clock.instant().minus(idleTimeout);
+		int purged = 0;
+		for (Upload upload : uploads.values()) {
+			boolean idle;
+			synchronized (upload) {
+				idle = !upload.lastActivity.isAfter(cutoff);
+			}
+			if (idle) {
+				discard(upload);
+				purged++;
+			}
+		}
+		if (purged > 0) {
+			log.info("Deleted {} idle partial CV upload(s)", purged);
+		}
+	}//purgeIdleUploads
+
+
+	@PreDestroy
+	public void deleteAll() {
+		for (Upload upload : uploads.values()) {
+			discard(upload);
+		}
+	}//deleteAll
+
+
+	public int getOpenUploadCount() {
+		return uploads.size();
+	}//getOpenUploadCount
+
+
+	private Upload find(String uploadId, String sessionId) {
+		if (uploadId == null || sessionId == null) {
+			return null;
+		}
+		Upload upload = uploads.get(uploadId);
+		return upload != null && upload.sessionId.equals(sessionId) ? upload : null;
+	}//find
+
+
+	private void abortSession(String sessionId) {
+		for (Upload upload : uploads.values()) {
+			if (upload.sessionId.equals(sessionId)) {
+				discard(upload);
+			}
+		}
+	}//abortSession
+
+
+	private void discard(Upload upload) {
+		synchronized (upload) {
+			if (upload.closed) {
+				return;
+			}
+			upload.closed = true;
+			uploads.remove(upload.id);
+			try {
+				Files.deleteIfExists(upload.path);
+			} catch (IOException e) {
+				log.warn("Could not delete partial CV upload {}: {}", upload.path, e.getMessage());
+			}
+		}
+	}//discard
+
+
+	// Runs once, after the first chunk: nothing more is accepted for a file that
+	// is not what it claims to be
+	private void verifyHeader(Upload upload) {
+		if (upload.verified) {
+			return;
+		}
+		try {
+			if (upload.received < MAGIC_LENGTH) {
+				throw new IllegalArgumentException("File is too small or corrupted");
+			}
+			CvProcessingService.verifyMagicBytes(upload.header, upload.contentType);
+			upload.verified = true;
+		} catch (IllegalArgumentException e) {
+			discard(upload);
+			throw e;
+		}
+	}//verifyHeader
+
+
+	private UploadStatus statusOf(Upload upload) {
+		return new UploadStatus(upload.id, upload.received, upload.size, chunkSize);
+	}//statusOf
+
+
+	private static MessageDigest newSha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}//newSha256
+
+}//CvUploadService
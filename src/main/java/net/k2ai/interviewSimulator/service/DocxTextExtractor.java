@@ -0,0 +1,157 @@
+package net.k2ai.interviewSimulator.service;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+
+/**
+ * Pulls the text out of a DOCX by streaming {@code word/document.xml} with
+ * StAX, without building POI's XWPF object model.
+ *
+ * <p>Paragraphs and tables come out in document order: paragraphs end with a
+ * newline, table cells are separated by tabs and rows end with a newline, so
+ * CVs laid out in tables keep their text. Text boxes are read once (their
+ * {@code mc:Fallback} copy is skipped), deleted revisions are ignored.
+ *
+ * <p>The archive is opened with {@link ZipSecureFile}, so the zip-bomb limits
+ * configured in {@link CvProcessingService} apply to the XML stream, and
+ * reading stops as soon as {@code maxLength} characters have been collected
+ * or the {@link ParseDeadline} passes.
+ */
+final class DocxTextExtractor {
+
+	private static final String WORD_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+	private static final String MARKUP_COMPATIBILITY_NS = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
+	private static final String MAIN_DOCUMENT = "word/document.xml";
+
+	private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+	// Check the parse deadline every 512 XML events
+	private static final int DEADLINE_CHECK_MASK = 511;
+
+
+	private DocxTextExtractor() {
+	}//DocxTextExtractor
+
+
+	/**
+	 * @throws IllegalArgumentException if the file is not a readable DOCX
+	 */
+	static String extract(File docx, int maxLength, ParseDeadline deadline) throws IOException {
+		try (ZipSecureFile zip = new ZipSecureFile(docx)) {
+			long entryCount = Collections.list(zip.getEntries()).size();
+			if (entryCount > ZipSecureFile.getMaxFileCount()) {
+				throw new IllegalArgumentException("DOCX contains too many entries");
+			}
+
+			ZipArchiveEntry entry = zip.getEntry(MAIN_DOCUMENT);
+			if (entry == null) {
+				throw new IllegalArgumentException("Invalid DOCX file - no document body");
+			}
+
+			BoundedWriter writer = new BoundedWriter(maxLength);
+			try (InputStream in = zip.getInputStream(entry)) {
+				readDocument(in, writer, deadline);
+			} catch (BoundedWriter.LimitReachedException e) {
+				// Cap reached - keep what was collected
+			}
+			return writer.toString();
+		}
+	}//extract
+
+
+	private static void readDocument(InputStream in, BoundedWriter out, ParseDeadline deadline) throws IOException {
+		XMLStreamReader reader = null;
+		try {
+			reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+
+			int tableDepth = 0;
+			boolean inText = false;
+			int events = 0;
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if ((++events & DEADLINE_CHECK_MASK) == 0) {
+					deadline.check();
+				}
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					if (MARKUP_COMPATIBILITY_NS.equals(reader.getNamespaceURI()) && "Fallback".equals(reader.getLocalName())) {
+						skipElement(reader);
+						continue;
+					}
+					if (!WORD_NS.equals(reader.getNamespaceURI())) {
+						continue;
+					}
+					switch (reader.getLocalName()) {
+						case "t" -> inText = true;
+						case "tab" -> out.write('\t');
+						case "br", "cr" -> out.write('\n');
+						case "tbl" -> tableDepth++;
+						default -> {
+						}
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					if (!WORD_NS.equals(reader.getNamespaceURI())) {
+						continue;
+					}
+					switch (reader.getLocalName()) {
+						case "t" -> inText = false;
+						// Paragraphs inside a cell are joined with spaces, so a row stays on one line
+						case "p" -> out.write(tableDepth > 0 ? ' ' : '\n');
+						case "tc" -> out.write('\t');
+						case "tr" -> out.write('\n');
+						case "tbl" -> tableDepth--;
+						default -> {
+						}
+					}
+				} else if (inText && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+						|| event == XMLStreamConstants.SPACE)) {
+					out.write(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+				}
+			}
+		} catch (XMLStreamException e) {
+			throw new IllegalArgumentException("Invalid DOCX file - document body is not valid XML", e);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException ignored) {
+					// Nothing to release beyond the input stream, which the caller closes
+				}
+			}
+		}
+	}//readDocument
+
+
+	private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}//skipElement
+
+
+	// No DTDs or external entities: the XML comes from an untrusted upload
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+		return factory;
+	}//createInputFactory
+
+}//DocxTextExtractor
@@ -0,0 +1,261 @@
+package net.k2ai.interviewSimulator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.config.GeminiConfig;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps the static grading rubric in Gemini's {@code cachedContents} store, one
+ * entry per (API key, model, language), so grading requests only send the
+ * session details and transcript.
+ *
+ * <p>An entry's TTL is extended when it gets close to expiring. Models or keys
+ * that refuse caching (unsupported model, prefix below the model's minimum
+ * token count, no permission) are remembered for a while and graded with the
+ * rubric inline - {@link #resolve} returns null and the caller falls back.
+ *
+ * <p>A rubric below {@code gemini.grading-cache.min-tokens} is never sent for
+ * caching, since Gemini would only refuse it. PROD grades on users' own keys,
+ * which are not cached at all: one entry per user would be billed to them and
+ * rarely reused. Both maps hold at most {@code max-entries} keys.
+ */
+@Slf4j
+@Service
+public class GeminiContextCacheService {
+
+	private static final MediaType JSON = MediaType.parse("application/json");
+
+	private final GeminiConfig geminiConfig;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final OkHttpClient httpClient = new OkHttpClient.Builder()
+			.connectTimeout(10, TimeUnit.SECONDS)
+			.readTimeout(20, TimeUnit.SECONDS)
+			.build();
+
+	private final boolean enabled;
+
+	private final Duration ttl;
+
+	private final Duration refreshBefore;
+
+	private final Duration unsupportedRetry;
+
+	private final long minTokens;
+
+	private final int maxEntries;
+
+	private volatile boolean loggedTooSmall = false;
+
+	private final Map<CacheKey, CachedContext> contexts = new ConcurrentHashMap<>();
+
+	// Key/model/language combinations that refused caching -> when to try again
+	private final Map<CacheKey, Instant> unsupported = new ConcurrentHashMap<>();
+
+
+	// The API key is only kept as a fingerprint, so the maps never hold or log it
+	private record CacheKey(String keyFingerprint, String model, String language) {
+	}
+
+
+	private record CachedContext(String name, Instant expiresAt) {
+	}
+
+
+	public GeminiContextCacheService(GeminiConfig geminiConfig,
+									 @Value("${gemini.grading-cache.enabled:true}") boolean enabled,
+									 @Value("${gemini.grading-cache.ttl-seconds:3600}") long ttlSeconds,
+									 @Value("${gemini.grading-cache.refresh-before-seconds:300}") long refreshBeforeSeconds,
+									 @Value("${gemini.grading-cache.unsupported-retry-minutes:360}") long unsupportedRetryMinutes,
+									 @Value("${gemini.grading-cache.min-tokens:1024}") long minTokens,
+									 @Value("${gemini.grading-cache.max-entries:256}") int maxEntries) {
+		this.geminiConfig = geminiConfig;
+		this.enabled = enabled;
+		this.ttl = Duration.ofSeconds(ttlSeconds);
+		this.refreshBefore = Duration.ofSeconds(refreshBeforeSeconds);
+		this.unsupportedRetry = Duration.ofMinutes(unsupportedRetryMinutes);
+		this.minTokens = minTokens;
+		this.maxEntries = maxEntries;
+	}//GeminiContextCacheService
+
+
+	/**
+	 * Returns the {@code cachedContents/...} name holding {@code rubric} for this
+	 * key/model/language, creating or extending it as needed.
+	 *
+	 * @return null if caching is disabled, unsupported here, or failed - send the rubric inline
+	 */
+	public String resolve(String apiKey, String model, String language, String rubric) {
+		if (!enabled || geminiConfig.isProdMode()) {
+			return null;
+		}
+		// Same chars-per-token estimate as the quota checks
+		long estimatedTokens = rubric.length() / 4;
+		if (estimatedTokens < minTokens) {
+			if (!loggedTooSmall) {
+				loggedTooSmall = true;
+				log.info("Grading rubric (~{} tokens) is below the {}-token caching minimum - sending it inline",
+						estimatedTokens, minTokens);
+			}
+			return null;
+		}
+
+		CacheKey key = new CacheKey(fingerprint(apiKey), model, language);
+		Instant now = Instant.now();
+
+		Instant retryAt = unsupported.get(key);
+		if (retryAt != null) {
+			if (now.isBefore(retryAt)) {
+				return null;
+			}
+			unsupported.remove(key, retryAt);
+		}
+
+		CachedContext context = contexts.get(key);
+		if (context != null && now.isBefore(context.expiresAt().minus(refreshBefore))) {
+			return context.name();
+		}
+
+		if (context == null && !hasRoom(contexts, CachedContext::expiresAt, now)) {
+			return null;
+		}
+
+		// Two gradings racing here may both create an entry; the loser's simply expires
+		try {
+			CachedContext updated = null;
+			if (context != null && now.isBefore(context.expiresAt())) {
+				updated = extend(apiKey, context, now);
+			}
+			if (updated == null) {
+				updated = create(apiKey, model, language, rubric, now);
+			}
+			if (updated == null) {
+				contexts.remove(key);
+				if (hasRoom(unsupported, Function.identity(), now)) {
+					unsupported.put(key, now.plus(unsupportedRetry));
+				}
+				log.info("Context caching not available for model {} ({}) - sending rubric inline", model, language);
+				return null;
+			}
+			contexts.put(key, updated);
+			return updated.name();
+		} catch (IOException e) {
+			log.warn("Could not prepare cached grading rubric for model {}: {}", model, e.getMessage());
+			contexts.remove(key);
+			return null;
+		}
+	}//resolve
+
+
+	/**
+	 * Forgets the entry, e.g. because generateContent no longer accepts it.
+	 */
+	public void invalidate(String apiKey, String model, String language) {
+		contexts.remove(new CacheKey(fingerprint(apiKey), model, language));
+	}//invalidate
+
+
+	// Drops entries that have run out; false if the map is still full of live ones
+	private <V> boolean hasRoom(Map<CacheKey, V> entries, Function<V, Instant> expiresAt, Instant now) {
+		if (entries.size() < maxEntries) {
+			return true;
+		}
+		entries.values().removeIf(value -> !now.isBefore(expiresAt.apply(value)));
+		return entries.size() < maxEntries;
+	}//hasRoom
+
+
+	// Returns null when the model/key refuses caching; throws on transient failures
+	private CachedContext create(String apiKey, String model, String language, String rubric, Instant now) throws IOException {
+		ObjectNode body = objectMapper.createObjectNode();
+		body.put("model", "models/" + model);
+		body.put("displayName", "grading-rubric-" + language);
+		body.putObject("systemInstruction").putArray("parts").addObject().put("text", rubric);
+		body.put("ttl", ttl.toSeconds() + "s");
+
+		Request request = new Request.Builder()
+				.url(geminiConfig.getApiBaseUrl() + "/cachedContents?key=" + apiKey)
+				.post(RequestBody.create(body.toString(), JSON))
+				.build();
+
+		try (Response response = httpClient.newCall(request).execute()) {
+			String responseBody = response.body() != null ? response.body().string() : "";
+			if (isRefusal(response.code())) {
+				log.debug("cachedContents create refused for model {}: {} - {}", model, response.code(), responseBody);
+				return null;
+			}
+			if (!response.isSuccessful()) {
+				throw new IOException("cachedContents create failed: " + response.code());
+			}
+
+			String name = objectMapper.readTree(responseBody).path("name").asText("");
+			if (name.isEmpty()) {
+				throw new IOException("cachedContents create returned no name");
+			}
+			log.info("Cached grading rubric for model {} ({}) as {}", model, language, name);
+			return new CachedContext(name, now.plus(ttl));
+		}
+	}//create
+
+
+	// Returns null when the entry is gone (it has to be recreated)
+	private CachedContext extend(String apiKey, CachedContext context, Instant now) throws IOException {
+		ObjectNode body = objectMapper.createObjectNode();
+		body.put("ttl", ttl.toSeconds() + "s");
+
+		Request request = new Request.Builder()
+				.url(geminiConfig.getApiBaseUrl() + "/" + context.name() + "?updateMask=ttl&key=" + apiKey)
+				.patch(RequestBody.create(body.toString(), JSON))
+				.build();
+
+		try (Response response = httpClient.newCall(request).execute()) {
+			if (isRefusal(response.code())) {
+				return null;
+			}
+			if (!response.isSuccessful()) {
+				throw new IOException("cachedContents TTL update failed: " + response.code());
+			}
+			log.debug("Extended cached grading rubric {}", context.name());
+			return new CachedContext(context.name(), now.plus(ttl));
+		}
+	}//extend
+
+
+	// Permanent answers for this key/model, as opposed to 429/5xx
+	private static boolean isRefusal(int code) {
+		return code == 400 || code == 403 || code == 404;
+	}//isRefusal
+
+
+	private static String fingerprint(String apiKey) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+					(apiKey != null ? apiKey : "").getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest, 0, 8);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}//fingerprint
+
+}//GeminiContextCacheService
@@ -4,23 +4,21 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.k2ai.interviewSimulator.config.GeminiConfig;
 import net.k2ai.interviewSimulator.entity.InterviewFeedback;
-import net.k2ai.interviewSimulator.exception.RateLimitException;
-import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessageType;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import net.k2ai.interviewSimulator.exception.LiveCapacityException;
+import net.k2ai.interviewSimulator.scheduler.GradingJobWorker;
+import net.k2ai.interviewSimulator.service.LiveSessionScheduler.LivePlacement;
+import net.k2ai.interviewSimulator.service.SessionMigrationService.MigrationTicket;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PreDestroy;
-
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -31,43 +29,31 @@ public class GeminiIntegrationService {
 
 	private final InterviewService interviewService;
 
-	private final SimpMessagingTemplate messagingTemplate;
+	private final ClientMessagingService clientMessagingService;
+
+	private final ClusterSessionDirectory clusterDirectory;
 
 	private final InterviewPromptService promptService;
 
-	private final GradingService gradingService;
+	private final CvCondensationService cvCondensationService;
+
+	private final GradingJobService gradingJobService;
+
+	private final GradingJobWorker gradingJobWorker;
+
+	private final SpeculativeGradingService speculativeGradingService;
+
+	private final SessionMigrationService sessionMigrationService;
+
+	private final InterviewAdmissionService admissionService;
+
+	private final LiveSessionScheduler liveSessionScheduler;
 
 	// Maps WebSocket session ID to interview state
 	private final Map<String, InterviewState> activeSessions = new ConcurrentHashMap<>();
 
-	// Bounded pool for async grading. Caps concurrent grading calls and
-	// the backlog queue, so a burst of ended interviews can't spawn unbounded
-	// threads. Tasks beyond capacity fall back to running on the caller thread
-	// (CallerRunsPolicy) which naturally backpressures the caller.
-	private final ExecutorService gradingExecutor = new ThreadPoolExecutor(
-			2, 4,
-			60L, TimeUnit.SECONDS,
-			new LinkedBlockingQueue<>(32),
-			r -> {
-				Thread t = new Thread(r, "grading-worker");
-				t.setDaemon(true);
-				return t;
-			},
-			new ThreadPoolExecutor.CallerRunsPolicy()
-	);
-
-
-	@PreDestroy
-	public void shutdown() {
-		gradingExecutor.shutdown();
-		try {
-			if (!gradingExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
-				gradingExecutor.shutdownNow();
-			}
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-		}
-	}//shutdown
+	// Set once this node starts draining; new starts and resumes are refused from then on
+	private volatile boolean draining = false;
 
 
 	public UUID startInterview(String wsSessionId, String candidateName, String position, String difficulty, String language) {
@@ -102,12 +88,19 @@ public class GeminiIntegrationService {
 	}//startInterview
 
 
+	/**
+	 * @return the interview session ID, or null if the start failed and the client was told
+	 * @throws LiveCapacityException if no key/model can take the session yet; nothing was sent to the client
+	 */
 	public UUID startInterview(String wsSessionId, String candidateName, String position, String difficulty,
 							   String language, String cvText, String voiceId, String interviewerNameEN,
 							   String interviewerNameBG, String userApiKey, String interviewLength, boolean pttMode) {
-		// Determine which API key to use
-		String effectiveApiKey = determineApiKey(userApiKey);
-		if (effectiveApiKey == null || effectiveApiKey.isBlank()) {
+		if (draining) {
+			sendDrainingError(wsSessionId);
+			return null;
+		}
+
+		if (!liveSessionScheduler.hasCandidateKey(userApiKey)) {
 			log.error("No API key available for session: {}", wsSessionId);
 			sendToClient(wsSessionId, "/queue/error", Map.of(
 					"message", "API key required. Please provide a valid Gemini API key.",
@@ -116,22 +109,39 @@ public class GeminiIntegrationService {
 			return null;
 		}
 
-		UUID interviewSessionId = interviewService.startSession(candidateName, position, difficulty, language);
+		// Least-loaded healthy key on the most preferred live model that has one, already reserved
+		LivePlacement placement = liveSessionScheduler.place(userApiKey, Set.of());
+		if (placement == null) {
+			// The admission service puts the start back in the waiting room
+			log.warn("No live key/model placement has capacity (cooling down or at quota) - session: {}", wsSessionId);
+			throw new LiveCapacityException();
+		}
+
+		UUID interviewSessionId;
+		try {
+			interviewSessionId = interviewService.startSession(candidateName, position, difficulty, language);
+		} catch (RuntimeException e) {
+			liveSessionScheduler.release(placement);
+			throw e;
+		}
 
 		// Use provided voice or fall back to config default
 		String effectiveVoice = (voiceId != null && !voiceId.isBlank()) ? voiceId : geminiConfig.getVoiceName();
 
+		boolean registered = false;
 		try {
-			// Create Gemini client with the selected voice and effective API key
-			GeminiLiveClient geminiClient = new GeminiLiveClient(effectiveApiKey, geminiConfig.getLiveModel(), effectiveVoice);
+			// Create Gemini client with the selected voice on the chosen key/model
+			GeminiLiveClient geminiClient = new GeminiLiveClient(placement.apiKey(), placement.model(), effectiveVoice);
 			geminiClient.setPttMode(pttMode);
 
-			// Generate system instruction for the AI interviewer (language-aware, with optional CV and custom names)
+			// Generate system instruction for the AI interviewer (language-aware, with optional CV and custom names).
+			// The CV is condensed to a token budget first; usually a cache hit from the setup upload.
+			String condensedCv = cvCondensationService.condense(cvText);
 			String systemInstruction;
 			if (interviewerNameEN != null && interviewerNameBG != null) {
-				systemInstruction = promptService.generateInterviewerPrompt(position, difficulty, language, cvText, interviewerNameEN, interviewerNameBG, interviewLength);
+				systemInstruction = promptService.generateInterviewerPrompt(position, difficulty, language, condensedCv, interviewerNameEN, interviewerNameBG, interviewLength);
 			} else {
-				systemInstruction = promptService.generateInterviewerPrompt(position, difficulty, language, cvText);
+				systemInstruction = promptService.generateInterviewerPrompt(position, difficulty, language, condensedCv);
 			}
 			geminiClient.setSystemInstruction(systemInstruction);
 
@@ -139,9 +149,12 @@ public class GeminiIntegrationService {
 			InterviewState state = new InterviewState(interviewSessionId, geminiClient, language);
 			state.setVoiceId(effectiveVoice);
 			state.setSystemInstruction(systemInstruction);
-			state.setUserApiKey(effectiveApiKey);
+			state.setUserApiKey(placement.apiKey());
 			state.setPttMode(pttMode);
+			switchPlacement(state, placement);
 			activeSessions.put(wsSessionId, state);
+			registered = true;
+			clusterDirectory.attachInterview(wsSessionId, interviewSessionId);
 
 			// Setup callbacks
 			setupGeminiCallbacks(wsSessionId, state);
@@ -149,13 +162,20 @@ public class GeminiIntegrationService {
 			// Connect to Gemini
 			geminiClient.connect();
 
-			log.info("Started interview session {} with voice: {}, length: {}, using {}",
-					interviewSessionId, effectiveVoice, interviewLength, userApiKey != null ? "user API key" : "backend API key");
+			log.info("Started interview session {} with voice: {}, length: {}, on {} using {}",
+					interviewSessionId, effectiveVoice, interviewLength, placement,
+					userApiKey != null ? "user API key" : "backend API key");
 
 			return interviewSessionId;
 		} catch (Exception e) {
 			log.error("Failed to start interview session: {}", interviewSessionId, e);
-			activeSessions.remove(wsSessionId);
+			InterviewState failed = activeSessions.remove(wsSessionId);
+			if (!registered) {
+				// Abandoned before the session took the reservation over
+				liveSessionScheduler.release(placement);
+			} else if (failed != null) {
+				liveSessionScheduler.release(failed.getPlacement());
+			}
 			interviewService.deleteSession(interviewSessionId);
 			sendToClient(wsSessionId, "/queue/error", Map.of(
 					"message", "Failed to start interview session. Please try again."
@@ -165,24 +185,6 @@ public class GeminiIntegrationService {
 	}//startInterview
 
 
-	/**
-	 * Determines which API key to use based on mode and availability
-	 */
-	private String determineApiKey(String userApiKey) {
-		if (geminiConfig.isProdMode()) {
-			// PROD mode - must use user-provided key
-			return userApiKey;
-		} else if (geminiConfig.isReviewerMode()) {
-			// REVIEWER mode - use first available reviewer key
-			var keys = geminiConfig.getReviewerKeyList();
-			return keys.isEmpty() ? null : keys.get(0);
-		} else {
-			// DEV mode - use backend key
-			return geminiConfig.getApiKey();
-		}
-	}//determineApiKey
-
-
 	private void setupGeminiCallbacks(String wsSessionId, InterviewState state) {
 		setupGeminiCallbacks(wsSessionId, state, true);
 	}//setupGeminiCallbacks
@@ -212,6 +214,10 @@ public class GeminiIntegrationService {
 				// Resumed session - just notify reconnection complete
 				state.setReconnecting(false);
 				log.info("Session resumed successfully for: {}", wsSessionId);
+				sendToClient(wsSessionId, "/queue/status", Map.of(
+						"type", "RESUMED",
+						"message", "Interview resumed"
+				));
 				// Send any buffered audio
 				state.flushBufferedAudio(client);
 			}
@@ -235,6 +241,8 @@ public class GeminiIntegrationService {
 
 		// Input transcription (user's speech)
 		client.setOnInputTranscript(transcript -> {
+			// The conversation goes on - a grade of the earlier snapshot no longer holds
+			speculativeGradingService.cancel(state.getInterviewSessionId());
 			state.appendUserTranscript(transcript);
 			sendToClient(wsSessionId, "/queue/transcript", Map.of(
 					"speaker", "user",
@@ -242,10 +250,10 @@ public class GeminiIntegrationService {
 			));
 		});
 
-		// Output transcription (AI's speech) - accumulate for turn-end checking
+		// Output transcription (AI's speech) - scanned incrementally for closing phrases
 		client.setOnOutputTranscript(transcript -> {
-			// Keep original for conclusion detection, but strip end signal from saved transcript
-			state.appendCurrentTurnTranscript(transcript);
+			// Detector sees the raw fragment (incl. end signal), saved transcript has it stripped
+			int raised = state.feedTurnDetector(transcript);
 			String cleanTranscript = transcript.replace("[END_INTERVIEW]", "").trim();
 			if (!cleanTranscript.isEmpty()) {
 				state.appendAiTranscript(cleanTranscript);
@@ -254,14 +262,21 @@ public class GeminiIntegrationService {
 						"text", cleanTranscript
 				));
 			}
+
+			// Likely the end of the interview - start grading while the goodbye is still playing
+			if ((raised & ConclusionDetector.CONCLUSION) != 0 && !state.isEnded()) {
+				log.info("Closing phrase detected mid-turn for session {}: {}", wsSessionId, state.getTurnMatchedPhrase());
+				speculativeGradingService.start(state.getInterviewSessionId(), state.getFullTranscript(),
+						state.getUserApiKey(), state.getLanguage());
+			}
 		});
 
-		// When AI turn is complete - check accumulated transcript for conclusion
+		// When AI turn is complete - act on what the detector saw during the turn
 		client.setOnTurnComplete(() -> {
-			String turnText = state.getCurrentTurnTranscript();
-			state.clearCurrentTurnTranscript();
+			int turnLength = state.getTurnLength();
+			int signals = state.completeTurn();
 
-			log.info("AI turn complete ({} chars)", turnText.length());
+			log.info("AI turn complete ({} chars)", turnLength);
 
 			sendToClient(wsSessionId, "/queue/status", Map.of(
 					"type", "TURN_COMPLETE",
@@ -270,8 +285,8 @@ public class GeminiIntegrationService {
 
 			// Check if this turn contained conclusion phrases.
 			// If Gemini asks a question and says goodbye in one turn, wait for one more turn.
-			boolean concludingTurn = promptService.isInterviewConcluding(turnText);
-			if (concludingTurn && promptService.containsQuestion(turnText)) {
+			boolean concludingTurn = (signals & ConclusionDetector.CONCLUSION) != 0;
+			if (concludingTurn && (signals & ConclusionDetector.QUESTION) != 0) {
 				log.info("Detected mixed question+conclusion turn; deferring interview end for session: {}", wsSessionId);
 				return;
 			}
@@ -283,7 +298,7 @@ public class GeminiIntegrationService {
 
 		// When user interrupts
 		client.setOnInterrupted(() -> {
-			state.clearCurrentTurnTranscript();
+			state.completeTurn();
 			sendToClient(wsSessionId, "/queue/status", Map.of(
 					"type", "INTERRUPTED",
 					"message", "Generation interrupted"
@@ -294,11 +309,19 @@ public class GeminiIntegrationService {
 		client.setOnError(error -> {
 			log.error("Gemini error for session {}: {}", wsSessionId, error);
 
-			// REVIEWER mode: rotate to next key if still in initial connection phase
-			if (geminiConfig.isReviewerMode() && !state.isInitialConnectionEstablished()) {
-				boolean retryable = error != null &&
-						(error.startsWith("RATE_LIMIT:") || error.startsWith("INVALID_KEY:"));
-				if (retryable && tryNextLiveKey(wsSessionId, state)) {
+			boolean rateLimited = error != null && error.startsWith("RATE_LIMIT:");
+			boolean invalidKey = error != null && error.startsWith("INVALID_KEY:");
+			if (rateLimited) {
+				liveSessionScheduler.reportRateLimited(state.getPlacement());
+			} else if (invalidKey) {
+				liveSessionScheduler.reportInaccessible(state.getPlacement());
+			}
+
+			// Still in the initial connection phase: move to the next key/model. A rejected
+			// user key (PROD) is not retried - every model would reject it too.
+			if (!state.isInitialConnectionEstablished()) {
+				boolean retryable = rateLimited || (invalidKey && geminiConfig.isReviewerMode());
+				if (retryable && tryNextPlacement(wsSessionId, state)) {
 					return;
 				}
 			}
@@ -323,6 +346,9 @@ public class GeminiIntegrationService {
 			abandonInterviewSession(wsSessionId, state, "gemini_error");
 		});
 
+		// Token usage counts against the key's quota, steering new sessions elsewhere when it runs low
+		client.setOnUsage(tokens -> liveSessionScheduler.reportUsage(state.getPlacement(), tokens));
+
 		// Handle GoAway - server is about to close connection, trigger reconnection
 		client.setOnGoAway(timeLeft -> {
 			log.warn("GoAway received for session {}, time left: {}. Initiating reconnection...", wsSessionId, timeLeft);
@@ -375,15 +401,17 @@ public class GeminiIntegrationService {
 		// Close old connection gracefully
 		state.getGeminiClient().close();
 
-		// Create new client with same configuration (use stored API key)
+		// Create new client with same configuration, moving off the key if it is cooling down
 		String effectiveVoice = state.getVoiceId() != null ? state.getVoiceId() : geminiConfig.getVoiceName();
-		String effectiveApiKey = state.getUserApiKey();
-		GeminiLiveClient newClient = new GeminiLiveClient(effectiveApiKey, geminiConfig.getLiveModel(), effectiveVoice);
+		LivePlacement placement = liveSessionScheduler.rebalance(state.getPlacement());
+		switchPlacement(state, placement);
+		GeminiLiveClient newClient = new GeminiLiveClient(placement.apiKey(), placement.model(), effectiveVoice);
 		newClient.setSystemInstruction(state.getSystemInstruction());
 		newClient.setPttMode(state.isPttMode());
 
 		// Update state with new client
 		state.setGeminiClient(newClient);
+		state.setUserApiKey(placement.apiKey());
 
 		// Setup callbacks for resumed session
 		setupGeminiCallbacks(wsSessionId, state, false);
@@ -394,34 +422,206 @@ public class GeminiIntegrationService {
 	}//initiateReconnection
 
 
-	private boolean tryNextLiveKey(String wsSessionId, InterviewState state) {
-		var keys = geminiConfig.getReviewerKeyList();
-		int nextIndex = state.getLiveKeyAttemptIndex() + 1;
+	private boolean tryNextPlacement(String wsSessionId, InterviewState state) {
+		state.getAttemptedPlacements().add(state.getPlacement());
+		LivePlacement next = liveSessionScheduler.place(state.getUserApiKey(), state.getAttemptedPlacements());
 
-		if (nextIndex >= keys.size()) {
-			log.error("All {} reviewer keys exhausted for live connection, session: {}", keys.size(), wsSessionId);
+		if (next == null) {
+			log.error("All live key/model placements exhausted after {} attempts, session: {}",
+					state.getAttemptedPlacements().size(), wsSessionId);
 			return false;
 		}
 
-		state.setLiveKeyAttemptIndex(nextIndex);
-		String nextKey = keys.get(nextIndex);
-		log.info("Live connection attempt {}/{} failed, retrying with next reviewer key for session: {}",
-				nextIndex, keys.size(), wsSessionId);
+		log.info("Live connection on {} failed, retrying on {} for session: {}", state.getPlacement(), next, wsSessionId);
+		switchPlacement(state, next);
 
 		state.getGeminiClient().close();
 
 		String effectiveVoice = state.getVoiceId() != null ? state.getVoiceId() : geminiConfig.getVoiceName();
-		GeminiLiveClient newClient = new GeminiLiveClient(nextKey, geminiConfig.getLiveModel(), effectiveVoice);
+		GeminiLiveClient newClient = new GeminiLiveClient(next.apiKey(), next.model(), effectiveVoice);
 		newClient.setSystemInstruction(state.getSystemInstruction());
 		newClient.setPttMode(state.isPttMode());
 
 		state.setGeminiClient(newClient);
-		state.setUserApiKey(nextKey);
+		state.setUserApiKey(next.apiKey());
 
 		setupGeminiCallbacks(wsSessionId, state);
 		newClient.connect();
 		return true;
-	}//tryNextLiveKey
+	}//tryNextPlacement
+
+
+	// Hands the session a placement it already holds a slot on, releasing the previous one
+	private void switchPlacement(InterviewState state, LivePlacement placement) {
+		LivePlacement previous = state.getPlacement();
+		if (placement.equals(previous)) {
+			return;
+		}
+		state.setPlacement(placement);
+		liveSessionScheduler.release(previous);
+	}//switchPlacement
+
+
+	/**
+	 * Continues an interview handed off by a draining node. The Gemini Live
+	 * session is resumed from the ticket's resumption handle, so the interviewer
+	 * keeps its context and the candidate picks up where they left off.
+	 */
+	public UUID resumeInterview(String wsSessionId, UUID migrationToken) {
+		if (draining) {
+			sendDrainingError(wsSessionId);
+			return null;
+		}
+
+		MigrationTicket ticket = sessionMigrationService.claim(migrationToken).orElse(null);
+		if (ticket == null) {
+			log.warn("No usable migration ticket for WebSocket session: {}", wsSessionId);
+			sendToClient(wsSessionId, "/queue/error", Map.of(
+					"message", "Your interview could not be resumed. Please start a new one.",
+					"resumeFailed", true
+			));
+			return null;
+		}
+
+		UUID interviewSessionId = ticket.interviewSessionId();
+		String effectiveVoice = ticket.voiceId() != null ? ticket.voiceId() : geminiConfig.getVoiceName();
+		admissionService.admitResumed(wsSessionId);
+
+		try {
+			// Same key and model the draining node used - the handle only resumes there
+			LivePlacement placement = new LivePlacement(ticket.apiKey(),
+					ticket.liveModel() != null ? ticket.liveModel() : geminiConfig.getLiveModel());
+			GeminiLiveClient geminiClient = new GeminiLiveClient(placement.apiKey(), placement.model(), effectiveVoice);
+			geminiClient.setSystemInstruction(ticket.systemInstruction());
+			geminiClient.setPttMode(ticket.pttMode());
+
+			InterviewState state = new InterviewState(interviewSessionId, geminiClient, ticket.language());
+			state.setVoiceId(effectiveVoice);
+			state.setSystemInstruction(ticket.systemInstruction());
+			state.setUserApiKey(ticket.apiKey());
+			state.setPttMode(ticket.pttMode());
+			state.restoreTranscript(ticket.transcript());
+			state.resumeTimer(ticket.elapsedMillis());
+			state.setInitialConnectionEstablished(true);
+			// Buffer audio until Gemini confirms the resumed session (flushed in onConnected)
+			state.setReconnecting(true);
+			liveSessionScheduler.acquire(placement);
+			switchPlacement(state, placement);
+			activeSessions.put(wsSessionId, state);
+			clusterDirectory.attachInterview(wsSessionId, interviewSessionId);
+
+			setupGeminiCallbacks(wsSessionId, state, false);
+			geminiClient.connect(ticket.resumptionHandle());
+
+			log.info("Resumed migrated interview session {} on WebSocket {}", interviewSessionId, wsSessionId);
+			return interviewSessionId;
+		} catch (Exception e) {
+			log.error("Failed to resume migrated interview session: {}", interviewSessionId, e);
+			removeSession(wsSessionId);
+			interviewService.deleteSession(interviewSessionId);
+			sendToClient(wsSessionId, "/queue/error", Map.of(
+					"message", "Your interview could not be resumed. Please start a new one.",
+					"resumeFailed", true
+			));
+			return null;
+		}
+	}//resumeInterview
+
+
+	/**
+	 * Puts this node into drain mode: new interviews are refused and every live
+	 * interview that has a Gemini resumption handle is parked in the migration
+	 * store, and its browser told to reconnect (to a peer, or to this node once
+	 * it is back). Interviews without a handle yet keep running until they end.
+	 *
+	 * @return number of interviews handed off
+	 */
+	public int drain() {
+		draining = true;
+		admissionService.rejectWaiting("This server is restarting. Please try again in a moment.");
+
+		int migrated = 0;
+		for (Map.Entry<String, InterviewState> entry : activeSessions.entrySet()) {
+			if (migrateSession(entry.getKey(), entry.getValue())) {
+				migrated++;
+			}
+		}
+
+		log.info("Node draining - handed off {} live interview(s), {} without a resumption handle still running",
+				migrated, activeSessions.size());
+		return migrated;
+	}//drain
+
+
+	public boolean isDraining() {
+		return draining;
+	}//isDraining
+
+
+	/**
+	 * Drains on shutdown. Runs on context close, before the message broker and
+	 * web server stop, so the reconnect notices still reach the browsers.
+	 */
+	@EventListener(ContextClosedEvent.class)
+	public void onContextClosed() {
+		if (!draining && !activeSessions.isEmpty()) {
+			drain();
+		}
+	}//onContextClosed
+
+
+	private boolean migrateSession(String wsSessionId, InterviewState state) {
+		String resumptionHandle = state.getGeminiClient().getSessionResumptionHandle();
+		if (state.isEnded() || resumptionHandle == null) {
+			return false;
+		}
+
+		// Marking ended first stops audio forwarding and keeps onClosed from reconnecting
+		state.setEnded(true);
+		state.getGeminiClient().close();
+
+		UUID migrationToken;
+		try {
+			migrationToken = sessionMigrationService.save(new MigrationTicket(
+					state.getInterviewSessionId(),
+					state.getLanguage(),
+					state.getVoiceId(),
+					state.isPttMode(),
+					state.getUserApiKey(),
+					state.getPlacement() != null ? state.getPlacement().model() : geminiConfig.getLiveModel(),
+					resumptionHandle,
+					state.getSystemInstruction(),
+					state.getFullTranscript(),
+					state.getElapsedMillis()
+			));
+		} catch (Exception e) {
+			log.error("Failed to hand off interview session: {}", state.getInterviewSessionId(), e);
+			interviewService.deleteSession(state.getInterviewSessionId());
+			sendToClient(wsSessionId, "/queue/status", Map.of(
+					"type", "DISCONNECTED",
+					"message", "Connection lost"
+			));
+			return false;
+		} finally {
+			state.clearSensitiveState();
+			removeSession(wsSessionId);
+		}
+
+		sendToClient(wsSessionId, "/queue/status", Map.of(
+				"type", "MIGRATE",
+				"token", migrationToken.toString(),
+				"message", "Server is restarting. Reconnecting..."
+		));
+		return true;
+	}//migrateSession
+
+
+	private void sendDrainingError(String wsSessionId) {
+		sendToClient(wsSessionId, "/queue/error", Map.of(
+				"message", "This server is restarting. Please try again in a moment.",
+				"draining", true
+		));
+	}//sendDrainingError
 
 
 	public void sendAudioToGemini(String wsSessionId, String base64Audio) {
@@ -508,64 +708,52 @@ public class GeminiIntegrationService {
 		triggerGrading(wsSessionId, state);
 
 		// Remove from active sessions
-		activeSessions.remove(wsSessionId);
+		removeSession(wsSessionId);
 	}//endInterviewInternal
 
 
 	private void triggerGrading(String wsSessionId, InterviewState state) {
-		gradingExecutor.submit(() -> {
-			String transcript = state.getFullTranscript();
-			try {
-				InterviewFeedback feedback = gradingService.gradeInterview(
-						state.getInterviewSessionId(),
-						transcript,
-						state.getUserApiKey(),
-						state.getLanguage()
-				);
-
-				Map<String, Object> reportData = new HashMap<>();
-				reportData.put("sessionId", state.getInterviewSessionId().toString());
-				reportData.put("overallScore", feedback.getOverallScore());
-				reportData.put("communicationScore", feedback.getCommunicationScore());
-				reportData.put("technicalScore", feedback.getTechnicalScore());
-				reportData.put("confidenceScore", feedback.getConfidenceScore());
-				reportData.put("strengths", feedback.getStrengths());
-				reportData.put("improvements", feedback.getImprovements());
-				reportData.put("detailedAnalysis", feedback.getDetailedAnalysis());
-				reportData.put("verdict", feedback.getVerdict());
-
-				sendToClient(wsSessionId, "/queue/report", reportData);
-			} catch (RateLimitException e) {
-				log.error("Rate limit exceeded during grading for session: {}", state.getInterviewSessionId());
-				sendToClient(wsSessionId, "/queue/error", Map.of(
-						"message", "API rate limit exceeded. Please use a new API key.",
-						"rateLimited", true
-				));
-			} catch (Exception e) {
-				log.error("Grading failed for session: {}", state.getInterviewSessionId(), e);
-				sendToClient(wsSessionId, "/queue/error", Map.of(
-						"message", "Failed to generate report. Please try again."
-				));
-			} finally {
-				state.clearSensitiveState();
+		String transcript = state.getFullTranscript();
+		// A speculation started on the closing phrase is used if the candidate hasn't spoken since
+		CompletableFuture<InterviewFeedback> speculative =
+				speculativeGradingService.commit(state.getInterviewSessionId(), transcript);
+
+		// Persist the job before dropping the in-memory transcript, so a restart
+		// between here and report creation no longer loses the grading. With a
+		// speculation in flight the job is held back from workers until it settles.
+		UUID jobId;
+		try {
+			jobId = gradingJobService.enqueue(
+					state.getInterviewSessionId(),
+					wsSessionId,
+					transcript,
+					state.getUserApiKey(),
+					state.getLanguage(),
+					speculative != null ? speculativeGradingService.getHoldMillis() : 0
+			);
+		} catch (Exception e) {
+			log.error("Failed to queue grading for session: {}", state.getInterviewSessionId(), e);
+			if (speculative != null) {
+				speculative.cancel(false);
 			}
-		});
+			sendToClient(wsSessionId, "/queue/error", Map.of(
+					"message", "Failed to generate report. Please try again."
+			));
+			return;
+		} finally {
+			state.clearSensitiveState();
+		}
+
+		if (speculative != null) {
+			gradingJobWorker.adoptSpeculative(jobId, state.getInterviewSessionId(), wsSessionId, speculative);
+		} else {
+			gradingJobWorker.dispatchAvailable();
+		}
 	}//triggerGrading
 
 
 	private void sendToClient(String wsSessionId, String destination, Map<String, Object> payload) {
-		// Create headers targeting the specific WebSocket session
-		SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
-		headerAccessor.setSessionId(wsSessionId);
-		headerAccessor.setLeaveMutable(true);
-
-		// Send to the user destination with proper session targeting
-		messagingTemplate.convertAndSendToUser(
-				wsSessionId,
-				destination,
-				payload,
-				headerAccessor.getMessageHeaders()
-		);
+		clientMessagingService.send(wsSessionId, destination, payload);
 	}//sendToClient
 
 
@@ -586,7 +774,7 @@ public class GeminiIntegrationService {
 
 	private void abandonInterviewSession(String wsSessionId, InterviewState state, String reason) {
 		if (state.isEnded()) {
-			activeSessions.remove(wsSessionId);
+			removeSession(wsSessionId);
 			return;
 		}
 
@@ -594,11 +782,22 @@ public class GeminiIntegrationService {
 		state.getGeminiClient().close();
 		interviewService.deleteSession(state.getInterviewSessionId());
 		state.clearSensitiveState();
-		activeSessions.remove(wsSessionId);
+		removeSession(wsSessionId);
 		log.info("Abandoned interview session {} ({})", state.getInterviewSessionId(), reason);
 	}//abandonInterviewSession
 
 
+	// Drops the live session, any speculative grading it still has, and hands its key load and admission slot back
+	private void removeSession(String wsSessionId) {
+		InterviewState removed = activeSessions.remove(wsSessionId);
+		if (removed != null) {
+			liveSessionScheduler.release(removed.getPlacement());
+			speculativeGradingService.cancel(removed.getInterviewSessionId());
+		}
+		admissionService.release(wsSessionId);
+	}//removeSession
+
+
 	// Inner class to track interview state
 	private static class InterviewState {
 
@@ -617,7 +816,8 @@ public class GeminiIntegrationService {
 
 		private final StringBuilder fullTranscript = new StringBuilder();
 
-		private final StringBuilder currentTurnTranscript = new StringBuilder();
+		// Closing-phrase/question detector for the AI turn in progress
+		private final ConclusionDetector turnDetector = new ConclusionDetector();
 
 		// Tracks last speaker to avoid duplicate prefixes on streaming tokens
 		private String lastSpeaker = "";
@@ -645,8 +845,10 @@ public class GeminiIntegrationService {
 		// PTT mode flag (persisted for reconnection)
 		private boolean pttMode = false;
 
-		// REVIEWER mode live key rotation: index of the key currently in use
-		private int liveKeyAttemptIndex = 0;
+		// Key/model the current Gemini client runs on, and those that failed during the initial connection
+		private LivePlacement placement;
+
+		private final Set<LivePlacement> attemptedPlacements = new HashSet<>();
 
 		// Set to true once onConnected fires; gates live key retry logic
 		private volatile boolean initialConnectionEstablished = false;
@@ -703,19 +905,48 @@ public class GeminiIntegrationService {
 		}//appendAiTranscript
 
 
-		public synchronized void appendCurrentTurnTranscript(String text) {
-			currentTurnTranscript.append(text);
-		}//appendCurrentTurnTranscript
+		/**
+		 * Restores the transcript carried over from another node.
+		 */
+		public synchronized void restoreTranscript(String transcript) {
+			if (transcript == null || transcript.isEmpty()) {
+				return;
+			}
+			fullTranscript.append(transcript, 0, Math.min(transcript.length(), MAX_TRANSCRIPT_CHARS));
+			lastSpeaker = transcript.lastIndexOf("[Candidate]: ") > transcript.lastIndexOf("[Interviewer]: ")
+					? "Candidate"
+					: "Interviewer";
+		}//restoreTranscript
+
+
+		/**
+		 * @return signals raised for the first time this turn by {@code fragment}
+		 */
+		public synchronized int feedTurnDetector(String fragment) {
+			return turnDetector.feed(fragment);
+		}//feedTurnDetector
 
 
-		public synchronized String getCurrentTurnTranscript() {
-			return currentTurnTranscript.toString();
-		}//getCurrentTurnTranscript
+		public synchronized String getTurnMatchedPhrase() {
+			return turnDetector.getMatchedPhrase();
+		}//getTurnMatchedPhrase
 
 
-		public synchronized void clearCurrentTurnTranscript() {
-			currentTurnTranscript.setLength(0);
-		}//clearCurrentTurnTranscript
+		public synchronized int getTurnLength() {
+			return turnDetector.getLength();
+		}//getTurnLength
+
+
+		/**
+		 * Ends the current AI turn.
+		 *
+		 * @return the signals ({@link ConclusionDetector#CONCLUSION}, {@link ConclusionDetector#QUESTION}) seen in it
+		 */
+		public synchronized int completeTurn() {
+			int signals = turnDetector.getSignals();
+			turnDetector.reset();
+			return signals;
+		}//completeTurn
 
 
 		public String getFullTranscript() {
@@ -783,14 +1014,19 @@ public class GeminiIntegrationService {
 		}//setPttMode
 
 
-		public int getLiveKeyAttemptIndex() {
-			return liveKeyAttemptIndex;
-		}//getLiveKeyAttemptIndex
+		public LivePlacement getPlacement() {
+			return placement;
+		}//getPlacement
+
+
+		public void setPlacement(LivePlacement placement) {
+			this.placement = placement;
+		}//setPlacement
 
 
-		public void setLiveKeyAttemptIndex(int liveKeyAttemptIndex) {
-			this.liveKeyAttemptIndex = liveKeyAttemptIndex;
-		}//setLiveKeyAttemptIndex
+		public Set<LivePlacement> getAttemptedPlacements() {
+			return attemptedPlacements;
+		}//getAttemptedPlacements
 
 
 		public boolean isInitialConnectionEstablished() {
@@ -810,6 +1046,19 @@ public class GeminiIntegrationService {
 		}//startTimer
 
 
+		/**
+		 * Continues the elapsed-time clock of an interview started on another node.
+		 */
+		public synchronized void resumeTimer(long elapsedMillis) {
+			interviewStartTime = System.currentTimeMillis() - elapsedMillis;
+		}//resumeTimer
+
+
+		public long getElapsedMillis() {
+			return interviewStartTime == 0 ? 0 : System.currentTimeMillis() - interviewStartTime;
+		}//getElapsedMillis
+
+
 		public String getElapsedTimestamp() {
 			if (interviewStartTime == 0) return "[0:00]";
 			long elapsedSeconds = (System.currentTimeMillis() - interviewStartTime) / 1000;
@@ -839,7 +1088,7 @@ public class GeminiIntegrationService {
 
 		public synchronized void clearSensitiveState() {
 			fullTranscript.setLength(0);
-			currentTurnTranscript.setLength(0);
+			turnDetector.reset();
 			lastSpeaker = "";
 			audioBuffer.clear();
 			systemInstruction = null;
@@ -71,6 +71,8 @@ public class GeminiLiveClient {
 
 	private Runnable onSessionResumptionReady;
 
+	private Consumer<Long> onUsage;
+
 
 	// When true: disables Gemini's built-in VAD so silence doesn't trigger a turn end.
 	// Required for Push-to-Talk mode — turn ends only on explicit audioStreamEnd.
@@ -408,6 +410,14 @@ public class GeminiLiveClient {
 				}
 			}
 
+			// Token usage of the turn, counted against the key's per-minute quota
+			if (root.has("usageMetadata")) {
+				long totalTokens = root.get("usageMetadata").path("totalTokenCount").asLong(0);
+				if (totalTokens > 0 && onUsage != null) {
+					onUsage.accept(totalTokens);
+				}
+			}
+
 			// Handle server content
 			if (root.has("serverContent")) {
 				JsonNode serverContent = root.get("serverContent");
@@ -576,6 +586,11 @@ public class GeminiLiveClient {
 	}//setOnSessionResumptionReady
 
 
+	public void setOnUsage(Consumer<Long> callback) {
+		this.onUsage = callback;
+	}//setOnUsage
+
+
 	public String getSessionResumptionHandle() {
 		return sessionResumptionHandle;
 	}//getSessionResumptionHandle
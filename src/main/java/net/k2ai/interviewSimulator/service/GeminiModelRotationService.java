@@ -1,84 +1,485 @@
 package net.k2ai.interviewSimulator.service;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import net.k2ai.interviewSimulator.config.GeminiConfig;
+import net.k2ai.interviewSimulator.repository.ModelCooldownRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.*;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Manages AI model and API key rotation with error-based rate limit tracking.
+ * Routes grading requests to an (API key, model) combo.
  * Used in REVIEWER mode (multi-key + multi-model) and PROD mode (multi-model only).
+ *
+ * <p>Each combo keeps an EWMA of its latency and success rate, the class of its
+ * last error and a circuit breaker. The combo with the lowest expected
+ * completion time - latency divided by success rate - wins; combos without
+ * recent samples are assumed to be average, and ties keep the configured
+ * order. A failure opens the breaker: until the next minute or midnight PT for
+ * 429s, for an hour when the model is inaccessible, and with a doubling backoff
+ * for other errors. Once it runs out the breaker is half-open and exactly one
+ * request probes the combo; success closes it, failure opens it again.
+ *
+ * <p>Combos are built once per key set and picked by scanning an array. A PROD
+ * user's set is kept for the 1,000 most recently used key fingerprints, read
+ * without locking, and evicted together with its combos. Each
+ * {@link GradingConfig} carries its combo key, so reporting a result doesn't
+ * hash the API key again. Cooldowns
+ * are persisted in {@code model_cooldowns} and loaded at startup, so a deploy
+ * doesn't re-hit 429s on combos already known to be exhausted; in cluster mode
+ * they are also shared with the other nodes via {@link ClusterLimitSync}.
+ *
+ * <p>A combo is only handed out once {@link GeminiQuotaLedger} has reserved the
+ * request on its key; one at its per-minute quota is passed over like an open
+ * breaker, and {@link #millisUntilAvailable} tells the caller how long to wait
+ * when every healthy combo is.
+ *
+ * <p>{@link LiveSessionScheduler} flags and checks its live (key, model) pairs
+ * here too, so live cooldowns follow the same rules and are persisted and
+ * shared the same way.
  */
 @Slf4j
-@RequiredArgsConstructor
 @Service
 public class GeminiModelRotationService {
 
+	private static final Duration MINUTE_COOLDOWN = Duration.ofSeconds(65);
+
+	private static final Duration INACCESSIBLE_COOLDOWN = Duration.ofHours(1);
+
+	// Backoff for other errors: doubles per consecutive failure up to the cap
+	private static final Duration ERROR_COOLDOWN = Duration.ofSeconds(15);
+
+	private static final Duration MAX_ERROR_COOLDOWN = Duration.ofMinutes(5);
+
+	// A half-open probe that never reported back frees the combo after this
+	private static final long PROBE_TIMEOUT_MS = 2 * 60_000;
+
+	// Assumed for combos without recent samples
+	private static final double PRIOR_LATENCY_MS = 15_000;
+
+	private static final long STALE_AFTER_MS = 10 * 60_000;
+
+	private static final double EWMA_ALPHA = 0.3;
+
+	// Floor on the success rate, so a failing combo's expected time stays finite
+	private static final double MIN_SUCCESS_RATE = 0.05;
+
+	// Bounds the combos kept for PROD users' own keys
+	private static final int MAX_USER_KEYS = 1_000;
+
+	// Hex digits of the key's SHA-256 kept in the combo key
+	private static final int FINGERPRINT_LENGTH = 16;
+
+	private static final ZoneId PACIFIC = ZoneId.of("America/Los_Angeles");
+
 	private final GeminiConfig geminiConfig;
 
-	// Tracks exhausted (key, model) combos: "key:model" → expiry instant
-	private final ConcurrentHashMap<String, Instant> exhaustedCombos = new ConcurrentHashMap<>();
+	private final ClusterLimitSync clusterLimitSync;
 
-	private static final Duration MINUTE_COOLDOWN = Duration.ofSeconds(65);
+	private final ModelCooldownRepository cooldownRepository;
+
+	private final GeminiQuotaLedger quotaLedger;
+
+	private final Clock clock;
+
+	// Health per "keyFingerprint:model", shared by every candidate array
+	private final Map<String, Combo> combos = new ConcurrentHashMap<>();
+
+	// Key fingerprint -> that user's candidates. Read without locking; inserts,
+	// evictions and cleanup hold userInsertLock.
+	private final Map<String, UserEntry> userCandidates = new ConcurrentHashMap<>();
+
+	private final Object userInsertLock = new Object();
+
+	// Ticks on every PROD pick; the user with the oldest tick is evicted first
+	private final AtomicLong useCounter = new AtomicLong();
+
+	private volatile Candidate[] reviewerCandidates;
 
 
 	/**
 	 * Represents an available API key + model configuration for a grading request.
+	 * {@code comboKey} identifies its health entry; it is derived from the other
+	 * two and only carried so reports don't hash the key again.
 	 */
-	public record GradingConfig(String apiKey, String model) {
+	public record GradingConfig(String apiKey, String model, String comboKey) {
+
+		public GradingConfig(String apiKey, String model) {
+			this(apiKey, model, buildComboKey(apiKey, model));
+		}//GradingConfig
+
 	}
 
 
 	/**
-	 * Returns the next available (apiKey, model) pair for grading.
-	 * In REVIEWER mode: iterates through key/model pairs, skipping exhausted ones.
-	 * In PROD mode: iterates through models with the user's key, skipping exhausted ones.
-	 * Returns null if all combos are exhausted.
+	 * Why a combo last failed.
 	 */
-	public GradingConfig getNextAvailable(String userApiKey) {
-		List<String> models = geminiConfig.getGradingModelList();
+	public enum ErrorClass {
+		NONE, RATE_LIMITED, DAILY_LIMIT, INACCESSIBLE, ERROR
+	}
 
-		if (geminiConfig.isReviewerMode()) {
-			List<String> keys = geminiConfig.getReviewerKeyList();
-			// Each key is paired with a model by index
-			int count = Math.min(keys.size(), models.size());
-			for (int i = 0; i < count; i++) {
-				String key = keys.get(i);
-				String model = models.get(i);
-				if (!isExhausted(key, model)) {
-					log.debug("Rotation: using key #{} with model {}", i + 1, model);
-					return new GradingConfig(key, model);
+
+	/**
+	 * A PROD user's API key with its fingerprint, so a grading call hashes the
+	 * key once rather than on every pick. Create with {@link #userKey(String)}.
+	 */
+	public record UserKey(String apiKey, String fingerprint) {
+
+		@Override
+		public String toString() {
+			return fingerprint;
+		}//toString
+
+	}
+
+
+	private record Candidate(GradingConfig config, Combo combo) {
+	}
+
+
+	private static final class UserEntry {
+
+		private final Candidate[] candidates;
+
+		private volatile long lastUsed;
+
+
+		private UserEntry(Candidate[] candidates) {
+			this.candidates = candidates;
+		}//UserEntry
+
+	}//UserEntry
+
+
+	// Lock-free health of one (key, model) combo; openUntil 0 means the breaker is closed
+	private static final class Combo {
+
+		private final AtomicLong latencyBits = new AtomicLong(Double.doubleToLongBits(PRIOR_LATENCY_MS));
+
+		private final AtomicLong successBits = new AtomicLong(Double.doubleToLongBits(1.0));
+
+		private final AtomicLong openUntil = new AtomicLong();
+
+		private final AtomicLong probeSince = new AtomicLong();
+
+		private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+		private volatile long lastSampleAt;
+
+		private volatile ErrorClass lastError = ErrorClass.NONE;
+
+
+		private double expectedMillis(long now) {
+			if (lastSampleAt == 0 || now - lastSampleAt > STALE_AFTER_MS) {
+				return PRIOR_LATENCY_MS;
+			}
+			double latency = Double.longBitsToDouble(latencyBits.get());
+			double success = Double.longBitsToDouble(successBits.get());
+			return latency / Math.max(success, MIN_SUCCESS_RATE);
+		}//expectedMillis
+
+
+		private boolean isOpen(long now) {
+			long until = openUntil.get();
+			return until != 0 && now < until;
+		}//isOpen
+
+
+		private boolean isHalfOpen(long now) {
+			long until = openUntil.get();
+			return until != 0 && now >= until;
+		}//isHalfOpen
+
+
+		private boolean probeAvailable(long now) {
+			long since = probeSince.get();
+			return since == 0 || now - since > PROBE_TIMEOUT_MS;
+		}//probeAvailable
+
+
+		private boolean claimProbe(long now) {
+			long since = probeSince.get();
+			return (since == 0 || now - since > PROBE_TIMEOUT_MS) && probeSince.compareAndSet(since, now);
+		}//claimProbe
+
+
+		private void recordSample(double latencyMillis, double success, long now) {
+			boolean fresh = lastSampleAt == 0 || now - lastSampleAt > STALE_AFTER_MS;
+			updateEwma(latencyBits, latencyMillis, fresh);
+			updateEwma(successBits, success, fresh);
+			lastSampleAt = now;
+		}//recordSample
+
+
+		// A rejected call says nothing about latency, only about success
+		private void recordRejection(long now) {
+			boolean fresh = lastSampleAt == 0 || now - lastSampleAt > STALE_AFTER_MS;
+			if (fresh) {
+				latencyBits.set(Double.doubleToLongBits(PRIOR_LATENCY_MS));
+			}
+			updateEwma(successBits, 0.0, fresh);
+			lastSampleAt = now;
+		}//recordRejection
+
+
+		// Opens the breaker until at least the given time; true if that extended it
+		private boolean openUntil(long until) {
+			probeSince.set(0);
+			while (true) {
+				long current = openUntil.get();
+				if (current >= until) {
+					return false;
+				}
+				if (openUntil.compareAndSet(current, until)) {
+					return true;
 				}
 			}
-			// Also try cross-combinations as fallback
-			for (String key : keys) {
-				for (String model : models) {
-					if (!isExhausted(key, model)) {
-						log.debug("Rotation: cross-combo key with model {}", model);
-						return new GradingConfig(key, model);
-					}
+		}//openUntil
+
+
+		private void close() {
+			consecutiveFailures.set(0);
+			lastError = ErrorClass.NONE;
+			openUntil.set(0);
+			probeSince.set(0);
+		}//close
+
+
+		private static void updateEwma(AtomicLong bits, double sample, boolean reset) {
+			while (true) {
+				long current = bits.get();
+				double next = reset ? sample
+						: EWMA_ALPHA * sample + (1 - EWMA_ALPHA) * Double.longBitsToDouble(current);
+				if (bits.compareAndSet(current, Double.doubleToLongBits(next))) {
+					return;
 				}
 			}
-			log.error("All reviewer key/model combinations are exhausted!");
-			return null;
-		} else if (geminiConfig.isProdMode() && userApiKey != null) {
-			// PROD mode: user's key, try different models
-			for (String model : models) {
-				if (!isExhausted(userApiKey, model)) {
-					return new GradingConfig(userApiKey, model);
+		}//updateEwma
+
+	}//Combo
+
+
+	public GeminiModelRotationService(GeminiConfig geminiConfig, ClusterLimitSync clusterLimitSync,
+									  ModelCooldownRepository cooldownRepository, GeminiQuotaLedger quotaLedger) {
+		this(geminiConfig, clusterLimitSync, cooldownRepository, quotaLedger, Clock.systemUTC());
+	}//GeminiModelRotationService
+
+
+	GeminiModelRotationService(GeminiConfig geminiConfig, ClusterLimitSync clusterLimitSync,
+							   ModelCooldownRepository cooldownRepository, GeminiQuotaLedger quotaLedger, Clock clock) {
+		this.geminiConfig = geminiConfig;
+		this.clusterLimitSync = clusterLimitSync;
+		this.cooldownRepository = cooldownRepository;
+		this.quotaLedger = quotaLedger;
+		this.clock = clock;
+	}//GeminiModelRotationService
+
+
+	/**
+	 * Loads the cooldowns still running from before the restart.
+	 */
+	@PostConstruct
+	public void loadPersistedCooldowns() {
+		try {
+			LocalDateTime now = LocalDateTime.ofInstant(clock.instant(), ZoneId.systemDefault());
+			cooldownRepository.deleteExpired(now);
+			int loaded = 0;
+			for (var cooldown : cooldownRepository.findByExpiresAtAfter(now)) {
+				Instant expiresAt = cooldown.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant();
+				combo(cooldown.getComboKey()).openUntil(expiresAt.toEpochMilli());
+				loaded++;
+			}
+			if (loaded > 0) {
+				log.info("Loaded {} persisted key/model cooldown(s)", loaded);
+			}
+		} catch (Exception e) {
+			log.warn("Could not load persisted cooldowns: {}", e.getMessage());
+		}
+	}//loadPersistedCooldowns
+
+
+	/**
+	 * Returns the (apiKey, model) pair expected to finish grading soonest.
+	 * In REVIEWER mode: every reviewer key with every model.
+	 * In PROD mode: the user's key with every model.
+	 * Returns null if every combo's breaker is open.
+	 */
+	public GradingConfig getNextAvailable(String userApiKey) {
+		return getNextAvailable(userApiKey, 0);
+	}//getNextAvailable
+
+
+	/**
+	 * Like {@link #getNextAvailable(String)}, also reserving a request and the
+	 * estimated tokens on the chosen key in the quota ledger.
+	 *
+	 * @return null if every combo's breaker is open or its key is at quota
+	 */
+	public GradingConfig getNextAvailable(String userApiKey, long estimatedTokens) {
+		return getNextAvailableFor(userKey(userApiKey), estimatedTokens);
+	}//getNextAvailable
+
+
+	/**
+	 * Like {@link #getNextAvailable(String, long)} with the key already
+	 * fingerprinted by {@link #userKey(String)}.
+	 */
+	public GradingConfig getNextAvailableFor(UserKey userKey, long estimatedTokens) {
+		Candidate[] candidates = candidates(userKey);
+		if (candidates == null) {
+			// DEV mode: single key, single model
+			return new GradingConfig(geminiConfig.getApiKey(), geminiConfig.getGradingModel());
+		}
+
+		long now = clock.millis();
+		boolean[] overQuota = null;
+		// Every pass that doesn't return rules out a combo (lost probe race or no quota), so this ends
+		for (int attempt = 0; attempt <= candidates.length; attempt++) {
+			int best = -1;
+			double bestExpected = Double.MAX_VALUE;
+			for (int i = 0; i < candidates.length; i++) {
+				Combo combo = candidates[i].combo();
+				if ((overQuota != null && overQuota[i]) || !isAvailable(combo, now)) {
+					continue;
+				}
+				double expected = combo.expectedMillis(now);
+				if (expected < bestExpected) {
+					best = i;
+					bestExpected = expected;
+				}
+			}
+			if (best < 0) {
+				break;
+			}
+
+			Candidate candidate = candidates[best];
+			boolean probe = candidate.combo().isHalfOpen(now);
+			if (probe && !candidate.combo().claimProbe(now)) {
+				continue;
+			}
+			if (!quotaLedger.tryAcquire(candidate.config().apiKey(), candidate.config().model(), estimatedTokens)) {
+				if (probe) {
+					candidate.combo().probeSince.set(0);
+				}
+				if (overQuota == null) {
+					overQuota = new boolean[candidates.length];
 				}
+				overQuota[best] = true;
+				continue;
 			}
+			if (probe) {
+				log.info("Probing model {} after its cooldown", candidate.config().model());
+				deleteExpiredRows();
+			}
+			return candidate.config();
+		}
+
+		if (overQuota != null) {
+			log.info("Every healthy key/model combination is at its per-minute quota");
+		} else if (geminiConfig.isReviewerMode()) {
+			log.error("All reviewer key/model combinations are exhausted!");
+		} else {
 			log.warn("All models exhausted for user key");
+		}
+		return null;
+	}//getNextAvailableFor
+
+
+	/**
+	 * How long until a combo with a closed or half-open breaker has quota for a
+	 * call of this size: 0 if one has now, -1 if every breaker is open.
+	 */
+	public long millisUntilAvailable(String userApiKey, long estimatedTokens) {
+		return millisUntilAvailableFor(userKey(userApiKey), estimatedTokens);
+	}//millisUntilAvailable
+
+
+	public long millisUntilAvailableFor(UserKey userKey, long estimatedTokens) {
+		Candidate[] candidates = candidates(userKey);
+		if (candidates == null) {
+			return 0;
+		}
+
+		long now = clock.millis();
+		long shortest = -1;
+		for (Candidate candidate : candidates) {
+			if (!isAvailable(candidate.combo(), now)) {
+				continue;
+			}
+			long wait = quotaLedger.millisUntilAvailable(candidate.config().apiKey(), candidate.config().model(),
+					estimatedTokens);
+			if (shortest < 0 || wait < shortest) {
+				shortest = wait;
+			}
+		}
+		return shortest;
+	}//millisUntilAvailableFor
+
+
+	/**
+	 * Fingerprints a PROD user's key for the pick methods; null in the other
+	 * modes, which don't use the user's key for grading.
+	 */
+	public UserKey userKey(String userApiKey) {
+		if (!geminiConfig.isProdMode() || userApiKey == null) {
 			return null;
-		} else {
-			// DEV mode: single key, single model
-			return new GradingConfig(geminiConfig.getApiKey(), geminiConfig.getGradingModel());
 		}
-	}//getNextAvailable
+		return new UserKey(userApiKey, fingerprint(userApiKey));
+	}//userKey
+
+
+	/**
+	 * Records a successful grading call and closes the combo's breaker.
+	 */
+	public void reportSuccess(GradingConfig config, long latencyMillis) {
+		Combo combo = combo(config.comboKey());
+		combo.recordSample(latencyMillis, 1.0, clock.millis());
+		combo.close();
+	}//reportSuccess
+
+
+	/**
+	 * Replaces the token estimate reserved by {@link #getNextAvailable(String, long)}
+	 * with what the response's usageMetadata reported.
+	 */
+	public void reportUsage(GradingConfig config, long estimatedTokens, long actualTokens) {
+		if (actualTokens > 0) {
+			quotaLedger.recordTokens(config.apiKey(), config.model(), actualTokens - estimatedTokens);
+		}
+	}//reportUsage
+
+
+	/**
+	 * Records a failed grading call (timeout, server error, unusable output) and
+	 * opens the combo's breaker for a backoff that doubles per consecutive failure.
+	 */
+	public void reportError(GradingConfig config, long latencyMillis) {
+		Combo combo = combo(config.comboKey());
+		long now = clock.millis();
+		int failures = combo.consecutiveFailures.incrementAndGet();
+		long backoff = Math.min(ERROR_COOLDOWN.toMillis() << Math.min(failures - 1, 16), MAX_ERROR_COOLDOWN.toMillis());
+		combo.recordSample(latencyMillis, 0.0, now);
+		combo.lastError = ErrorClass.ERROR;
+		combo.openUntil(now + backoff);
+		log.warn("Opened breaker for model {} for {}s after {} consecutive failure(s)",
+				config.model(), backoff / 1000, failures);
+	}//reportError
 
 
 	/**
@@ -89,22 +490,31 @@ public class GeminiModelRotationService {
 	 * @param isDaily true if this is a daily limit (expires at midnight PT), false for per-minute
 	 */
 	public void flagExhausted(String apiKey, String model, boolean isDaily) {
-		String comboKey = buildComboKey(apiKey, model);
+		flagExhausted(new GradingConfig(apiKey, model), isDaily);
+	}//flagExhausted
+
+
+	/**
+	 * Like {@link #flagExhausted(String, String, boolean)}, for a combo handed
+	 * out by {@link #getNextAvailable}.
+	 */
+	public void flagExhausted(GradingConfig config, boolean isDaily) {
+		String model = config.model();
 		Instant expiry;
 
 		if (isDaily) {
 			// Expire at next midnight Pacific Time
-			ZonedDateTime nowPT = ZonedDateTime.now(ZoneId.of("America/Los_Angeles"));
-			ZonedDateTime midnightPT = nowPT.toLocalDate().plusDays(1).atStartOfDay(ZoneId.of("America/Los_Angeles"));
+			ZonedDateTime nowPT = clock.instant().atZone(PACIFIC);
+			ZonedDateTime midnightPT = nowPT.toLocalDate().plusDays(1).atStartOfDay(PACIFIC);
 			expiry = midnightPT.toInstant();
 			log.warn("Flagged key/model combo as DAILY exhausted until {} PT: model={}", midnightPT.toLocalTime(), model);
 		} else {
 			// Per-minute cooldown
-			expiry = Instant.now().plus(MINUTE_COOLDOWN);
+			expiry = clock.instant().plus(MINUTE_COOLDOWN);
 			log.warn("Flagged key/model combo as MINUTE exhausted for 65s: model={}", model);
 		}
 
-		exhaustedCombos.put(comboKey, expiry);
+		flag(config.comboKey(), expiry, isDaily ? ErrorClass.DAILY_LIMIT : ErrorClass.RATE_LIMITED);
 	}//flagExhausted
 
 
@@ -112,36 +522,216 @@ public class GeminiModelRotationService {
 	 * Flags a model as inaccessible (e.g., 403, model not found) with a long cooldown.
 	 */
 	public void flagInaccessible(String apiKey, String model) {
-		String comboKey = buildComboKey(apiKey, model);
-		// 1 hour cooldown for inaccessible models
-		Instant expiry = Instant.now().plus(Duration.ofHours(1));
-		exhaustedCombos.put(comboKey, expiry);
-		log.warn("Flagged key/model combo as INACCESSIBLE for 1 hour: model={}", model);
+		flagInaccessible(new GradingConfig(apiKey, model));
 	}//flagInaccessible
 
 
-	private boolean isExhausted(String apiKey, String model) {
-		String comboKey = buildComboKey(apiKey, model);
-		Instant expiry = exhaustedCombos.get(comboKey);
-		if (expiry == null) {
-			return false;
+	public void flagInaccessible(GradingConfig config) {
+		flag(config.comboKey(), clock.instant().plus(INACCESSIBLE_COOLDOWN), ErrorClass.INACCESSIBLE);
+		log.warn("Flagged key/model combo as INACCESSIBLE for 1 hour: model={}", config.model());
+	}//flagInaccessible
+
+
+	/**
+	 * Applies a cooldown another node flagged, so this node skips the combo too.
+	 */
+	@EventListener
+	public void onCooldownFlagged(ClusterLimitSync.CooldownFlagged event) {
+		if (clock.instant().isBefore(event.expiresAt())) {
+			combo(event.comboKey()).openUntil(event.expiresAt().toEpochMilli());
 		}
-		if (Instant.now().isAfter(expiry)) {
-			// Cooldown expired, remove and allow
-			exhaustedCombos.remove(comboKey);
-			log.debug("Cooldown expired for model={}, now available", model);
-			return false;
+	}//onCooldownFlagged
+
+
+	/**
+	 * Drops combos that no candidate set uses - flagged by another node, loaded
+	 * from a persisted row, flagged for a live session or reported after their
+	 * user was evicted - once their breaker has closed again.
+	 */
+	@Scheduled(fixedRate = 60_000)
+	public void cleanup() {
+		Set<Combo> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+		if (geminiConfig.isReviewerMode()) {
+			for (Candidate candidate : reviewerCandidates()) {
+				inUse.add(candidate.combo());
+			}
 		}
-		return true;
-	}//isExhausted
+		long now = clock.millis();
+		// Held throughout, so no user set can pick up a combo that is about to go
+		synchronized (userInsertLock) {
+			for (UserEntry entry : userCandidates.values()) {
+				for (Candidate candidate : entry.candidates) {
+					inUse.add(candidate.combo());
+				}
+			}
+			combos.values().removeIf(combo -> !inUse.contains(combo) && !combo.isOpen(now));
+		}
+	}//cleanup
+
+
+	/**
+	 * True while the combo's breaker is open, i.e. until a flagged cooldown or
+	 * error backoff runs out.
+	 */
+	public boolean isCoolingDown(String apiKey, String model) {
+		Combo combo = combos.get(buildComboKey(apiKey, model));
+		return combo != null && combo.isOpen(clock.millis());
+	}//isCoolingDown
+
+
+	/**
+	 * Why the combo last failed, or NONE if its last call succeeded.
+	 */
+	public ErrorClass getLastError(String apiKey, String model) {
+		Combo combo = combos.get(buildComboKey(apiKey, model));
+		return combo != null ? combo.lastError : ErrorClass.NONE;
+	}//getLastError
+
+
+	// Opens the breaker until the expiry and writes it through if that extended it
+	private void flag(String comboKey, Instant expiry, ErrorClass errorClass) {
+		Combo combo = combo(comboKey);
+		long now = clock.millis();
+		combo.consecutiveFailures.incrementAndGet();
+		combo.recordRejection(now);
+		combo.lastError = errorClass;
+		if (!combo.openUntil(expiry.toEpochMilli())) {
+			return;
+		}
+		try {
+			cooldownRepository.upsert(comboKey, LocalDateTime.ofInstant(expiry, ZoneId.systemDefault()));
+		} catch (Exception e) {
+			log.warn("Could not persist cooldown: {}", e.getMessage());
+		}
+		clusterLimitSync.publishCooldown(comboKey, expiry);
+	}//flag
 
 
-	private String buildComboKey(String apiKey, String model) {
-		// Use last 8 chars of key to avoid logging full keys
-		String keySuffix = apiKey != null && apiKey.length() > 8
-				? apiKey.substring(apiKey.length() - 8)
-				: "unknown";
-		return keySuffix + ":" + model;
+	// Null in DEV mode, which has a single key and model
+	private Candidate[] candidates(UserKey userKey) {
+		if (geminiConfig.isReviewerMode()) {
+			return reviewerCandidates();
+		}
+		if (geminiConfig.isProdMode() && userKey != null) {
+			return userCandidates(userKey);
+		}
+		return null;
+	}//candidates
+
+
+	// Closed, or half-open with no probe in flight
+	private static boolean isAvailable(Combo combo, long now) {
+		return !combo.isOpen(now) && !(combo.isHalfOpen(now) && !combo.probeAvailable(now));
+	}//isAvailable
+
+
+	private Combo combo(String comboKey) {
+		return combos.computeIfAbsent(comboKey, k -> new Combo());
+	}//combo
+
+
+	// Key i paired with model i first, then the cross combinations, as before
+	private Candidate[] reviewerCandidates() {
+		Candidate[] candidates = reviewerCandidates;
+		if (candidates == null) {
+			List<String> keys = geminiConfig.getReviewerKeyList();
+			List<String> models = geminiConfig.getGradingModelList();
+			Map<GradingConfig, Candidate> ordered = new LinkedHashMap<>();
+			for (int i = 0; i < Math.min(keys.size(), models.size()); i++) {
+				addCandidate(ordered, keys.get(i), models.get(i));
+			}
+			for (String key : keys) {
+				for (String model : models) {
+					addCandidate(ordered, key, model);
+				}
+			}
+			candidates = ordered.values().toArray(new Candidate[0]);
+			reviewerCandidates = candidates;
+		}
+		return candidates;
+	}//reviewerCandidates
+
+
+	// Lock-free for a known user; a new one is added under the insert lock, evicting the least recently used
+	private Candidate[] userCandidates(UserKey userKey) {
+		UserEntry entry = userCandidates.get(userKey.fingerprint());
+		if (entry == null) {
+			synchronized (userInsertLock) {
+				entry = userCandidates.get(userKey.fingerprint());
+				if (entry == null) {
+					if (userCandidates.size() >= MAX_USER_KEYS) {
+						evictLeastRecentlyUsed();
+					}
+					Map<GradingConfig, Candidate> ordered = new LinkedHashMap<>();
+					for (String model : geminiConfig.getGradingModelList()) {
+						addCandidate(ordered, new GradingConfig(userKey.apiKey(), model,
+								userKey.fingerprint() + ":" + model));
+					}
+					entry = new UserEntry(ordered.values().toArray(new Candidate[0]));
+					userCandidates.put(userKey.fingerprint(), entry);
+				}
+			}
+		}
+		entry.lastUsed = useCounter.incrementAndGet();
+		return entry.candidates;
+	}//userCandidates
+
+
+	// Must hold userInsertLock. The user goes with its combos, so no set is left pointing at a dropped combo.
+	private void evictLeastRecentlyUsed() {
+		String eldest = null;
+		long eldestUse = Long.MAX_VALUE;
+		for (Map.Entry<String, UserEntry> candidate : userCandidates.entrySet()) {
+			if (candidate.getValue().lastUsed < eldestUse) {
+				eldest = candidate.getKey();
+				eldestUse = candidate.getValue().lastUsed;
+			}
+		}
+		UserEntry evicted = eldest != null ? userCandidates.remove(eldest) : null;
+		if (evicted != null) {
+			for (Candidate candidate : evicted.candidates) {
+				combos.remove(candidate.config().comboKey(), candidate.combo());
+			}
+		}
+	}//evictLeastRecentlyUsed
+
+
+	private void addCandidate(Map<GradingConfig, Candidate> ordered, String apiKey, String model) {
+		addCandidate(ordered, new GradingConfig(apiKey, model));
+	}//addCandidate
+
+
+	private void addCandidate(Map<GradingConfig, Candidate> ordered, GradingConfig config) {
+		ordered.computeIfAbsent(config, c -> new Candidate(c, combo(c.comboKey())));
+	}//addCandidate
+
+
+	private void deleteExpiredRows() {
+		try {
+			cooldownRepository.deleteExpired(LocalDateTime.ofInstant(clock.instant(), ZoneId.systemDefault()));
+		} catch (Exception e) {
+			log.warn("Could not delete expired cooldowns: {}", e.getMessage());
+		}
+	}//deleteExpiredRows
+
+
+	static String buildComboKey(String apiKey, String model) {
+		// A fingerprint rather than the key, so neither logs nor model_cooldowns ever hold it
+		return fingerprint(apiKey) + ":" + model;
 	}//buildComboKey
 
+
+	// Truncated SHA-256 of the key, for maps and logs that must not hold the key itself
+	static String fingerprint(String apiKey) {
+		if (apiKey == null || apiKey.isBlank()) {
+			return "unknown";
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest).substring(0, FINGERPRINT_LENGTH);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}//fingerprint
+
 }//GeminiModelRotationService
@@ -0,0 +1,298 @@
+package net.k2ai.interviewSimulator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.config.GeminiConfig;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of how much of each API key's Gemini quota is in use, so callers
+ * can move to another key or model, or wait, before a request comes back 429.
+ *
+ * <p>For every (key, model) with limits in {@code gemini.quota.models} the
+ * ledger counts requests and tokens over the trailing minute, in 5-second
+ * slots, and the Live sessions currently open. A grading call reserves its
+ * request and an estimate of its tokens with {@link #tryAcquire} and corrects
+ * the estimate from the response's {@code usageMetadata}; Live sessions add
+ * the tokens their {@code usageMetadata} reports as the interview goes on.
+ *
+ * <p>Counts are per node. When several nodes share a key, configure the key's
+ * quota divided by the number of nodes; a 429 is still handled as before.
+ */
+@Slf4j
+@Service
+public class GeminiQuotaLedger {
+
+	private static final long WINDOW_MS = 60_000;
+
+	private static final int SLOTS = 12;
+
+	private static final long SLOT_MS = WINDOW_MS / SLOTS;
+
+	private final GeminiConfig geminiConfig;
+
+	private final Clock clock;
+
+	private final Map<QuotaKey, Usage> usage = new ConcurrentHashMap<>();
+
+
+	private record QuotaKey(String apiKey, String model) {
+	}
+
+
+	// Trailing-minute counts of one (key, model); the slot arrays are guarded by the instance lock
+	private static final class Usage {
+
+		private final long[] slotStart = new long[SLOTS];
+
+		private final int[] requests = new int[SLOTS];
+
+		private final long[] tokens = new long[SLOTS];
+
+		private final AtomicInteger liveSessions = new AtomicInteger();
+
+		private volatile long lastUsedAt;
+
+
+		private int currentSlot(long now) {
+			int slot = (int) ((now / SLOT_MS) % SLOTS);
+			long start = now - now % SLOT_MS;
+			if (slotStart[slot] != start) {
+				slotStart[slot] = start;
+				requests[slot] = 0;
+				tokens[slot] = 0;
+			}
+			return slot;
+		}//currentSlot
+
+
+		private boolean inWindow(int slot, long now) {
+			return slotStart[slot] != 0 && now - slotStart[slot] < WINDOW_MS;
+		}//inWindow
+
+
+		private int requestsInWindow(long now) {
+			int total = 0;
+			for (int slot = 0; slot < SLOTS; slot++) {
+				if (inWindow(slot, now)) {
+					total += requests[slot];
+				}
+			}
+			return total;
+		}//requestsInWindow
+
+
+		private long tokensInWindow(long now) {
+			long total = 0;
+			for (int slot = 0; slot < SLOTS; slot++) {
+				if (inWindow(slot, now)) {
+					total += tokens[slot];
+				}
+			}
+			return Math.max(0, total);
+		}//tokensInWindow
+
+
+		// Walks the slots oldest first until enough of the window has expired
+		private long millisUntilRoom(long now, GeminiConfig.ModelLimits limits, long estimatedTokens) {
+			int requestsLeft = requestsInWindow(now);
+			long tokensLeft = tokensInWindow(now);
+			if (fits(limits, requestsLeft, tokensLeft, estimatedTokens)) {
+				return 0;
+			}
+			int newest = (int) ((now / SLOT_MS) % SLOTS);
+			for (int age = 1; age <= SLOTS; age++) {
+				int slot = (newest + age) % SLOTS;
+				if (!inWindow(slot, now)) {
+					continue;
+				}
+				requestsLeft -= requests[slot];
+				tokensLeft -= tokens[slot];
+				if (fits(limits, requestsLeft, Math.max(0, tokensLeft), estimatedTokens)) {
+					return slotStart[slot] + WINDOW_MS - now;
+				}
+			}
+			return WINDOW_MS;
+		}//millisUntilRoom
+
+	}//Usage
+
+
+	public GeminiQuotaLedger(GeminiConfig geminiConfig) {
+		this(geminiConfig, Clock.systemUTC());
+	}//GeminiQuotaLedger
+
+
+	GeminiQuotaLedger(GeminiConfig geminiConfig, Clock clock) {
+		this.geminiConfig = geminiConfig;
+		this.clock = clock;
+	}//GeminiQuotaLedger
+
+
+	/**
+	 * Reserves one request and the estimated tokens on the key if that keeps it
+	 * within the model's per-minute limits.
+	 *
+	 * @return false if the call would likely be rejected with a 429
+	 */
+	public boolean tryAcquire(String apiKey, String model, long estimatedTokens) {
+		GeminiConfig.ModelLimits limits = limitsFor(model);
+		if (limits == null) {
+			return true;
+		}
+		Usage entry = usage(apiKey, model);
+		long now = clock.millis();
+		synchronized (entry) {
+			if (!fits(limits, entry.requestsInWindow(now), entry.tokensInWindow(now), estimatedTokens)) {
+				log.debug("Quota ledger holding back model {}: per-minute limit reached", model);
+				return false;
+			}
+			int slot = entry.currentSlot(now);
+			entry.requests[slot]++;
+			entry.tokens[slot] += estimatedTokens;
+		}
+		entry.lastUsedAt = now;
+		return true;
+	}//tryAcquire
+
+
+	/**
+	 * Millis until {@link #tryAcquire} would succeed for a call of this size, 0 if now.
+	 */
+	public long millisUntilAvailable(String apiKey, String model, long estimatedTokens) {
+		GeminiConfig.ModelLimits limits = limitsFor(model);
+		Usage entry = limits != null ? usage.get(new QuotaKey(apiKey, model)) : null;
+		if (entry == null) {
+			return 0;
+		}
+		long now = clock.millis();
+		synchronized (entry) {
+			return entry.millisUntilRoom(now, limits, estimatedTokens);
+		}
+	}//millisUntilAvailable
+
+
+	/**
+	 * Adds tokens to the current minute: a Live turn's usage, or the difference
+	 * between a grading call's estimate and its actual usage (may be negative).
+	 */
+	public void recordTokens(String apiKey, String model, long tokens) {
+		if (tokens == 0 || limitsFor(model) == null) {
+			return;
+		}
+		Usage entry = usage(apiKey, model);
+		long now = clock.millis();
+		synchronized (entry) {
+			entry.tokens[entry.currentSlot(now)] += tokens;
+		}
+		entry.lastUsedAt = now;
+	}//recordTokens
+
+
+	/**
+	 * True if one more Live session fits on the key: below the model's session
+	 * limit and with tokens left in the current minute.
+	 */
+	public boolean hasLiveCapacity(String apiKey, String model) {
+		GeminiConfig.ModelLimits limits = limitsFor(model);
+		Usage entry = limits != null ? usage.get(new QuotaKey(apiKey, model)) : null;
+		if (entry == null) {
+			return true;
+		}
+		if (limits.getLiveSessions() > 0 && entry.liveSessions.get() >= limits.getLiveSessions()) {
+			return false;
+		}
+		if (limits.getTpm() <= 0) {
+			return true;
+		}
+		long now = clock.millis();
+		synchronized (entry) {
+			return entry.tokensInWindow(now) < limits.getTpm();
+		}
+	}//hasLiveCapacity
+
+
+	/**
+	 * Takes a Live session slot on the key if {@link #hasLiveCapacity} holds,
+	 * checked and taken as one step.
+	 *
+	 * @return false if another session got the last slot first
+	 */
+	public boolean tryAcquireLive(String apiKey, String model) {
+		GeminiConfig.ModelLimits limits = limitsFor(model);
+		if (limits == null) {
+			return true;
+		}
+		Usage entry = usage(apiKey, model);
+		long now = clock.millis();
+		synchronized (entry) {
+			if (limits.getLiveSessions() > 0 && entry.liveSessions.get() >= limits.getLiveSessions()) {
+				return false;
+			}
+			if (limits.getTpm() > 0 && entry.tokensInWindow(now) >= limits.getTpm()) {
+				return false;
+			}
+			entry.liveSessions.incrementAndGet();
+		}
+		entry.lastUsedAt = now;
+		return true;
+	}//tryAcquireLive
+
+
+	/**
+	 * Takes a Live session slot regardless of the limits - for a resumed session
+	 * that has to stay on the key it already runs on.
+	 */
+	public void acquireLive(String apiKey, String model) {
+		if (limitsFor(model) == null) {
+			return;
+		}
+		Usage entry = usage(apiKey, model);
+		entry.liveSessions.incrementAndGet();
+		entry.lastUsedAt = clock.millis();
+	}//acquireLive
+
+
+	public void releaseLive(String apiKey, String model) {
+		Usage entry = usage.get(new QuotaKey(apiKey, model));
+		if (entry != null) {
+			entry.liveSessions.updateAndGet(n -> Math.max(0, n - 1));
+			entry.lastUsedAt = clock.millis();
+		}
+	}//releaseLive
+
+
+	/**
+	 * Drops keys with no open Live session and nothing left in the window.
+	 */
+	@Scheduled(fixedRate = 60_000)
+	public void cleanup() {
+		long now = clock.millis();
+		usage.values().removeIf(entry -> entry.liveSessions.get() == 0 && now - entry.lastUsedAt > WINDOW_MS);
+	}//cleanup
+
+
+	private Usage usage(String apiKey, String model) {
+		return usage.computeIfAbsent(new QuotaKey(apiKey, model), k -> new Usage());
+	}//usage
+
+
+	private GeminiConfig.ModelLimits limitsFor(String model) {
+		GeminiConfig.Quota quota = geminiConfig.getQuota();
+		return quota != null && quota.isEnabled() && model != null ? quota.getModels().get(model) : null;
+	}//limitsFor
+
+
+	// A call bigger than the whole token limit still goes through on an idle key
+	private static boolean fits(GeminiConfig.ModelLimits limits, int requests, long tokens, long estimatedTokens) {
+		boolean requestsFit = limits.getRpm() <= 0 || requests < limits.getRpm();
+		boolean tokensFit = limits.getTpm() <= 0 || tokens == 0 || tokens + estimatedTokens <= limits.getTpm();
+		return requestsFit && tokensFit;
+	}//fits
+
+}//GeminiQuotaLedger
@@ -0,0 +1,287 @@
+package net.k2ai.interviewSimulator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.entity.GradingJob;
+import net.k2ai.interviewSimulator.repository.GradingJobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable grading queue backed by the {@code grading_jobs} table.
+ * Jobs survive restarts, are claimed with {@code FOR UPDATE SKIP LOCKED} so any
+ * node can drain them, and are deleted (together with the encrypted transcript)
+ * as soon as grading finishes.
+ */
+@Slf4j
+@Service
+public class GradingJobService {
+
+	private static final int MAX_ERROR_LENGTH = 500;
+
+	private final GradingJobRepository jobRepository;
+
+	private final PayloadEncryptionService encryptionService;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final int maxAttempts;
+
+	private final long retryBackoffMillis;
+
+	private final long staleLockMillis;
+
+	// Identifies this node in locked_by, for diagnostics only
+	private final String workerId = "node-" + UUID.randomUUID().toString().substring(0, 8);
+
+
+	/**
+	 * A claimed job with its payload already decrypted. {@code payloadLost} is
+	 * true when the payload could not be decrypted (e.g. written before a restart
+	 * with a per-process key); transcript and key are then null and the job must
+	 * not be graded - hand it to {@link #failUndecryptable(UUID)}.
+	 */
+	public record ClaimedJob(UUID jobId, UUID sessionId, String wsSessionId, String language,
+							 String transcript, String apiKey, int attempt, boolean payloadLost) {
+	}
+
+
+	public GradingJobService(GradingJobRepository jobRepository,
+							 PayloadEncryptionService encryptionService,
+							 @Value("${app.grading.max-attempts:5}") int maxAttempts,
+							 @Value("${app.grading.retry-backoff-ms:5000}") long retryBackoffMillis,
+							 @Value("${app.grading.stale-lock-ms:600000}") long staleLockMillis) {
+		this.jobRepository = jobRepository;
+		this.encryptionService = encryptionService;
+		this.maxAttempts = maxAttempts;
+		this.retryBackoffMillis = retryBackoffMillis;
+		this.staleLockMillis = staleLockMillis;
+	}//GradingJobService
+
+
+	@PostConstruct
+	public void warnIfEphemeralKey() {
+		if (!encryptionService.isEphemeral()) {
+			return;
+		}
+		long queued = jobRepository.count();
+		log.error("Durable grading queue is running with a per-process encryption key (APP_PAYLOAD_ENCRYPTION_KEY "
+				+ "is not set). Jobs queued before a restart cannot be decrypted here and are left in the queue "
+				+ "({} job(s) in the queue now). Set APP_PAYLOAD_ENCRYPTION_KEY to keep them across restarts.", queued);
+	}//warnIfEphemeralKey
+
+
+	@Transactional
+	public UUID enqueue(UUID sessionId, String wsSessionId, String transcript, String apiKey, String language) {
+		return enqueue(sessionId, wsSessionId, transcript, apiKey, language, 0);
+	}//enqueue
+
+
+	/**
+	 * Queues a job that no worker picks up for {@code holdMillis}. Used while a
+	 * speculative grading on this node is expected to finish first; if it
+	 * doesn't (or this node dies), the job is graded normally once due.
+	 */
+	@Transactional
+	public UUID enqueue(UUID sessionId, String wsSessionId, String transcript, String apiKey, String language, long holdMillis) {
+		ObjectNode payload = objectMapper.createObjectNode();
+		payload.put("transcript", transcript != null ? transcript : "");
+		payload.put("apiKey", apiKey);
+
+		GradingJob job = GradingJob.builder()
+				.sessionId(sessionId)
+				.wsSessionId(wsSessionId)
+				.language(language)
+				.payload(encryptionService.encrypt(payload.toString()))
+				.status(GradingJob.STATUS_PENDING)
+				.attempts(0)
+				.nextAttemptAt(LocalDateTime.now().plusNanos(holdMillis * 1_000_000))
+				.build();
+
+		GradingJob saved = jobRepository.save(job);
+		log.info("Queued grading job {} for session {}", saved.getId(), sessionId);
+		return saved.getId();
+	}//enqueue
+
+
+	/**
+	 * Claims up to {@code limit} due jobs for this node and marks them RUNNING.
+	 */
+	@Transactional
+	public List<ClaimedJob> claim(int limit) {
+		if (limit <= 0) {
+			return List.of();
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		List<GradingJob> jobs = jobRepository.lockClaimable(now, now.minusNanos(staleLockMillis * 1_000_000), limit);
+
+		List<ClaimedJob> claimed = new ArrayList<>(jobs.size());
+		for (GradingJob job : jobs) {
+			if (GradingJob.STATUS_RUNNING.equals(job.getStatus())) {
+				log.warn("Reclaiming stale grading job {} (locked by {} at {})", job.getId(), job.getLockedBy(), job.getLockedAt());
+			}
+			job.setStatus(GradingJob.STATUS_RUNNING);
+			job.setLockedBy(workerId);
+			job.setLockedAt(now);
+			job.setAttempts(job.getAttempts() + 1);
+
+			claimed.add(toClaimedJob(job));
+		}
+		return claimed;
+	}//claim
+
+
+	/**
+	 * Claims a held job for the speculative result that was waiting on it.
+	 *
+	 * @return false if a worker already claimed it - the speculative result must then be discarded
+	 */
+	@Transactional
+	public boolean claimHeld(UUID jobId) {
+		return jobRepository.claimIfPending(jobId, workerId, LocalDateTime.now()) > 0;
+	}//claimHeld
+
+
+	/**
+	 * Makes a held job due immediately, for when its speculative grading failed.
+	 */
+	@Transactional
+	public void releaseHeld(UUID jobId) {
+		jobRepository.makeDue(jobId, LocalDateTime.now());
+	}//releaseHeld
+
+
+	/**
+	 * Removes a finished job. Deleting the row is what discards the transcript.
+	 */
+	@Transactional
+	public void complete(UUID jobId) {
+		jobRepository.deleteById(jobId);
+	}//complete
+
+
+	/**
+	 * Records a failed attempt. Reschedules with exponential backoff, or deletes
+	 * the job once {@code app.grading.max-attempts} is reached.
+	 *
+	 * @return true if the job will be retried, false if it was given up
+	 */
+	@Transactional
+	public boolean fail(UUID jobId, String error) {
+		return fail(jobId, error, true);
+	}//fail
+
+
+	/**
+	 * Records a failed attempt; a non-retryable failure deletes the job right away.
+	 *
+	 * @return true if the job will be retried, false if it was given up
+	 */
+	@Transactional
+	public boolean fail(UUID jobId, String error, boolean retryable) {
+		GradingJob job = jobRepository.findById(jobId).orElse(null);
+		if (job == null) {
+			return false;
+		}
+
+		if (!retryable) {
+			jobRepository.delete(job);
+			log.error("Grading job {} for session {} failed permanently: {}", jobId, job.getSessionId(), error);
+			return false;
+		}
+		if (job.getAttempts() >= maxAttempts) {
+			jobRepository.delete(job);
+			log.error("Grading job {} for session {} gave up after {} attempts", jobId, job.getSessionId(), job.getAttempts());
+			return false;
+		}
+
+		long backoff = retryBackoffMillis * (1L << Math.min(job.getAttempts() - 1, 10));
+		job.setStatus(GradingJob.STATUS_PENDING);
+		job.setLockedBy(null);
+		job.setLockedAt(null);
+		job.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000));
+		job.setLastError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+		log.warn("Grading job {} attempt {} failed, retrying in {} ms", jobId, job.getAttempts(), backoff);
+		return true;
+	}//fail
+
+
+	/**
+	 * Settles a claimed job whose payload could not be decrypted. With a
+	 * configured key no node can read it, so it is deleted. With a per-process
+	 * key it may belong to a process that still can, so it goes back to the
+	 * queue for {@code app.grading.stale-lock-ms} without counting the attempt.
+	 *
+	 * @return true if the job was put back, false if it was deleted
+	 */
+	@Transactional
+	public boolean failUndecryptable(UUID jobId) {
+		if (!encryptionService.isEphemeral()) {
+			return fail(jobId, "Payload could not be decrypted", false);
+		}
+
+		GradingJob job = jobRepository.findById(jobId).orElse(null);
+		if (job == null) {
+			return false;
+		}
+		job.setStatus(GradingJob.STATUS_PENDING);
+		job.setLockedBy(null);
+		job.setLockedAt(null);
+		job.setAttempts(Math.max(0, job.getAttempts() - 1));
+		job.setNextAttemptAt(LocalDateTime.now().plusNanos(staleLockMillis * 1_000_000));
+		job.setLastError("Payload could not be decrypted with this process's key");
+		log.warn("Grading job {} was written with another per-process key - released back to the queue", jobId);
+		return true;
+	}//failUndecryptable
+
+
+	/**
+	 * Puts a claimed job back until {@code delayMillis} from now without
+	 * counting the attempt - for when grading only has to wait for quota.
+	 */
+	@Transactional
+	public void defer(UUID jobId, long delayMillis) {
+		GradingJob job = jobRepository.findById(jobId).orElse(null);
+		if (job == null) {
+			return;
+		}
+
+		job.setStatus(GradingJob.STATUS_PENDING);
+		job.setLockedBy(null);
+		job.setLockedAt(null);
+		job.setAttempts(Math.max(0, job.getAttempts() - 1));
+		job.setNextAttemptAt(LocalDateTime.now().plusNanos(delayMillis * 1_000_000));
+		log.info("Grading job {} deferred for {} ms until quota frees up", jobId, delayMillis);
+	}//defer
+
+
+	public boolean hasPendingJob(UUID sessionId) {
+		return jobRepository.existsBySessionId(sessionId);
+	}//hasPendingJob
+
+
+	private ClaimedJob toClaimedJob(GradingJob job) {
+		try {
+			JsonNode payload = objectMapper.readTree(encryptionService.decrypt(job.getPayload()));
+			String transcript = payload.path("transcript").asText("");
+			String apiKey = payload.hasNonNull("apiKey") ? payload.get("apiKey").asText() : null;
+			return new ClaimedJob(job.getId(), job.getSessionId(), job.getWsSessionId(), job.getLanguage(),
+					transcript, apiKey, job.getAttempts(), false);
+		} catch (Exception e) {
+			log.error("Could not decrypt payload of grading job {}", job.getId());
+			return new ClaimedJob(job.getId(), job.getSessionId(), job.getWsSessionId(), job.getLanguage(),
+					null, null, job.getAttempts(), true);
+		}
+	}//toClaimedJob
+
+}//GradingJobService
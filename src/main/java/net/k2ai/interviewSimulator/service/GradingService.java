@@ -2,12 +2,14 @@ package net.k2ai.interviewSimulator.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.k2ai.interviewSimulator.config.GeminiConfig;
 import net.k2ai.interviewSimulator.entity.InterviewFeedback;
 import net.k2ai.interviewSimulator.entity.InterviewSession;
 import net.k2ai.interviewSimulator.exception.ModelAccessException;
+import net.k2ai.interviewSimulator.exception.QuotaWaitException;
 import net.k2ai.interviewSimulator.exception.RateLimitException;
 import net.k2ai.interviewSimulator.repository.InterviewFeedbackRepository;
 import net.k2ai.interviewSimulator.repository.InterviewSessionRepository;
@@ -23,7 +25,12 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class GradingService {
 
-	private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/%s:generateContent?key=%s";
+	private static final String GENERATE_CONTENT_PATH = "/models/%s:generateContent?key=%s";
+
+	// Rough size of a grading report, for the quota estimate made before the call
+	private static final long EXPECTED_OUTPUT_TOKENS = 2_000;
+
+	private static final long MIN_QUOTA_RETRY_MS = 1_000;
 
 	private final GeminiConfig geminiConfig;
 
@@ -33,6 +40,8 @@ public class GradingService {
 
 	private final InterviewFeedbackRepository feedbackRepository;
 
+	private final GeminiContextCacheService contextCache;
+
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
 	private final OkHttpClient httpClient = new OkHttpClient.Builder()
@@ -41,6 +50,13 @@ public class GradingService {
 			.build();
 
 
+	/**
+	 * The static rubric (cacheable per language) and the per-session request text.
+	 */
+	private record GradingPrompt(String rubric, String request, String language) {
+	}
+
+
 	/**
 	 * Grade interview with in-memory transcript and optional user API key/language.
 	 * In REVIEWER/PROD mode, retries with model/key rotation on rate limit or access errors.
@@ -51,9 +67,46 @@ public class GradingService {
 		InterviewSession session = sessionRepository.findById(sessionId)
 				.orElseThrow(() -> new RuntimeException("Session not found: " + sessionId));
 
+		InterviewFeedback feedback = evaluate(session, transcript, userApiKey, language);
+		if (feedback == null) {
+			feedback = createDefaultFeedback(session);
+		}
+
+		InterviewFeedback saved = saveFeedback(session, feedback);
+		log.info("Grading complete for session: {}. Score: {}", session.getId(), saved.getOverallScore());
+		return saved;
+	}//gradeInterview
+
+
+	/**
+	 * Grades a transcript without saving anything, for speculative grading.
+	 *
+	 * @return the unsaved feedback, or null if grading failed (no fallback feedback is made up)
+	 */
+	public InterviewFeedback evaluateInterview(UUID sessionId, String transcript, String userApiKey, String language) {
+		InterviewSession session = sessionRepository.findById(sessionId)
+				.orElseThrow(() -> new RuntimeException("Session not found: " + sessionId));
+		return evaluate(session, transcript, userApiKey, language);
+	}//evaluateInterview
+
+
+	/**
+	 * Saves feedback produced by {@link #evaluateInterview}. The session is
+	 * reloaded so fields written since the evaluation started (e.g. endedAt)
+	 * are not overwritten.
+	 */
+	public InterviewFeedback saveEvaluatedFeedback(UUID sessionId, InterviewFeedback feedback) {
+		InterviewSession session = sessionRepository.findById(sessionId)
+				.orElseThrow(() -> new RuntimeException("Session not found: " + sessionId));
+		feedback.setSession(session);
+		return saveFeedback(session, feedback);
+	}//saveEvaluatedFeedback
+
+
+	private InterviewFeedback evaluate(InterviewSession session, String transcript, String userApiKey, String language) {
 		if (transcript == null || transcript.isBlank()) {
-			log.warn("No transcript available for session: {}", sessionId);
-			return saveFeedback(session, createDefaultFeedback(session));
+			log.warn("No transcript available for session: {}", session.getId());
+			return null;
 		}
 
 		// Determine effective language
@@ -62,7 +115,8 @@ public class GradingService {
 			effectiveLanguage = session.getLanguage() != null ? session.getLanguage() : "en";
 		}
 
-		String prompt = buildGradingPrompt(session, transcript, effectiveLanguage);
+		GradingPrompt prompt = new GradingPrompt(buildGradingRubric(effectiveLanguage),
+				buildGradingRequest(session, transcript), effectiveLanguage);
 
 		// Use rotation for REVIEWER and PROD modes
 		if (geminiConfig.isReviewerMode() || geminiConfig.isProdMode()) {
@@ -71,54 +125,75 @@ public class GradingService {
 
 		// DEV mode: simple single call
 		return gradeSimple(session, prompt, userApiKey);
-	}//gradeInterview
+	}//evaluate
 
 
 	/**
 	 * Grading with model/key rotation (REVIEWER + PROD modes).
-	 * Each failure flags the combo so the next call to getNextAvailable returns a different one.
+	 * Every outcome is reported back, so the next call to getNextAvailable skips
+	 * failed combos and prefers the ones that have been answering fastest.
+	 * When every healthy combo is only at its per-minute quota, throws
+	 * {@link QuotaWaitException} with the time until the ledger has room, so the
+	 * caller can retry then instead of calling into a 429 or holding a thread.
 	 * Loop exits when all combos are exhausted or one succeeds.
+	 *
+	 * @return null if every attempt failed
 	 */
-	private InterviewFeedback gradeWithRotation(InterviewSession session, String prompt, String userApiKey) {
+	private InterviewFeedback gradeWithRotation(InterviewSession session, GradingPrompt prompt, String userApiKey) {
 		int attempt = 0;
 		int safetyLimit = 20;
-
-		GeminiModelRotationService.GradingConfig config;
-		while ((config = rotationService.getNextAvailable(userApiKey)) != null && attempt < safetyLimit) {
+		long estimatedTokens = estimateTokens(prompt);
+		GeminiModelRotationService.UserKey userKey = rotationService.userKey(userApiKey);
+
+		while (attempt < safetyLimit) {
+			GeminiModelRotationService.GradingConfig config = rotationService.getNextAvailableFor(userKey, estimatedTokens);
+			if (config == null) {
+				long waitMillis = rotationService.millisUntilAvailableFor(userKey, estimatedTokens);
+				if (waitMillis < 0) {
+					break;
+				}
+				// 0 means another call took the room that just freed up
+				waitMillis = Math.max(waitMillis, MIN_QUOTA_RETRY_MS);
+				log.info("Grading keys at their per-minute quota - session {} can retry in {} ms", session.getId(), waitMillis);
+				throw new QuotaWaitException(waitMillis);
+			}
 			attempt++;
 			log.info("Grading attempt {} with model: {}", attempt, config.model());
 
+			long startNanos = System.nanoTime();
 			try {
 				String response = callGeminiApi(prompt, config.apiKey(), config.model());
 				InterviewFeedback feedback = parseGradingResponse(response, session);
-				InterviewFeedback saved = saveFeedback(session, feedback);
-				log.info("Grading complete for session: {}. Score: {} (model: {})",
-						session.getId(), saved.getOverallScore(), config.model());
-				return saved;
+				rotationService.reportSuccess(config, (System.nanoTime() - startNanos) / 1_000_000);
+				rotationService.reportUsage(config, estimatedTokens, usedTokens(response));
+				log.info("Graded session {} with model: {}", session.getId(), config.model());
+				return feedback;
 			} catch (RateLimitException e) {
 				String msg = e.getMessage() != null ? e.getMessage().toLowerCase() : "";
 				boolean isDaily = msg.contains("daily") || msg.contains("per day") || msg.contains("per_day");
-				rotationService.flagExhausted(config.apiKey(), config.model(), isDaily);
+				rotationService.flagExhausted(config, isDaily);
 				log.warn("Rate limit/overload on model {}, rotating to next...", config.model());
 			} catch (ModelAccessException e) {
-				rotationService.flagInaccessible(config.apiKey(), config.model());
+				rotationService.flagInaccessible(config);
 				log.warn("Model {} inaccessible, rotating to next...", config.model());
 			} catch (Exception e) {
-				// Flag with short cooldown so this combo is skipped next iteration
-				rotationService.flagExhausted(config.apiKey(), config.model(), false);
-				log.warn("Grading error on model {} (flagged 65s, rotating): {}", config.model(), e.getMessage());
+				// Backs the combo off so it is skipped next iteration
+				rotationService.reportError(config, (System.nanoTime() - startNanos) / 1_000_000);
+				log.warn("Grading error on model {} (rotating): {}", config.model(), e.getMessage());
 			}
 		}
 
 		log.error("All grading attempts failed for session: {}", session.getId());
-		return saveFeedback(session, createDefaultFeedback(session));
+		return null;
 	}//gradeWithRotation
 
 
 	/**
 	 * Simple grading for DEV mode (single key, single model, no rotation).
+	 *
+	 * @return null if the call or parsing failed
 	 */
-	private InterviewFeedback gradeSimple(InterviewSession session, String prompt, String userApiKey) {
+	private InterviewFeedback gradeSimple(InterviewSession session, GradingPrompt prompt, String userApiKey) {
 		String effectiveApiKey = userApiKey != null ? userApiKey : geminiConfig.getApiKey();
 		if (effectiveApiKey == null || effectiveApiKey.isBlank()) {
 			throw new IllegalStateException("No API key available for grading");
@@ -126,23 +201,21 @@ public class GradingService {
 
 		try {
 			String response = callGeminiApi(prompt, effectiveApiKey, geminiConfig.getGradingModel());
-			InterviewFeedback feedback = parseGradingResponse(response, session);
-
-			InterviewFeedback saved = saveFeedback(session, feedback);
-
-			log.info("Grading complete for session: {}. Score: {}", session.getId(), saved.getOverallScore());
-			return saved;
+			return parseGradingResponse(response, session);
 		} catch (RateLimitException e) {
 			throw e;
 		} catch (Exception e) {
 			log.error("Failed to grade interview for session: {}: {}", session.getId(), e.getMessage());
-			InterviewFeedback fallback = createDefaultFeedback(session);
-			return saveFeedback(session, fallback);
+			return null;
 		}
 	}//gradeSimple
 
 
-	private String buildGradingPrompt(InterviewSession session, String transcript, String language) {
+	/**
+	 * Evaluator role, output schema and language instruction - identical for every
+	 * session in a language, so it is sent as a cached system instruction.
+	 */
+	private String buildGradingRubric(String language) {
 		String languageInstruction = "bg".equals(language)
 				? """
 						
@@ -156,16 +229,8 @@ public class GradingService {
 				: "";
 
 		return String.format("""
-						You are an expert interview evaluator. Analyze the following job interview transcript and provide a detailed evaluation.
-						%s
-						## Interview Details
-						- Position: %s
-						- Difficulty Level: %s
-						- Candidate Name: %s
-						
-						## Transcript
+						You are an expert interview evaluator. Analyze the job interview transcript you are given and provide a detailed evaluation.
 						%s
-						
 						## Evaluation Instructions
 						Evaluate the candidate's performance and provide scores from 0-100 for each category.
 						Be fair but honest in your assessment. Consider the difficulty level in your evaluation.
@@ -192,13 +257,27 @@ public class GradingService {
 						- detailedAnalysis should be 2-4 sentences with constructive feedback
 						- verdict should match the overall assessment
 						""",
-				languageInstruction,
+				languageInstruction
+		);
+	}//buildGradingRubric
+
+
+	private String buildGradingRequest(InterviewSession session, String transcript) {
+		return String.format("""
+						## Interview Details
+						- Position: %s
+						- Difficulty Level: %s
+						- Candidate Name: %s
+						
+						## Transcript
+						%s
+						""",
 				session.getJobPosition(),
 				session.getDifficulty(),
 				session.getCandidateName(),
 				transcript
 		);
-	}//buildGradingPrompt
+	}//buildGradingRequest
 
 
 	private InterviewFeedback saveFeedback(InterviewSession session, InterviewFeedback feedback) {
@@ -209,27 +288,45 @@ public class GradingService {
 	}//saveFeedback
 
 
-	private String callGeminiApi(String prompt, String apiKey, String model) throws IOException {
-		String url = String.format(GEMINI_API_URL, model, apiKey);
-
-		String requestBody = String.format("""
-				{
-				    "contents": [{
-				        "parts": [{
-				            "text": %s
-				        }]
-				    }],
-				    "generationConfig": {
-				        "temperature": 0.7,
-				        "maxOutputTokens": 8192,
-				        "responseMimeType": "application/json"
-				    }
-				}
-				""", objectMapper.writeValueAsString(prompt));
+	/**
+	 * Sends the request with the rubric from Gemini's context cache when one is
+	 * available for this key/model/language, otherwise inline. A cache entry the
+	 * API rejects (e.g. expired early) is dropped and the call repeated inline.
+	 */
+	private String callGeminiApi(GradingPrompt prompt, String apiKey, String model) throws IOException {
+		String cachedContent = contextCache.resolve(apiKey, model, prompt.language(), prompt.rubric());
+		if (cachedContent != null) {
+			try {
+				return postGenerateContent(prompt, cachedContent, apiKey, model);
+			} catch (ModelAccessException e) {
+				log.warn("Cached grading rubric {} rejected by model {} - retrying inline", cachedContent, model);
+				contextCache.invalidate(apiKey, model, prompt.language());
+			}
+		}
+		return postGenerateContent(prompt, null, apiKey, model);
+	}//callGeminiApi
+
+
+	private String postGenerateContent(GradingPrompt prompt, String cachedContent, String apiKey, String model) throws IOException {
+		String url = geminiConfig.getApiBaseUrl() + String.format(GENERATE_CONTENT_PATH, model, apiKey);
+
+		// Inline, rubric and request go in one user turn: some rotation models (Gemma) reject system instructions
+		ObjectNode body = objectMapper.createObjectNode();
+		if (cachedContent != null) {
+			body.put("cachedContent", cachedContent);
+		}
+		ObjectNode content = body.putArray("contents").addObject();
+		content.put("role", "user");
+		content.putArray("parts").addObject()
+				.put("text", cachedContent != null ? prompt.request() : prompt.rubric() + "\n" + prompt.request());
+		ObjectNode generationConfig = body.putObject("generationConfig");
+		generationConfig.put("temperature", 0.7);
+		generationConfig.put("maxOutputTokens", 8192);
+		generationConfig.put("responseMimeType", "application/json");
 
 		Request request = new Request.Builder()
 				.url(url)
-				.post(RequestBody.create(requestBody, MediaType.parse("application/json")))
+				.post(RequestBody.create(body.toString(), MediaType.parse("application/json")))
 				.build();
 
 		try (Response response = httpClient.newCall(request).execute()) {
@@ -250,6 +347,10 @@ public class GradingService {
 				if (response.code() == 400 && errorBody.contains("FAILED_PRECONDITION")) {
 					throw new ModelAccessException("Model precondition failed (billing/access): " + model);
 				}
+				// A stale cache reference comes back as a plain 400 mentioning it
+				if (response.code() == 400 && cachedContent != null && errorBody.toLowerCase().contains("cache")) {
+					throw new ModelAccessException("Cached content rejected: " + cachedContent);
+				}
 
 				throw new IOException("Gemini API error: " + response.code());
 			}
@@ -258,7 +359,7 @@ public class GradingService {
 			log.debug("Gemini grading response: {}", responseBody);
 			return responseBody;
 		}
-	}//callGeminiApi
+	}//postGenerateContent
 
 
 	private InterviewFeedback parseGradingResponse(String response, InterviewSession session) {
@@ -309,6 +410,22 @@ public class GradingService {
 	}//parseGradingResponse
 
 
+	// About four characters per token, plus the expected report
+	private static long estimateTokens(GradingPrompt prompt) {
+		return (prompt.rubric().length() + prompt.request().length()) / 4 + EXPECTED_OUTPUT_TOKENS;
+	}//estimateTokens
+
+
+	// Tokens billed for the call, from usageMetadata; 0 if the response doesn't say
+	private long usedTokens(String response) {
+		try {
+			return objectMapper.readTree(response).path("usageMetadata").path("totalTokenCount").asLong(0);
+		} catch (Exception e) {
+			return 0;
+		}
+	}//usedTokens
+
+
 	private String extractJson(String text) {
 		// Try to extract JSON from markdown code block
 		if (text.contains("```json")) {
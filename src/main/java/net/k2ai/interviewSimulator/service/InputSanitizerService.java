@@ -2,51 +2,17 @@ package net.k2ai.interviewSimulator.service;
 
 import org.springframework.stereotype.Service;
 
-import java.util.regex.Pattern;
-
 /**
  * Service for sanitizing user input to prevent XSS, injection attacks, and other security issues.
  * Used to clean input before storing in database or sending to external services like Gemini.
+ *
+ * <p>The rules themselves (script blocks, HTML tags, LLM control tokens and
+ * prompt-injection lead-ins) are applied by {@link TextSanitizer} in a single
+ * linear-time pass over the input.
  */
 @Service
 public class InputSanitizerService {
 
-	private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<[^>]*>");
-
-	private static final Pattern SCRIPT_PATTERN = Pattern.compile(
-			"(?i)<script[^>]*>.*?</script>|javascript:|on\\w+\\s*=", Pattern.DOTALL
-	);
-
-	private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(
-			"(?i)(--|;|'|\"\\s*(or|and)\\s+|union\\s+select|insert\\s+into|delete\\s+from|drop\\s+table)",
-			Pattern.CASE_INSENSITIVE
-	);
-
-	// Meta-tokens used by the LLM prompt and the turn-end detector. Must be stripped
-	// from user-supplied fields (candidateName, position, cvText) so a malicious CV
-	// can't prematurely terminate the interview or inject role switches.
-	private static final Pattern PROMPT_CONTROL_TOKEN_PATTERN = Pattern.compile(
-			"(?i)\\[\\s*END_INTERVIEW\\s*\\]|\\[\\s*/?(?:system|assistant|user)\\s*\\]",
-			Pattern.CASE_INSENSITIVE
-	);
-
-	// Common prompt-injection lead-ins. Removed defensively; false positives are
-	// acceptable on CV text. Covers English + Bulgarian (Cyrillic) since the app
-	// supports BG locale and the LLM understands both.
-	private static final Pattern PROMPT_INJECTION_LEADIN_PATTERN = Pattern.compile(
-			"(?imu)^\\s*("
-					+ "ignore\\s+(all\\s+)?(previous|prior|above)\\s+instructions"
-					+ "|disregard\\s+(all\\s+)?(previous|prior|above)\\s+instructions"
-					+ "|forget\\s+(all\\s+)?(previous|prior|above)\\s+instructions"
-					+ "|system\\s*:|assistant\\s*:|user\\s*:"
-					+ "|игнорирай\\s+(всички\\s+)?(предишни|предходни|горни)\\s+инструкции"
-					+ "|пренебрегни\\s+(всички\\s+)?(предишни|предходни|горни)\\s+инструкции"
-					+ "|забрави\\s+(всички\\s+)?(предишни|предходни|горни)\\s+инструкции"
-					+ "|система\\s*:|асистент\\s*:|потребител\\s*:"
-					+ ").*$",
-			Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE
-	);
-
 	/**
 	 * Sanitizes text for safe display in HTML.
 	 * Escapes HTML special characters to prevent XSS.
@@ -73,18 +39,8 @@ public class InputSanitizerService {
 			return null;
 		}
 
-		String sanitized = input;
-
-		// Remove script tags and javascript: URLs
-		sanitized = SCRIPT_PATTERN.matcher(sanitized).replaceAll("");
-
-		// Remove HTML tags (keep content)
-		sanitized = HTML_TAG_PATTERN.matcher(sanitized).replaceAll("");
-
-		// Trim and normalize whitespace
-		sanitized = sanitized.replaceAll("\\s+", " ").trim();
-
-		return sanitized;
+		// Remove script tags, javascript: URLs and HTML tags (keep content), normalize whitespace
+		return TextSanitizer.stripMarkupCollapsingWhitespace(input).trim();
 	}// sanitizeForPrompt
 
 
@@ -100,7 +56,7 @@ public class InputSanitizerService {
 		String trimmed = stripControlTokens(input).trim();
 
 		// Only allow letters (Unicode), spaces, hyphens, apostrophes
-		if (!trimmed.matches("^[\\p{L}\\s\\-']+$")) {
+		if (!TextSanitizer.isNameText(trimmed)) {
 			return null;
 		}
 
@@ -124,16 +80,8 @@ public class InputSanitizerService {
 
 		String trimmed = stripControlTokens(input).trim();
 
-		// Check for dangerous patterns
-		if (SQL_INJECTION_PATTERN.matcher(trimmed).find()) {
-			return null;
-		}
-		if (SCRIPT_PATTERN.matcher(trimmed).find()) {
-			return null;
-		}
-
-		// Only allow safe characters
-		if (!trimmed.matches("^[\\p{L}\\p{N}\\s.,+\\-#()/&]+$")) {
+		// Only allow safe characters, and no SQL fragments
+		if (!TextSanitizer.isSafePosition(trimmed)) {
 			return null;
 		}
 
@@ -154,21 +102,13 @@ public class InputSanitizerService {
 			return null;
 		}
 
-		// Clamp length BEFORE running regex — unbounded input with catastrophic
-		// backtracking or large scans is its own DoS vector.
-		String sanitized = input.length() > 100_000 ? input.substring(0, 100_000) : input;
-
-		// Remove script tags and javascript
-		sanitized = SCRIPT_PATTERN.matcher(sanitized).replaceAll("");
-
-		// Remove HTML tags
-		sanitized = HTML_TAG_PATTERN.matcher(sanitized).replaceAll("");
-
-		// Strip LLM control tokens so a crafted CV can't end the interview or
-		// impersonate system/assistant turns.
-		sanitized = stripControlTokens(sanitized);
+		// CV text is capped at 100KB before anything else runs
+		CharSequence clamped = input.length() > 100_000 ? input.subSequence(0, 100_000) : input;
 
-		return sanitized;
+		// Remove script tags, javascript and HTML tags, then strip LLM control
+		// tokens so a crafted CV can't end the interview or impersonate
+		// system/assistant turns.
+		return TextSanitizer.stripMarkupAndControlTokens(clamped);
 	}// sanitizeCvText
 
 
@@ -181,9 +121,7 @@ public class InputSanitizerService {
 		if (input == null) {
 			return null;
 		}
-		String stripped = PROMPT_CONTROL_TOKEN_PATTERN.matcher(input).replaceAll("");
-		stripped = PROMPT_INJECTION_LEADIN_PATTERN.matcher(stripped).replaceAll("");
-		return stripped;
+		return TextSanitizer.stripControlTokens(input);
 	}// stripControlTokens
 
 
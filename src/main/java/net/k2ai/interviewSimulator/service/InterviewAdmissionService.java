@@ -0,0 +1,432 @@
+package net.k2ai.interviewSimulator.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.exception.LiveCapacityException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Caps the number of live Gemini sessions on this node and queues the excess
+ * in a waiting room instead of overloading the node for everyone.
+ *
+ * <p>The waiting room is fair across IPs: the next free slot goes to the next
+ * IP in round-robin order, and requests from the same IP are served FIFO, so a
+ * single busy network can't push everyone else to the back. Waiting candidates
+ * get their position and an ETA on {@code /queue/status} and are turned away
+ * after {@code app.admission.queue-timeout-ms}.
+ *
+ * <p>Admitted starts run on a dedicated executor, never on the caller's thread:
+ * opening a Gemini session can take seconds, and {@link #release} and
+ * {@link #tick} are called from the WebSocket event and scheduler threads.
+ *
+ * <p>A start that finds no Gemini key/model with room ({@link LiveCapacityException})
+ * goes back to the head of its IP's queue, and the waiting room holds until the
+ * next release or tick instead of retrying it straight away.
+ */
+@Slf4j
+@Service
+public class InterviewAdmissionService {
+
+	// Seed for the average session length used in ETAs until real sessions have ended
+	private static final long DEFAULT_HOLD_MILLIS = 10 * 60 * 1000L;
+
+	private static final double HOLD_EWMA_ALPHA = 0.2;
+
+	private final ClientMessagingService clientMessagingService;
+
+	private final int maxLiveSessions;
+
+	private final int maxQueueLength;
+
+	private final int maxQueuedPerIp;
+
+	private final long queueTimeoutMillis;
+
+	private final Executor startExecutor;
+
+	private final Object lock = new Object();
+
+	// WebSocket session ID -> time the slot was granted. Guarded by lock.
+	private final Map<String, Long> admitted = new HashMap<>();
+
+	// Client IP -> its waiting requests, in round-robin order. Guarded by lock.
+	private final LinkedHashMap<String, ArrayDeque<Waiter>> waitingByIp = new LinkedHashMap<>();
+
+	// WebSocket session ID -> waiting request, for cancellation. Guarded by lock.
+	private final Map<String, Waiter> waitingBySession = new HashMap<>();
+
+	// Set when a start found no live capacity; dispatch waits for a release or tick. Guarded by lock.
+	private boolean placementsFull = false;
+
+	// Exponentially weighted average of how long an admitted session holds its slot
+	private volatile double averageHoldMillis = DEFAULT_HOLD_MILLIS;
+
+
+	private record Waiter(String wsSessionId, String clientIp, BooleanSupplier start, long enqueuedAt) {
+	}
+
+
+	public InterviewAdmissionService(ClientMessagingService clientMessagingService,
+									 @Value("${app.admission.max-live-sessions:50}") int maxLiveSessions,
+									 @Value("${app.admission.max-queue-length:200}") int maxQueueLength,
+									 @Value("${app.admission.max-queued-per-ip:3}") int maxQueuedPerIp,
+									 @Value("${app.admission.queue-timeout-ms:180000}") long queueTimeoutMillis) {
+		this(clientMessagingService, maxLiveSessions, maxQueueLength, maxQueuedPerIp, queueTimeoutMillis,
+				Executors.newCachedThreadPool(r -> {
+					Thread t = new Thread(r, "interview-start");
+					t.setDaemon(true);
+					return t;
+				}));
+	}//InterviewAdmissionService
+
+
+	InterviewAdmissionService(ClientMessagingService clientMessagingService, int maxLiveSessions, int maxQueueLength,
+							  int maxQueuedPerIp, long queueTimeoutMillis, Executor startExecutor) {
+		this.clientMessagingService = clientMessagingService;
+		this.maxLiveSessions = maxLiveSessions;
+		this.maxQueueLength = maxQueueLength;
+		this.maxQueuedPerIp = maxQueuedPerIp;
+		this.queueTimeoutMillis = queueTimeoutMillis;
+		this.startExecutor = startExecutor;
+	}//InterviewAdmissionService
+
+
+	@PreDestroy
+	public void shutdown() {
+		if (startExecutor instanceof ExecutorService service) {
+			service.shutdown();
+		}
+	}//shutdown
+
+
+	/**
+	 * Starts {@code start} now if a slot is free and nobody is waiting, otherwise
+	 * queues it. {@code start} must return true once the interview is live; on
+	 * false the slot is handed straight to the next waiter, and on
+	 * {@link LiveCapacityException} the start waits again. Either way it runs
+	 * asynchronously on the start executor.
+	 */
+	public void submit(String wsSessionId, String clientIp, BooleanSupplier start) {
+		Waiter waiter = new Waiter(wsSessionId, clientIp, start, System.currentTimeMillis());
+		boolean runNow = false;
+		String rejection = null;
+
+		synchronized (lock) {
+			if (admitted.containsKey(wsSessionId) || waitingBySession.containsKey(wsSessionId)) {
+				return;
+			}
+			if (waitingBySession.isEmpty() && admitted.size() < maxLiveSessions) {
+				admitted.put(wsSessionId, System.currentTimeMillis());
+				runNow = true;
+			} else if (waitingBySession.size() >= maxQueueLength) {
+				rejection = "All interviewers are busy right now. Please try again in a few minutes.";
+			} else {
+				ArrayDeque<Waiter> queue = waitingByIp.computeIfAbsent(clientIp, ip -> new ArrayDeque<>());
+				if (queue.size() >= maxQueuedPerIp) {
+					rejection = "Too many interviews waiting from your network. Please try again later.";
+				} else {
+					queue.addLast(waiter);
+					waitingBySession.put(wsSessionId, waiter);
+				}
+				if (queue.isEmpty()) {
+					waitingByIp.remove(clientIp);
+				}
+			}
+		}
+
+		if (rejection != null) {
+			log.warn("Interview start rejected for {} - live: {}, waiting: {}", wsSessionId, getLiveCount(), getQueueLength());
+			clientMessagingService.send(wsSessionId, "/queue/error", Map.of(
+					"message", rejection,
+					"busy", true
+			));
+			return;
+		}
+
+		if (runNow) {
+			scheduleStart(waiter);
+		} else {
+			log.info("Interview start for {} queued - waiting: {}", wsSessionId, getQueueLength());
+			publishQueueStatus();
+		}
+	}//submit
+
+
+	/**
+	 * Takes a slot for an interview resumed from a draining node. Resumes skip
+	 * the waiting room and may exceed the budget briefly - they are already
+	 * mid-interview and must not be abandoned.
+	 */
+	public void admitResumed(String wsSessionId) {
+		synchronized (lock) {
+			admitted.putIfAbsent(wsSessionId, System.currentTimeMillis());
+		}
+	}//admitResumed
+
+
+	/**
+	 * Frees the slot (or waiting-room place) held by {@code wsSessionId} and
+	 * admits the next waiter. Safe to call more than once.
+	 */
+	public void release(String wsSessionId) {
+		Long admittedAt;
+		synchronized (lock) {
+			admittedAt = admitted.remove(wsSessionId);
+			if (admittedAt != null) {
+				// The session's placement is free again
+				placementsFull = false;
+			}
+			if (admittedAt == null) {
+				Waiter waiter = waitingBySession.remove(wsSessionId);
+				if (waiter != null) {
+					removeWaiter(waiter);
+				}
+			}
+		}
+
+		if (admittedAt != null) {
+			long held = System.currentTimeMillis() - admittedAt;
+			averageHoldMillis = HOLD_EWMA_ALPHA * held + (1 - HOLD_EWMA_ALPHA) * averageHoldMillis;
+			dispatch();
+		}
+	}//release
+
+
+	/**
+	 * Turns away everyone in the waiting room (used when the node drains).
+	 */
+	public void rejectWaiting(String message) {
+		List<Waiter> rejected;
+		synchronized (lock) {
+			rejected = new ArrayList<>(waitingBySession.values());
+			waitingBySession.clear();
+			waitingByIp.clear();
+		}
+
+		for (Waiter waiter : rejected) {
+			clientMessagingService.send(waiter.wsSessionId(), "/queue/error", Map.of(
+					"message", message,
+					"draining", true
+			));
+		}
+	}//rejectWaiting
+
+
+	public int getLiveCount() {
+		synchronized (lock) {
+			return admitted.size();
+		}
+	}//getLiveCount
+
+
+	public int getQueueLength() {
+		synchronized (lock) {
+			return waitingBySession.size();
+		}
+	}//getQueueLength
+
+
+	/**
+	 * Expires waiters that exceeded the queue timeout and refreshes everyone's
+	 * position/ETA.
+	 */
+	@Scheduled(fixedDelayString = "${app.admission.status-interval-ms:5000}")
+	public void tick() {
+		long cutoff = System.currentTimeMillis() - queueTimeoutMillis;
+		List<Waiter> expired = new ArrayList<>();
+
+		synchronized (lock) {
+			// Quota windows roll over and cooldowns run out without a release
+			placementsFull = false;
+			for (Waiter waiter : waitingBySession.values()) {
+				if (waiter.enqueuedAt() < cutoff) {
+					expired.add(waiter);
+				}
+			}
+			for (Waiter waiter : expired) {
+				waitingBySession.remove(waiter.wsSessionId());
+				removeWaiter(waiter);
+			}
+		}
+
+		for (Waiter waiter : expired) {
+			log.info("Interview start for {} timed out in the waiting room", waiter.wsSessionId());
+			clientMessagingService.send(waiter.wsSessionId(), "/queue/error", Map.of(
+					"message", "All interviewers are still busy. Please try again in a few minutes.",
+					"queueTimeout", true
+			));
+		}
+
+		// A slot may also have been freed without a release (e.g. budget raised)
+		dispatch();
+		publishQueueStatus();
+	}//tick
+
+
+	// Loops rather than recursing: failed starts call back in here from their own
+	// executor task, so the depth stays constant however long the queue is.
+	private void dispatch() {
+		while (true) {
+			Waiter next;
+			synchronized (lock) {
+				if (placementsFull || admitted.size() >= maxLiveSessions || waitingByIp.isEmpty()) {
+					return;
+				}
+				next = pollNextWaiter();
+				admitted.put(next.wsSessionId(), System.currentTimeMillis());
+			}
+
+			log.info("Admitting queued interview start for {} after {} ms", next.wsSessionId(),
+					System.currentTimeMillis() - next.enqueuedAt());
+			scheduleStart(next);
+		}
+	}//dispatch
+
+
+	// The slot must already be taken in admitted
+	private void scheduleStart(Waiter waiter) {
+		try {
+			startExecutor.execute(() -> runStart(waiter));
+		} catch (RejectedExecutionException e) {
+			// Shutting down - nothing will run it
+			log.warn("Interview start for {} dropped - node is shutting down", waiter.wsSessionId());
+			synchronized (lock) {
+				admitted.remove(waiter.wsSessionId());
+			}
+		}
+	}//scheduleStart
+
+
+	private void runStart(Waiter waiter) {
+		boolean started;
+		try {
+			started = waiter.start().getAsBoolean();
+		} catch (LiveCapacityException e) {
+			requeue(waiter);
+			return;
+		} catch (Exception e) {
+			log.error("Interview start failed for {}", waiter.wsSessionId(), e);
+			started = false;
+		}
+
+		if (!started) {
+			// Failed starts don't count towards the session-length estimate
+			synchronized (lock) {
+				admitted.remove(waiter.wsSessionId());
+			}
+			dispatch();
+		}
+	}//runStart
+
+
+	// Puts a start that found no live capacity back at the head of the waiting room
+	private void requeue(Waiter waiter) {
+		synchronized (lock) {
+			if (admitted.remove(waiter.wsSessionId()) == null) {
+				// Released (disconnected) while starting
+				return;
+			}
+			placementsFull = true;
+			ArrayDeque<Waiter> queue = waitingByIp.get(waiter.clientIp());
+			if (queue != null) {
+				queue.addFirst(waiter);
+			} else {
+				queue = new ArrayDeque<>();
+				queue.add(waiter);
+				LinkedHashMap<String, ArrayDeque<Waiter>> rest = new LinkedHashMap<>(waitingByIp);
+				waitingByIp.clear();
+				waitingByIp.put(waiter.clientIp(), queue);
+				waitingByIp.putAll(rest);
+			}
+			waitingBySession.put(waiter.wsSessionId(), waiter);
+		}
+
+		log.info("No live capacity for {} - back in the waiting room, waiting: {}", waiter.wsSessionId(), getQueueLength());
+		publishQueueStatus();
+	}//requeue
+
+
+	private void publishQueueStatus() {
+		List<Waiter> order;
+		double slotsPerMilli;
+		synchronized (lock) {
+			order = roundRobinOrder();
+			slotsPerMilli = maxLiveSessions / averageHoldMillis;
+		}
+
+		for (int i = 0; i < order.size(); i++) {
+			int position = i + 1;
+			long etaSeconds = Math.max(1, Math.round(position / slotsPerMilli / 1000));
+			clientMessagingService.send(order.get(i).wsSessionId(), "/queue/status", Map.of(
+					"type", "QUEUED",
+					"position", position,
+					"etaSeconds", etaSeconds
+			));
+		}
+	}//publishQueueStatus
+
+
+	// Must hold lock. Takes the head of the next IP's queue and rotates that IP to the back.
+	private Waiter pollNextWaiter() {
+		Iterator<Map.Entry<String, ArrayDeque<Waiter>>> it = waitingByIp.entrySet().iterator();
+		Map.Entry<String, ArrayDeque<Waiter>> entry = it.next();
+		ArrayDeque<Waiter> queue = entry.getValue();
+		Waiter next = queue.pollFirst();
+		it.remove();
+		if (!queue.isEmpty()) {
+			waitingByIp.put(entry.getKey(), queue);
+		}
+		waitingBySession.remove(next.wsSessionId());
+		return next;
+	}//pollNextWaiter
+
+
+	// Must hold lock. The order pollNextWaiter would admit the current waiters in.
+	private List<Waiter> roundRobinOrder() {
+		List<Waiter> order = new ArrayList<>(waitingBySession.size());
+		List<Iterator<Waiter>> cursors = new ArrayList<>(waitingByIp.size());
+		for (ArrayDeque<Waiter> queue : waitingByIp.values()) {
+			cursors.add(queue.iterator());
+		}
+
+		while (!cursors.isEmpty()) {
+			Iterator<Iterator<Waiter>> round = cursors.iterator();
+			while (round.hasNext()) {
+				Iterator<Waiter> cursor = round.next();
+				order.add(cursor.next());
+				if (!cursor.hasNext()) {
+					round.remove();
+				}
+			}
+		}
+		return order;
+	}//roundRobinOrder
+
+
+	// Must hold lock
+	private void removeWaiter(Waiter waiter) {
+		ArrayDeque<Waiter> queue = waitingByIp.get(waiter.clientIp());
+		if (queue != null) {
+			queue.remove(waiter);
+			if (queue.isEmpty()) {
+				waitingByIp.remove(waiter.clientIp());
+			}
+		}
+	}//removeWaiter
+
+}//InterviewAdmissionService
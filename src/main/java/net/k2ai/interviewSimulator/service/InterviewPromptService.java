@@ -1,44 +1,56 @@
 package net.k2ai.interviewSimulator.service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.regex.Pattern;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds the interviewer system instruction and recognises the end of an interview.
+ *
+ * <p>Everything in the instruction except the position, interviewer name,
+ * difficulty label and CV text depends only on (language, difficulty level,
+ * interview length, position profile, CV present), so each such combination
+ * is compiled once into a {@link PromptTemplate} and starts only splice the
+ * four values in. There are at most a few hundred combinations per profile
+ * set, so the cache needs no eviction; it is emptied when the profiles reload.
+ */
 @Slf4j
+@RequiredArgsConstructor
 @Service
-public class InterviewPromptService {
-
-	// Deterministic end signal token - placed by AI in concluding message
-	private static final String END_SIGNAL = "[END_INTERVIEW]";
-
-	// Patterns to detect when AI is concluding the interview (English)
-	private static final List<Pattern> CONCLUSION_PATTERNS_EN = List.of(
-			Pattern.compile("thank you for your time", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("that concludes our interview", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("we have all the information we need", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("thank you for coming in", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("we('ll| will) be in touch", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("this concludes", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("end of (the |our |this )?interview", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("that('s| is) all (the questions |)I have", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("best of luck", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("good luck with", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("it was (nice|great|a pleasure) (meeting|talking)", Pattern.CASE_INSENSITIVE)
-	);
-
-	// Patterns to detect when AI is concluding the interview (Bulgarian)
-	private static final List<Pattern> CONCLUSION_PATTERNS_BG = List.of(
-			Pattern.compile("благодаря (ви |)за (отделеното |)време", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("интервюто приключи", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("това е всичко от мен", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("ще се свържем с вас", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("успех", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("приятно ми беше", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("довиждане", Pattern.CASE_INSENSITIVE),
-			Pattern.compile("нямам повече въпроси", Pattern.CASE_INSENSITIVE)
-	);
+public class InterviewPromptService implements MeterBinder {
+
+	// Slot markers, substituted for the per-interview values when a template is compiled.
+	// Private-use characters: they never occur in the static prompt text.
+	private static final String POSITION_SLOT = "\uE000";
+
+	private static final String NAME_SLOT = "\uE001";
+
+	private static final String DIFFICULTY_SLOT = "\uE002";
+
+	private static final String CV_SLOT = "\uE003";
+
+	private final PositionProfileService positionProfileService;
+
+	private final Map<TemplateKey, PromptTemplate> templateCache = new ConcurrentHashMap<>();
+
+	private final LongAdder templateCacheHits = new LongAdder();
+
+	private final LongAdder templateCacheMisses = new LongAdder();
+
+
+	// Everything the static part of a prompt depends on
+	private record TemplateKey(boolean bulgarian, String difficultyLevel, String lengthLevel,
+							   PositionProfile profile, boolean withCv) {
+	}
 
 
 	public String generateInterviewerPrompt(String position, String difficulty, String language) {
@@ -57,18 +69,110 @@ public class InterviewPromptService {
 
 
 	public String generateInterviewerPrompt(String position, String difficulty, String language, String cvText, String interviewerNameEN, String interviewerNameBG, String interviewLength) {
-		if ("bg".equals(language)) {
-			return generateBulgarianPrompt(position, difficulty, cvText, interviewerNameBG, interviewLength);
+		boolean bulgarian = "bg".equals(language);
+		boolean withCv = cvText != null && !cvText.isBlank();
+		TemplateKey key = new TemplateKey(bulgarian, difficultyLevel(difficulty), lengthLevel(interviewLength),
+				positionProfileService.resolve(position), withCv);
+
+		PromptTemplate template = templateCache.get(key);
+		if (template != null) {
+			templateCacheHits.increment();
+		} else {
+			templateCacheMisses.increment();
+			template = templateCache.computeIfAbsent(key, this::compileTemplate);
 		}
-		return generateEnglishPrompt(position, difficulty, cvText, interviewerNameEN, interviewLength);
+
+		return template.render(position, bulgarian ? interviewerNameBG : interviewerNameEN, difficulty, withCv ? cvText : "");
 	}//generateInterviewerPrompt
 
 
-	private String generateEnglishPrompt(String position, String difficulty, String cvText, String interviewerName, String interviewLength) {
-		String difficultyBehavior = getDifficultyBehaviorEn(difficulty);
-		String positionContext = getPositionContextEn(position);
-		String cvSection = getCvSectionEn(cvText, difficulty);
-		String lengthBehavior = getInterviewLengthBehaviorEn(interviewLength);
+	/**
+	 * Builds the prompt directly, without the template cache. Reference for the
+	 * compiled templates.
+	 */
+	String generateInterviewerPromptUncached(String position, String difficulty, String language, String cvText, String interviewerNameEN, String interviewerNameBG, String interviewLength) {
+		String difficultyLevel = difficultyLevel(difficulty);
+		String lengthLevel = lengthLevel(interviewLength);
+		PositionProfile profile = positionProfileService.resolve(position);
+
+		if ("bg".equals(language)) {
+			return generateBulgarianPrompt(position, interviewerNameBG, difficulty, difficultyLevel, lengthLevel, profile, cvText);
+		}
+		return generateEnglishPrompt(position, interviewerNameEN, difficulty, difficultyLevel, lengthLevel, profile, cvText);
+	}//generateInterviewerPromptUncached
+
+
+	public long getTemplateCacheHits() {
+		return templateCacheHits.sum();
+	}//getTemplateCacheHits
+
+
+	public long getTemplateCacheMisses() {
+		return templateCacheMisses.sum();
+	}//getTemplateCacheMisses
+
+
+	public int getTemplateCacheSize() {
+		return templateCache.size();
+	}//getTemplateCacheSize
+
+
+	// Profiles are part of the template key; drop templates built from the old ones
+	@EventListener
+	public void onProfilesReloaded(PositionProfileService.ProfilesReloadedEvent event) {
+		templateCache.clear();
+	}//onProfilesReloaded
+
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("interview.prompt.template.cache.hits", templateCacheHits, LongAdder::sum)
+				.description("Interviewer prompts rendered from an already compiled template")
+				.register(registry);
+		FunctionCounter.builder("interview.prompt.template.cache.misses", templateCacheMisses, LongAdder::sum)
+				.description("Interviewer prompts that required compiling a template")
+				.register(registry);
+		Gauge.builder("interview.prompt.template.cache.size", templateCache, Map::size)
+				.description("Compiled interviewer prompt templates")
+				.register(registry);
+	}//bindTo
+
+
+	private PromptTemplate compileTemplate(TemplateKey key) {
+		String cvSlot = key.withCv() ? CV_SLOT : null;
+		String text = key.bulgarian()
+				? generateBulgarianPrompt(POSITION_SLOT, NAME_SLOT, DIFFICULTY_SLOT, key.difficultyLevel(), key.lengthLevel(), key.profile(), cvSlot)
+				: generateEnglishPrompt(POSITION_SLOT, NAME_SLOT, DIFFICULTY_SLOT, key.difficultyLevel(), key.lengthLevel(), key.profile(), cvSlot);
+
+		log.debug("Compiled interviewer prompt template for {}", key);
+		return PromptTemplate.compile(text, POSITION_SLOT, NAME_SLOT, DIFFICULTY_SLOT, CV_SLOT);
+	}//compileTemplate
+
+
+	private static String difficultyLevel(String difficulty) {
+		return switch (difficulty.toLowerCase()) {
+			case "easy", "chill" -> "easy";
+			case "hard", "stress" -> "hard";
+			default -> "standard";
+		};
+	}//difficultyLevel
+
+
+	private static String lengthLevel(String interviewLength) {
+		return switch (interviewLength == null ? "standard" : interviewLength.toLowerCase()) {
+			case "quick" -> "quick";
+			case "marathon" -> "marathon";
+			default -> "standard";
+		};
+	}//lengthLevel
+
+
+	private String generateEnglishPrompt(String position, String interviewerName, String difficulty, String difficultyLevel,
+										 String lengthLevel, PositionProfile profile, String cvText) {
+		String difficultyBehavior = getDifficultyBehaviorEn(difficultyLevel);
+		String positionContext = profile.focus(false);
+		String cvSection = getCvSectionEn(cvText, difficultyLevel);
+		String lengthBehavior = getInterviewLengthBehaviorEn(lengthLevel);
 
 		return String.format("""
 						You are an experienced HR interviewer conducting a job interview for a %s position.
@@ -119,11 +223,12 @@ public class InterviewPromptService {
 	}//generateEnglishPrompt
 
 
-	private String generateBulgarianPrompt(String position, String difficulty, String cvText, String interviewerName, String interviewLength) {
-		String difficultyBehavior = getDifficultyBehaviorBg(difficulty);
-		String positionContext = getPositionContextBg(position);
-		String cvSection = getCvSectionBg(cvText, difficulty);
-		String lengthBehavior = getInterviewLengthBehaviorBg(interviewLength);
+	private String generateBulgarianPrompt(String position, String interviewerName, String difficulty, String difficultyLevel,
+										   String lengthLevel, PositionProfile profile, String cvText) {
+		String difficultyBehavior = getDifficultyBehaviorBg(difficultyLevel);
+		String positionContext = profile.focus(true);
+		String cvSection = getCvSectionBg(cvText, difficultyLevel);
+		String lengthBehavior = getInterviewLengthBehaviorBg(lengthLevel);
 
 		return String.format("""
 						Ти си опитен HR интервюиращ, провеждащ интервю за работа за позиция %s.
@@ -283,140 +388,6 @@ public class InterviewPromptService {
 	}//getDifficultyBehaviorBg
 
 
-	private String getPositionContextEn(String position) {
-		String lowerPosition = position.toLowerCase();
-
-		if (lowerPosition.contains("java") || lowerPosition.contains("backend") || lowerPosition.contains("software")) {
-			return """
-					Focus areas for this technical role:
-					- Object-oriented programming concepts
-					- Java/Spring Boot knowledge (if applicable)
-					- Database and SQL understanding
-					- API design and REST principles
-					- Problem-solving approach
-					- Code quality and testing practices
-					""";
-		} else if (lowerPosition.contains("qa") || lowerPosition.contains("test") || lowerPosition.contains("quality")) {
-			return """
-					Focus areas for this QA role:
-					- Testing methodologies and strategies
-					- Test case design and execution
-					- Bug reporting and tracking
-					- Automation experience
-					- Understanding of SDLC
-					- Attention to detail examples
-					""";
-		} else if (lowerPosition.contains("project") || lowerPosition.contains("manager") || lowerPosition.contains("pm")) {
-			return """
-					Focus areas for this management role:
-					- Project planning and execution
-					- Team leadership and communication
-					- Stakeholder management
-					- Risk identification and mitigation
-					- Agile/Scrum experience
-					- Conflict resolution examples
-					""";
-		} else if (lowerPosition.contains("frontend") || lowerPosition.contains("ui") || lowerPosition.contains("react")) {
-			return """
-					Focus areas for this frontend role:
-					- HTML, CSS, JavaScript proficiency
-					- Modern framework experience (React, Vue, Angular)
-					- Responsive design principles
-					- Browser compatibility handling
-					- Performance optimization
-					- User experience sensibility
-					""";
-		} else if (lowerPosition.contains("devops") || lowerPosition.contains("cloud") || lowerPosition.contains("infrastructure")) {
-			return """
-					Focus areas for this DevOps role:
-					- CI/CD pipeline experience
-					- Cloud platforms (AWS, GCP, Azure)
-					- Containerization (Docker, Kubernetes)
-					- Infrastructure as Code
-					- Monitoring and logging
-					- Security best practices
-					""";
-		} else {
-			return """
-					Focus areas for this role:
-					- Relevant technical skills and experience
-					- Problem-solving capabilities
-					- Communication skills
-					- Team collaboration
-					- Learning and adaptability
-					- Career goals and motivation
-					""";
-		}
-	}//getPositionContextEn
-
-
-	private String getPositionContextBg(String position) {
-		String lowerPosition = position.toLowerCase();
-
-		if (lowerPosition.contains("java") || lowerPosition.contains("backend") || lowerPosition.contains("software")) {
-			return """
-					Фокусни области за тази техническа роля:
-					- Концепции за обектно-ориентирано програмиране
-					- Познания по Java/Spring Boot (ако е приложимо)
-					- Разбиране на бази данни и SQL
-					- API дизайн и REST принципи
-					- Подход за решаване на проблеми
-					- Качество на кода и практики за тестване
-					""";
-		} else if (lowerPosition.contains("qa") || lowerPosition.contains("test") || lowerPosition.contains("quality")) {
-			return """
-					Фокусни области за тази QA роля:
-					- Методологии и стратегии за тестване
-					- Дизайн и изпълнение на тест кейсове
-					- Докладване и проследяване на бъгове
-					- Опит с автоматизация
-					- Разбиране на SDLC
-					- Примери за внимание към детайла
-					""";
-		} else if (lowerPosition.contains("project") || lowerPosition.contains("manager") || lowerPosition.contains("pm")) {
-			return """
-					Фокусни области за тази мениджърска роля:
-					- Планиране и изпълнение на проекти
-					- Лидерство на екип и комуникация
-					- Управление на заинтересовани страни
-					- Идентифициране и смекчаване на рискове
-					- Опит с Agile/Scrum
-					- Примери за разрешаване на конфликти
-					""";
-		} else if (lowerPosition.contains("frontend") || lowerPosition.contains("ui") || lowerPosition.contains("react")) {
-			return """
-					Фокусни области за тази фронтенд роля:
-					- Владеене на HTML, CSS, JavaScript
-					- Опит с модерни фреймуърци (React, Vue, Angular)
-					- Принципи на респонсив дизайн
-					- Обработка на съвместимост между браузъри
-					- Оптимизация на производителността
-					- Усет за потребителски опит
-					""";
-		} else if (lowerPosition.contains("devops") || lowerPosition.contains("cloud") || lowerPosition.contains("infrastructure")) {
-			return """
-					Фокусни области за тази DevOps роля:
-					- Опит с CI/CD пайплайни
-					- Облачни платформи (AWS, GCP, Azure)
-					- Контейнеризация (Docker, Kubernetes)
-					- Infrastructure as Code
-					- Мониторинг и логване
-					- Най-добри практики за сигурност
-					""";
-		} else {
-			return """
-					Фокусни области за тази роля:
-					- Релевантни технически умения и опит
-					- Способности за решаване на проблеми
-					- Комуникационни умения
-					- Екипна работа
-					- Обучаемост и адаптивност
-					- Кариерни цели и мотивация
-					""";
-		}
-	}//getPositionContextBg
-
-
 	private String getCvSectionEn(String cvText, String difficulty) {
 		if (cvText == null || cvText.isBlank()) {
 			return "";
@@ -527,36 +498,21 @@ public class InterviewPromptService {
 	}//getCvSectionBg
 
 
+	/**
+	 * Whole-text check for closing phrases (EN + BG) or the [END_INTERVIEW] token.
+	 * Live sessions feed fragments to a {@link ConclusionDetector} instead.
+	 */
 	public boolean isInterviewConcluding(String transcript) {
 		if (transcript == null || transcript.isBlank()) {
 			return false;
 		}
 
-		// Priority check: deterministic end signal token
-		if (transcript.contains(END_SIGNAL)) {
-			log.info("MATCHED end signal token [END_INTERVIEW] in AI output");
+		ConclusionDetector detector = ConclusionDetector.scan(transcript);
+		if (detector.isConcluding()) {
+			log.info("Matched conclusion phrase: {}", detector.getMatchedPhrase());
 			return true;
 		}
 
-		String lowerTranscript = transcript.toLowerCase();
-		log.debug("Checking conclusion patterns in transcript ({} chars)", lowerTranscript.length());
-
-		// Check English patterns
-		for (Pattern pattern : CONCLUSION_PATTERNS_EN) {
-			if (pattern.matcher(transcript).find()) {
-				log.info("Matched EN conclusion pattern: {}", pattern.pattern());
-				return true;
-			}
-		}
-
-		// Check Bulgarian patterns
-		for (Pattern pattern : CONCLUSION_PATTERNS_BG) {
-			if (pattern.matcher(transcript).find()) {
-				log.info("Matched BG conclusion pattern: {}", pattern.pattern());
-				return true;
-			}
-		}
-
 		log.debug("No conclusion pattern matched");
 		return false;
 	}//isInterviewConcluding
@@ -0,0 +1,274 @@
+package net.k2ai.interviewSimulator.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.config.GeminiConfig;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Places live interviews on an (API key, live model) pair.
+ *
+ * <p>Models are tried in {@code gemini.live-models} order; for the first model
+ * with a usable key, the key with the fewest active live sessions wins (ties go
+ * to the key with fewer recent 429s). Pairs that returned a 429 or were
+ * rejected as unauthorized are flagged in {@link GeminiModelRotationService}
+ * and cool down exactly like grading combos. Pairs whose key is at
+ * the model's Live session or per-minute token limit in the
+ * {@link GeminiQuotaLedger} are skipped before they can return a 429. A
+ * placement handed out is already reserved in the ledger, so two sessions
+ * can't both take a key's last slot.
+ *
+ * <p>Per-key state is held under the key's fingerprint, never the key itself,
+ * and dropped as soon as it's back to zero.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class LiveSessionScheduler {
+
+	// 429s older than this no longer count against a key when breaking ties
+	private static final Duration RATE_LIMIT_WINDOW = Duration.ofMinutes(10);
+
+	private final GeminiConfig geminiConfig;
+
+	private final GeminiQuotaLedger quotaLedger;
+
+	private final GeminiModelRotationService rotationService;
+
+	// Key fingerprint -> open sessions; absent means none
+	private final Map<String, Integer> activeByKey = new ConcurrentHashMap<>();
+
+	// Key fingerprint -> 429s within the window; only touched inside compute()
+	private final Map<String, Deque<Instant>> recentRateLimits = new ConcurrentHashMap<>();
+
+
+	/**
+	 * The API key and live model a session runs on.
+	 */
+	public record LivePlacement(String apiKey, String model) {
+
+		@Override
+		public String toString() {
+			// Never log the full key
+			String suffix = apiKey != null && apiKey.length() > 4 ? apiKey.substring(apiKey.length() - 4) : "?";
+			return "…" + suffix + "/" + model;
+		}//toString
+
+	}
+
+
+	/**
+	 * True if the current mode has at least one key to run live sessions on
+	 * (the user's key in PROD, the backend key in DEV, any reviewer key).
+	 */
+	public boolean hasCandidateKey(String userApiKey) {
+		return !candidateKeys(userApiKey).isEmpty();
+	}//hasCandidateKey
+
+
+	/**
+	 * Picks and reserves the least-loaded healthy placement, skipping
+	 * {@code exclude}. The caller owns the reservation and must
+	 * {@link #release} it once the session ends - or right away if it
+	 * doesn't use the placement after all.
+	 *
+	 * @return null if every candidate is cooling down, at its limit or excluded
+	 */
+	public LivePlacement place(String userApiKey, Set<LivePlacement> exclude) {
+		List<String> keys = candidateKeys(userApiKey);
+		Instant now = Instant.now();
+
+		for (String model : geminiConfig.getLiveModelList()) {
+			LivePlacement best = reserveBest(model, keys, exclude, now);
+			if (best != null) {
+				return best;
+			}
+		}
+		return null;
+	}//place
+
+
+	/**
+	 * Placement for a reconnect. The model is kept (a resumption handle only
+	 * resumes on the model that issued it); the key moves only if the current
+	 * one is cooling down and another key is healthy. A moved placement is
+	 * reserved like one from {@link #place}; the caller still holds
+	 * {@code current} and releases it when switching.
+	 */
+	public LivePlacement rebalance(LivePlacement current) {
+		Instant now = Instant.now();
+		if (!isCoolingDown(current)) {
+			return current;
+		}
+
+		LivePlacement moved = reserveBest(current.model(), candidateKeys(current.apiKey()), Set.of(current), now);
+		if (moved == null) {
+			return current;
+		}
+		log.info("Rebalancing reconnect from {} to {}", current, moved);
+		return moved;
+	}//rebalance
+
+
+	/**
+	 * Takes a slot on a placement that wasn't handed out by {@link #place},
+	 * regardless of its limits - for a session resumed from another node, which
+	 * can only continue on the key and model it already runs on.
+	 */
+	public void acquire(LivePlacement placement) {
+		if (placement != null) {
+			activeByKey.merge(GeminiModelRotationService.fingerprint(placement.apiKey()), 1, Integer::sum);
+			quotaLedger.acquireLive(placement.apiKey(), placement.model());
+		}
+	}//acquire
+
+
+	public void release(LivePlacement placement) {
+		if (placement == null) {
+			return;
+		}
+		activeByKey.computeIfPresent(GeminiModelRotationService.fingerprint(placement.apiKey()),
+				(k, n) -> n > 1 ? n - 1 : null);
+		quotaLedger.releaseLive(placement.apiKey(), placement.model());
+	}//release
+
+
+	/**
+	 * Adds the tokens a Live session reported in its usageMetadata to the key's quota.
+	 */
+	public void reportUsage(LivePlacement placement, long tokens) {
+		if (placement != null) {
+			quotaLedger.recordTokens(placement.apiKey(), placement.model(), tokens);
+		}
+	}//reportUsage
+
+
+	public void reportRateLimited(LivePlacement placement) {
+		if (placement == null) {
+			return;
+		}
+		Instant now = Instant.now();
+		rotationService.flagExhausted(placement.apiKey(), placement.model(), false);
+		recentRateLimits.compute(GeminiModelRotationService.fingerprint(placement.apiKey()), (k, recent) -> {
+			Deque<Instant> updated = recent != null ? recent : new ArrayDeque<>();
+			updated.addLast(now);
+			pruneOlderThan(updated, now.minus(RATE_LIMIT_WINDOW));
+			return updated;
+		});
+		log.warn("Live placement {} rate limited", placement);
+	}//reportRateLimited
+
+
+	public void reportInaccessible(LivePlacement placement) {
+		if (placement == null) {
+			return;
+		}
+		rotationService.flagInaccessible(placement.apiKey(), placement.model());
+		log.warn("Live placement {} rejected", placement);
+	}//reportInaccessible
+
+
+	public int getActiveSessions(String apiKey) {
+		return activeByKey.getOrDefault(GeminiModelRotationService.fingerprint(apiKey), 0);
+	}//getActiveSessions
+
+
+	/**
+	 * Drops the 429 history of keys that haven't been rate limited within the window.
+	 */
+	@Scheduled(fixedRate = 60_000)
+	public void cleanup() {
+		Instant cutoff = Instant.now().minus(RATE_LIMIT_WINDOW);
+		for (String fingerprint : recentRateLimits.keySet()) {
+			recentRateLimits.computeIfPresent(fingerprint, (k, recent) -> {
+				pruneOlderThan(recent, cutoff);
+				return recent.isEmpty() ? null : recent;
+			});
+		}
+	}//cleanup
+
+
+	// Picks the best placement on the model and reserves it, moving on if another session beat us to it
+	private LivePlacement reserveBest(String model, List<String> keys, Set<LivePlacement> exclude, Instant now) {
+		Set<LivePlacement> skipped = exclude;
+		LivePlacement best;
+		while ((best = bestKeyFor(model, keys, skipped, now)) != null) {
+			if (quotaLedger.tryAcquireLive(best.apiKey(), best.model())) {
+				activeByKey.merge(GeminiModelRotationService.fingerprint(best.apiKey()), 1, Integer::sum);
+				return best;
+			}
+			if (skipped == exclude) {
+				skipped = new HashSet<>(exclude);
+			}
+			skipped.add(best);
+		}
+		return null;
+	}//reserveBest
+
+
+	private LivePlacement bestKeyFor(String model, List<String> keys, Set<LivePlacement> exclude, Instant now) {
+		LivePlacement best = null;
+		int bestLoad = Integer.MAX_VALUE;
+		int bestRateLimits = Integer.MAX_VALUE;
+
+		for (String key : keys) {
+			LivePlacement candidate = new LivePlacement(key, model);
+			if (exclude.contains(candidate) || isCoolingDown(candidate)
+					|| !quotaLedger.hasLiveCapacity(key, model)) {
+				continue;
+			}
+			int load = getActiveSessions(key);
+			int rateLimits = recentRateLimitCount(key, now);
+			if (load < bestLoad || (load == bestLoad && rateLimits < bestRateLimits)) {
+				best = candidate;
+				bestLoad = load;
+				bestRateLimits = rateLimits;
+			}
+		}
+		return best;
+	}//bestKeyFor
+
+
+	private List<String> candidateKeys(String userApiKey) {
+		if (geminiConfig.isReviewerMode()) {
+			return geminiConfig.getReviewerKeyList();
+		}
+		String key = geminiConfig.isProdMode() ? userApiKey : geminiConfig.getApiKey();
+		return key != null && !key.isBlank() ? List.of(key) : List.of();
+	}//candidateKeys
+
+
+	private boolean isCoolingDown(LivePlacement placement) {
+		return rotationService.isCoolingDown(placement.apiKey(), placement.model());
+	}//isCoolingDown
+
+
+	private int recentRateLimitCount(String apiKey, Instant now) {
+		int[] count = new int[1];
+		recentRateLimits.computeIfPresent(GeminiModelRotationService.fingerprint(apiKey), (k, recent) -> {
+			pruneOlderThan(recent, now.minus(RATE_LIMIT_WINDOW));
+			count[0] = recent.size();
+			return recent.isEmpty() ? null : recent;
+		});
+		return count[0];
+	}//recentRateLimitCount
+
+
+	private static void pruneOlderThan(Deque<Instant> recent, Instant cutoff) {
+		while (!recent.isEmpty() && recent.peekFirst().isBefore(cutoff)) {
+			recent.pollFirst();
+		}
+	}//pruneOlderThan
+
+}//LiveSessionScheduler
@@ -0,0 +1,43 @@
+package net.k2ai.interviewSimulator.service;
+
+import java.io.IOException;
+
+/**
+ * Wall-clock budget for one document parse. Parsers call {@link #check()} from
+ * their inner loops, so a parse that runs out of time (or whose thread was
+ * interrupted) stops at the next check instead of running to completion.
+ */
+final class ParseDeadline {
+
+	static final ParseDeadline NONE = new ParseDeadline(Long.MAX_VALUE);
+
+	private final long deadlineNanos;
+
+
+	static final class DeadlineExceededException extends IOException {
+
+		DeadlineExceededException() {
+			super("Document parse deadline exceeded");
+		}//DeadlineExceededException
+
+	}//DeadlineExceededException
+
+
+	private ParseDeadline(long deadlineNanos) {
+		this.deadlineNanos = deadlineNanos;
+	}//ParseDeadline
+
+
+	static ParseDeadline afterMillis(long millis) {
+		return new ParseDeadline(System.nanoTime() + millis * 1_000_000L);
+	}//afterMillis
+
+
+	void check() throws DeadlineExceededException {
+		if (Thread.currentThread().isInterrupted()
+				|| (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0)) {
+			throw new DeadlineExceededException();
+		}
+	}//check
+
+}//ParseDeadline
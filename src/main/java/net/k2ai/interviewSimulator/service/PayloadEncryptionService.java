@@ -0,0 +1,131 @@
+package net.k2ai.interviewSimulator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * AES-256-GCM encryption for short-lived payloads that have to leave process
+ * memory (e.g. transcripts waiting in the grading queue).
+ *
+ * <p>The key is derived from {@code app.payload-encryption-key}. All nodes of a
+ * cluster must share the same value, otherwise a payload written by one node
+ * can't be read by another. When unset, a random per-process key is used: data
+ * is still encrypted at rest, but does not survive a restart. A clustered node
+ * refuses to start without a key, since its peers could never read its payloads.
+ */
+@Slf4j
+@Service
+public class PayloadEncryptionService {
+
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+	private static final int IV_LENGTH = 12;
+
+	private static final int TAG_LENGTH_BITS = 128;
+
+	private final SecretKey key;
+
+	private final boolean ephemeral;
+
+	private final SecureRandom secureRandom = new SecureRandom();
+
+
+	public PayloadEncryptionService(@Value("${app.payload-encryption-key:}") String configuredKey,
+									@Value("${app.cluster.enabled:false}") boolean clusterEnabled) {
+		this.ephemeral = configuredKey == null || configuredKey.isBlank();
+		if (ephemeral && clusterEnabled) {
+			throw new IllegalStateException("app.payload-encryption-key (APP_PAYLOAD_ENCRYPTION_KEY) must be set "
+					+ "to the same value on every node when app.cluster.enabled=true");
+		}
+		this.key = ephemeral ? generateEphemeralKey() : deriveKey(configuredKey);
+	}//PayloadEncryptionService
+
+
+	PayloadEncryptionService(String configuredKey) {
+		this(configuredKey, false);
+	}//PayloadEncryptionService
+
+
+	/**
+	 * True if the key is per-process: payloads written before a restart can't be read.
+	 */
+	public boolean isEphemeral() {
+		return ephemeral;
+	}//isEphemeral
+
+
+	public byte[] encrypt(String plaintext) {
+		try {
+			byte[] iv = new byte[IV_LENGTH];
+			secureRandom.nextBytes(iv);
+
+			Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+			cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+			byte[] cipherText = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+
+			return ByteBuffer.allocate(iv.length + cipherText.length)
+					.put(iv)
+					.put(cipherText)
+					.array();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Payload encryption failed", e);
+		}
+	}//encrypt
+
+
+	/**
+	 * Decrypts a payload produced by {@link #encrypt(String)}.
+	 *
+	 * @throws IllegalStateException if the payload was tampered with or written with another key
+	 */
+	public String decrypt(byte[] payload) {
+		if (payload == null || payload.length <= IV_LENGTH) {
+			throw new IllegalStateException("Payload is empty or truncated");
+		}
+
+		try {
+			Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+			cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, payload, 0, IV_LENGTH));
+			byte[] plain = cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH);
+			return new String(plain, StandardCharsets.UTF_8);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Payload decryption failed", e);
+		}
+	}//decrypt
+
+
+	private SecretKey deriveKey(String secret) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+			return new SecretKeySpec(digest, "AES");
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}//deriveKey
+
+
+	private SecretKey generateEphemeralKey() {
+		log.warn("app.payload-encryption-key is not set - using a per-process key. "
+				+ "Queued grading payloads will not survive a restart or be readable by other nodes.");
+		try {
+			KeyGenerator generator = KeyGenerator.getInstance("AES");
+			generator.init(256, secureRandom);
+			return generator.generateKey();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("AES not available", e);
+		}
+	}//generateEphemeralKey
+
+}//PayloadEncryptionService
@@ -0,0 +1,14 @@
+package net.k2ai.interviewSimulator.service;
+
+/**
+ * Role family a position is interviewed as, with the focus-area section of the
+ * interviewer prompt in each language. Loaded from {@code position-profiles.json}.
+ */
+public record PositionProfile(String id, String focusEn, String focusBg) {
+
+
+	public String focus(boolean bulgarian) {
+		return bulgarian ? focusBg : focusEn;
+	}//focus
+
+}//PositionProfile
@@ -0,0 +1,202 @@
+package net.k2ai.interviewSimulator.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable keyword trie that classifies a free-text position title into a
+ * {@link PositionProfile}.
+ *
+ * <p>Titles and keywords are normalised the same way (NFKD, combining marks
+ * dropped, lower-cased, every run of non letters/digits collapsed to one space),
+ * so "Front-End", "front end" and "FRONTEND" differ only in spacing and
+ * "Тестер" matches "тест*". The trie is walked once from every word start, so a
+ * lookup costs O(title length x longest keyword) regardless of how many profiles
+ * there are. Keywords match whole words; a trailing {@code *} matches any word
+ * starting with the keyword. Every match adds its weight to its profile; the
+ * highest score wins, ties go to the profile listed first.
+ */
+final class PositionProfileIndex {
+
+	private static final int[] NONE = new int[0];
+
+	private final List<PositionProfile> profiles;
+
+	private final PositionProfile fallback;
+
+	private final Node root = new Node();
+
+
+	// Children are kept sorted by character for binary search
+	private static final class Node {
+
+		private char[] keys = new char[0];
+
+		private Node[] children = new Node[0];
+
+		// (profile index, weight) pairs of keywords ending at this node
+		private int[] wholeWordMatches = NONE;
+
+		private int[] prefixMatches = NONE;
+
+
+		private Node child(char c) {
+			int i = Arrays.binarySearch(keys, c);
+			return i >= 0 ? children[i] : null;
+		}//child
+
+
+		private Node addChild(char c) {
+			int i = Arrays.binarySearch(keys, c);
+			if (i >= 0) {
+				return children[i];
+			}
+			int insertAt = -i - 1;
+			Node node = new Node();
+
+			char[] newKeys = new char[keys.length + 1];
+			Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(keys, 0, newKeys, 0, insertAt);
+			System.arraycopy(children, 0, newChildren, 0, insertAt);
+			newKeys[insertAt] = c;
+			newChildren[insertAt] = node;
+			System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+			System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+
+			keys = newKeys;
+			children = newChildren;
+			return node;
+		}//addChild
+
+	}//Node
+
+
+	/**
+	 * @param keywords keyword -> weight for each profile, in the same order as {@code profiles}
+	 * @param fallback returned when no keyword matches
+	 */
+	PositionProfileIndex(List<PositionProfile> profiles, List<Map<String, Integer>> keywords, PositionProfile fallback) {
+		if (profiles.size() != keywords.size()) {
+			throw new IllegalArgumentException("Expected keywords for each of the " + profiles.size() + " profiles");
+		}
+		this.profiles = List.copyOf(profiles);
+		this.fallback = fallback;
+
+		for (int p = 0; p < profiles.size(); p++) {
+			for (Map.Entry<String, Integer> keyword : keywords.get(p).entrySet()) {
+				addKeyword(keyword.getKey(), p, keyword.getValue());
+			}
+		}
+	}//PositionProfileIndex
+
+
+	PositionProfile match(String position) {
+		String text = normalize(position);
+		if (text.isEmpty() || profiles.isEmpty()) {
+			return fallback;
+		}
+
+		int[] scores = new int[profiles.size()];
+		for (int start = 0; start < text.length(); start++) {
+			if (start > 0 && text.charAt(start - 1) != ' ') {
+				continue;
+			}
+
+			Node node = root;
+			for (int i = start; i < text.length(); i++) {
+				node = node.child(text.charAt(i));
+				if (node == null) {
+					break;
+				}
+				addScores(scores, node.prefixMatches);
+				if (i + 1 == text.length() || text.charAt(i + 1) == ' ') {
+					addScores(scores, node.wholeWordMatches);
+				}
+			}
+		}
+
+		int best = -1;
+		for (int p = 0; p < scores.length; p++) {
+			if (scores[p] > 0 && (best < 0 || scores[p] > scores[best])) {
+				best = p;
+			}
+		}
+		return best >= 0 ? profiles.get(best) : fallback;
+	}//match
+
+
+	List<PositionProfile> getProfiles() {
+		return profiles;
+	}//getProfiles
+
+
+	PositionProfile getFallback() {
+		return fallback;
+	}//getFallback
+
+
+	static String normalize(String text) {
+		if (text == null) {
+			return "";
+		}
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+
+		StringBuilder sb = new StringBuilder(decomposed.length());
+		boolean pendingSpace = false;
+		for (int i = 0; i < decomposed.length(); i++) {
+			char c = decomposed.charAt(i);
+			int type = Character.getType(c);
+			if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+					|| type == Character.ENCLOSING_MARK) {
+				continue;
+			}
+			if (Character.isLetterOrDigit(c)) {
+				if (pendingSpace && !sb.isEmpty()) {
+					sb.append(' ');
+				}
+				pendingSpace = false;
+				sb.append(Character.toLowerCase(c));
+			} else {
+				pendingSpace = true;
+			}
+		}
+		return sb.toString();
+	}//normalize
+
+
+	private void addKeyword(String keyword, int profile, int weight) {
+		boolean prefix = keyword.endsWith("*");
+		String normalized = normalize(prefix ? keyword.substring(0, keyword.length() - 1) : keyword);
+		if (normalized.isEmpty()) {
+			throw new IllegalArgumentException("Empty keyword for profile " + profiles.get(profile).id());
+		}
+
+		Node node = root;
+		for (int i = 0; i < normalized.length(); i++) {
+			node = node.addChild(normalized.charAt(i));
+		}
+		if (prefix) {
+			node.prefixMatches = append(node.prefixMatches, profile, weight);
+		} else {
+			node.wholeWordMatches = append(node.wholeWordMatches, profile, weight);
+		}
+	}//addKeyword
+
+
+	private static int[] append(int[] matches, int profile, int weight) {
+		int[] result = Arrays.copyOf(matches, matches.length + 2);
+		result[matches.length] = profile;
+		result[matches.length + 1] = weight;
+		return result;
+	}//append
+
+
+	private static void addScores(int[] scores, int[] matches) {
+		for (int i = 0; i < matches.length; i += 2) {
+			scores[matches[i]] += matches[i + 1];
+		}
+	}//addScores
+
+}//PositionProfileIndex
@@ -0,0 +1,201 @@
+package net.k2ai.interviewSimulator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves free-text position titles to {@link PositionProfile}s using the
+ * profiles in {@code position-profiles.json}.
+ *
+ * <p>The file is compiled into a {@link PositionProfileIndex} at startup and
+ * recompiled when it changes on disk; a file that fails to load keeps the
+ * previous index. Resolved titles are kept in a small LRU since most starts
+ * reuse the suggested positions. Listeners are told about reloads through a
+ * {@link ProfilesReloadedEvent}.
+ */
+@Slf4j
+@Service
+public class PositionProfileService {
+
+	private final ResourceLoader resourceLoader;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final String location;
+
+	private final Map<String, PositionProfile> resolved;
+
+	private volatile PositionProfileIndex index;
+
+	private volatile long loadedLastModified;
+
+
+	public record ProfilesReloadedEvent(int profileCount) {
+	}
+
+
+	public PositionProfileService(ResourceLoader resourceLoader,
+								  ApplicationEventPublisher eventPublisher,
+								  @Value("${app.positions.location:classpath:position-profiles.json}") String location,
+								  @Value("${app.positions.cache-size:1024}") int cacheSize) {
+		this.resourceLoader = resourceLoader;
+		this.eventPublisher = eventPublisher;
+		this.location = location;
+		this.resolved = new LinkedHashMap<>(64, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PositionProfile> eldest) {
+				return size() > cacheSize;
+			}
+		};
+
+		try {
+			Resource resource = resourceLoader.getResource(location);
+			this.index = load(resource);
+			this.loadedLastModified = lastModified(resource);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not load position profiles from " + location, e);
+		}
+		log.info("Loaded {} position profiles from {}", index.getProfiles().size(), location);
+	}//PositionProfileService
+
+
+	public PositionProfile resolve(String position) {
+		String key = position != null ? position : "";
+		synchronized (resolved) {
+			PositionProfile profile = resolved.get(key);
+			if (profile != null) {
+				return profile;
+			}
+		}
+
+		PositionProfileIndex current = index;
+		PositionProfile profile = current.match(key);
+		synchronized (resolved) {
+			// Skip caching if a reload swapped the index meanwhile
+			if (current == index) {
+				resolved.put(key, profile);
+			}
+		}
+		return profile;
+	}//resolve
+
+
+	public List<PositionProfile> getProfiles() {
+		return index.getProfiles();
+	}//getProfiles
+
+
+	public int getResolvedCacheSize() {
+		synchronized (resolved) {
+			return resolved.size();
+		}
+	}//getResolvedCacheSize
+
+
+	/**
+	 * Recompiles the profiles file. On failure the current index stays in use.
+	 *
+	 * @return true if the new profiles are now in use
+	 */
+	public boolean reload() {
+		Resource resource = resourceLoader.getResource(location);
+		try {
+			PositionProfileIndex updated = load(resource);
+			synchronized (resolved) {
+				index = updated;
+				loadedLastModified = lastModified(resource);
+				resolved.clear();
+			}
+			log.info("Reloaded {} position profiles from {}", updated.getProfiles().size(), location);
+			eventPublisher.publishEvent(new ProfilesReloadedEvent(updated.getProfiles().size()));
+			return true;
+		} catch (IOException | RuntimeException e) {
+			log.error("Could not reload position profiles from {} - keeping the previous ones: {}", location, e.getMessage());
+			return false;
+		}
+	}//reload
+
+
+	@Scheduled(fixedDelayString = "${app.positions.reload-interval-ms:30000}")
+	public void reloadIfModified() {
+		long lastModified = lastModified(resourceLoader.getResource(location));
+		if (lastModified > 0 && lastModified != loadedLastModified) {
+			reload();
+		}
+	}//reloadIfModified
+
+
+	private PositionProfileIndex load(Resource resource) throws IOException {
+		JsonNode root;
+		try (InputStream in = resource.getInputStream()) {
+			root = objectMapper.readTree(in);
+		}
+
+		List<PositionProfile> profiles = new ArrayList<>();
+		List<Map<String, Integer>> keywords = new ArrayList<>();
+		for (JsonNode node : root.path("profiles")) {
+			profiles.add(toProfile(node));
+
+			Map<String, Integer> weights = new LinkedHashMap<>();
+			node.path("keywords").properties().forEach(entry -> weights.put(entry.getKey(), entry.getValue().asInt(1)));
+			keywords.add(weights);
+		}
+
+		JsonNode fallback = root.path("default");
+		if (fallback.isMissingNode()) {
+			throw new IOException("No default profile in " + resource.getDescription());
+		}
+		return new PositionProfileIndex(profiles, keywords, toProfile(fallback));
+	}//load
+
+
+	private static PositionProfile toProfile(JsonNode node) throws IOException {
+		String id = node.path("id").asText("");
+		if (id.isEmpty()) {
+			throw new IOException("Position profile without an id");
+		}
+		return new PositionProfile(id, focusText(node, id, "en"), focusText(node, id, "bg"));
+	}//toProfile
+
+
+	// The focus section is stored as lines; the prompt expects them newline-terminated
+	private static String focusText(JsonNode node, String id, String language) throws IOException {
+		JsonNode lines = node.path("focus").path(language);
+		if (!lines.isArray() || lines.isEmpty()) {
+			throw new IOException("Position profile '" + id + "' has no '" + language + "' focus text");
+		}
+
+		StringBuilder sb = new StringBuilder();
+		for (JsonNode line : lines) {
+			sb.append(line.asText()).append('\n');
+		}
+		return sb.toString();
+	}//focusText
+
+
+	// 0 when unknown, e.g. inside a jar - such resources are not watched
+	private static long lastModified(Resource resource) {
+		try {
+			return resource.isFile() ? resource.lastModified() : 0;
+		} catch (IOException e) {
+			return 0;
+		}
+	}//lastModified
+
+}//PositionProfileService
@@ -0,0 +1,89 @@
+package net.k2ai.interviewSimulator.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A prompt pre-split into immutable literal segments and numbered slots.
+ * Rendering is a single presized append pass - no format-string parsing.
+ *
+ * <p>Slot values are spliced in verbatim and never scanned, so user input
+ * that happens to contain a slot marker or a {@code %} is left untouched.
+ */
+final class PromptTemplate {
+
+	// literals[i] precedes the slot slots[i]; the last literal trails the final slot
+	private final String[] literals;
+
+	private final int[] slots;
+
+	private final int literalLength;
+
+
+	private PromptTemplate(String[] literals, int[] slots) {
+		this.literals = literals;
+		this.slots = slots;
+		int length = 0;
+		for (String literal : literals) {
+			length += literal.length();
+		}
+		this.literalLength = length;
+	}//PromptTemplate
+
+
+	/**
+	 * Splits {@code text} at every occurrence of the single-character
+	 * {@code slotMarkers}; slot {@code i} is filled with the i-th value passed
+	 * to {@link #render}.
+	 */
+	static PromptTemplate compile(String text, String... slotMarkers) {
+		List<String> literals = new ArrayList<>();
+		List<Integer> slots = new ArrayList<>();
+
+		int segmentStart = 0;
+		for (int i = 0; i < text.length(); i++) {
+			int slot = slotIndex(text.charAt(i), slotMarkers);
+			if (slot >= 0) {
+				literals.add(text.substring(segmentStart, i));
+				slots.add(slot);
+				segmentStart = i + 1;
+			}
+		}
+		literals.add(text.substring(segmentStart));
+
+		return new PromptTemplate(literals.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray());
+	}//compile
+
+
+	/**
+	 * Fills the slots; a null value renders as {@code "null"}, as {@code %s} would.
+	 */
+	String render(String... values) {
+		int capacity = literalLength;
+		for (int slot : slots) {
+			capacity += values[slot] != null ? values[slot].length() : 4;
+		}
+
+		StringBuilder sb = new StringBuilder(capacity);
+		for (int i = 0; i < slots.length; i++) {
+			sb.append(literals[i]).append(values[slots[i]]);
+		}
+		return sb.append(literals[slots.length]).toString();
+	}//render
+
+
+	int getSlotCount() {
+		return slots.length;
+	}//getSlotCount
+
+
+	private static int slotIndex(char c, String[] slotMarkers) {
+		for (int i = 0; i < slotMarkers.length; i++) {
+			if (slotMarkers[i].charAt(0) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}//slotIndex
+
+}//PromptTemplate
@@ -1,16 +1,38 @@
 package net.k2ai.interviewSimulator.service;
 
 import net.k2ai.interviewSimulator.exception.RateLimitException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * In-memory rate limiter with named buckets.
+ * In-memory token-bucket rate limiter with named buckets.
  * Prevents brute-force and abuse of expensive endpoints.
+ *
+ * <p>A limit of {@code maxAttempts} per {@code windowMillis} allows a burst of
+ * {@code maxAttempts} and refills continuously at {@code maxAttempts} per
+ * window. Each bucket keeps its own map from key to a single {@code long}
+ * packing the tokens left (fixed point) and the time they were counted at,
+ * updated by compare-and-set, so a hit allocates nothing once the key is known.
+ *
+ * <p>Each bucket tracks at most {@code maxKeys} keys. Beyond that a few entries
+ * are sampled and the one that has refilled the most is dropped, the least
+ * recently used among full ones (approximate LRU). A full entry carries no
+ * information - an unknown key starts full - so spraying keys costs the
+ * sprayer, not the heap, and never frees a key that is being held back.
+ *
+ * <p>In a cluster, {@link ClusterLimitSync} shares the tokens each node grants
+ * through {@link #drainGrants} and takes the other nodes' grants off the local
+ * buckets with {@link #charge}; checks themselves never leave the node.
  */
 @Service
 public class RateLimitService {
@@ -19,7 +41,71 @@ public class RateLimitService {
 
 	private static final long DEFAULT_WINDOW_MILLIS = 60_000;
 
-	private final Map<String, RateLimitEntry> rateLimitMap = new ConcurrentHashMap<>();
+	// State layout: high 24 bits tokens in 1/1024ths, low 40 bits the millis
+	// since start (about 34 years) they were counted at
+	private static final int TIME_BITS = 40;
+
+	private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+	private static final long TOKEN_SCALE = 1024;
+
+	// Largest maxAttempts whose scaled token count fits in 24 bits
+	static final int MAX_ATTEMPTS_LIMIT = (1 << (Long.SIZE - TIME_BITS)) / (int) TOKEN_SCALE - 1;
+
+	// Keeps elapsed * capacity within a long when refilling
+	private static final long MAX_WINDOW_MILLIS = 1L << 38;
+
+	// Entries looked at per eviction
+	private static final int EVICTION_SAMPLE = 8;
+
+	private final int maxKeys;
+
+	private final Clock clock;
+
+	private final long startMillis;
+
+	private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+	private volatile boolean trackGrants;
+
+
+	/**
+	 * Tokens granted for a bucket+key, with the limit the bucket was used with.
+	 */
+	public record Grant(String bucket, String key, long count, int maxAttempts, long windowMillis) {
+	}
+
+
+	private static final class Bucket {
+
+		private final Map<String, AtomicLong> states = new ConcurrentHashMap<>();
+
+		private final LongAdder evicted = new LongAdder();
+
+		// Tokens granted per key since the last drainGrants, when tracking is on
+		private final Map<String, LongAdder> granted = new ConcurrentHashMap<>();
+
+		// Where the next eviction sample starts; weakly consistent, so safe to keep across updates
+		private Iterator<Map.Entry<String, AtomicLong>> hand;
+
+		// The limit last used with the bucket, for cleanup and eviction
+		private volatile long capacity;
+
+		private volatile long windowMillis;
+
+	}//Bucket
+
+
+	public RateLimitService(@Value("${app.rate-limit.max-keys-per-bucket:10000}") int maxKeys) {
+		this(maxKeys, Clock.systemUTC());
+	}//RateLimitService
+
+
+	RateLimitService(int maxKeys, Clock clock) {
+		this.maxKeys = maxKeys;
+		this.clock = clock;
+		this.startMillis = clock.millis();
+	}//RateLimitService
 
 
 	/**
@@ -32,46 +118,246 @@ public class RateLimitService {
 
 	/**
 	 * Throws RateLimitException if the bucket+key exceeds maxAttempts within windowMs.
+	 * Callers that handle the rejection themselves should use {@link #tryAcquire}.
 	 */
 	public void checkRateLimit(String bucket, String key, int maxAttempts, long windowMillis) {
-		long now = System.currentTimeMillis();
-		String composite = bucket + ":" + key;
+		if (!tryAcquire(bucket, key, maxAttempts, windowMillis)) {
+			throw new RateLimitException("Too many requests. Please wait before trying again.", false);
+		}
+	}//checkRateLimit
+
+
+	/**
+	 * Takes one token for the bucket+key; false if none is left.
+	 */
+	public boolean tryAcquire(String bucket, String key, int maxAttempts, long windowMillis) {
+		long now = now();
+		long capacity = maxAttempts * TOKEN_SCALE;
+		Bucket state = bucket(bucket, maxAttempts, windowMillis);
+		AtomicLong cell = cell(state, key, capacity, now);
 
-		RateLimitEntry entry = rateLimitMap.compute(composite, (k, existing) -> {
-			if (existing == null || now - existing.windowStart > windowMillis) {
-				return new RateLimitEntry(now, new AtomicInteger(1));
+		while (true) {
+			long current = cell.get();
+			long refilled = refill(current, now, capacity, windowMillis);
+			if (refilled >>> TIME_BITS < TOKEN_SCALE) {
+				return false;
 			}
-			existing.count.incrementAndGet();
-			return existing;
-		});
+			if (cell.compareAndSet(current, refilled - (TOKEN_SCALE << TIME_BITS))) {
+				if (trackGrants) {
+					recordGrant(state, key);
+				}
+				return true;
+			}
+		}
+	}//tryAcquire
+
+
+	/**
+	 * Takes up to {@code count} tokens from the bucket+key without checking
+	 * whether any are left, for hits another node has already granted.
+	 */
+	public void charge(String bucket, String key, long count, int maxAttempts, long windowMillis) {
+		long now = now();
+		long capacity = maxAttempts * TOKEN_SCALE;
+		AtomicLong cell = cell(bucket(bucket, maxAttempts, windowMillis), key, capacity, now);
 
-		if (entry.count.get() > maxAttempts) {
-			throw new RateLimitException("Too many requests. Please wait before trying again.");
+		long debit = Math.min(count, maxAttempts) * TOKEN_SCALE;
+		while (true) {
+			long current = cell.get();
+			long refilled = refill(current, now, capacity, windowMillis);
+			long tokens = Math.max(0, (refilled >>> TIME_BITS) - debit);
+			if (cell.compareAndSet(current, pack(tokens, refilled & TIME_MASK))) {
+				return;
+			}
 		}
-	}//checkRateLimit
+	}//charge
 
 
 	/**
-	 * Evicts buckets whose window has long expired. Caps memory from accumulating
-	 * one entry per distinct IP forever.
+	 * Starts counting the tokens granted per bucket+key, for {@link #drainGrants}.
+	 */
+	public void enableGrantTracking() {
+		trackGrants = true;
+	}//enableGrantTracking
+
+
+	/**
+	 * Returns and resets the tokens granted since the last call, with the limit
+	 * each bucket was last used with.
+	 */
+	public List<Grant> drainGrants() {
+		List<Grant> grants = new ArrayList<>();
+		for (Map.Entry<String, Bucket> bucket : buckets.entrySet()) {
+			Bucket state = bucket.getValue();
+			int maxAttempts = (int) (state.capacity / TOKEN_SCALE);
+			for (Map.Entry<String, LongAdder> entry : state.granted.entrySet()) {
+				// A grant counted between the reset and the removal is lost; the
+				// shared limit is approximate anyway
+				long count = entry.getValue().sumThenReset();
+				state.granted.remove(entry.getKey(), entry.getValue());
+				if (count > 0) {
+					grants.add(new Grant(bucket.getKey(), entry.getKey(), count, maxAttempts, state.windowMillis));
+				}
+			}
+		}
+		return grants;
+	}//drainGrants
+
+
+	/**
+	 * Evicts keys that have had a whole window to refill: they are back at a
+	 * full bucket, which is what an unknown key starts with.
 	 */
 	@Scheduled(fixedRate = 10 * 60 * 1000)
 	public void cleanup() {
-		long now = System.currentTimeMillis();
-		// Generous expiry: 1 hour is well past the longest single-bucket window (5 min).
-		long expiryAfter = 60 * 60 * 1000L;
-		rateLimitMap.entrySet().removeIf(e -> now - e.getValue().windowStart > expiryAfter);
+		long now = now();
+		for (Bucket bucket : buckets.values()) {
+			long windowMillis = bucket.windowMillis;
+			bucket.states.values().removeIf(cell -> now - (cell.get() & TIME_MASK) >= windowMillis);
+		}
 	}//cleanup
 
 
-	private static class RateLimitEntry {
-		final long windowStart;
-		final AtomicInteger count;
+	/**
+	 * Keys currently tracked in the bucket.
+	 */
+	public int getTrackedKeys(String bucket) {
+		Bucket state = buckets.get(bucket);
+		return state == null ? 0 : state.states.size();
+	}//getTrackedKeys
+
+
+	/**
+	 * Keys dropped from the bucket to stay within the key cap.
+	 */
+	public long getEvictedKeys(String bucket) {
+		Bucket state = buckets.get(bucket);
+		return state == null ? 0 : state.evicted.sum();
+	}//getEvictedKeys
+
+
+	private Bucket bucket(String name, int maxAttempts, long windowMillis) {
+		if (maxAttempts < 1 || maxAttempts > MAX_ATTEMPTS_LIMIT || windowMillis < 1 || windowMillis > MAX_WINDOW_MILLIS) {
+			throw new IllegalArgumentException("Unsupported rate limit: " + maxAttempts + " per " + windowMillis + " ms");
+		}
+
+		long capacity = maxAttempts * TOKEN_SCALE;
+		Bucket state = buckets.computeIfAbsent(name, n -> new Bucket());
+		if (state.windowMillis != windowMillis || state.capacity != capacity) {
+			state.capacity = capacity;
+			state.windowMillis = windowMillis;
+		}
+		return state;
+	}//bucket
+
+
+	private AtomicLong cell(Bucket state, String key, long capacity, long now) {
+		AtomicLong cell = state.states.get(key);
+		if (cell == null) {
+			// Starts full, so the first hit leaves capacity - 1
+			AtomicLong created = new AtomicLong(pack(capacity, now));
+			cell = state.states.putIfAbsent(key, created);
+			if (cell == null) {
+				cell = created;
+				if (state.states.size() > maxKeys) {
+					evict(state, key);
+				}
+			}
+		}
+		return cell;
+	}//cell
+
 
-		RateLimitEntry(long windowStart, AtomicInteger count) {
-			this.windowStart = windowStart;
-			this.count = count;
+	// Bounded like the states: past the key cap, grants to new keys stay local
+	private void recordGrant(Bucket state, String key) {
+		LongAdder granted = state.granted.get(key);
+		if (granted == null) {
+			if (state.granted.size() >= maxKeys) {
+				return;
+			}
+			granted = state.granted.computeIfAbsent(key, k -> new LongAdder());
 		}
-	}//RateLimitEntry
+		granted.increment();
+	}//recordGrant
+
+
+	// Samples a few entries from the bucket's hand and drops the one with the
+	// most tokens after refilling, the oldest of those on a tie; never the key
+	// just added
+	private void evict(Bucket bucket, String justAdded) {
+		synchronized (bucket) {
+			long now = now();
+			long capacity = bucket.capacity;
+			long windowMillis = bucket.windowMillis;
+			while (bucket.states.size() > maxKeys) {
+				Map.Entry<String, AtomicLong> victim = null;
+				long victimTokens = -1;
+				long victimTime = Long.MAX_VALUE;
+				for (int i = 0; i < EVICTION_SAMPLE; i++) {
+					if (bucket.hand == null || !bucket.hand.hasNext()) {
+						bucket.hand = bucket.states.entrySet().iterator();
+						if (!bucket.hand.hasNext()) {
+							break;
+						}
+					}
+					Map.Entry<String, AtomicLong> candidate = bucket.hand.next();
+					if (candidate.getKey().equals(justAdded)) {
+						continue;
+					}
+					long state = candidate.getValue().get();
+					long tokens = refill(state, now, capacity, windowMillis) >>> TIME_BITS;
+					long time = state & TIME_MASK;
+					if (tokens > victimTokens || (tokens == victimTokens && time < victimTime)) {
+						victim = candidate;
+						victimTokens = tokens;
+						victimTime = time;
+					}
+				}
+				if (victim == null) {
+					return;
+				}
+				if (bucket.states.remove(victim.getKey(), victim.getValue())) {
+					bucket.evicted.increment();
+				}
+			}
+		}
+	}//evict
+
+
+	/**
+	 * Returns the state with the tokens refilled up to {@code now}. Time only
+	 * moves on by what the added tokens are worth, so frequent hits don't round
+	 * the refill away; a full bucket is simply full as of now.
+	 */
+	private static long refill(long state, long now, long capacity, long windowMillis) {
+		long tokens = state >>> TIME_BITS;
+		long time = state & TIME_MASK;
+		long elapsed = now - time;
+		if (elapsed <= 0) {
+			// Nothing to add, or the clock stepped back
+			return state;
+		}
+		if (elapsed >= windowMillis) {
+			return pack(capacity, now);
+		}
+
+		long added = elapsed * capacity / windowMillis;
+		if (tokens + added >= capacity) {
+			return pack(capacity, now);
+		}
+		// Rounded up, so the time credited never exceeds the time that passed
+		long consumed = (added * windowMillis + capacity - 1) / capacity;
+		return pack(tokens + added, time + consumed);
+	}//refill
+
+
+	private long now() {
+		return Math.max(0, clock.millis() - startMillis);
+	}//now
+
+
+	private static long pack(long tokens, long time) {
+		return (tokens << TIME_BITS) | time;
+	}//pack
 
 }//RateLimitService
@@ -0,0 +1,128 @@
+package net.k2ai.interviewSimulator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.entity.SessionMigration;
+import net.k2ai.interviewSimulator.repository.SessionMigrationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Short-lived encrypted store for live interviews moved off a draining node.
+ * A ticket is single-use: the first node to {@link #claim} it deletes the row,
+ * and unclaimed tickets expire after {@code app.drain.migration-ttl-seconds}.
+ *
+ * <p>Tickets are only readable by nodes sharing the same
+ * {@code app.payload-encryption-key}.
+ */
+@Slf4j
+@Service
+public class SessionMigrationService {
+
+	private final SessionMigrationRepository migrationRepository;
+
+	private final PayloadEncryptionService encryptionService;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final long ttlSeconds;
+
+
+	/**
+	 * Everything a peer needs to continue an interview over a resumed Gemini
+	 * Live session without restarting it.
+	 */
+	public record MigrationTicket(UUID interviewSessionId, String language, String voiceId, boolean pttMode,
+								  String apiKey, String liveModel, String resumptionHandle, String systemInstruction,
+								  String transcript, long elapsedMillis) {
+	}
+
+
+	public SessionMigrationService(SessionMigrationRepository migrationRepository,
+								   PayloadEncryptionService encryptionService,
+								   @Value("${app.drain.migration-ttl-seconds:120}") long ttlSeconds) {
+		this.migrationRepository = migrationRepository;
+		this.encryptionService = encryptionService;
+		this.ttlSeconds = ttlSeconds;
+	}//SessionMigrationService
+
+
+	/**
+	 * @return the token the browser must present to resume the interview
+	 */
+	@Transactional
+	public UUID save(MigrationTicket ticket) {
+		String json;
+		try {
+			json = objectMapper.writeValueAsString(ticket);
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not serialise migration ticket", e);
+		}
+
+		SessionMigration migration = SessionMigration.builder()
+				.sessionId(ticket.interviewSessionId())
+				.payload(encryptionService.encrypt(json))
+				.expiresAt(LocalDateTime.now().plusSeconds(ttlSeconds))
+				.build();
+		return migrationRepository.save(migration).getId();
+	}//save
+
+
+	/**
+	 * Removes and returns the ticket for {@code token}. Empty if it never
+	 * existed, already expired, was claimed by another node, or can't be
+	 * decrypted here. An unreadable ticket is only deleted when the key is
+	 * configured; under a per-process key it may still be claimable by the
+	 * process that wrote it, so it is left to expire.
+	 */
+	@Transactional
+	public Optional<MigrationTicket> claim(UUID token) {
+		SessionMigration migration = migrationRepository.findById(token).orElse(null);
+		if (migration == null) {
+			return Optional.empty();
+		}
+		if (migration.getExpiresAt().isBefore(LocalDateTime.now())) {
+			migrationRepository.deleteAndCount(token);
+			log.info("Migration ticket for session {} expired before it was claimed", migration.getSessionId());
+			return Optional.empty();
+		}
+
+		MigrationTicket ticket;
+		try {
+			String json = encryptionService.decrypt(migration.getPayload());
+			ticket = objectMapper.readValue(json, MigrationTicket.class);
+		} catch (Exception e) {
+			if (encryptionService.isEphemeral()) {
+				log.warn("Could not read migration ticket for session {} with this process's key - leaving it to expire",
+						migration.getSessionId());
+				return Optional.empty();
+			}
+			migrationRepository.deleteAndCount(token);
+			log.error("Could not read migration ticket for session {} - check app.payload-encryption-key matches across nodes",
+					migration.getSessionId());
+			return Optional.empty();
+		}
+
+		if (migrationRepository.deleteAndCount(token) == 0) {
+			return Optional.empty();
+		}
+		return Optional.of(ticket);
+	}//claim
+
+
+	@Scheduled(fixedRate = 60_000)
+	@Transactional
+	public void purgeExpired() {
+		int deleted = migrationRepository.deleteExpired(LocalDateTime.now());
+		if (deleted > 0) {
+			log.info("Purged {} expired session migration tickets", deleted);
+		}
+	}//purgeExpired
+
+}//SessionMigrationService
@@ -0,0 +1,176 @@
+package net.k2ai.interviewSimulator.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.k2ai.interviewSimulator.entity.InterviewFeedback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts grading as soon as the interviewer starts saying goodbye, so the
+ * report is (nearly) ready when the GRADING screen appears.
+ *
+ * <p>A speculation grades a snapshot of the transcript taken when a closing
+ * phrase is detected mid-turn. It stays valid as long as the candidate says
+ * nothing more - the rest of the interviewer's goodbye doesn't change the
+ * grade. If the candidate speaks again the speculation is cancelled; if the
+ * interview ends, {@link #commit} hands its result to the grading queue.
+ * Nothing is saved until then.
+ *
+ * <p>Speculations only use idle threads: when all are busy, none is started
+ * and the interview is graded the normal way after it ends.
+ */
+@Slf4j
+@Service
+public class SpeculativeGradingService {
+
+	private static final String CANDIDATE_MARKER = "[Candidate]: ";
+
+	private final GradingService gradingService;
+
+	private final boolean enabled;
+
+	private final long holdMillis;
+
+	private final ThreadPoolExecutor executor;
+
+	// Interview session ID -> speculation in flight
+	private final Map<UUID, Speculation> speculations = new ConcurrentHashMap<>();
+
+
+	private record Speculation(String transcript, Future<?> task, CompletableFuture<InterviewFeedback> result) {
+
+		void cancel() {
+			task.cancel(true);
+			result.cancel(false);
+		}//cancel
+
+	}
+
+
+	public SpeculativeGradingService(GradingService gradingService,
+									 @Value("${app.grading.speculative.enabled:true}") boolean enabled,
+									 @Value("${app.grading.speculative.max-concurrent:2}") int maxConcurrent,
+									 @Value("${app.grading.speculative.hold-ms:60000}") long holdMillis) {
+		this.gradingService = gradingService;
+		this.enabled = enabled;
+		this.holdMillis = holdMillis;
+		// No queue: a speculation that has to wait for a thread would be stale by the time it runs
+		this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+				new SynchronousQueue<>(), r -> {
+			Thread t = new Thread(r, "speculative-grading");
+			t.setDaemon(true);
+			return t;
+		});
+	}//SpeculativeGradingService
+
+
+	@PreDestroy
+	public void shutdown() {
+		// Nothing is lost: the queued job of an ended interview is graded normally once its hold expires
+		executor.shutdownNow();
+	}//shutdown
+
+
+	/**
+	 * Starts grading {@code transcript} in the background. A speculation already
+	 * running for the session is kept if it is still valid for this transcript.
+	 */
+	public void start(UUID sessionId, String transcript, String apiKey, String language) {
+		if (!enabled || executor.isShutdown()) {
+			return;
+		}
+
+		Speculation existing = speculations.get(sessionId);
+		if (existing != null && covers(existing.transcript(), transcript)) {
+			return;
+		}
+		cancel(sessionId);
+
+		CompletableFuture<InterviewFeedback> result = new CompletableFuture<>();
+		Future<?> task;
+		try {
+			task = executor.submit(() -> {
+				try {
+					result.complete(gradingService.evaluateInterview(sessionId, transcript, apiKey, language));
+				} catch (Exception e) {
+					result.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			log.debug("No idle speculative grading thread - session {} will be graded after it ends", sessionId);
+			return;
+		}
+
+		speculations.put(sessionId, new Speculation(transcript, task, result));
+		log.info("Started speculative grading for session: {}", sessionId);
+	}//start
+
+
+	/**
+	 * Takes the session's speculation for the final transcript.
+	 *
+	 * @return its pending result, or null if there is none or the candidate spoke
+	 * after the snapshot was taken (the speculation is then cancelled)
+	 */
+	public CompletableFuture<InterviewFeedback> commit(UUID sessionId, String finalTranscript) {
+		Speculation speculation = speculations.remove(sessionId);
+		if (speculation == null) {
+			return null;
+		}
+
+		if (!covers(speculation.transcript(), finalTranscript)) {
+			speculation.cancel();
+			log.info("Speculative grading for session {} is stale - grading the final transcript instead", sessionId);
+			return null;
+		}
+
+		log.info("Committing speculative grading for session: {}", sessionId);
+		return speculation.result();
+	}//commit
+
+
+	/**
+	 * Drops the session's speculation, e.g. because the conversation goes on.
+	 */
+	public void cancel(UUID sessionId) {
+		Speculation speculation = speculations.remove(sessionId);
+		if (speculation != null) {
+			speculation.cancel();
+			log.info("Cancelled speculative grading for session: {}", sessionId);
+		}
+	}//cancel
+
+
+	/**
+	 * How long the grading job of a committed speculation is held back from the
+	 * regular workers.
+	 */
+	public long getHoldMillis() {
+		return holdMillis;
+	}//getHoldMillis
+
+
+	public boolean isSpeculating(UUID sessionId) {
+		return speculations.containsKey(sessionId);
+	}//isSpeculating
+
+
+	// A grade of the snapshot still holds if only the interviewer spoke since
+	static boolean covers(String snapshot, String transcript) {
+		return transcript != null
+				&& transcript.startsWith(snapshot)
+				&& transcript.indexOf(CANDIDATE_MARKER, snapshot.length()) < 0;
+	}//covers
+
+}//SpeculativeGradingService
@@ -0,0 +1,817 @@
+package net.k2ai.interviewSimulator.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Character-level implementation of the sanitizing rules in
+ * {@link InputSanitizerService} and of the CV layout clean-up, in a single
+ * pass and linear time.
+ *
+ * <p>The rules used to be separate regex passes (script blocks, HTML tags,
+ * prompt control tokens, prompt-injection lead-ins), each running over the
+ * output of the one before. Here each rule is a small stage that hands its
+ * output to the next one character by character, so the input is read once
+ * and no stage ever backtracks:
+ * <ul>
+ *     <li>script blocks - {@code <script ...>...</script>}, {@code javascript:}
+ *     and {@code on<word>=}, matched ASCII case-insensitively; the next
+ *     {@code >} and {@code </script>} positions are remembered, so unclosed
+ *     tags are not rescanned</li>
+ *     <li>HTML tags - {@code <...>}, buffered until the closing {@code >}</li>
+ *     <li>control tokens - {@code [END_INTERVIEW]}, {@code [system]},
+ *     {@code [/user]} etc.</li>
+ *     <li>lead-ins - at the start of a line (after optional whitespace)
+ *     "ignore previous instructions", "system:" and their Bulgarian
+ *     counterparts, Unicode case-insensitively; the rest of the line goes
+ *     with them</li>
+ * </ul>
+ *
+ * <p>The output is identical to the regex implementation it replaces, line
+ * terminator and case-folding rules included.
+ */
+final class TextSanitizer {
+
+	// Words of the prompt-injection lead-ins, English then Bulgarian
+	private static final String[] LEAD_IN_WORDS = {
+			"ignore", "disregard", "forget", "all", "previous", "prior", "above", "instructions",
+			"system", "assistant", "user",
+			"игнорирай", "пренебрегни", "забрави", "всички", "предишни", "предходни", "горни", "инструкции",
+			"система", "асистент", "потребител"
+	};
+
+	private static final char[][] FOLDED_WORDS = new char[LEAD_IN_WORDS.length][];
+
+	// Bit masks over LEAD_IN_WORDS for one language; shifted by BG_SHIFT for Bulgarian
+	private static final int VERBS = 0b111;
+
+	private static final int QUANTIFIER = 1 << 3;
+
+	private static final int QUALIFIERS = 0b111 << 4;
+
+	private static final int NOUN = 1 << 7;
+
+	private static final int ROLES = 0b111 << 8;
+
+	private static final int BG_SHIFT = 11;
+
+	private static final int FIRST_WORDS = (VERBS | ROLES) | ((VERBS | ROLES) << BG_SHIFT);
+
+	// What may follow each word: a word mask, or one of the two markers below
+	private static final int[] FOLLOWERS = new int[LEAD_IN_WORDS.length];
+
+	private static final int FOLLOW_END = 0;
+
+	private static final int FOLLOW_COLON = -1;
+
+	static {
+		for (int w = 0; w < LEAD_IN_WORDS.length; w++) {
+			char[] word = LEAD_IN_WORDS[w].toCharArray();
+			for (int i = 0; i < word.length; i++) {
+				word[i] = foldUnicode(word[i]);
+			}
+			FOLDED_WORDS[w] = word;
+
+			int shift = w < BG_SHIFT ? 0 : BG_SHIFT;
+			int bit = 1 << (w - shift);
+			if ((bit & VERBS) != 0) {
+				FOLLOWERS[w] = (QUANTIFIER | QUALIFIERS) << shift;
+			} else if ((bit & QUANTIFIER) != 0) {
+				FOLLOWERS[w] = QUALIFIERS << shift;
+			} else if ((bit & QUALIFIERS) != 0) {
+				FOLLOWERS[w] = NOUN << shift;
+			} else if ((bit & NOUN) != 0) {
+				FOLLOWERS[w] = FOLLOW_END;
+			} else {
+				FOLLOWERS[w] = FOLLOW_COLON;
+			}
+		}
+	}
+
+
+	private TextSanitizer() {
+	}//TextSanitizer
+
+
+	/**
+	 * Removes script blocks, HTML tags, control tokens and prompt-injection
+	 * lead-ins - the CV text rules.
+	 */
+	static String stripMarkupAndControlTokens(CharSequence input) {
+		StringBuilder out = new StringBuilder(input.length());
+		stripScripts(input, new TagStripper(new ControlTokenStripper(new LeadInStripper(out))));
+		return out.toString();
+	}//stripMarkupAndControlTokens
+
+
+	/**
+	 * Removes script blocks and HTML tags and collapses every whitespace run to
+	 * a single space. The result is not trimmed.
+	 */
+	static String stripMarkupCollapsingWhitespace(CharSequence input) {
+		StringBuilder out = new StringBuilder(input.length());
+		stripScripts(input, new TagStripper(new WhitespaceCollapser(out)));
+		return out.toString();
+	}//stripMarkupCollapsingWhitespace
+
+
+	/**
+	 * Removes control tokens and prompt-injection lead-ins.
+	 */
+	static String stripControlTokens(CharSequence input) {
+		StringBuilder out = new StringBuilder(input.length());
+		Sink sink = new ControlTokenStripper(new LeadInStripper(out));
+		for (int i = 0; i < input.length(); i++) {
+			sink.accept(input.charAt(i));
+		}
+		sink.finish();
+		return out.toString();
+	}//stripControlTokens
+
+
+	/**
+	 * True if the text is non-empty and only letters, whitespace, hyphens and apostrophes.
+	 */
+	static boolean isNameText(String text) {
+		if (text.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < text.length(); ) {
+			int cp = text.codePointAt(i);
+			if (!Character.isLetter(cp) && !isSpace(cp) && cp != '-' && cp != '\'') {
+				return false;
+			}
+			i += Character.charCount(cp);
+		}
+		return true;
+	}//isNameText
+
+
+	/**
+	 * True if the text is non-empty, only letters, digits, whitespace and
+	 * {@code .,+-#()/&}, and free of SQL comment and statement fragments.
+	 * Quotes, semicolons and the characters script injection needs are already
+	 * outside the allowed set.
+	 */
+	static boolean isSafePosition(String text) {
+		if (text.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < text.length(); ) {
+			int cp = text.codePointAt(i);
+			if (!Character.isLetter(cp) && !isNumber(cp) && !isSpace(cp) && ".,+-#()/&".indexOf(cp) < 0) {
+				return false;
+			}
+			i += Character.charCount(cp);
+		}
+
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '-' && i + 1 < text.length() && text.charAt(i + 1) == '-') {
+				return false;
+			}
+			if (startsKeywordPair(text, i, "union", "select") || startsKeywordPair(text, i, "insert", "into")
+					|| startsKeywordPair(text, i, "delete", "from") || startsKeywordPair(text, i, "drop", "table")) {
+				return false;
+			}
+		}
+		return true;
+	}//isSafePosition
+
+
+	/**
+	 * Normalises extracted CV text: line breaks become {@code \n}, runs of
+	 * spaces and tabs a single space, more than two consecutive line breaks
+	 * two, and the result is trimmed.
+	 */
+	static String normalizeLayout(CharSequence text) {
+		StringBuilder out = new StringBuilder(text.length());
+		int newlines = 0;
+		boolean space = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\r') {
+				if (i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+				c = '\n';
+			}
+
+			if (c == '\n') {
+				if (space) {
+					out.append(' ');
+					space = false;
+				}
+				newlines++;
+			} else if (c == ' ' || c == '\t') {
+				appendNewlines(out, newlines);
+				newlines = 0;
+				space = true;
+			} else {
+				appendNewlines(out, newlines);
+				newlines = 0;
+				if (space) {
+					out.append(' ');
+					space = false;
+				}
+				out.append(c);
+			}
+		}
+		appendNewlines(out, newlines);
+		if (space) {
+			out.append(' ');
+		}
+		return out.toString().trim();
+	}//normalizeLayout
+
+
+	private static void appendNewlines(StringBuilder out, int newlines) {
+		for (int i = 0; i < Math.min(newlines, 2); i++) {
+			out.append('\n');
+		}
+	}//appendNewlines
+
+
+	// ===== Script blocks =====
+
+	/**
+	 * Drops {@code <script[^>]*>.*?</script>}, {@code javascript:} and
+	 * {@code on\w+\s*=} (ASCII case-insensitive, leftmost first) and passes
+	 * everything else on.
+	 */
+	private static void stripScripts(CharSequence in, Sink next) {
+		int n = in.length();
+		// Next '>' / "</script>" at or after the last lookup; -2 = not looked up, -1 = none left
+		int nextGt = -2;
+		int nextClose = -2;
+		// Word run of the last on\w+ lookup and where its match ends (-1 = no match)
+		int runStart = 0;
+		int runEnd = 0;
+		int runMatchEnd = -1;
+
+		int i = 0;
+		while (i < n) {
+			char c = in.charAt(i);
+			int end = -1;
+			if (c == '<') {
+				if (regionMatchesAscii(in, i, "<script")) {
+					int from = i + 7;
+					if (nextGt != -1 && nextGt < from) {
+						nextGt = indexOf(in, '>', from);
+					}
+					if (nextGt >= 0) {
+						if (nextClose != -1 && nextClose <= nextGt) {
+							nextClose = indexOfAscii(in, "</script>", nextGt + 1);
+						}
+						if (nextClose >= 0) {
+							end = nextClose + 9;
+						}
+					}
+				}
+			} else if (c == 'j' || c == 'J') {
+				if (regionMatchesAscii(in, i, "javascript:")) {
+					end = i + 11;
+				}
+			} else if ((c == 'o' || c == 'O') && i + 2 < n && equalsAscii(in.charAt(i + 1), 'n')
+					&& isWordChar(in.charAt(i + 2))) {
+				// Every start inside the same word run ends the same way
+				int wordStart = i + 2;
+				if (wordStart < runStart || wordStart >= runEnd) {
+					runStart = wordStart;
+					runEnd = wordStart + 1;
+					while (runEnd < n && isWordChar(in.charAt(runEnd))) {
+						runEnd++;
+					}
+					int j = runEnd;
+					while (j < n && isSpace(in.charAt(j))) {
+						j++;
+					}
+					runMatchEnd = j < n && in.charAt(j) == '=' ? j + 1 : -1;
+				}
+				end = runMatchEnd;
+			}
+
+			if (end < 0) {
+				next.accept(c);
+				i++;
+			} else {
+				i = end;
+			}
+		}
+		next.finish();
+	}//stripScripts
+
+
+	// ===== Stages =====
+
+	private interface Sink {
+
+		void accept(char c);
+
+		void finish();
+
+	}//Sink
+
+
+	/**
+	 * Drops {@code <[^>]*>}. A {@code <} is held back until its {@code >}
+	 * arrives; if none does, the held text is passed on unchanged.
+	 */
+	private static final class TagStripper implements Sink {
+
+		private final Sink next;
+
+		private final StringBuilder pending = new StringBuilder();
+
+		private boolean inTag;
+
+
+		private TagStripper(Sink next) {
+			this.next = next;
+		}//TagStripper
+
+
+		@Override
+		public void accept(char c) {
+			if (inTag) {
+				if (c == '>') {
+					pending.setLength(0);
+					inTag = false;
+				} else {
+					pending.append(c);
+				}
+			} else if (c == '<') {
+				inTag = true;
+				pending.append(c);
+			} else {
+				next.accept(c);
+			}
+		}//accept
+
+
+		@Override
+		public void finish() {
+			for (int i = 0; i < pending.length(); i++) {
+				next.accept(pending.charAt(i));
+			}
+			next.finish();
+		}//finish
+
+	}//TagStripper
+
+
+	/**
+	 * Drops {@code [END_INTERVIEW]} and {@code [system]}, {@code [/assistant]},
+	 * {@code [user]} (ASCII case-insensitive, whitespace allowed inside the
+	 * brackets). Only the opening {@code [} can start a token, so a failed
+	 * candidate is passed on and just the character that broke it is looked at again.
+	 */
+	private static final class ControlTokenStripper implements Sink {
+
+		private static final String END_INTERVIEW = "end_interview";
+
+		private static final String[] ROLES = {"system", "assistant", "user"};
+
+		private static final int IDLE = 0;
+
+		private static final int OPEN = 1;
+
+		private static final int AFTER_SLASH = 2;
+
+		private static final int WORD = 3;
+
+		private static final int CLOSE = 4;
+
+		private final Sink next;
+
+		private final StringBuilder pending = new StringBuilder();
+
+		private int state = IDLE;
+
+		private String word;
+
+		private int index;
+
+
+		private ControlTokenStripper(Sink next) {
+			this.next = next;
+		}//ControlTokenStripper
+
+
+		@Override
+		public void accept(char c) {
+			switch (state) {
+				case IDLE -> {
+					if (c == '[') {
+						pending.append(c);
+						state = OPEN;
+					} else {
+						next.accept(c);
+					}
+				}
+				case OPEN -> {
+					if (isSpace(c)) {
+						pending.append(c);
+					} else if (equalsAscii(c, 'e')) {
+						startWord(END_INTERVIEW, c);
+					} else if (c == '/') {
+						pending.append(c);
+						state = AFTER_SLASH;
+					} else if (!startRole(c)) {
+						reject(c);
+					}
+				}
+				case AFTER_SLASH -> {
+					if (!startRole(c)) {
+						reject(c);
+					}
+				}
+				case WORD -> {
+					if (equalsAscii(c, word.charAt(index))) {
+						pending.append(c);
+						if (++index == word.length()) {
+							state = CLOSE;
+						}
+					} else {
+						reject(c);
+					}
+				}
+				case CLOSE -> {
+					if (isSpace(c)) {
+						pending.append(c);
+					} else if (c == ']') {
+						pending.setLength(0);
+						state = IDLE;
+					} else {
+						reject(c);
+					}
+				}
+				default -> throw new IllegalStateException("Unknown state " + state);
+			}
+		}//accept
+
+
+		@Override
+		public void finish() {
+			flushPending();
+			next.finish();
+		}//finish
+
+
+		private boolean startRole(char c) {
+			for (String role : ROLES) {
+				if (equalsAscii(c, role.charAt(0))) {
+					startWord(role, c);
+					return true;
+				}
+			}
+			return false;
+		}//startRole
+
+
+		private void startWord(String target, char first) {
+			pending.append(first);
+			word = target;
+			index = 1;
+			state = WORD;
+		}//startWord
+
+
+		private void reject(char c) {
+			flushPending();
+			state = IDLE;
+			accept(c);
+		}//reject
+
+
+		private void flushPending() {
+			for (int i = 0; i < pending.length(); i++) {
+				next.accept(pending.charAt(i));
+			}
+			pending.setLength(0);
+		}//flushPending
+
+	}//ControlTokenStripper
+
+
+	/**
+	 * Drops prompt-injection lead-ins: at a line start, optional whitespace
+	 * then "ignore/disregard/forget [all] previous/prior/above instructions"
+	 * or "system/assistant/user:" (and the Bulgarian equivalents), through to
+	 * the end of the line. Words may be separated by any whitespace, line
+	 * breaks included.
+	 *
+	 * <p>Text is written straight to the output and cut back when a lead-in
+	 * completes. Each line start gets its own matcher, since a phrase that
+	 * fails can leave a line start inside it where another one begins; line
+	 * starts in the same whitespace run share one. Two live matchers are
+	 * always inside different words, so whichever completes is the leftmost.
+	 */
+	private static final class LeadInStripper implements Sink {
+
+		private final StringBuilder out;
+
+		private final List<LeadInMatch> matches = new ArrayList<>();
+
+		private char previous;
+
+		private boolean first = true;
+
+		private boolean skippingLine;
+
+
+		private LeadInStripper(StringBuilder out) {
+			this.out = out;
+		}//LeadInStripper
+
+
+		@Override
+		public void accept(char c) {
+			boolean lineStart = first || (isLineTerminator(previous) && !(previous == '\r' && c == '\n'));
+			first = false;
+			previous = c;
+
+			if (skippingLine) {
+				if (!isLineTerminator(c)) {
+					return;
+				}
+				skippingLine = false;
+			}
+
+			if (lineStart && !hasLeadingMatch()) {
+				matches.add(new LeadInMatch(out.length()));
+			}
+			out.append(c);
+
+			for (int i = 0; i < matches.size(); ) {
+				LeadInMatch match = matches.get(i);
+				int result = match.step(c);
+				if (result == LeadInMatch.MATCHED) {
+					out.setLength(match.start);
+					matches.clear();
+					skippingLine = true;
+					return;
+				}
+				if (result == LeadInMatch.FAILED) {
+					matches.remove(i);
+				} else {
+					i++;
+				}
+			}
+		}//accept
+
+
+		@Override
+		public void finish() {
+			matches.clear();
+		}//finish
+
+
+		private boolean hasLeadingMatch() {
+			for (LeadInMatch match : matches) {
+				if (match.state == LeadInMatch.LEADING) {
+					return true;
+				}
+			}
+			return false;
+		}//hasLeadingMatch
+
+	}//LeadInStripper
+
+
+	/**
+	 * One lead-in candidate, fed a character at a time. Words in a set never
+	 * prefix one another, so at most one completes and the match is deterministic.
+	 */
+	private static final class LeadInMatch {
+
+		private static final int FAILED = -1;
+
+		private static final int PENDING = 0;
+
+		private static final int MATCHED = 1;
+
+		private static final int LEADING = 0;
+
+		private static final int WORD = 1;
+
+		private static final int GAP = 2;
+
+		private static final int COLON = 3;
+
+		private final int start;
+
+		private int state = LEADING;
+
+		private int candidates = FIRST_WORDS;
+
+		private int index;
+
+		private boolean gapSeen;
+
+
+		private LeadInMatch(int start) {
+			this.start = start;
+		}//LeadInMatch
+
+
+		private int step(char c) {
+			switch (state) {
+				case LEADING -> {
+					if (isSpace(c)) {
+						return PENDING;
+					}
+					state = WORD;
+					return word(c);
+				}
+				case WORD -> {
+					return word(c);
+				}
+				case GAP -> {
+					if (isSpace(c)) {
+						gapSeen = true;
+						return PENDING;
+					}
+					if (!gapSeen) {
+						return FAILED;
+					}
+					state = WORD;
+					return word(c);
+				}
+				case COLON -> {
+					if (isSpace(c)) {
+						return PENDING;
+					}
+					return c == ':' ? MATCHED : FAILED;
+				}
+				default -> throw new IllegalStateException("Unknown state " + state);
+			}
+		}//step
+
+
+		private int word(char c) {
+			char folded = foldUnicode(c);
+			int alive = 0;
+			for (int m = candidates; m != 0; m &= m - 1) {
+				int w = Integer.numberOfTrailingZeros(m);
+				char[] word = FOLDED_WORDS[w];
+				if (word[index] != folded) {
+					continue;
+				}
+				if (index + 1 < word.length) {
+					alive |= 1 << w;
+					continue;
+				}
+
+				int followers = FOLLOWERS[w];
+				if (followers == FOLLOW_END) {
+					return MATCHED;
+				}
+				index = 0;
+				if (followers == FOLLOW_COLON) {
+					state = COLON;
+				} else {
+					state = GAP;
+					gapSeen = false;
+					candidates = followers;
+				}
+				return PENDING;
+			}
+
+			if (alive == 0) {
+				return FAILED;
+			}
+			candidates = alive;
+			index++;
+			return PENDING;
+		}//word
+
+	}//LeadInMatch
+
+
+	/**
+	 * Replaces every whitespace run with a single space.
+	 */
+	private static final class WhitespaceCollapser implements Sink {
+
+		private final StringBuilder out;
+
+		private boolean inSpace;
+
+
+		private WhitespaceCollapser(StringBuilder out) {
+			this.out = out;
+		}//WhitespaceCollapser
+
+
+		@Override
+		public void accept(char c) {
+			if (isSpace(c)) {
+				inSpace = true;
+				return;
+			}
+			if (inSpace) {
+				out.append(' ');
+				inSpace = false;
+			}
+			out.append(c);
+		}//accept
+
+
+		@Override
+		public void finish() {
+			if (inSpace) {
+				out.append(' ');
+			}
+		}//finish
+
+	}//WhitespaceCollapser
+
+
+	// ===== Character classes =====
+
+	// \s without UNICODE_CHARACTER_CLASS
+	private static boolean isSpace(int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}//isSpace
+
+
+	// \w without UNICODE_CHARACTER_CLASS
+	private static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}//isWordChar
+
+
+	// \p{N}
+	private static boolean isNumber(int cp) {
+		int type = Character.getType(cp);
+		return type == Character.DECIMAL_DIGIT_NUMBER || type == Character.LETTER_NUMBER
+				|| type == Character.OTHER_NUMBER;
+	}//isNumber
+
+
+	// Characters '.' does not match and after which '^' matches in MULTILINE mode
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}//isLineTerminator
+
+
+	// CASE_INSENSITIVE without UNICODE_CASE folds ASCII letters only
+	private static boolean equalsAscii(char c, char lower) {
+		return c == lower || (lower >= 'a' && lower <= 'z' && c == lower - ('a' - 'A'));
+	}//equalsAscii
+
+
+	// CASE_INSENSITIVE with UNICODE_CASE
+	private static char foldUnicode(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}//foldUnicode
+
+
+	private static boolean regionMatchesAscii(CharSequence s, int from, String lower) {
+		if (from + lower.length() > s.length()) {
+			return false;
+		}
+		for (int i = 0; i < lower.length(); i++) {
+			if (!equalsAscii(s.charAt(from + i), lower.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}//regionMatchesAscii
+
+
+	private static int indexOf(CharSequence s, char c, int from) {
+		for (int i = from; i < s.length(); i++) {
+			if (s.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}//indexOf
+
+
+	private static int indexOfAscii(CharSequence s, String lower, int from) {
+		for (int i = from; i + lower.length() <= s.length(); i++) {
+			if (regionMatchesAscii(s, i, lower)) {
+				return i;
+			}
+		}
+		return -1;
+	}//indexOfAscii
+
+
+	// first\s+second at position i, ASCII case-insensitive
+	private static boolean startsKeywordPair(String s, int i, String first, String second) {
+		if (!regionMatchesAscii(s, i, first)) {
+			return false;
+		}
+		int j = i + first.length();
+		int spaceStart = j;
+		while (j < s.length() && isSpace(s.charAt(j))) {
+			j++;
+		}
+		return j > spaceStart && regionMatchesAscii(s, j, second);
+	}//startsKeywordPair
+
+}//TextSanitizer
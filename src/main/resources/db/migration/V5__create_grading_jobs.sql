@@ -0,0 +1,23 @@
+-- V5__create_grading_jobs.sql
+-- Durable grading queue. A row lives only between interview end and report
+-- creation; the transcript payload is AES-GCM encrypted by the application and
+-- the row is deleted as soon as grading finishes (success or final failure),
+-- so transcripts are still never retained (see V4).
+
+CREATE TABLE IF NOT EXISTS grading_jobs (
+    id UUID PRIMARY KEY,
+    session_id UUID NOT NULL REFERENCES interview_sessions(id) ON DELETE CASCADE,
+    ws_session_id VARCHAR(100),
+    language VARCHAR(10),
+    payload BYTEA NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    locked_by VARCHAR(100),
+    locked_at TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_grading_jobs_claim ON grading_jobs(status, next_attempt_at);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_grading_jobs_session ON grading_jobs(session_id);
@@ -0,0 +1,32 @@
+-- V6__create_cluster_directory.sql
+-- Cluster support (only used when app.cluster.enabled=true).
+-- cluster_nodes:    heartbeat per running node; rows of dead nodes are reaped.
+-- live_sessions:    which node holds each browser STOMP socket.
+-- cluster_messages: outbox of server->browser messages for sockets held by another
+--                   node. The target node is woken with NOTIFY cluster_messages and
+--                   deletes its rows as it delivers them.
+
+CREATE TABLE IF NOT EXISTS cluster_nodes (
+    node_id VARCHAR(100) PRIMARY KEY,
+    heartbeat_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS live_sessions (
+    ws_session_id VARCHAR(100) PRIMARY KEY,
+    node_id VARCHAR(100) NOT NULL,
+    interview_session_id UUID,
+    connected_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_live_sessions_node ON live_sessions(node_id);
+
+CREATE TABLE IF NOT EXISTS cluster_messages (
+    id BIGSERIAL PRIMARY KEY,
+    target_node VARCHAR(100) NOT NULL,
+    ws_session_id VARCHAR(100) NOT NULL,
+    destination VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_cluster_messages_target ON cluster_messages(target_node);
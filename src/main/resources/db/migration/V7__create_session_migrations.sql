@@ -0,0 +1,15 @@
+-- V7__create_session_migrations.sql
+-- Short-lived hand-off records for live interviews moved off a draining node.
+-- The payload (Gemini resumption handle, system instruction, transcript, timer,
+-- API key) is AES-GCM encrypted by the application; a row is deleted when a
+-- peer node resumes it or once it expires, whichever comes first.
+
+CREATE TABLE IF NOT EXISTS session_migrations (
+    id UUID PRIMARY KEY,
+    session_id UUID NOT NULL REFERENCES interview_sessions(id) ON DELETE CASCADE,
+    payload BYTEA NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_session_migrations_expires ON session_migrations(expires_at);
@@ -0,0 +1,25 @@
+-- V8__create_cluster_limits.sql
+-- Shared rate limits and model cooldowns (only used when app.cluster.enabled=true).
+-- rate_limit_hits: tokens each node has granted per bucket and key, added to in
+--                  batches; peers take the increase off their own buckets. Rows
+--                  idle for longer than any limit window are reaped.
+-- model_cooldowns: exhausted (key fingerprint, model) combos and until when. Nodes are
+--                  told of new rows with NOTIFY cluster_cooldowns.
+
+CREATE TABLE IF NOT EXISTS rate_limit_hits (
+    bucket VARCHAR(50) NOT NULL,
+    limit_key VARCHAR(100) NOT NULL,
+    node_id VARCHAR(100) NOT NULL,
+    hits BIGINT NOT NULL,
+    max_attempts INTEGER NOT NULL,
+    window_ms BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (bucket, limit_key, node_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_hits_updated ON rate_limit_hits(updated_at);
+
+CREATE TABLE IF NOT EXISTS model_cooldowns (
+    combo_key VARCHAR(200) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,5 @@
+-- V9__persist_model_cooldowns.sql
+-- model_cooldowns is now written on every node, clustered or not, and loaded at
+-- startup so cooldowns survive a restart. Expired rows are deleted by expiry.
+
+CREATE INDEX IF NOT EXISTS idx_model_cooldowns_expires ON model_cooldowns(expires_at);
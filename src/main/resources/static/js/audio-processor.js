@@ -55,6 +55,12 @@ const RTT_CLEAR_THRESHOLD_MS = 180;  // below this + user hasn't dismissed → h
 let networkWarningShown = false;
 let networkWarningDismissed = false;
 
+// Node drain hand-off: token issued by the draining node, presented to
+// whichever node we reconnect to so the interview continues where it was.
+let migrationToken = null;
+let migrationAttempts = 0;
+const MAX_MIGRATION_ATTEMPTS = 12;
+
 // Session data
 let currentSession = {
 	candidateName: '',
@@ -75,7 +81,7 @@ function startInterviewFromSession() {
 			difficulty: window.interviewSession.difficulty || 'Easy',
 			interviewLength: window.interviewSession.interviewLength || 'Standard',
 			language: window.interviewSession.language || 'bg',
-			cvText: window.interviewSession.cvText || null,
+			cvHandle: window.interviewSession.cvHandle || null,
 			voiceId: window.interviewSession.voiceId || 'Algieba',
 			interviewerNameEN: window.interviewSession.interviewerNameEN || 'George',
 			interviewerNameBG: window.interviewSession.interviewerNameBG || 'Георги'
@@ -138,7 +144,11 @@ function connectToBackend() {
 		stompClient.subscribe('/user/queue/text', handleTextMessage);
 		stompClient.subscribe('/user/queue/pong', handlePongMessage);
 
-		startInterviewSession();
+		if (migrationToken) {
+			resumeInterviewSession();
+		} else {
+			startInterviewSession();
+		}
 		startPingLoop();
 		// Pre-warm both pipelines while AI generates the first audio chunk.
 		// This makes the post-intro mic unmute instantaneous.
@@ -146,6 +156,11 @@ function connectToBackend() {
 		initializeAudioCapture();
 
 	}, function (error) {
+		if (migrationToken) {
+			isConnected = false;
+			scheduleMigrationReconnect();
+			return;
+		}
 		console.error('WebSocket connection error:', error);
 		updateStatus(window.statusMessages?.connectionFailed || 'Connection Failed', 'bg-red-500/20 text-red-400 border-red-500/50');
 		hideConnectionOverlay();
@@ -171,8 +186,9 @@ function startInterviewSession() {
 		pttMode: String(typeof isPttMode !== 'undefined' ? isPttMode : false)
 	};
 
-	if (currentSession.cvText) {
-		startPayload.cvText = currentSession.cvText;
+	// The CV itself stays on the server; only its handle is sent
+	if (currentSession.cvHandle) {
+		startPayload.cvHandle = currentSession.cvHandle;
 	}
 
 	if (currentSession.voiceId) {
@@ -191,6 +207,27 @@ function startInterviewSession() {
 	safeStompSend('/app/interview/start', {}, JSON.stringify(startPayload));
 }
 
+function resumeInterviewSession() {
+	safeStompSend('/app/interview/resume', {}, JSON.stringify({token: migrationToken}));
+}
+
+// Reconnect with capped exponential backoff plus jitter so a whole draining
+// node's worth of browsers doesn't hit the peers at the same instant.
+function scheduleMigrationReconnect() {
+	disconnectWebSocket();
+	if (migrationAttempts >= MAX_MIGRATION_ATTEMPTS) {
+		migrationToken = null;
+		updateStatus(window.statusMessages?.disconnected || 'Disconnected', 'bg-red-500/20 text-red-400 border-red-500/50');
+		if (typeof stopCallTimer === 'function') {
+			stopCallTimer();
+		}
+		return;
+	}
+	const delay = Math.min(500 * Math.pow(2, migrationAttempts), 8000) + Math.random() * 500;
+	migrationAttempts++;
+	setTimeout(connectToBackend, delay);
+}
+
 function handleStatusMessage(message) {
 	const data = JSON.parse(message.body);
 
@@ -260,6 +297,36 @@ function handleStatusMessage(message) {
 			stopPingLoop();
 			showGradingScreen();
 			break;
+		case 'QUEUED': {
+			// Node is at capacity - we're in the waiting room until a slot frees up
+			const queuedOverlay = document.getElementById('connection-overlay');
+			const queuedText = queuedOverlay ? queuedOverlay.querySelector('p') : null;
+			if (queuedText) {
+				const tpl = window.statusMessages?.queued || 'You are number {position} in line - about {minutes} min';
+				queuedText.innerText = tpl
+					.replace('{position}', data.position)
+					.replace('{minutes}', Math.max(1, Math.ceil(data.etaSeconds / 60)));
+			}
+			break;
+		}
+		case 'MIGRATE':
+			// This node is shutting down; the mic/playback pipelines stay up
+			// while we reconnect and resume on another node.
+			migrationToken = data.token;
+			migrationAttempts = 0;
+			stopPingLoop();
+			resetPlaybackBuffers();
+			isAISpeaking = false;
+			updateStatus(window.statusMessages?.reconnecting || 'Reconnecting...', 'bg-yellow-500/20 text-yellow-400 border-yellow-500/50');
+			scheduleMigrationReconnect();
+			break;
+		case 'RESUMED':
+			if (migrationToken) {
+				migrationToken = null;
+				migrationAttempts = 0;
+				updateStatus(window.statusMessages?.connected || 'Connected', 'bg-blue-500/20 text-blue-400 border-blue-500/50');
+			}
+			break;
 		case 'DISCONNECTED':
 			updateStatus(window.statusMessages?.disconnected || 'Disconnected', 'bg-red-500/20 text-red-400 border-red-500/50');
 			if (typeof stopCallTimer === 'function') {
@@ -370,6 +437,16 @@ function handleErrorMessage(message) {
 	const data = JSON.parse(message.body);
 	console.error('Error from server:', data.message);
 
+	// Reached a node that is itself draining - try again (likely another node)
+	if (data.draining && migrationToken) {
+		scheduleMigrationReconnect();
+		return;
+	}
+
+	if (data.resumeFailed) {
+		migrationToken = null;
+	}
+
 	if (data.rateLimited) {
 		if (typeof handleRateLimitError === 'function') {
 			handleRateLimitError();
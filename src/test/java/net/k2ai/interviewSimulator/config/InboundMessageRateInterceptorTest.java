@@ -0,0 +1,161 @@
+package net.k2ai.interviewSimulator.config;
+
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class InboundMessageRateInterceptorTest {
+
+    private static final String SESSION = "ws-session-1";
+
+    // Mutable clock so refills can be stepped through
+    private static final class TestClock extends Clock {
+
+        private long millis = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }//getZone
+
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }//withZone
+
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }//instant
+
+
+        @Override
+        public long millis() {
+            return millis;
+        }//millis
+
+    }//TestClock
+
+
+    private final TestClock clock = new TestClock();
+
+    // Audio: 10 frames and 10KB a second; control: 1 frame and 1KB a second (2 second bursts)
+    private final InboundMessageRateInterceptor interceptor =
+            new InboundMessageRateInterceptor(10, 10_240, 1, 1_024, clock);
+
+
+    private static Message<byte[]> send(String sessionId, String destination, int size) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[size], accessor.getMessageHeaders());
+    }//send
+
+
+    private static Message<byte[]> disconnect(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }//disconnect
+
+
+    private int passed(String sessionId, String destination, int size, int frames) {
+        int passed = 0;
+        for (int i = 0; i < frames; i++) {
+            if (interceptor.preSend(send(sessionId, destination, size), null) != null) {
+                passed++;
+            }
+        }
+        return passed;
+    }//passed
+
+
+    @Test
+    void testPreSend_DropsAudioFramesBeyondBurstAndRefills() {
+        assertThat(passed(SESSION, "/app/interview/audio", 100, 30)).isEqualTo(20);
+        assertThat(interceptor.getDroppedMessages("audio")).isEqualTo(10);
+
+        clock.millis += 500;
+
+        assertThat(passed(SESSION, "/app/interview/audio", 100, 10)).isEqualTo(5);
+    }//testPreSend_DropsAudioFramesBeyondBurstAndRefills
+
+
+    @Test
+    void testPreSend_DropsFramesBeyondByteBudget() {
+        // 20KB burst: two 8KB frames fit, the third doesn't
+        assertThat(passed(SESSION, "/app/interview/audio", 8_192, 3)).isEqualTo(2);
+
+        assertThat(interceptor.getDroppedBytes("audio")).isEqualTo(1);
+        assertThat(interceptor.getDroppedMessages("audio")).isZero();
+    }//testPreSend_DropsFramesBeyondByteBudget
+
+
+    @Test
+    void testPreSend_DestinationsHaveSeparateBudgets() {
+        assertThat(passed(SESSION, "/app/interview/ping", 10, 5)).isEqualTo(2);
+
+        assertThat(passed(SESSION, "/app/interview/audio", 100, 5)).isEqualTo(5);
+        assertThat(passed(SESSION, "/app/interview/mic-off", 0, 1)).isEqualTo(1);
+        assertThat(interceptor.getDroppedMessages("ping")).isEqualTo(3);
+    }//testPreSend_DestinationsHaveSeparateBudgets
+
+
+    @Test
+    void testPreSend_SessionsHaveSeparateBudgets() {
+        passed(SESSION, "/app/interview/audio", 100, 30);
+
+        assertThat(passed("ws-session-2", "/app/interview/audio", 100, 20)).isEqualTo(20);
+    }//testPreSend_SessionsHaveSeparateBudgets
+
+
+    @Test
+    void testPreSend_UnknownDestinationsShareOneBudget() {
+        assertThat(passed(SESSION, "/app/interview/unknown", 10, 1)).isEqualTo(1);
+        assertThat(passed(SESSION, "/app/elsewhere", 10, 1)).isEqualTo(1);
+        assertThat(passed(SESSION, "/app/interview/other", 10, 1)).isZero();
+
+        assertThat(interceptor.getDroppedMessages("other")).isEqualTo(1);
+    }//testPreSend_UnknownDestinationsShareOneBudget
+
+
+    @Test
+    void testPreSend_DisconnectForgetsSession() {
+        passed(SESSION, "/app/interview/audio", 100, 30);
+
+        assertThat(interceptor.preSend(disconnect(SESSION), null)).isNotNull();
+
+        assertThat(interceptor.getTrackedSessions()).isZero();
+        assertThat(passed(SESSION, "/app/interview/audio", 100, 1)).isEqualTo(1);
+    }//testPreSend_DisconnectForgetsSession
+
+
+    @Test
+    void testPreSend_PassesNonSendFrames() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(SESSION);
+        accessor.setDestination("/user/queue/status");
+        Message<byte[]> subscribe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(interceptor.preSend(subscribe, null)).isSameAs(subscribe);
+        }
+        assertThat(interceptor.getTrackedSessions()).isZero();
+    }//testPreSend_PassesNonSendFrames
+
+}//InboundMessageRateInterceptorTest
@@ -0,0 +1,166 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.testutil.AbstractIntegrationTest;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs several nodes, each with its own in-memory limiter, against the one
+ * shared Testcontainers Postgres.
+ */
+@SpringBootTest
+@Testcontainers
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class ClusterLimitSyncTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<ClusterLimitSync> nodes = new ArrayList<>();
+
+
+    private record Node(ClusterLimitSync sync, RateLimitService limiter, BlockingQueue<Object> inbox) {
+    }
+
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM rate_limit_hits");
+        jdbcTemplate.update("DELETE FROM model_cooldowns");
+    }//setUp
+
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ClusterLimitSync::stop);
+        nodes.clear();
+    }//tearDown
+
+
+    @Test
+    void testFlush_ChargesPeerGrantsToLocalBuckets() {
+        Node nodeA = startNode("node-a");
+        Node nodeB = startNode("node-b");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(nodeA.limiter().tryAcquire("ws-start", "10.0.0.1", 5, 60_000)).isTrue();
+        }
+        nodeA.sync().flush();
+        nodeB.sync().flush();
+
+        assertThat(nodeB.limiter().tryAcquire("ws-start", "10.0.0.1", 5, 60_000)).isFalse();
+        assertThat(nodeB.limiter().tryAcquire("ws-start", "10.0.0.2", 5, 60_000)).isTrue();
+    }//testFlush_ChargesPeerGrantsToLocalBuckets
+
+
+    @Test
+    void testFlush_ChargesEachPeerGrantOnce() {
+        Node nodeA = startNode("node-a");
+        Node nodeB = startNode("node-b");
+
+        nodeA.limiter().tryAcquire("cv-upload", "10.0.0.1", 5, 60_000);
+        nodeA.limiter().tryAcquire("cv-upload", "10.0.0.1", 5, 60_000);
+        nodeA.sync().flush();
+        // The row is read back on every poll within the lookback
+        nodeB.sync().flush();
+        nodeB.sync().flush();
+        nodeB.sync().flush();
+
+        int granted = 0;
+        while (nodeB.limiter().tryAcquire("cv-upload", "10.0.0.1", 5, 60_000)) {
+            granted++;
+        }
+        assertThat(granted).isEqualTo(3);
+    }//testFlush_ChargesEachPeerGrantOnce
+
+
+    @Test
+    void testFlush_GrantsAddUpAcrossNodes() {
+        Node nodeA = startNode("node-a");
+        Node nodeB = startNode("node-b");
+        Node nodeC = startNode("node-c");
+
+        nodeA.limiter().tryAcquire("admin-login", "10.0.0.1", 5, 60_000);
+        nodeA.limiter().tryAcquire("admin-login", "10.0.0.1", 5, 60_000);
+        nodeB.limiter().tryAcquire("admin-login", "10.0.0.1", 5, 60_000);
+        nodeB.limiter().tryAcquire("admin-login", "10.0.0.1", 5, 60_000);
+        nodeA.sync().flush();
+        nodeB.sync().flush();
+        nodeC.sync().flush();
+
+        assertThat(nodeC.limiter().tryAcquire("admin-login", "10.0.0.1", 5, 60_000)).isTrue();
+        assertThat(nodeC.limiter().tryAcquire("admin-login", "10.0.0.1", 5, 60_000)).isFalse();
+        Long hits = jdbcTemplate.queryForObject(
+                "SELECT SUM(hits) FROM rate_limit_hits WHERE bucket = 'admin-login'", Long.class);
+        assertThat(hits).isEqualTo(4);
+    }//testFlush_GrantsAddUpAcrossNodes
+
+
+    @Test
+    void testPublishCooldown_ReachesOtherNodesOnly() throws Exception {
+        Node nodeA = startNode("node-a");
+        Node nodeB = startNode("node-b");
+        Instant expiresAt = Instant.now().plusSeconds(65).truncatedTo(ChronoUnit.MILLIS);
+
+        // Give both listeners time to LISTEN
+        Thread.sleep(500);
+        nodeA.sync().publishCooldown("abcd1234:gemini-flash", expiresAt);
+
+        Object received = nodeB.inbox().poll(10, TimeUnit.SECONDS);
+        assertThat(received).isEqualTo(new ClusterLimitSync.CooldownFlagged("abcd1234:gemini-flash", expiresAt));
+        assertThat(nodeA.inbox().poll(1, TimeUnit.SECONDS)).isNull();
+    }//testPublishCooldown_ReachesOtherNodesOnly
+
+
+    @Test
+    void testStart_LoadsUnexpiredCooldowns() throws Exception {
+        Instant expiresAt = Instant.now().plusSeconds(3600).truncatedTo(ChronoUnit.MILLIS);
+        jdbcTemplate.update("INSERT INTO model_cooldowns (combo_key, expires_at) VALUES (?, ?)",
+                "abcd1234:gemini-pro", Timestamp.from(expiresAt));
+        jdbcTemplate.update("INSERT INTO model_cooldowns (combo_key, expires_at) VALUES (?, ?)",
+                "abcd1234:gemini-old", Timestamp.from(Instant.now().minusSeconds(60)));
+
+        Node nodeB = startNode("node-b");
+
+        Object received = nodeB.inbox().poll(10, TimeUnit.SECONDS);
+        assertThat(received).isEqualTo(new ClusterLimitSync.CooldownFlagged("abcd1234:gemini-pro", expiresAt));
+        assertThat(nodeB.inbox().poll(1, TimeUnit.SECONDS)).isNull();
+    }//testStart_LoadsUnexpiredCooldowns
+
+
+    private Node startNode(String nodeId) {
+        RateLimitService limiter = new RateLimitService(10_000);
+        BlockingQueue<Object> inbox = new LinkedBlockingQueue<>();
+        ClusterLimitSync sync = new ClusterLimitSync(dataSource, jdbcTemplate, inbox::add, limiter, true, nodeId,
+                1_000, Clock.systemUTC());
+        sync.start();
+        // First poll only records what peers had already granted
+        sync.flush();
+        nodes.add(sync);
+        return new Node(sync, limiter, inbox);
+    }//startNode
+
+}//ClusterLimitSyncTest
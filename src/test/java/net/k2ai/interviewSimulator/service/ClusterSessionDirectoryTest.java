@@ -0,0 +1,144 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.testutil.AbstractIntegrationTest;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs several directory "nodes" against the one shared Testcontainers Postgres,
+ * each with its own node id and event inbox, to exercise cross-node routing.
+ */
+@SpringBootTest
+@Testcontainers
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class ClusterSessionDirectoryTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<ClusterSessionDirectory> nodes = new ArrayList<>();
+
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM cluster_messages");
+        jdbcTemplate.update("DELETE FROM live_sessions");
+        jdbcTemplate.update("DELETE FROM cluster_nodes");
+    }//setUp
+
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ClusterSessionDirectory::stop);
+        nodes.clear();
+    }//tearDown
+
+
+    @Test
+    void testRoute_DeliversToNodeHoldingSocket() throws Exception {
+        BlockingQueue<Object> inboxA = new LinkedBlockingQueue<>();
+        BlockingQueue<Object> inboxB = new LinkedBlockingQueue<>();
+        ClusterSessionDirectory nodeA = startNode("node-a", inboxA);
+        ClusterSessionDirectory nodeB = startNode("node-b", inboxB);
+
+        nodeA.register("ws-1");
+        boolean routed = nodeB.route("ws-1", "/queue/report", Map.of("overallScore", 87));
+
+        assertThat(routed).isTrue();
+        Object received = inboxA.poll(10, TimeUnit.SECONDS);
+        assertThat(received).isInstanceOf(ClusterSessionDirectory.RoutedMessage.class);
+        ClusterSessionDirectory.RoutedMessage message = (ClusterSessionDirectory.RoutedMessage) received;
+        assertThat(message.wsSessionId()).isEqualTo("ws-1");
+        assertThat(message.destination()).isEqualTo("/queue/report");
+        assertThat(message.payload()).containsEntry("overallScore", 87);
+        assertThat(inboxB).isEmpty();
+    }//testRoute_DeliversToNodeHoldingSocket
+
+
+    @Test
+    void testRoute_ThreeNodesEachReceiveOnlyTheirOwnMessages() throws Exception {
+        BlockingQueue<Object> inboxA = new LinkedBlockingQueue<>();
+        BlockingQueue<Object> inboxB = new LinkedBlockingQueue<>();
+        BlockingQueue<Object> inboxC = new LinkedBlockingQueue<>();
+        ClusterSessionDirectory nodeA = startNode("node-a", inboxA);
+        ClusterSessionDirectory nodeB = startNode("node-b", inboxB);
+        ClusterSessionDirectory nodeC = startNode("node-c", inboxC);
+
+        nodeA.register("ws-a");
+        nodeB.register("ws-b");
+        nodeC.route("ws-a", "/queue/status", Map.of("type", "GRADING"));
+        nodeC.route("ws-b", "/queue/status", Map.of("type", "GRADING"));
+
+        assertThat(((ClusterSessionDirectory.RoutedMessage) inboxA.poll(10, TimeUnit.SECONDS)).wsSessionId()).isEqualTo("ws-a");
+        assertThat(((ClusterSessionDirectory.RoutedMessage) inboxB.poll(10, TimeUnit.SECONDS)).wsSessionId()).isEqualTo("ws-b");
+        assertThat(inboxC).isEmpty();
+        assertThat(nodeC.countLiveSessions()).isEqualTo(2);
+    }//testRoute_ThreeNodesEachReceiveOnlyTheirOwnMessages
+
+
+    @Test
+    void testRoute_UnknownSocketIsDropped() {
+        ClusterSessionDirectory node = startNode("node-a", new LinkedBlockingQueue<>());
+
+        assertThat(node.route("ws-missing", "/queue/report", Map.of())).isFalse();
+    }//testRoute_UnknownSocketIsDropped
+
+
+    @Test
+    void testUnregister_RemovesRoute() {
+        ClusterSessionDirectory nodeA = startNode("node-a", new LinkedBlockingQueue<>());
+        ClusterSessionDirectory nodeB = startNode("node-b", new LinkedBlockingQueue<>());
+
+        nodeA.register("ws-1");
+        nodeA.unregister("ws-1");
+
+        assertThat(nodeA.isLocal("ws-1")).isFalse();
+        assertThat(nodeB.route("ws-1", "/queue/report", Map.of())).isFalse();
+    }//testUnregister_RemovesRoute
+
+
+    @Test
+    void testHeartbeat_ReapsNodesSilentByTheDatabaseClock() {
+        ClusterSessionDirectory nodeA = startNode("node-a", new LinkedBlockingQueue<>());
+        ClusterSessionDirectory nodeB = startNode("node-b", new LinkedBlockingQueue<>());
+        nodeB.register("ws-1");
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        jdbcTemplate.update("UPDATE cluster_nodes SET heartbeat_at = NOW() - INTERVAL '5 minutes' WHERE node_id = 'node-b'");
+
+        nodeA.heartbeat();
+
+        assertThat(jdbcTemplate.queryForList("SELECT node_id FROM cluster_nodes", String.class))
+                .containsExactly("node-a");
+        assertThat(nodeA.route("ws-1", "/queue/report", Map.of())).isFalse();
+    }//testHeartbeat_ReapsNodesSilentByTheDatabaseClock
+
+
+    private ClusterSessionDirectory startNode(String nodeId, BlockingQueue<Object> inbox) {
+        ClusterSessionDirectory node = new ClusterSessionDirectory(dataSource, jdbcTemplate, inbox::add, true, nodeId);
+        node.start();
+        nodes.add(node);
+        return node;
+    }//startNode
+
+}//ClusterSessionDirectoryTest
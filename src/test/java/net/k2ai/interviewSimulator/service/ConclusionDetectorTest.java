@@ -0,0 +1,172 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class ConclusionDetectorTest {
+
+    // The regex list the automaton replaced, kept as the reference behaviour
+    private static final List<Pattern> LEGACY_PATTERNS = List.of(
+            Pattern.compile("thank you for your time", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("that concludes our interview", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("we have all the information we need", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("thank you for coming in", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("we('ll| will) be in touch", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("this concludes", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("end of (the |our |this )?interview", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("that('s| is) all (the questions |)I have", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("best of luck", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("good luck with", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("it was (nice|great|a pleasure) (meeting|talking)", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("благодаря (ви |)за (отделеното |)време", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("интервюто приключи", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("това е всичко от мен", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("ще се свържем с вас", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("успех", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("приятно ми беше", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("довиждане", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("нямам повече въпроси", Pattern.CASE_INSENSITIVE)
+    );
+
+    private static final String[] WORDS = {
+            "thank", "you", "for", "your", "time", "that", "concludes", "our", "interview", "we'll", "we",
+            "will", "be", "in", "touch", "this", "end", "of", "the", "that's", "is", "all", "questions", "I",
+            "have", "best", "luck", "good", "with", "it", "was", "nice", "great", "a", "pleasure", "meeting",
+            "talking", "благодаря", "ви", "за", "отделеното", "време", "успех", "довиждане", "интервюто",
+            "приключи", "?", "[END_INTERVIEW]", "Java", "Spring", "thankyou", "concl"
+    };
+
+
+    private static boolean legacyConcluding(String text) {
+        if (text.contains(ConclusionDetector.END_SIGNAL)) {
+            return true;
+        }
+        return LEGACY_PATTERNS.stream().anyMatch(p -> p.matcher(text).find());
+    }//legacyConcluding
+
+
+    @Test
+    void testMatchesLegacyRegexesOnRandomSentences() {
+        Random random = new Random(42);
+
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder sb = new StringBuilder();
+            int words = 1 + random.nextInt(8);
+            for (int i = 0; i < words; i++) {
+                if (i > 0 && random.nextInt(10) != 0) {
+                    sb.append(' ');
+                }
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            String text = sb.toString();
+
+            ConclusionDetector detector = ConclusionDetector.scan(text);
+
+            assertThat(detector.isConcluding()).as(text).isEqualTo(legacyConcluding(text));
+            assertThat(detector.hasQuestion()).as(text).isEqualTo(text.contains("?"));
+        }
+    }//testMatchesLegacyRegexesOnRandomSentences
+
+
+    @Test
+    void testEveryPhraseIsDetected() {
+        for (String phrase : ConclusionDetector.CONCLUSION_PHRASES) {
+            assertThat(ConclusionDetector.scan("Okay. " + phrase + ".").isConcluding()).as(phrase).isTrue();
+        }
+    }//testEveryPhraseIsDetected
+
+
+    @Test
+    void testPhraseSplitAtEveryBoundaryIsDetected() {
+        String text = "Great answer. Thank you for your time today.";
+
+        for (int split = 0; split <= text.length(); split++) {
+            ConclusionDetector detector = new ConclusionDetector();
+            detector.feed(text.substring(0, split));
+            detector.feed(text.substring(split));
+
+            assertThat(detector.isConcluding()).as("split at %d", split).isTrue();
+            assertThat(detector.getMatchedPhrase()).isEqualTo("thank you for your time");
+        }
+    }//testPhraseSplitAtEveryBoundaryIsDetected
+
+
+    @Test
+    void testCharByCharFeedMatchesOneShotScan() {
+        String text = "Интервюто приключи. Довиждане!";
+        ConclusionDetector detector = new ConclusionDetector();
+
+        for (int i = 0; i < text.length(); i++) {
+            detector.feed(String.valueOf(text.charAt(i)));
+        }
+
+        assertThat(detector.getSignals()).isEqualTo(ConclusionDetector.scan(text).getSignals());
+        assertThat(detector.getLength()).isEqualTo(text.length());
+    }//testCharByCharFeedMatchesOneShotScan
+
+
+    @Test
+    void testCapitalisedCyrillicIsDetected() {
+        assertThat(ConclusionDetector.scan("УСПЕХ!").isConcluding()).isTrue();
+        assertThat(ConclusionDetector.scan("Благодаря Ви за отделеното време.").isConcluding()).isTrue();
+    }//testCapitalisedCyrillicIsDetected
+
+
+    @Test
+    void testTypographicApostropheIsDetected() {
+        assertThat(ConclusionDetector.scan("We’ll be in touch soon.").isConcluding()).isTrue();
+        assertThat(ConclusionDetector.scan("That’s all I have for you.").isConcluding()).isTrue();
+    }//testTypographicApostropheIsDetected
+
+
+    @Test
+    void testOrdinaryQuestionIsNotConcluding() {
+        ConclusionDetector detector = ConclusionDetector.scan("How would you design a REST API for bookings?");
+
+        assertThat(detector.isConcluding()).isFalse();
+        assertThat(detector.hasQuestion()).isTrue();
+        assertThat(detector.getMatchedPhrase()).isNull();
+    }//testOrdinaryQuestionIsNotConcluding
+
+
+    @Test
+    void testFeedReturnsEachSignalOnlyOnce() {
+        ConclusionDetector detector = new ConclusionDetector();
+
+        assertThat(detector.feed("Any questions? ")).isEqualTo(ConclusionDetector.QUESTION);
+        assertThat(detector.feed("Best of luck")).isEqualTo(ConclusionDetector.CONCLUSION);
+        assertThat(detector.feed(" and best of luck again?")).isZero();
+        assertThat(detector.getSignals()).isEqualTo(ConclusionDetector.CONCLUSION | ConclusionDetector.QUESTION);
+    }//testFeedReturnsEachSignalOnlyOnce
+
+
+    @Test
+    void testResetClearsState() {
+        ConclusionDetector detector = new ConclusionDetector();
+        detector.feed("Thank you for your ");
+        detector.reset();
+        detector.feed("time management skills are key.");
+
+        assertThat(detector.isConcluding()).isFalse();
+        assertThat(detector.getSignals()).isZero();
+        assertThat(detector.getLength()).isEqualTo("time management skills are key.".length());
+    }//testResetClearsState
+
+
+    @Test
+    void testNullFragmentIsIgnored() {
+        ConclusionDetector detector = new ConclusionDetector();
+
+        assertThat(detector.feed(null)).isZero();
+        assertThat(detector.getLength()).isZero();
+    }//testNullFragmentIsIgnored
+
+}//ConclusionDetectorTest
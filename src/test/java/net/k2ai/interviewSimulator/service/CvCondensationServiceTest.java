@@ -0,0 +1,173 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class CvCondensationServiceTest {
+
+    private static final String CV = """
+            Curriculum Vitae
+            Jane Doe
+            jane.doe@example.com | +359 888 123 456
+            https://github.com/janedoe
+
+            Summary
+            Backend engineer with six years of Java experience.
+
+            Experience:
+            Senior Engineer, Acme Corp      2019 - 2023
+            •   Built   the payment service in Spring Boot
+            •   Cut p95 latency by 40%
+            Page 1 of 2
+            Jane Doe
+            Engineer, Widgets Ltd     2016 - 2019
+            •   Built   the payment service in Spring Boot
+
+            Education
+            BSc Computer Science, Sofia University
+            Page 2 of 2
+
+            References available upon request.
+            I hereby consent to the processing of my personal data.
+            """;
+
+    private CvCondensationService condensationService;
+
+
+    @BeforeEach
+    void setUp() {
+        condensationService = new CvCondensationService(3000, 16);
+    }//setUp
+
+
+    // ===== Compaction Tests =====
+
+    @Test
+    void testCondense_RemovesBoilerplateAndContactLines() {
+        String condensed = condensationService.condense(CV);
+
+        assertThat(condensed)
+                .doesNotContain("Curriculum Vitae")
+                .doesNotContain("jane.doe@example.com")
+                .doesNotContain("github.com")
+                .doesNotContain("Page 1")
+                .doesNotContain("References available")
+                .doesNotContain("personal data");
+        assertThat(condensed).contains("Jane Doe", "BSc Computer Science, Sofia University");
+    }//testCondense_RemovesBoilerplateAndContactLines
+
+
+    @Test
+    void testCondense_NormalisesWhitespaceAndBullets() {
+        String condensed = condensationService.condense(CV);
+
+        assertThat(condensed).contains("- Built the payment service in Spring Boot");
+        assertThat(condensed).contains("Senior Engineer, Acme Corp 2019 - 2023");
+        assertThat(condensed).doesNotContain("  ");
+    }//testCondense_NormalisesWhitespaceAndBullets
+
+
+    @Test
+    void testCondense_KeepsRepeatedLinesOnce() {
+        String condensed = condensationService.condense(CV);
+
+        assertThat(condensed.split("Built the payment service", -1)).hasSize(2);
+        assertThat(condensed.split("Jane Doe", -1)).hasSize(2);
+    }//testCondense_KeepsRepeatedLinesOnce
+
+
+    @Test
+    void testCondense_KeepsSectionHeadingsWithoutColon() {
+        String condensed = condensationService.condense(CV);
+
+        assertThat(condensed).contains("Summary\n", "Experience\n", "Education\n");
+        assertThat(condensed.indexOf("Experience")).isLessThan(condensed.indexOf("Education"));
+    }//testCondense_KeepsSectionHeadingsWithoutColon
+
+
+    @Test
+    void testCondense_RecognisesBulgarianHeadingsAndDropsPersonalSection() {
+        String cv = """
+                Автобиография
+                Лична информация
+                Дата на раждане: 01.01.1990
+                Професионален опит
+                Java разработчик в Акме ООД
+                Образование
+                Софийски университет
+                Страница 1 от 1
+                """;
+
+        String condensed = condensationService.condense(cv);
+
+        assertThat(condensed).isEqualTo("""
+                Професионален опит
+                Java разработчик в Акме ООД
+
+                Образование
+                Софийски университет""");
+    }//testCondense_RecognisesBulgarianHeadingsAndDropsPersonalSection
+
+
+    // ===== Budget Tests =====
+
+    @Test
+    void testCondense_StaysWithinTokenBudgetAndPrefersExperience() {
+        CvCondensationService small = new CvCondensationService(200, 16);
+        StringBuilder cv = new StringBuilder("Interests\n");
+        for (int i = 0; i < 40; i++) {
+            cv.append("Hobby number ").append(i).append(" is reading about distributed systems\n");
+        }
+        cv.append("Experience\n");
+        for (int i = 0; i < 40; i++) {
+            cv.append("- Delivered project ").append(i).append(" on time with a team of five\n");
+        }
+
+        String condensed = small.condense(cv.toString());
+
+        assertThat(CvCondensationService.estimateTokens(condensed)).isLessThanOrEqualTo(200);
+        assertThat(condensed).endsWith(CvCondensationService.OMITTED_NOTE);
+        // Every section keeps its opening lines, the rest goes to experience first
+        assertThat(condensed).contains("Hobby number 0", "Hobby number 1").doesNotContain("Hobby number 2 ");
+        assertThat(condensed).contains("- Delivered project 5 ");
+        assertThat(condensed.indexOf("Interests")).isLessThan(condensed.indexOf("Experience"));
+    }//testCondense_StaysWithinTokenBudgetAndPrefersExperience
+
+
+    @Test
+    void testCondense_IsIdempotent() {
+        CvCondensationService small = new CvCondensationService(60, 16);
+        String once = small.condense(CV.repeat(3) + "Skills\n" + "- Java, Spring, SQL\n".repeat(2) + "- Kafka\n- Docker\n- AWS\n");
+
+        assertThat(small.condenseUncached(once)).isEqualTo(once);
+    }//testCondense_IsIdempotent
+
+
+    // ===== Cache Tests =====
+
+    @Test
+    void testCondense_CachesByContentHash() {
+        String first = condensationService.condense(CV);
+        String second = condensationService.condense(new String(CV.toCharArray()));
+        // The condensed CV returned by the browser at interview start
+        String third = condensationService.condense(first);
+
+        assertThat(second).isSameAs(first);
+        assertThat(third).isSameAs(first);
+        assertThat(condensationService.getCacheMisses()).isEqualTo(1);
+        assertThat(condensationService.getCacheHits()).isEqualTo(2);
+    }//testCondense_CachesByContentHash
+
+
+    @Test
+    void testCondense_NullOrBlankReturnedUnchanged() {
+        assertThat(condensationService.condense(null)).isNull();
+        assertThat(condensationService.condense("  ")).isEqualTo("  ");
+    }//testCondense_NullOrBlankReturnedUnchanged
+
+}//CvCondensationServiceTest
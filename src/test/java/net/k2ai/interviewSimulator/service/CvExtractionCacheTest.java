@@ -0,0 +1,115 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class CvExtractionCacheTest {
+
+    // Mutable clock so TTL expiry can be stepped through
+    private static final class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }//getZone
+
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }//withZone
+
+
+        @Override
+        public Instant instant() {
+            return now;
+        }//instant
+
+    }//TestClock
+
+
+    private final TestClock clock = new TestClock();
+
+
+    @Test
+    void testGet_ReturnsCachedTextAndCountsHits() {
+        CvExtractionCache cache = new CvExtractionCache(1_000, Duration.ofMinutes(30), clock);
+        cache.put("hash-1", "cv text", "session-1");
+
+        assertThat(cache.get("hash-1", "session-1")).isEqualTo("cv text");
+        assertThat(cache.get("hash-2", "session-1")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }//testGet_ReturnsCachedTextAndCountsHits
+
+
+    @Test
+    void testGet_ExpiresAfterTtl() {
+        CvExtractionCache cache = new CvExtractionCache(1_000, Duration.ofMinutes(30), clock);
+        cache.put("hash-1", "cv text", "session-1");
+
+        clock.now = clock.now.plus(Duration.ofMinutes(30));
+
+        assertThat(cache.get("hash-1", "session-1")).isNull();
+        assertThat(cache.getTotalBytes()).isZero();
+    }//testGet_ExpiresAfterTtl
+
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedOverByteBudget() {
+        // 2 bytes per char: room for two 100-char entries
+        CvExtractionCache cache = new CvExtractionCache(400, Duration.ofMinutes(30), clock);
+        cache.put("hash-1", "a".repeat(100), "session-1");
+        cache.put("hash-2", "b".repeat(100), "session-1");
+        cache.get("hash-1", "session-1");
+
+        cache.put("hash-3", "c".repeat(100), "session-1");
+
+        assertThat(cache.get("hash-2", "session-1")).isNull();
+        assertThat(cache.get("hash-1", "session-1")).isNotNull();
+        assertThat(cache.get("hash-3", "session-1")).isNotNull();
+        assertThat(cache.getTotalBytes()).isEqualTo(400);
+    }//testPut_EvictsLeastRecentlyUsedOverByteBudget
+
+
+    @Test
+    void testPut_SkipsEntriesLargerThanBudget() {
+        CvExtractionCache cache = new CvExtractionCache(100, Duration.ofMinutes(30), clock);
+        cache.put("hash-1", "a".repeat(100), "session-1");
+
+        assertThat(cache.size()).isZero();
+    }//testPut_SkipsEntriesLargerThanBudget
+
+
+    @Test
+    void testEvictSession_DropsEntriesOnlyWhenNoOwnerIsLeft() {
+        CvExtractionCache cache = new CvExtractionCache(1_000, Duration.ofMinutes(30), clock);
+        cache.put("shared", "same cv", "session-1");
+        cache.get("shared", "session-2");
+        cache.put("own", "other cv", "session-1");
+
+        cache.evictSession("session-1");
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("shared", "session-2")).isEqualTo("same cv");
+
+        cache.evictSession("session-2");
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getTotalBytes()).isZero();
+    }//testEvictSession_DropsEntriesOnlyWhenNoOwnerIsLeft
+
+}//CvExtractionCacheTest
@@ -0,0 +1,165 @@
+package net.k2ai.interviewSimulator.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class CvHandleStoreTest {
+
+    // Mutable clock so TTL expiry can be stepped through
+    private static final class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }//getZone
+
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }//withZone
+
+
+        @Override
+        public Instant instant() {
+            return now;
+        }//instant
+
+    }//TestClock
+
+
+    private final TestClock clock = new TestClock();
+
+
+    @Test
+    void testStore_ReturnsOpaqueHandleThatResolvesToText() {
+        CvHandleStore store = new CvHandleStore(1_000, Duration.ofMinutes(30), clock);
+
+        String handle = store.store("Java developer");
+
+        assertThat(handle).hasSize(22).matches("[A-Za-z0-9_-]+").doesNotContain("Java");
+        assertThat(store.resolve(handle)).isEqualTo("Java developer");
+        assertThat(store.store("Java developer")).isNotEqualTo(handle);
+    }//testStore_ReturnsOpaqueHandleThatResolvesToText
+
+
+    @Test
+    void testResolve_UnknownOrMalformedHandleReturnsNull() {
+        CvHandleStore store = new CvHandleStore(1_000, Duration.ofMinutes(30), clock);
+        store.store("Java developer");
+
+        assertThat(store.resolve(null)).isNull();
+        assertThat(store.resolve("")).isNull();
+        assertThat(store.resolve("AAAAAAAAAAAAAAAAAAAAAA")).isNull();
+        assertThat(store.resolve("x".repeat(10_000))).isNull();
+    }//testResolve_UnknownOrMalformedHandleReturnsNull
+
+
+    @Test
+    void testResolve_ExpiresAfterTtl() {
+        CvHandleStore store = new CvHandleStore(1_000, Duration.ofMinutes(30), clock);
+        String handle = store.store("Java developer");
+
+        clock.now = clock.now.plus(Duration.ofMinutes(30));
+
+        assertThat(store.resolve(handle)).isNull();
+        assertThat(store.size()).isZero();
+        assertThat(store.getTotalBytes()).isZero();
+        assertThat(store.getExpiredCount()).isEqualTo(1);
+    }//testResolve_ExpiresAfterTtl
+
+
+    @Test
+    void testStore_EvictsLeastRecentlyUsedBeyondByteBudget() {
+        // Runs of one letter all compress to the same size
+        CvHandleStore probe = new CvHandleStore(Long.MAX_VALUE, Duration.ofMinutes(30), clock);
+        probe.store("a".repeat(100));
+        long entryBytes = probe.getTotalBytes();
+
+        CvHandleStore store = new CvHandleStore(2 * entryBytes, Duration.ofMinutes(30), clock);
+        String first = store.store("a".repeat(100));
+        String second = store.store("b".repeat(100));
+        store.resolve(first);
+
+        String third = store.store("c".repeat(100));
+
+        assertThat(store.resolve(second)).isNull();
+        assertThat(store.resolve(first)).isNotNull();
+        assertThat(store.resolve(third)).isNotNull();
+        assertThat(store.getTotalBytes()).isEqualTo(2 * entryBytes);
+        assertThat(store.getEvictedCount()).isEqualTo(1);
+    }//testStore_EvictsLeastRecentlyUsedBeyondByteBudget
+
+
+    @Test
+    void testStore_KeepsTextCompressed() {
+        CvHandleStore store = new CvHandleStore(1_000_000, Duration.ofMinutes(30), clock);
+        StringBuilder cv = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            cv.append("Senior Java developer - Spring Boot, PostgreSQL, Kubernetes. Опит ").append(i).append('\n');
+        }
+
+        String handle = store.store(cv.toString());
+
+        assertThat(store.resolve(handle)).isEqualTo(cv.toString());
+        assertThat(store.getRawBytes()).isEqualTo(cv.toString().getBytes(StandardCharsets.UTF_8).length);
+        assertThat(store.getTotalBytes()).isLessThan(store.getRawBytes() / 4);
+    }//testStore_KeepsTextCompressed
+
+
+    @Test
+    void testReleaseSession_DropsOnlyThatSessionsHandles() {
+        CvHandleStore store = new CvHandleStore(1_000, Duration.ofMinutes(30), clock);
+        String abandoned = store.store("Java developer", "http-session-1");
+        String other = store.store("Go developer", "http-session-2");
+
+        store.releaseSession("http-session-1");
+
+        assertThat(store.resolve(abandoned)).isNull();
+        assertThat(store.resolve(other)).isEqualTo("Go developer");
+        assertThat(store.size()).isEqualTo(1);
+    }//testReleaseSession_DropsOnlyThatSessionsHandles
+
+
+    @Test
+    void testBindTo_ExportsSizeMetrics() {
+        CvHandleStore store = new CvHandleStore(1_000, Duration.ofMinutes(30), clock);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+
+        store.store("Java developer");
+
+        assertThat(registry.get("cv.handles.entries").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("cv.handles.raw.bytes").gauge().value()).isEqualTo(14);
+        assertThat(registry.get("cv.handles.bytes").gauge().value()).isEqualTo(store.getTotalBytes());
+    }//testBindTo_ExportsSizeMetrics
+
+
+    @Test
+    void testRelease_DropsHandle() {
+        CvHandleStore store = new CvHandleStore(1_000, Duration.ofMinutes(30), clock);
+        String handle = store.store("Java developer");
+
+        store.release(handle);
+        store.release(null);
+
+        assertThat(store.resolve(handle)).isNull();
+        assertThat(store.getTotalBytes()).isZero();
+    }//testRelease_DropsHandle
+
+}//CvHandleStoreTest
@@ -0,0 +1,118 @@
+package net.k2ai.interviewSimulator.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.k2ai.interviewSimulator.exception.CvParserBusyException;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class CvParseExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private CvParseExecutor parseExecutor;
+
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (parseExecutor != null) {
+            parseExecutor.shutdown();
+        }
+    }//tearDown
+
+
+    // Occupies a parser thread until the test releases it
+    private CompletableFuture<String> blockingParse() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return parseExecutor.run("pdf", 10, deadline -> {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return "done";
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }//blockingParse
+
+
+    @Test
+    void testRun_ReturnsParseResult() throws IOException {
+        parseExecutor = new CvParseExecutor(1, 1, 5_000);
+
+        String text = parseExecutor.run("docx", 100, deadline -> "text");
+
+        assertThat(text).isEqualTo("text");
+    }//testRun_ReturnsParseResult
+
+
+    @Test
+    void testRun_RejectsWhenThreadsAndQueueAreFull() throws Exception {
+        parseExecutor = new CvParseExecutor(1, 1, 5_000);
+        CompletableFuture<String> running = blockingParse();
+        CompletableFuture<String> queued = blockingParse();
+        // Let both reach the pool before the third submission
+        Thread.sleep(200);
+
+        assertThatThrownBy(() -> parseExecutor.run("pdf", 10, deadline -> "never"))
+                .isInstanceOf(CvParserBusyException.class);
+        assertThat(parseExecutor.getRejectedCount()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+    }//testRun_RejectsWhenThreadsAndQueueAreFull
+
+
+    @Test
+    void testRun_StopsCooperativeParseAtDeadline() {
+        parseExecutor = new CvParseExecutor(1, 1, 200);
+
+        assertThatThrownBy(() -> parseExecutor.run("pdf", 10, deadline -> {
+            while (true) {
+                deadline.check();
+            }
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(parseExecutor.getTimedOutCount()).isEqualTo(1);
+    }//testRun_StopsCooperativeParseAtDeadline
+
+
+    @Test
+    void testRun_PropagatesParserErrors() {
+        parseExecutor = new CvParseExecutor(1, 1, 5_000);
+
+        assertThatThrownBy(() -> parseExecutor.run("docx", 10, deadline -> {
+            throw new IllegalArgumentException("Invalid DOCX file");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid DOCX file");
+    }//testRun_PropagatesParserErrors
+
+
+    @Test
+    void testRun_RecordsDurationAndSizeMetrics() throws IOException {
+        parseExecutor = new CvParseExecutor(1, 1, 5_000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        parseExecutor.bindTo(registry);
+
+        parseExecutor.run("pdf", 2048, deadline -> "text");
+
+        assertThat(registry.get("cv.parse.duration").tag("type", "pdf").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("cv.parse.size").tag("type", "pdf").summary().totalAmount()).isEqualTo(2048);
+    }//testRun_RecordsDurationAndSizeMetrics
+
+}//CvParseExecutorTest
@@ -0,0 +1,219 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class CvProcessingServiceTest {
+
+    private static final String DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    private final CvExtractionCache extractionCache = new CvExtractionCache(1024 * 1024, 30);
+
+    private final CvProcessingService cvProcessingService = new CvProcessingService(
+            extractionCache, new CvParseExecutor(1, 4, 30_000));
+
+
+    // Each page starts with "Marker page N" followed by linesPerPage lines of filler
+    private static MockMultipartFile pdf(int pages, int linesPerPage) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int p = 1; p <= pages; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 8);
+                    content.setLeading(9);
+                    content.newLineAtOffset(20, 770);
+                    content.showText("Marker page " + p);
+                    for (int i = 0; i < linesPerPage; i++) {
+                        content.newLine();
+                        content.showText("Experienced engineer building reliable backend services line " + i);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return new MockMultipartFile("file", "cv.pdf", "application/pdf", out.toByteArray());
+        }
+    }//pdf
+
+
+    private static MockMultipartFile docx(XWPFDocument document) throws IOException {
+        try (document; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            document.write(out);
+            return new MockMultipartFile("file", "cv.docx", DOCX, out.toByteArray());
+        }
+    }//docx
+
+
+    // ===== PDF Tests =====
+
+    @Test
+    void testExtractText_ReadsPdfText() throws IOException {
+        String text = cvProcessingService.extractText(pdf(2, 3));
+
+        assertThat(text).contains("Marker page 1", "Marker page 2", "backend services line 2");
+    }//testExtractText_ReadsPdfText
+
+
+    @Test
+    void testExtractText_StopsAtPageCap() throws IOException {
+        String text = cvProcessingService.extractText(pdf(55, 1));
+
+        assertThat(text).contains("Marker page 50").doesNotContain("Marker page 51");
+    }//testExtractText_StopsAtPageCap
+
+
+    @Test
+    void testExtractText_StopsAtCharacterLimit() throws IOException {
+        // ~80 lines x ~70 characters per page: the limit is hit around page 18
+        String text = cvProcessingService.extractText(pdf(40, 80));
+
+        assertThat(text.length()).isLessThanOrEqualTo(100_000);
+        assertThat(text).contains("Marker page 1").doesNotContain("Marker page 30");
+    }//testExtractText_StopsAtCharacterLimit
+
+
+    // ===== DOCX Tests =====
+
+    @Test
+    void testExtractText_MatchesPoiParagraphText() throws IOException {
+        XWPFDocument document = new XWPFDocument();
+        document.createParagraph().createRun().setText("Jane Doe");
+        XWPFParagraph summary = document.createParagraph();
+        summary.createRun().setText("Backend engineer, ");
+        summary.createRun().setText("six years of Java.");
+        document.createParagraph().createRun().setText("Софийски университет");
+
+        String text = cvProcessingService.extractText(docx(document));
+
+        assertThat(text).isEqualTo("Jane Doe\nBackend engineer, six years of Java.\nСофийски университет");
+    }//testExtractText_MatchesPoiParagraphText
+
+
+    @Test
+    void testExtractText_IncludesTablesInDocumentOrder() throws IOException {
+        XWPFDocument document = new XWPFDocument();
+        document.createParagraph().createRun().setText("Experience");
+        XWPFTable table = document.createTable(2, 2);
+        table.getRow(0).getCell(0).setText("2019 - 2023");
+        table.getRow(0).getCell(1).setText("Senior Engineer, Acme");
+        table.getRow(1).getCell(0).setText("2016 - 2019");
+        table.getRow(1).getCell(1).setText("Engineer, Widgets");
+        document.createParagraph().createRun().setText("Education");
+
+        String text = cvProcessingService.extractText(docx(document));
+
+        assertThat(text).containsSubsequence("Experience", "2019 - 2023", "Senior Engineer, Acme",
+                "2016 - 2019", "Engineer, Widgets", "Education");
+        assertThat(text.lines()).anyMatch(line -> line.contains("2019 - 2023") && line.contains("Senior Engineer, Acme"));
+    }//testExtractText_IncludesTablesInDocumentOrder
+
+
+    @Test
+    void testExtractText_StopsDocxAtCharacterLimit() throws IOException {
+        XWPFDocument document = new XWPFDocument();
+        for (int i = 0; i < 2_000; i++) {
+            document.createParagraph().createRun().setText("Experienced engineer building reliable backend services " + i);
+        }
+
+        String text = cvProcessingService.extractText(docx(document));
+
+        assertThat(text.length()).isLessThanOrEqualTo(100_000);
+        assertThat(text).contains("services 0").doesNotContain("services 1999");
+    }//testExtractText_StopsDocxAtCharacterLimit
+
+
+    @Test
+    void testExtractText_RejectsZipWithoutDocumentBody() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("readme.txt"));
+            zip.write("hello".getBytes());
+            zip.closeEntry();
+        }
+        MockMultipartFile notDocx = new MockMultipartFile("file", "cv.docx", DOCX, out.toByteArray());
+
+        assertThatThrownBy(() -> cvProcessingService.extractText(notDocx))
+                .isInstanceOf(IllegalArgumentException.class);
+    }//testExtractText_RejectsZipWithoutDocumentBody
+
+
+    // ===== Extraction Cache Tests =====
+
+    @Test
+    void testExtractText_RepeatUploadInSessionSkipsParsing() throws IOException {
+        MockMultipartFile file = pdf(2, 3);
+
+        String first = cvProcessingService.extractText(file, "http-session-1");
+        String second = cvProcessingService.extractText(file, "http-session-1");
+
+        assertThat(second).isSameAs(first);
+        assertThat(extractionCache.getMisses()).isEqualTo(1);
+        assertThat(extractionCache.getHits()).isEqualTo(1);
+    }//testExtractText_RepeatUploadInSessionSkipsParsing
+
+
+    @Test
+    void testExtractText_WithoutSessionIsNotCached() throws IOException {
+        cvProcessingService.extractText(pdf(2, 3));
+
+        assertThat(extractionCache.size()).isZero();
+    }//testExtractText_WithoutSessionIsNotCached
+
+
+    @Test
+    void testExtractText_RejectsSpoofedPdf() {
+        MockMultipartFile fake = new MockMultipartFile("file", "cv.pdf", "application/pdf", "not a pdf".getBytes());
+
+        assertThatThrownBy(() -> cvProcessingService.extractText(fake))
+                .isInstanceOf(IllegalArgumentException.class);
+    }//testExtractText_RejectsSpoofedPdf
+
+
+    // ===== Chunked Upload Tests =====
+
+    @Test
+    void testExtractText_ChunkedUploadMatchesMultipartAndDeletesFile() throws IOException {
+        MockMultipartFile file = pdf(2, 3);
+        byte[] bytes = file.getBytes();
+        CvUploadService uploadService = new CvUploadService(1024, Duration.ofMinutes(15), 4, Clock.systemUTC());
+        CvUploadService.UploadStatus status = uploadService.start("cv.pdf", "application/pdf", bytes.length, "s1");
+        for (int offset = 0; offset < bytes.length; offset += 1024) {
+            int length = Math.min(1024, bytes.length - offset);
+            uploadService.append(status.uploadId(), "s1", offset, new ByteArrayInputStream(bytes, offset, length));
+        }
+        CvUploadService.CompletedUpload upload = uploadService.complete(status.uploadId(), "s1");
+
+        String text = cvProcessingService.extractText(upload, "s1");
+
+        assertThat(text).isEqualTo(cvProcessingService.extractText(file));
+        assertThat(upload.path()).doesNotExist();
+        // Same content hash as the multipart path, so a repeat upload is a cache hit
+        assertThat(cvProcessingService.extractText(file, "s1")).isSameAs(text);
+    }//testExtractText_ChunkedUploadMatchesMultipartAndDeletesFile
+
+}//CvProcessingServiceTest
@@ -0,0 +1,255 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.exception.CvParserBusyException;
+import net.k2ai.interviewSimulator.exception.CvUploadOffsetException;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class CvUploadServiceTest {
+
+    private static final String PDF = "application/pdf";
+
+    private static final String SESSION = "http-session-1";
+
+    // Mutable clock so the idle timeout can be stepped through
+    private static final class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }//getZone
+
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }//withZone
+
+
+        @Override
+        public Instant instant() {
+            return now;
+        }//instant
+
+    }//TestClock
+
+
+    private final TestClock clock = new TestClock();
+
+    private final CvUploadService uploadService = new CvUploadService(100, Duration.ofMinutes(15), 4, clock);
+
+    private Path completedFile;
+
+
+    @AfterEach
+    void tearDown() throws IOException {
+        uploadService.deleteAll();
+        if (completedFile != null) {
+            Files.deleteIfExists(completedFile);
+        }
+    }//tearDown
+
+
+    // "%PDF" followed by filler up to the given size
+    private static byte[] pdfBytes(int size) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) 'x');
+        System.arraycopy("%PDF".getBytes(), 0, bytes, 0, 4);
+        return bytes;
+    }//pdfBytes
+
+
+    private static long countPartialFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(f -> f.getFileName().toString().startsWith("cv-chunked-")).count();
+        }
+    }//countPartialFiles
+
+
+    private static InputStream chunk(byte[] bytes, int offset, int length) {
+        return new ByteArrayInputStream(bytes, offset, length);
+    }//chunk
+
+
+    @Test
+    void testAppend_AssemblesFileWithContentHash() throws Exception {
+        byte[] bytes = pdfBytes(250);
+        CvUploadService.UploadStatus status = uploadService.start("cv.pdf", PDF, 250, SESSION);
+
+        uploadService.append(status.uploadId(), SESSION, 0, chunk(bytes, 0, 100));
+        uploadService.append(status.uploadId(), SESSION, 100, chunk(bytes, 100, 100));
+        CvUploadService.UploadStatus last = uploadService.append(status.uploadId(), SESSION, 200, chunk(bytes, 200, 50));
+        CvUploadService.CompletedUpload upload = uploadService.complete(status.uploadId(), SESSION);
+        completedFile = upload.path();
+
+        assertThat(last.isComplete()).isTrue();
+        assertThat(Files.readAllBytes(upload.path())).isEqualTo(bytes);
+        assertThat(upload.sha256()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)));
+        assertThat(upload.fileName()).isEqualTo("cv.pdf");
+        assertThat(uploadService.getOpenUploadCount()).isZero();
+    }//testAppend_AssemblesFileWithContentHash
+
+
+    @Test
+    void testAppend_WrongOffsetReportsReceivedOffset() throws IOException {
+        byte[] bytes = pdfBytes(250);
+        CvUploadService.UploadStatus status = uploadService.start("cv.pdf", PDF, 250, SESSION);
+        uploadService.append(status.uploadId(), SESSION, 0, chunk(bytes, 0, 100));
+
+        // A retried chunk whose first attempt did arrive
+        assertThatThrownBy(() -> uploadService.append(status.uploadId(), SESSION, 0, chunk(bytes, 0, 100)))
+                .isInstanceOf(CvUploadOffsetException.class)
+                .extracting(e -> ((CvUploadOffsetException) e).getExpectedOffset())
+                .isEqualTo(100L);
+        assertThat(uploadService.status(status.uploadId(), SESSION)).get()
+                .extracting(CvUploadService.UploadStatus::offset).isEqualTo(100L);
+    }//testAppend_WrongOffsetReportsReceivedOffset
+
+
+    @Test
+    void testAppend_InterruptedChunkKeepsBytesAlreadyWritten() throws IOException {
+        byte[] bytes = pdfBytes(150);
+        CvUploadService.UploadStatus status = uploadService.start("cv.pdf", PDF, 150, SESSION);
+        InputStream dropped = new InputStream() {
+            private int sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent == 60) {
+                    throw new IOException("Connection reset");
+                }
+                return bytes[sent++];
+            }
+        };
+
+        assertThatThrownBy(() -> uploadService.append(status.uploadId(), SESSION, 0, dropped))
+                .isInstanceOf(IOException.class);
+        long offset = uploadService.status(status.uploadId(), SESSION).orElseThrow().offset();
+        uploadService.append(status.uploadId(), SESSION, offset, chunk(bytes, (int) offset, 150 - (int) offset));
+        CvUploadService.CompletedUpload upload = uploadService.complete(status.uploadId(), SESSION);
+        completedFile = upload.path();
+
+        assertThat(Files.readAllBytes(upload.path())).isEqualTo(bytes);
+    }//testAppend_InterruptedChunkKeepsBytesAlreadyWritten
+
+
+    @Test
+    void testAppend_SpoofedFirstChunkDiscardsUpload() throws IOException {
+        CvUploadService.UploadStatus status = uploadService.start("cv.pdf", PDF, 50, SESSION);
+
+        assertThatThrownBy(() -> uploadService.append(status.uploadId(), SESSION, 0,
+                new ByteArrayInputStream("PK\u0003\u0004 not a pdf".getBytes())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid PDF");
+        assertThat(uploadService.status(status.uploadId(), SESSION)).isEmpty();
+        assertThat(uploadService.getOpenUploadCount()).isZero();
+    }//testAppend_SpoofedFirstChunkDiscardsUpload
+
+
+    @Test
+    void testAppend_RejectsChunkBeyondChunkSizeOrDeclaredSize() throws IOException {
+        byte[] bytes = pdfBytes(150);
+        CvUploadService.UploadStatus status = uploadService.start("cv.pdf", PDF, 120, SESSION);
+
+        assertThatThrownBy(() -> uploadService.append(status.uploadId(), SESSION, 0, chunk(bytes, 0, 150)))
+                .isInstanceOf(IllegalArgumentException.class);
+        uploadService.append(status.uploadId(), SESSION, 0, chunk(bytes, 0, 100));
+        // Only 20 bytes are left of the declared 120
+        assertThatThrownBy(() -> uploadService.append(status.uploadId(), SESSION, 100, chunk(bytes, 100, 50)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }//testAppend_RejectsChunkBeyondChunkSizeOrDeclaredSize
+
+
+    @Test
+    void testUpload_BelongsToStartingSession() throws IOException {
+        byte[] bytes = pdfBytes(50);
+        CvUploadService.UploadStatus status = uploadService.start("cv.pdf", PDF, 50, SESSION);
+
+        assertThat(uploadService.status(status.uploadId(), "other-session")).isEmpty();
+        assertThatThrownBy(() -> uploadService.append(status.uploadId(), "other-session", 0, chunk(bytes, 0, 50)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> uploadService.complete(status.uploadId(), "other-session"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }//testUpload_BelongsToStartingSession
+
+
+    @Test
+    void testComplete_RejectsIncompleteUpload() throws IOException {
+        byte[] bytes = pdfBytes(150);
+        CvUploadService.UploadStatus status = uploadService.start("cv.pdf", PDF, 150, SESSION);
+        uploadService.append(status.uploadId(), SESSION, 0, chunk(bytes, 0, 100));
+
+        assertThatThrownBy(() -> uploadService.complete(status.uploadId(), SESSION))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("incomplete");
+    }//testComplete_RejectsIncompleteUpload
+
+
+    @Test
+    void testStart_ValidatesTypeAndSize() {
+        assertThatThrownBy(() -> uploadService.start("cv.exe", "application/octet-stream", 100, SESSION))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> uploadService.start("cv.pdf", PDF, 11 * 1024 * 1024, SESSION))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> uploadService.start("cv.pdf", PDF, 0, SESSION))
+                .isInstanceOf(IllegalArgumentException.class);
+    }//testStart_ValidatesTypeAndSize
+
+
+    @Test
+    void testStart_ReplacesSessionsOpenUploadAndCapsOpenUploads() throws IOException {
+        uploadService.start("old.pdf", PDF, 50, SESSION);
+        uploadService.start("new.pdf", PDF, 50, SESSION);
+        uploadService.start("cv.pdf", PDF, 50, "s2");
+        uploadService.start("cv.pdf", PDF, 50, "s3");
+        uploadService.start("cv.pdf", PDF, 50, "s4");
+
+        assertThat(uploadService.getOpenUploadCount()).isEqualTo(4);
+        assertThatThrownBy(() -> uploadService.start("cv.pdf", PDF, 50, "s5"))
+                .isInstanceOf(CvParserBusyException.class);
+    }//testStart_ReplacesSessionsOpenUploadAndCapsOpenUploads
+
+
+    @Test
+    void testPurgeIdleUploads_DeletesPartialFiles() throws Exception {
+        byte[] bytes = pdfBytes(150);
+        CvUploadService.UploadStatus idle = uploadService.start("cv.pdf", PDF, 150, SESSION);
+        uploadService.append(idle.uploadId(), SESSION, 0, chunk(bytes, 0, 100));
+        CvUploadService.UploadStatus active = uploadService.start("cv.pdf", PDF, 150, "s2");
+
+        clock.now = clock.now.plus(Duration.ofMinutes(10));
+        uploadService.append(active.uploadId(), "s2", 0, chunk(bytes, 0, 100));
+        clock.now = clock.now.plus(Duration.ofMinutes(5));
+        long partialFiles = countPartialFiles();
+        uploadService.purgeIdleUploads();
+
+        assertThat(uploadService.status(idle.uploadId(), SESSION)).isEmpty();
+        assertThat(uploadService.status(active.uploadId(), "s2")).isPresent();
+        assertThat(countPartialFiles()).isEqualTo(partialFiles - 1);
+    }//testPurgeIdleUploads_DeletesPartialFiles
+
+}//CvUploadServiceTest
@@ -0,0 +1,202 @@
+package net.k2ai.interviewSimulator.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.k2ai.interviewSimulator.config.GeminiConfig;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class GeminiContextCacheServiceTest {
+
+    private HttpServer server;
+
+    private GeminiConfig geminiConfig;
+
+    // "METHOD path" of every request the mock endpoint received
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private volatile int createStatus = 200;
+
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1beta/cachedContents", this::handle);
+        server.start();
+
+        geminiConfig = new GeminiConfig();
+        geminiConfig.setApiBaseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta");
+    }//setUp
+
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }//tearDown
+
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        requests.add(method + " " + path);
+        exchange.getRequestBody().readAllBytes();
+
+        if ("POST".equals(method)) {
+            respond(exchange, createStatus, createStatus == 200
+                    ? "{\"name\": \"cachedContents/rubric-" + requests.size() + "\"}"
+                    : "{\"error\": {\"code\": 400, \"message\": \"Cached content is too small\"}}");
+        } else {
+            respond(exchange, 200, "{}");
+        }
+    }//handle
+
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }//respond
+
+
+    private GeminiContextCacheService newService(long ttlSeconds, long refreshBeforeSeconds) {
+        // No size minimum, so the short test rubrics are cacheable
+        return new GeminiContextCacheService(geminiConfig, true, ttlSeconds, refreshBeforeSeconds, 60, 0, 100);
+    }//newService
+
+
+    @Test
+    void testResolve_CreatesOnceAndReuses() {
+        GeminiContextCacheService cache = newService(3600, 300);
+
+        String first = cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric");
+        String second = cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric");
+
+        assertThat(first).isEqualTo("cachedContents/rubric-1");
+        assertThat(second).isEqualTo(first);
+        assertThat(requests).containsExactly("POST /v1beta/cachedContents");
+    }//testResolve_CreatesOnceAndReuses
+
+
+    @Test
+    void testResolve_KeepsSeparateEntriesPerLanguageModelAndKey() {
+        GeminiContextCacheService cache = newService(3600, 300);
+
+        cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric");
+        cache.resolve("key-1", "gemini-2.5-flash", "bg", "рубрика");
+        cache.resolve("key-1", "gemini-3-flash-preview", "en", "rubric");
+        cache.resolve("key-2", "gemini-2.5-flash", "en", "rubric");
+
+        assertThat(requests).hasSize(4);
+    }//testResolve_KeepsSeparateEntriesPerLanguageModelAndKey
+
+
+    @Test
+    void testResolve_ExtendsTtlWhenCloseToExpiry() {
+        // Refresh window as long as the TTL: every later resolve is "close to expiry"
+        GeminiContextCacheService cache = newService(3600, 3600);
+
+        String name = cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric");
+        String again = cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric");
+
+        assertThat(again).isEqualTo(name);
+        assertThat(requests).containsExactly(
+                "POST /v1beta/cachedContents",
+                "PATCH /v1beta/" + name);
+    }//testResolve_ExtendsTtlWhenCloseToExpiry
+
+
+    @Test
+    void testResolve_FallsBackAndRemembersUnsupportedModel() {
+        createStatus = 400;
+        GeminiContextCacheService cache = newService(3600, 300);
+
+        assertThat(cache.resolve("key-1", "gemma-4-31b-it", "en", "rubric")).isNull();
+        assertThat(cache.resolve("key-1", "gemma-4-31b-it", "en", "rubric")).isNull();
+
+        assertThat(requests).containsExactly("POST /v1beta/cachedContents");
+    }//testResolve_FallsBackAndRemembersUnsupportedModel
+
+
+    @Test
+    void testResolve_FallsBackOnTransientErrorAndRetriesNextTime() {
+        createStatus = 503;
+        GeminiContextCacheService cache = newService(3600, 300);
+
+        assertThat(cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric")).isNull();
+
+        createStatus = 200;
+        assertThat(cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric")).isNotNull();
+        assertThat(requests).hasSize(2);
+    }//testResolve_FallsBackOnTransientErrorAndRetriesNextTime
+
+
+    @Test
+    void testInvalidate_RecreatesEntry() {
+        GeminiContextCacheService cache = newService(3600, 300);
+
+        String first = cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric");
+        cache.invalidate("key-1", "gemini-2.5-flash", "en");
+        String second = cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric");
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(requests).hasSize(2);
+    }//testInvalidate_RecreatesEntry
+
+
+    @Test
+    void testResolve_ReturnsNullWhenDisabled() {
+        GeminiContextCacheService cache = new GeminiContextCacheService(geminiConfig, false, 3600, 300, 60, 0, 100);
+
+        assertThat(cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric")).isNull();
+        assertThat(requests).isEmpty();
+    }//testResolve_ReturnsNullWhenDisabled
+
+
+    @Test
+    void testResolve_SkipsRubricBelowMinimumTokens() {
+        GeminiContextCacheService cache = new GeminiContextCacheService(geminiConfig, true, 3600, 300, 60, 1024, 100);
+
+        assertThat(cache.resolve("key-1", "gemini-2.5-flash", "en", "r".repeat(2_000))).isNull();
+        assertThat(cache.resolve("key-1", "gemini-2.5-flash", "en", "r".repeat(5_000))).isNotNull();
+        assertThat(requests).hasSize(1);
+    }//testResolve_SkipsRubricBelowMinimumTokens
+
+
+    @Test
+    void testResolve_SkipsUserKeysInProdMode() {
+        geminiConfig.setAppMode("PROD");
+        GeminiContextCacheService cache = newService(3600, 300);
+
+        assertThat(cache.resolve("user-key", "gemini-2.5-flash", "en", "rubric")).isNull();
+        assertThat(requests).isEmpty();
+    }//testResolve_SkipsUserKeysInProdMode
+
+
+    @Test
+    void testResolve_FallsBackInlineWhenFull() {
+        GeminiContextCacheService cache = new GeminiContextCacheService(geminiConfig, true, 3600, 300, 60, 0, 2);
+
+        cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric");
+        cache.resolve("key-2", "gemini-2.5-flash", "en", "rubric");
+
+        assertThat(cache.resolve("key-3", "gemini-2.5-flash", "en", "rubric")).isNull();
+        assertThat(cache.resolve("key-1", "gemini-2.5-flash", "en", "rubric")).isNotNull();
+        assertThat(requests).hasSize(2);
+    }//testResolve_FallsBackInlineWhenFull
+
+}//GeminiContextCacheServiceTest
@@ -0,0 +1,215 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.config.GeminiConfig;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class GeminiQuotaLedgerTest {
+
+    private static final String KEY = "AIzaSyA-ledger-key-0000001";
+
+    private GeminiConfig config;
+
+    private TestClock clock;
+
+    private GeminiQuotaLedger ledger;
+
+
+    private static final class TestClock extends Clock {
+
+        private long millis = Instant.parse("2026-01-01T12:00:00Z").toEpochMilli();
+
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }//getZone
+
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }//withZone
+
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }//instant
+
+
+        @Override
+        public long millis() {
+            return millis;
+        }//millis
+
+
+        void advanceSeconds(long seconds) {
+            millis += seconds * 1000;
+        }//advanceSeconds
+
+    }//TestClock
+
+
+    @BeforeEach
+    void setUp() {
+        config = new GeminiConfig();
+        clock = new TestClock();
+        ledger = new GeminiQuotaLedger(config, clock);
+    }//setUp
+
+
+    @Test
+    void testTryAcquire_UnlistedModelIsNotLimited() {
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(ledger.tryAcquire(KEY, "unlisted", 1_000_000)).isTrue();
+        }
+        assertThat(ledger.millisUntilAvailable(KEY, "unlisted", 1_000_000)).isZero();
+    }//testTryAcquire_UnlistedModelIsNotLimited
+
+
+    @Test
+    void testTryAcquire_RequestsPerMinuteSlideWithTheWindow() {
+        limit("model", 2, 0, 0);
+
+        assertThat(ledger.tryAcquire(KEY, "model", 0)).isTrue();
+        clock.advanceSeconds(30);
+        assertThat(ledger.tryAcquire(KEY, "model", 0)).isTrue();
+        assertThat(ledger.tryAcquire(KEY, "model", 0)).isFalse();
+        assertThat(ledger.tryAcquire("another-key", "model", 0)).isTrue();
+
+        assertThat(ledger.millisUntilAvailable(KEY, "model", 0)).isEqualTo(30_000);
+        clock.advanceSeconds(30);
+        assertThat(ledger.tryAcquire(KEY, "model", 0)).isTrue();
+        assertThat(ledger.tryAcquire(KEY, "model", 0)).isFalse();
+    }//testTryAcquire_RequestsPerMinuteSlideWithTheWindow
+
+
+    @Test
+    void testTryAcquire_TokenEstimateIsCorrectedByActualUsage() {
+        limit("model", 0, 10_000, 0);
+
+        assertThat(ledger.tryAcquire(KEY, "model", 6_000)).isTrue();
+        assertThat(ledger.tryAcquire(KEY, "model", 6_000)).isFalse();
+
+        // The call only used 3,000 of its 6,000 estimated tokens
+        ledger.recordTokens(KEY, "model", -3_000);
+        assertThat(ledger.tryAcquire(KEY, "model", 6_000)).isTrue();
+    }//testTryAcquire_TokenEstimateIsCorrectedByActualUsage
+
+
+    @Test
+    void testTryAcquire_OversizedCallStillRunsOnIdleKey() {
+        limit("model", 0, 10_000, 0);
+
+        assertThat(ledger.tryAcquire(KEY, "model", 50_000)).isTrue();
+        assertThat(ledger.tryAcquire(KEY, "model", 1)).isFalse();
+        assertThat(ledger.millisUntilAvailable(KEY, "model", 1)).isEqualTo(60_000);
+    }//testTryAcquire_OversizedCallStillRunsOnIdleKey
+
+
+    @Test
+    void testHasLiveCapacity_CountsSessionsAndTokens() {
+        limit("live", 0, 20_000, 2);
+
+        ledger.acquireLive(KEY, "live");
+        assertThat(ledger.hasLiveCapacity(KEY, "live")).isTrue();
+        ledger.acquireLive(KEY, "live");
+        assertThat(ledger.hasLiveCapacity(KEY, "live")).isFalse();
+
+        ledger.releaseLive(KEY, "live");
+        assertThat(ledger.hasLiveCapacity(KEY, "live")).isTrue();
+        ledger.recordTokens(KEY, "live", 20_000);
+        assertThat(ledger.hasLiveCapacity(KEY, "live")).isFalse();
+        clock.advanceSeconds(61);
+        assertThat(ledger.hasLiveCapacity(KEY, "live")).isTrue();
+    }//testHasLiveCapacity_CountsSessionsAndTokens
+
+
+    @Test
+    void testTryAcquireLive_TakesOnlyTheFreeSlots() {
+        limit("live", 0, 0, 2);
+
+        assertThat(ledger.tryAcquireLive(KEY, "live")).isTrue();
+        assertThat(ledger.tryAcquireLive(KEY, "live")).isTrue();
+        assertThat(ledger.tryAcquireLive(KEY, "live")).isFalse();
+
+        ledger.releaseLive(KEY, "live");
+        assertThat(ledger.tryAcquireLive(KEY, "live")).isTrue();
+        assertThat(ledger.tryAcquireLive(KEY, "unlisted-live")).isTrue();
+    }//testTryAcquireLive_TakesOnlyTheFreeSlots
+
+
+    @Test
+    void testTryAcquireLive_ConcurrentCallersNeverOvershootTheLimit() throws Exception {
+        limit("live", 0, 0, 3);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        CountDownLatch go = new CountDownLatch(1);
+        for (int i = 0; i < 50; i++) {
+            results.add(pool.submit(() -> {
+                go.await();
+                return ledger.tryAcquireLive(KEY, "live");
+            }));
+        }
+
+        go.countDown();
+        int acquired = 0;
+        for (Future<Boolean> result : results) {
+            acquired += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertThat(acquired).isEqualTo(3);
+    }//testTryAcquireLive_ConcurrentCallersNeverOvershootTheLimit
+
+
+    @Test
+    void testCleanup_KeepsKeysWithOpenLiveSessions() {
+        limit("live", 1, 0, 1);
+        ledger.acquireLive(KEY, "live");
+        ledger.tryAcquire("idle-key", "live", 0);
+        clock.advanceSeconds(120);
+
+        ledger.cleanup();
+
+        assertThat(ledger.hasLiveCapacity(KEY, "live")).isFalse();
+        assertThat(ledger.tryAcquire("idle-key", "live", 0)).isTrue();
+    }//testCleanup_KeepsKeysWithOpenLiveSessions
+
+
+    @Test
+    void testTryAcquire_DisabledLedgerLimitsNothing() {
+        limit("model", 1, 0, 0);
+        config.getQuota().setEnabled(false);
+
+        assertThat(ledger.tryAcquire(KEY, "model", 0)).isTrue();
+        assertThat(ledger.tryAcquire(KEY, "model", 0)).isTrue();
+    }//testTryAcquire_DisabledLedgerLimitsNothing
+
+
+    private void limit(String model, int rpm, long tpm, int liveSessions) {
+        GeminiConfig.ModelLimits limits = new GeminiConfig.ModelLimits();
+        limits.setRpm(rpm);
+        limits.setTpm(tpm);
+        limits.setLiveSessions(liveSessions);
+        config.getQuota().getModels().put(model, limits);
+    }//limit
+
+}//GeminiQuotaLedgerTest
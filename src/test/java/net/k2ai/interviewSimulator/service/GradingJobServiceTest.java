@@ -0,0 +1,200 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.entity.GradingJob;
+import net.k2ai.interviewSimulator.repository.GradingJobRepository;
+import net.k2ai.interviewSimulator.testutil.AbstractIntegrationTest;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+@TestPropertySource(properties = {
+        // Keep the background worker out of the way so the test drives claims itself
+        "app.grading.poll-interval-ms=3600000",
+        "app.grading.max-attempts=2"
+})
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class GradingJobServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private GradingJobService gradingJobService;
+
+    @Autowired
+    private GradingJobRepository jobRepository;
+
+    @Autowired
+    private InterviewService interviewService;
+
+
+    @BeforeEach
+    void setUp() {
+        jobRepository.deleteAll();
+    }//setUp
+
+
+    @Test
+    void testEnqueue_StoresTranscriptEncrypted() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+
+        UUID jobId = gradingJobService.enqueue(sessionId, "ws-1", "[Candidate]: secret answer", "key", "en");
+
+        GradingJob job = jobRepository.findById(jobId).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(GradingJob.STATUS_PENDING);
+        assertThat(new String(job.getPayload(), StandardCharsets.UTF_8)).doesNotContain("secret answer");
+    }//testEnqueue_StoresTranscriptEncrypted
+
+
+    @Test
+    void testClaim_ReturnsDecryptedJobAndMarksRunning() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        gradingJobService.enqueue(sessionId, "ws-1", "[Candidate]: hello", "user-key", "en");
+
+        List<GradingJobService.ClaimedJob> claimed = gradingJobService.claim(10);
+
+        assertThat(claimed).hasSize(1);
+        assertThat(claimed.get(0).transcript()).isEqualTo("[Candidate]: hello");
+        assertThat(claimed.get(0).apiKey()).isEqualTo("user-key");
+        assertThat(claimed.get(0).attempt()).isEqualTo(1);
+        assertThat(claimed.get(0).payloadLost()).isFalse();
+        assertThat(jobRepository.findById(claimed.get(0).jobId()).orElseThrow().getStatus())
+                .isEqualTo(GradingJob.STATUS_RUNNING);
+    }//testClaim_ReturnsDecryptedJobAndMarksRunning
+
+
+    @Test
+    void testClaim_FlagsUndecryptablePayloadAsLost() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        UUID jobId = gradingJobService.enqueue(sessionId, "ws-1", "[Candidate]: hello", "user-key", "en");
+        GradingJob job = jobRepository.findById(jobId).orElseThrow();
+        // As if written before a restart with a per-process key
+        job.getPayload()[job.getPayload().length - 1] ^= 1;
+        jobRepository.save(job);
+
+        GradingJobService.ClaimedJob claimed = gradingJobService.claim(1).get(0);
+
+        assertThat(claimed.payloadLost()).isTrue();
+        assertThat(claimed.transcript()).isNull();
+        assertThat(gradingJobService.fail(claimed.jobId(), "lost", false)).isFalse();
+        assertThat(jobRepository.existsById(jobId)).isFalse();
+    }//testClaim_FlagsUndecryptablePayloadAsLost
+
+
+    @Test
+    void testFailUndecryptable_ReleasesJobUnderPerProcessKey() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        UUID jobId = gradingJobService.enqueue(sessionId, "ws-1", "[Candidate]: hello", "user-key", "en");
+        GradingJob job = jobRepository.findById(jobId).orElseThrow();
+        // Tests run without a configured key, so another process may still read it
+        job.getPayload()[job.getPayload().length - 1] ^= 1;
+        jobRepository.save(job);
+        GradingJobService.ClaimedJob claimed = gradingJobService.claim(1).get(0);
+
+        assertThat(gradingJobService.failUndecryptable(claimed.jobId())).isTrue();
+        GradingJob released = jobRepository.findById(jobId).orElseThrow();
+        assertThat(released.getStatus()).isEqualTo(GradingJob.STATUS_PENDING);
+        assertThat(released.getAttempts()).isZero();
+        assertThat(gradingJobService.claim(1)).isEmpty();
+    }//testFailUndecryptable_ReleasesJobUnderPerProcessKey
+
+
+    @Test
+    void testClaim_DoesNotHandOutRunningJobsTwice() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        gradingJobService.enqueue(sessionId, "ws-1", "transcript", null, "en");
+
+        assertThat(gradingJobService.claim(10)).hasSize(1);
+        assertThat(gradingJobService.claim(10)).isEmpty();
+    }//testClaim_DoesNotHandOutRunningJobsTwice
+
+
+    @Test
+    void testComplete_DeletesJob() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        gradingJobService.enqueue(sessionId, "ws-1", "transcript", null, "en");
+        GradingJobService.ClaimedJob job = gradingJobService.claim(1).get(0);
+
+        gradingJobService.complete(job.jobId());
+
+        assertThat(jobRepository.existsById(job.jobId())).isFalse();
+        assertThat(gradingJobService.hasPendingJob(sessionId)).isFalse();
+    }//testComplete_DeletesJob
+
+
+    @Test
+    void testFail_ReschedulesThenGivesUp() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        gradingJobService.enqueue(sessionId, "ws-1", "transcript", null, "en");
+        GradingJobService.ClaimedJob job = gradingJobService.claim(1).get(0);
+
+        assertThat(gradingJobService.fail(job.jobId(), "boom")).isTrue();
+        GradingJob rescheduled = jobRepository.findById(job.jobId()).orElseThrow();
+        assertThat(rescheduled.getStatus()).isEqualTo(GradingJob.STATUS_PENDING);
+        assertThat(rescheduled.getLastError()).isEqualTo("boom");
+        // Backoff pushes the next attempt into the future
+        assertThat(gradingJobService.claim(1)).isEmpty();
+
+        rescheduled.setNextAttemptAt(rescheduled.getCreatedAt());
+        jobRepository.save(rescheduled);
+        GradingJobService.ClaimedJob retry = gradingJobService.claim(1).get(0);
+
+        assertThat(retry.attempt()).isEqualTo(2);
+        assertThat(gradingJobService.fail(retry.jobId(), "boom again")).isFalse();
+        assertThat(jobRepository.existsById(retry.jobId())).isFalse();
+    }//testFail_ReschedulesThenGivesUp
+
+
+    @Test
+    void testDefer_ReschedulesWithoutUsingAnAttempt() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        gradingJobService.enqueue(sessionId, "ws-1", "transcript", null, "en");
+        GradingJobService.ClaimedJob job = gradingJobService.claim(1).get(0);
+
+        gradingJobService.defer(job.jobId(), 60_000);
+
+        GradingJob deferred = jobRepository.findById(job.jobId()).orElseThrow();
+        assertThat(deferred.getStatus()).isEqualTo(GradingJob.STATUS_PENDING);
+        assertThat(deferred.getAttempts()).isZero();
+        assertThat(gradingJobService.claim(1)).isEmpty();
+
+        deferred.setNextAttemptAt(deferred.getCreatedAt());
+        jobRepository.save(deferred);
+        assertThat(gradingJobService.claim(1).get(0).attempt()).isEqualTo(1);
+    }//testDefer_ReschedulesWithoutUsingAnAttempt
+
+
+    @Test
+    void testEnqueueWithHold_IsNotClaimedByWorkersUntilReleased() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        UUID jobId = gradingJobService.enqueue(sessionId, "ws-1", "transcript", null, "en", 60_000);
+
+        assertThat(gradingJobService.claim(10)).isEmpty();
+
+        gradingJobService.releaseHeld(jobId);
+
+        assertThat(gradingJobService.claim(10)).extracting(GradingJobService.ClaimedJob::jobId).containsExactly(jobId);
+    }//testEnqueueWithHold_IsNotClaimedByWorkersUntilReleased
+
+
+    @Test
+    void testClaimHeld_SucceedsOnlyWhileJobIsPending() {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        UUID jobId = gradingJobService.enqueue(sessionId, "ws-1", "transcript", null, "en", 60_000);
+
+        assertThat(gradingJobService.claimHeld(jobId)).isTrue();
+        assertThat(gradingJobService.claimHeld(jobId)).isFalse();
+        assertThat(jobRepository.findById(jobId).orElseThrow().getStatus()).isEqualTo(GradingJob.STATUS_RUNNING);
+    }//testClaimHeld_SucceedsOnlyWhileJobIsPending
+
+}//GradingJobServiceTest
@@ -0,0 +1,243 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.exception.LiveCapacityException;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class InterviewAdmissionServiceTest {
+
+    private ClientMessagingService messaging;
+
+    private List<String> started;
+
+
+    @BeforeEach
+    void setUp() {
+        messaging = mock(ClientMessagingService.class);
+        started = new ArrayList<>();
+    }//setUp
+
+
+    @Test
+    void testSubmit_StartsImmediatelyWhenUnderBudget() {
+        InterviewAdmissionService admission = newService(2, 60_000);
+
+        submit(admission, "ws-1", "1.1.1.1");
+        submit(admission, "ws-2", "1.1.1.2");
+
+        assertThat(started).containsExactly("ws-1", "ws-2");
+        assertThat(admission.getLiveCount()).isEqualTo(2);
+        assertThat(admission.getQueueLength()).isZero();
+    }//testSubmit_StartsImmediatelyWhenUnderBudget
+
+
+    @Test
+    void testSubmit_QueuesWhenBudgetExhaustedAndAdmitsOnRelease() {
+        InterviewAdmissionService admission = newService(1, 60_000);
+
+        submit(admission, "ws-1", "1.1.1.1");
+        submit(admission, "ws-2", "1.1.1.2");
+
+        assertThat(started).containsExactly("ws-1");
+        assertThat(admission.getQueueLength()).isEqualTo(1);
+        verify(messaging).send(eq("ws-2"), eq("/queue/status"),
+                argThat(payload -> "QUEUED".equals(payload.get("type")) && Integer.valueOf(1).equals(payload.get("position"))));
+
+        admission.release("ws-1");
+
+        assertThat(started).containsExactly("ws-1", "ws-2");
+        assertThat(admission.getQueueLength()).isZero();
+    }//testSubmit_QueuesWhenBudgetExhaustedAndAdmitsOnRelease
+
+
+    @Test
+    void testRelease_AdmitsRoundRobinAcrossIps() {
+        InterviewAdmissionService admission = newService(1, 60_000);
+        submit(admission, "ws-0", "9.9.9.9");
+
+        // One busy network queues three, then a second network queues one
+        submit(admission, "a-1", "1.1.1.1");
+        submit(admission, "a-2", "1.1.1.1");
+        submit(admission, "a-3", "1.1.1.1");
+        submit(admission, "b-1", "2.2.2.2");
+
+        admission.release("ws-0");
+        admission.release("a-1");
+        admission.release("b-1");
+        admission.release("a-2");
+
+        assertThat(started).containsExactly("ws-0", "a-1", "b-1", "a-2", "a-3");
+    }//testRelease_AdmitsRoundRobinAcrossIps
+
+
+    @Test
+    void testSubmit_RejectsBeyondPerIpQueueLimit() {
+        InterviewAdmissionService admission = new InterviewAdmissionService(messaging, 1, 100, 1, 60_000, Runnable::run);
+        submit(admission, "ws-0", "9.9.9.9");
+        submit(admission, "a-1", "1.1.1.1");
+
+        submit(admission, "a-2", "1.1.1.1");
+
+        assertThat(admission.getQueueLength()).isEqualTo(1);
+        verify(messaging).send(eq("a-2"), eq("/queue/error"), argThat(payload -> Boolean.TRUE.equals(payload.get("busy"))));
+    }//testSubmit_RejectsBeyondPerIpQueueLimit
+
+
+    @Test
+    void testRelease_RemovesWaiterThatDisconnected() {
+        InterviewAdmissionService admission = newService(1, 60_000);
+        submit(admission, "ws-1", "1.1.1.1");
+        submit(admission, "ws-2", "1.1.1.2");
+
+        admission.release("ws-2");
+        admission.release("ws-1");
+
+        assertThat(started).containsExactly("ws-1");
+        assertThat(admission.getLiveCount()).isZero();
+    }//testRelease_RemovesWaiterThatDisconnected
+
+
+    @Test
+    void testFailedStart_HandsSlotToNextWaiter() {
+        InterviewAdmissionService admission = newService(1, 60_000);
+        submit(admission, "ws-1", "1.1.1.1");
+        admission.submit("ws-2", "1.1.1.2", () -> false);
+        submit(admission, "ws-3", "1.1.1.3");
+
+        admission.release("ws-1");
+
+        assertThat(started).containsExactly("ws-1", "ws-3");
+        assertThat(admission.getLiveCount()).isEqualTo(1);
+    }//testFailedStart_HandsSlotToNextWaiter
+
+
+    @Test
+    void testRelease_DoesNotRunStartsOnTheCallingThread() {
+        List<Runnable> executed = new ArrayList<>();
+        InterviewAdmissionService admission = new InterviewAdmissionService(messaging, 1, 100, 3, 60_000, executed::add);
+        submit(admission, "ws-1", "1.1.1.1");
+        submit(admission, "ws-2", "1.1.1.2");
+        executed.remove(0).run();
+
+        admission.release("ws-1");
+
+        assertThat(started).containsExactly("ws-1");
+        assertThat(executed).hasSize(1);
+        executed.remove(0).run();
+        assertThat(started).containsExactly("ws-1", "ws-2");
+    }//testRelease_DoesNotRunStartsOnTheCallingThread
+
+
+    @Test
+    void testFailedStarts_HandOverSlotsWithoutNesting() {
+        List<Runnable> executed = new ArrayList<>();
+        List<Integer> stackDepths = new ArrayList<>();
+        InterviewAdmissionService admission = new InterviewAdmissionService(messaging, 1, 100, 100, 60_000, executed::add);
+        submit(admission, "ws-0", "0.0.0.0");
+        executed.remove(0).run();
+        for (int i = 0; i < 20; i++) {
+            admission.submit("ws-fail-" + i, "10.0.0." + i, () -> stackDepths.add(Thread.currentThread().getStackTrace().length) && false);
+        }
+        submit(admission, "ws-last", "1.1.1.1");
+
+        admission.release("ws-0");
+        while (!executed.isEmpty()) {
+            executed.remove(0).run();
+        }
+
+        assertThat(started).containsExactly("ws-0", "ws-last");
+        assertThat(stackDepths).hasSize(20).containsOnly(stackDepths.get(0));
+        assertThat(admission.getLiveCount()).isEqualTo(1);
+    }//testFailedStarts_HandOverSlotsWithoutNesting
+
+
+    @Test
+    void testStartWithoutLiveCapacity_WaitsAtHeadUntilNextTick() {
+        InterviewAdmissionService admission = newService(2, 60_000);
+        AtomicBoolean capacity = new AtomicBoolean(false);
+        admission.submit("ws-1", "1.1.1.1", () -> {
+            if (!capacity.get()) {
+                throw new LiveCapacityException();
+            }
+            return started.add("ws-1");
+        });
+        submit(admission, "ws-2", "1.1.1.2");
+
+        assertThat(started).isEmpty();
+        assertThat(admission.getLiveCount()).isZero();
+        assertThat(admission.getQueueLength()).isEqualTo(2);
+        verify(messaging, never()).send(eq("ws-1"), eq("/queue/error"), any());
+
+        capacity.set(true);
+        admission.tick();
+
+        assertThat(started).containsExactly("ws-1", "ws-2");
+        assertThat(admission.getQueueLength()).isZero();
+    }//testStartWithoutLiveCapacity_WaitsAtHeadUntilNextTick
+
+
+    @Test
+    void testTick_ExpiresWaitersPastTimeout() {
+        InterviewAdmissionService admission = newService(1, -1);
+        submit(admission, "ws-1", "1.1.1.1");
+        submit(admission, "ws-2", "1.1.1.2");
+
+        admission.tick();
+
+        assertThat(admission.getQueueLength()).isZero();
+        verify(messaging).send(eq("ws-2"), eq("/queue/error"),
+                argThat(payload -> Boolean.TRUE.equals(payload.get("queueTimeout"))));
+    }//testTick_ExpiresWaitersPastTimeout
+
+
+    @Test
+    void testAdmitResumed_BypassesQueue() {
+        InterviewAdmissionService admission = newService(1, 60_000);
+        submit(admission, "ws-1", "1.1.1.1");
+
+        admission.admitResumed("ws-migrated");
+
+        assertThat(admission.getLiveCount()).isEqualTo(2);
+    }//testAdmitResumed_BypassesQueue
+
+
+    @Test
+    void testRejectWaiting_ClearsQueue() {
+        InterviewAdmissionService admission = newService(1, 60_000);
+        submit(admission, "ws-1", "1.1.1.1");
+        submit(admission, "ws-2", "1.1.1.2");
+
+        admission.rejectWaiting("restarting");
+
+        assertThat(admission.getQueueLength()).isZero();
+        verify(messaging).send(eq("ws-2"), eq("/queue/error"), eq(Map.of("message", "restarting", "draining", true)));
+    }//testRejectWaiting_ClearsQueue
+
+
+    private InterviewAdmissionService newService(int maxLive, long queueTimeoutMillis) {
+        // Runs starts on the calling thread so tests can assert right after submit/release
+        return new InterviewAdmissionService(messaging, maxLive, 100, 3, queueTimeoutMillis, Runnable::run);
+    }//newService
+
+
+    private void submit(InterviewAdmissionService admission, String wsSessionId, String clientIp) {
+        admission.submit(wsSessionId, clientIp, () -> started.add(wsSessionId));
+    }//submit
+
+}//InterviewAdmissionServiceTest
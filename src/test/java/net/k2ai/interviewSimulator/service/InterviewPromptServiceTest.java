@@ -4,6 +4,7 @@ import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -15,7 +16,9 @@ class InterviewPromptServiceTest {
 
     @BeforeEach
     void setUp() {
-        promptService = new InterviewPromptService();
+        PositionProfileService profileService = new PositionProfileService(
+                new DefaultResourceLoader(), event -> { }, "classpath:position-profiles.json", 64);
+        promptService = new InterviewPromptService(profileService);
     }//setUp
 
 
@@ -106,6 +109,68 @@ class InterviewPromptServiceTest {
     }//testGenerateInterviewerPrompt_BulgarianContainsFinalTurnNoQuestionInstruction
 
 
+    // ===== Compiled Template Tests =====
+
+    @Test
+    void testGenerateInterviewerPrompt_CompiledTemplatesMatchDirectRendering() {
+        String[] positions = {"Java Developer", "QA Engineer", "Project Manager", "Frontend Developer", "DevOps Engineer", "Chef"};
+        String[] difficulties = {"Easy", "Chill", "Standard", "Hard", "Stress"};
+        String[] lengths = {null, "Quick", "Standard", "Marathon"};
+        String[] cvTexts = {null, "  ", "Five years of Spring Boot."};
+
+        for (String language : new String[]{"en", "bg"}) {
+            for (String position : positions) {
+                for (String difficulty : difficulties) {
+                    for (String length : lengths) {
+                        for (String cvText : cvTexts) {
+                            String expected = promptService.generateInterviewerPromptUncached(
+                                    position, difficulty, language, cvText, "Alex", "Алекс", length);
+                            String actual = promptService.generateInterviewerPrompt(
+                                    position, difficulty, language, cvText, "Alex", "Алекс", length);
+
+                            assertThat(actual).as("%s/%s/%s/%s/%s", language, position, difficulty, length, cvText)
+                                    .isEqualTo(expected);
+                        }
+                    }
+                }
+            }
+        }
+    }//testGenerateInterviewerPrompt_CompiledTemplatesMatchDirectRendering
+
+
+    @Test
+    void testGenerateInterviewerPrompt_ReusesTemplateForSameCombination() {
+        promptService.generateInterviewerPrompt("Java Developer", "Standard", "en");
+        promptService.generateInterviewerPrompt("Senior Java Engineer", "Standard", "en");
+        promptService.generateInterviewerPrompt("Java Developer", "Hard", "en");
+
+        assertThat(promptService.getTemplateCacheMisses()).isEqualTo(2);
+        assertThat(promptService.getTemplateCacheHits()).isEqualTo(1);
+        assertThat(promptService.getTemplateCacheSize()).isEqualTo(2);
+    }//testGenerateInterviewerPrompt_ReusesTemplateForSameCombination
+
+
+    @Test
+    void testGenerateInterviewerPrompt_SplicesUserInputVerbatim() {
+        String cvText = "Raised uptime by 30%s and %n \uE000 markers";
+
+        String prompt = promptService.generateInterviewerPrompt("C%d Developer", "Standard", "en", cvText);
+
+        assertThat(prompt).contains("conducting a job interview for a C%d Developer position");
+        assertThat(prompt).contains(cvText);
+    }//testGenerateInterviewerPrompt_SplicesUserInputVerbatim
+
+
+    @Test
+    void testOnProfilesReloaded_ClearsTemplateCache() {
+        promptService.generateInterviewerPrompt("Java Developer", "Standard", "en");
+
+        promptService.onProfilesReloaded(new PositionProfileService.ProfilesReloadedEvent(6));
+
+        assertThat(promptService.getTemplateCacheSize()).isZero();
+    }//testOnProfilesReloaded_ClearsTemplateCache
+
+
     // ===== Interview Conclusion Detection Tests =====
 
     @Test
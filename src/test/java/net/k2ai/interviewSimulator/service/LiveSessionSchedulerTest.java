@@ -0,0 +1,207 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.config.GeminiConfig;
+import net.k2ai.interviewSimulator.repository.ModelCooldownRepository;
+import net.k2ai.interviewSimulator.service.LiveSessionScheduler.LivePlacement;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class LiveSessionSchedulerTest {
+
+    private GeminiConfig config;
+
+    private ModelCooldownRepository cooldownRepository;
+
+    private GeminiModelRotationService rotationService;
+
+    private LiveSessionScheduler scheduler;
+
+
+    @BeforeEach
+    void setUp() {
+        config = new GeminiConfig();
+        config.setAppMode("REVIEWER");
+        config.setReviewerKeys("key-aaaa,key-bbbb,key-cccc");
+        config.setLiveModels("live-primary,live-fallback");
+        GeminiQuotaLedger quotaLedger = new GeminiQuotaLedger(config);
+        cooldownRepository = mock(ModelCooldownRepository.class);
+        rotationService = new GeminiModelRotationService(config, mock(ClusterLimitSync.class), cooldownRepository,
+                quotaLedger);
+        scheduler = new LiveSessionScheduler(config, quotaLedger, rotationService);
+    }//setUp
+
+
+    @Test
+    void testPlace_SpreadsSessionsAcrossKeys() {
+        LivePlacement first = scheduler.place(null, Set.of());
+        LivePlacement second = scheduler.place(null, Set.of());
+        LivePlacement third = scheduler.place(null, Set.of());
+
+        assertThat(Set.of(first.apiKey(), second.apiKey(), third.apiKey()))
+                .containsExactlyInAnyOrder("key-aaaa", "key-bbbb", "key-cccc");
+        assertThat(first.model()).isEqualTo("live-primary");
+    }//testPlace_SpreadsSessionsAcrossKeys
+
+
+    @Test
+    void testPlace_SkipsRateLimitedKey() {
+        scheduler.reportRateLimited(new LivePlacement("key-aaaa", "live-primary"));
+
+        LivePlacement placement = scheduler.place(null, Set.of());
+
+        assertThat(placement.apiKey()).isNotEqualTo("key-aaaa");
+        assertThat(placement.model()).isEqualTo("live-primary");
+    }//testPlace_SkipsRateLimitedKey
+
+
+    @Test
+    void testReportRateLimited_CoolsDownThroughRotationServiceByFingerprint() {
+        scheduler.reportRateLimited(new LivePlacement("key-aaaa", "live-primary"));
+
+        assertThat(rotationService.isCoolingDown("key-aaaa", "live-primary")).isTrue();
+        assertThat(rotationService.isCoolingDown("key-aaaa", "live-fallback")).isFalse();
+        verify(cooldownRepository).upsert(argThat(comboKey -> !comboKey.contains("key-aaaa")), any());
+    }//testReportRateLimited_CoolsDownThroughRotationServiceByFingerprint
+
+
+    @Test
+    void testPlace_PrefersKeyWithFewerRecentRateLimitsOnTie() {
+        scheduler.reportRateLimited(new LivePlacement("key-aaaa", "live-fallback"));
+        scheduler.reportRateLimited(new LivePlacement("key-bbbb", "live-fallback"));
+
+        LivePlacement placement = scheduler.place(null, Set.of());
+
+        assertThat(placement).isEqualTo(new LivePlacement("key-cccc", "live-primary"));
+    }//testPlace_PrefersKeyWithFewerRecentRateLimitsOnTie
+
+
+    @Test
+    void testPlace_FallsBackToNextLiveModel() {
+        for (String key : new String[]{"key-aaaa", "key-bbbb", "key-cccc"}) {
+            scheduler.reportRateLimited(new LivePlacement(key, "live-primary"));
+        }
+
+        LivePlacement placement = scheduler.place(null, Set.of());
+
+        assertThat(placement.model()).isEqualTo("live-fallback");
+    }//testPlace_FallsBackToNextLiveModel
+
+
+    @Test
+    void testPlace_ReturnsNullWhenEverythingExcluded() {
+        Set<LivePlacement> all = Set.of(
+                new LivePlacement("key-aaaa", "live-primary"), new LivePlacement("key-aaaa", "live-fallback"),
+                new LivePlacement("key-bbbb", "live-primary"), new LivePlacement("key-bbbb", "live-fallback"),
+                new LivePlacement("key-cccc", "live-primary"), new LivePlacement("key-cccc", "live-fallback"));
+
+        assertThat(scheduler.place(null, all)).isNull();
+    }//testPlace_ReturnsNullWhenEverythingExcluded
+
+
+    @Test
+    void testPlace_ProdModeUsesUserKeyOnly() {
+        config.setAppMode("PROD");
+
+        assertThat(scheduler.place("user-key-1234", Set.of())).isEqualTo(new LivePlacement("user-key-1234", "live-primary"));
+        assertThat(scheduler.hasCandidateKey(null)).isFalse();
+    }//testPlace_ProdModeUsesUserKeyOnly
+
+
+    @Test
+    void testRebalance_KeepsHealthyPlacement() {
+        LivePlacement current = new LivePlacement("key-aaaa", "live-primary");
+        scheduler.acquire(current);
+        scheduler.acquire(current);
+
+        assertThat(scheduler.rebalance(current)).isEqualTo(current);
+    }//testRebalance_KeepsHealthyPlacement
+
+
+    @Test
+    void testRebalance_MovesOffRateLimitedKeyButKeepsModel() {
+        LivePlacement current = new LivePlacement("key-aaaa", "live-fallback");
+        scheduler.reportRateLimited(current);
+
+        LivePlacement moved = scheduler.rebalance(current);
+
+        assertThat(moved.apiKey()).isNotEqualTo("key-aaaa");
+        assertThat(moved.model()).isEqualTo("live-fallback");
+    }//testRebalance_MovesOffRateLimitedKeyButKeepsModel
+
+
+    @Test
+    void testPlace_SkipsKeysAtLiveSessionQuota() {
+        GeminiConfig.ModelLimits limits = new GeminiConfig.ModelLimits();
+        limits.setLiveSessions(1);
+        config.getQuota().getModels().put("live-primary", limits);
+        scheduler.acquire(new LivePlacement("key-aaaa", "live-primary"));
+        scheduler.acquire(new LivePlacement("key-bbbb", "live-primary"));
+        scheduler.acquire(new LivePlacement("key-cccc", "live-primary"));
+
+        LivePlacement placement = scheduler.place(null, Set.of());
+
+        assertThat(placement.model()).isEqualTo("live-fallback");
+        scheduler.release(new LivePlacement("key-bbbb", "live-primary"));
+        assertThat(scheduler.place(null, Set.of())).isEqualTo(new LivePlacement("key-bbbb", "live-primary"));
+    }//testPlace_SkipsKeysAtLiveSessionQuota
+
+
+    @Test
+    void testPlace_ReservesTheSlotItHandsOut() {
+        GeminiConfig.ModelLimits limits = new GeminiConfig.ModelLimits();
+        limits.setLiveSessions(1);
+        config.getQuota().getModels().put("live-primary", limits);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(scheduler.place(null, Set.of()).model()).isEqualTo("live-primary");
+        }
+        LivePlacement overflow = scheduler.place(null, Set.of());
+
+        assertThat(overflow.model()).isEqualTo("live-fallback");
+        scheduler.release(overflow);
+        assertThat(scheduler.getActiveSessions(overflow.apiKey())).isEqualTo(1);
+    }//testPlace_ReservesTheSlotItHandsOut
+
+
+    @Test
+    void testPlace_SkipsKeysOutOfTokensThisMinute() {
+        GeminiConfig.ModelLimits limits = new GeminiConfig.ModelLimits();
+        limits.setTpm(10_000);
+        config.getQuota().getModels().put("live-primary", limits);
+        scheduler.reportUsage(new LivePlacement("key-aaaa", "live-primary"), 10_000);
+        scheduler.reportUsage(new LivePlacement("key-bbbb", "live-primary"), 10_000);
+
+        assertThat(scheduler.place(null, Set.of())).isEqualTo(new LivePlacement("key-cccc", "live-primary"));
+    }//testPlace_SkipsKeysOutOfTokensThisMinute
+
+
+    @Test
+    void testRelease_NeverGoesNegative() {
+        LivePlacement placement = new LivePlacement("key-aaaa", "live-primary");
+        scheduler.acquire(placement);
+        scheduler.release(placement);
+        scheduler.release(placement);
+
+        assertThat(scheduler.getActiveSessions("key-aaaa")).isZero();
+    }//testRelease_NeverGoesNegative
+
+
+    @Test
+    void testPlacementToString_MasksApiKey() {
+        assertThat(new LivePlacement("AIzaSecretKey1234", "live-primary").toString())
+                .doesNotContain("AIzaSecret")
+                .endsWith("1234/live-primary");
+    }//testPlacementToString_MasksApiKey
+
+}//LiveSessionSchedulerTest
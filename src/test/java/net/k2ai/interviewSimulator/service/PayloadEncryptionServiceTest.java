@@ -0,0 +1,79 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class PayloadEncryptionServiceTest {
+
+
+    @Test
+    void testEncryptDecrypt_RoundTripsUnicode() {
+        PayloadEncryptionService service = new PayloadEncryptionService("test-secret");
+        String plaintext = "[Interviewer]: Здравейте! [Candidate]: Hello";
+
+        byte[] encrypted = service.encrypt(plaintext);
+
+        assertThat(new String(encrypted, StandardCharsets.UTF_8)).doesNotContain("Candidate");
+        assertThat(service.decrypt(encrypted)).isEqualTo(plaintext);
+    }//testEncryptDecrypt_RoundTripsUnicode
+
+
+    @Test
+    void testEncrypt_UsesFreshIvEachTime() {
+        PayloadEncryptionService service = new PayloadEncryptionService("test-secret");
+
+        assertThat(service.encrypt("same")).isNotEqualTo(service.encrypt("same"));
+    }//testEncrypt_UsesFreshIvEachTime
+
+
+    @Test
+    void testDecrypt_SameSecretOnAnotherInstanceWorks() {
+        byte[] encrypted = new PayloadEncryptionService("shared").encrypt("payload");
+
+        assertThat(new PayloadEncryptionService("shared").decrypt(encrypted)).isEqualTo("payload");
+    }//testDecrypt_SameSecretOnAnotherInstanceWorks
+
+
+    @Test
+    void testDecrypt_WrongKeyThrows() {
+        byte[] encrypted = new PayloadEncryptionService("one").encrypt("payload");
+
+        assertThatThrownBy(() -> new PayloadEncryptionService("two").decrypt(encrypted))
+                .isInstanceOf(IllegalStateException.class);
+    }//testDecrypt_WrongKeyThrows
+
+
+    @Test
+    void testDecrypt_TamperedPayloadThrows() {
+        PayloadEncryptionService service = new PayloadEncryptionService("test-secret");
+        byte[] encrypted = service.encrypt("payload");
+        encrypted[encrypted.length - 1] ^= 0x01;
+
+        assertThatThrownBy(() -> service.decrypt(encrypted))
+                .isInstanceOf(IllegalStateException.class);
+    }//testDecrypt_TamperedPayloadThrows
+
+
+    @Test
+    void testEphemeralKey_RoundTrips() {
+        PayloadEncryptionService service = new PayloadEncryptionService("");
+
+        assertThat(service.decrypt(service.encrypt("payload"))).isEqualTo("payload");
+    }//testEphemeralKey_RoundTrips
+
+
+    @Test
+    void testConstructor_ClusterWithoutKeyFails() {
+        assertThatThrownBy(() -> new PayloadEncryptionService("", true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.cluster.enabled");
+    }//testConstructor_ClusterWithoutKeyFails
+
+}//PayloadEncryptionServiceTest
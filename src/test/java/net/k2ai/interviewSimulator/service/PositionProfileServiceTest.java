@@ -0,0 +1,159 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class PositionProfileServiceTest {
+
+    private PositionProfileService profileService;
+
+    private final List<Object> events = new ArrayList<>();
+
+
+    @BeforeEach
+    void setUp() {
+        profileService = new PositionProfileService(
+                new DefaultResourceLoader(), events::add, "classpath:position-profiles.json", 4);
+    }//setUp
+
+
+    private static String profileFile(String keyword) {
+        return """
+                {
+                  "profiles": [
+                    {"id": "custom", "keywords": {"%s": 1}, "focus": {"en": ["Custom focus"], "bg": ["Фокус"]}}
+                  ],
+                  "default": {"id": "general", "focus": {"en": ["General focus"], "bg": ["Общ фокус"]}}
+                }
+                """.formatted(keyword);
+    }//profileFile
+
+
+    // ===== Matching Tests =====
+
+    @Test
+    void testResolve_MatchesBundledEnglishTitles() {
+        assertThat(profileService.resolve("Java Backend Developer").id()).isEqualTo("backend");
+        assertThat(profileService.resolve("QA Engineer").id()).isEqualTo("qa");
+        assertThat(profileService.resolve("Project Manager").id()).isEqualTo("management");
+        assertThat(profileService.resolve("Frontend Developer").id()).isEqualTo("frontend");
+        assertThat(profileService.resolve("DevOps Engineer").id()).isEqualTo("devops");
+        assertThat(profileService.resolve("Chef").id()).isEqualTo("general");
+    }//testResolve_MatchesBundledEnglishTitles
+
+
+    @Test
+    void testResolve_MatchesBulgarianTitlesRegardlessOfCase() {
+        assertThat(profileService.resolve("ТЕСТЕР на софтуер").id()).isEqualTo("qa");
+        assertThat(profileService.resolve("Ръководител проекти").id()).isEqualTo("management");
+        assertThat(profileService.resolve("Облачен инженер").id()).isEqualTo("devops");
+    }//testResolve_MatchesBulgarianTitlesRegardlessOfCase
+
+
+    @Test
+    void testResolve_NormalisesPunctuationAndAccents() {
+        assertThat(profileService.resolve("Front-End Engineer").id()).isEqualTo("frontend");
+        assertThat(profileService.resolve("  back_end   developer ").id()).isEqualTo("backend");
+        assertThat(profileService.resolve("Développeur React").id()).isEqualTo("frontend");
+    }//testResolve_NormalisesPunctuationAndAccents
+
+
+    @Test
+    void testResolve_MatchesWholeWordsOnly() {
+        // "ui" inside "build" and "pm" inside "npm" used to pick the wrong profile
+        assertThat(profileService.resolve("Build Engineer").id()).isEqualTo("general");
+        assertThat(profileService.resolve("npm maintainer").id()).isEqualTo("general");
+    }//testResolve_MatchesWholeWordsOnly
+
+
+    @Test
+    void testResolve_HighestWeightWins() {
+        // designer (4) + ux (4) outweighs ui (2)
+        assertThat(profileService.resolve("UI/UX Designer").id()).isEqualTo("design");
+        // java (3) outweighs data (2)
+        assertThat(profileService.resolve("Java Developer - Big Data").id()).isEqualTo("backend");
+    }//testResolve_HighestWeightWins
+
+
+    @Test
+    void testResolve_TieGoesToProfileListedFirst() {
+        // java (3) and qa (3): backend is listed before qa
+        assertThat(profileService.resolve("Java QA").id()).isEqualTo("backend");
+    }//testResolve_TieGoesToProfileListedFirst
+
+
+    @Test
+    void testResolve_NullOrBlankReturnsDefault() {
+        assertThat(profileService.resolve(null).id()).isEqualTo("general");
+        assertThat(profileService.resolve(" - ").id()).isEqualTo("general");
+    }//testResolve_NullOrBlankReturnsDefault
+
+
+    @Test
+    void testResolve_FocusTextIsNewlineTerminated() {
+        PositionProfile profile = profileService.resolve("QA Engineer");
+
+        assertThat(profile.focus(false)).startsWith("Focus areas for this QA role:\n").endsWith("\n");
+        assertThat(profile.focus(true)).startsWith("Фокусни области за тази QA роля:\n");
+    }//testResolve_FocusTextIsNewlineTerminated
+
+
+    // ===== Cache Tests =====
+
+    @Test
+    void testResolve_CacheIsBounded() {
+        for (int i = 0; i < 10; i++) {
+            profileService.resolve("Java Developer " + i);
+        }
+
+        assertThat(profileService.getResolvedCacheSize()).isEqualTo(4);
+    }//testResolve_CacheIsBounded
+
+
+    // ===== Reload Tests =====
+
+    @Test
+    void testReload_PicksUpChangedFileAndPublishesEvent(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("profiles.json");
+        Files.writeString(file, profileFile("pilot"));
+        PositionProfileService service = new PositionProfileService(
+                new DefaultResourceLoader(), events::add, file.toUri().toString(), 16);
+        assertThat(service.resolve("Airline Pilot").id()).isEqualTo("custom");
+
+        Files.writeString(file, profileFile("chef"));
+        assertThat(service.reload()).isTrue();
+
+        assertThat(service.resolve("Airline Pilot").id()).isEqualTo("general");
+        assertThat(service.resolve("Head Chef").id()).isEqualTo("custom");
+        assertThat(events).containsExactly(new PositionProfileService.ProfilesReloadedEvent(1));
+    }//testReload_PicksUpChangedFileAndPublishesEvent
+
+
+    @Test
+    void testReload_KeepsPreviousProfilesWhenFileIsInvalid(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("profiles.json");
+        Files.writeString(file, profileFile("pilot"));
+        PositionProfileService service = new PositionProfileService(
+                new DefaultResourceLoader(), events::add, file.toUri().toString(), 16);
+
+        Files.writeString(file, "{ not json");
+        assertThat(service.reload()).isFalse();
+
+        assertThat(service.resolve("Airline Pilot").id()).isEqualTo("custom");
+        assertThat(events).isEmpty();
+    }//testReload_KeepsPreviousProfilesWhenFileIsInvalid
+
+}//PositionProfileServiceTest
@@ -6,18 +6,65 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DisplayNameGeneration(ReplaceCamelCase.class)
 class RateLimitServiceTest {
 
+    // Mutable clock so refills can be stepped through
+    private static final class TestClock extends Clock {
+
+        private long millis = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }//getZone
+
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }//withZone
+
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }//instant
+
+
+        @Override
+        public long millis() {
+            return millis;
+        }//millis
+
+    }//TestClock
+
+
+    private final TestClock clock = new TestClock();
+
     private RateLimitService rateLimitService;
 
 
     @BeforeEach
     void setUp() {
-        rateLimitService = new RateLimitService();
+        rateLimitService = new RateLimitService(10_000, clock);
     }//setUp
 
 
@@ -84,4 +131,195 @@ class RateLimitServiceTest {
         assertThat(true).isTrue();
     }//testCleanup_DoesNotThrow
 
+
+    // ===== Token Bucket Tests =====
+
+    @Test
+    void testTryAcquire_RefillsContinuously() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimitService.tryAcquire("cv-upload", "10.0.0.1", 10, 60_000)).isTrue();
+        }
+        assertThat(rateLimitService.tryAcquire("cv-upload", "10.0.0.1", 10, 60_000)).isFalse();
+
+        // One token per 6 seconds
+        clock.millis += 6_000;
+
+        assertThat(rateLimitService.tryAcquire("cv-upload", "10.0.0.1", 10, 60_000)).isTrue();
+        assertThat(rateLimitService.tryAcquire("cv-upload", "10.0.0.1", 10, 60_000)).isFalse();
+    }//testTryAcquire_RefillsContinuously
+
+
+    @Test
+    void testTryAcquire_FrequentRejectedHitsDoNotLoseRefill() {
+        for (int i = 0; i < 10; i++) {
+            rateLimitService.tryAcquire("ws-start", "10.0.0.1", 10, 60_000);
+        }
+
+        // A client retrying every millisecond still gets a token every 6 seconds
+        int acquired = 0;
+        for (int i = 0; i < 12_000; i++) {
+            clock.millis++;
+            if (rateLimitService.tryAcquire("ws-start", "10.0.0.1", 10, 60_000)) {
+                acquired++;
+            }
+        }
+
+        assertThat(acquired).isEqualTo(2);
+    }//testTryAcquire_FrequentRejectedHitsDoNotLoseRefill
+
+
+    @Test
+    void testTryAcquire_BucketsAreIndependent() {
+        for (int i = 0; i < 5; i++) {
+            rateLimitService.tryAcquire("cv-upload", "10.0.0.1", 5, 60_000);
+        }
+
+        assertThat(rateLimitService.tryAcquire("cv-upload", "10.0.0.1", 5, 60_000)).isFalse();
+        assertThat(rateLimitService.tryAcquire("ws-start", "10.0.0.1", 5, 60_000)).isTrue();
+    }//testTryAcquire_BucketsAreIndependent
+
+
+    @Test
+    void testCheckRateLimit_RejectionHasNoStackTrace() {
+        for (int i = 0; i < 10; i++) {
+            rateLimitService.checkRateLimit("10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> rateLimitService.checkRateLimit("10.0.0.1"))
+                .isInstanceOf(RateLimitException.class)
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+    }//testCheckRateLimit_RejectionHasNoStackTrace
+
+
+    @Test
+    void testCleanup_EvictsKeysBackAtFullBucket() {
+        rateLimitService.tryAcquire("cv-upload", "10.0.0.1", 5, 60_000);
+        clock.millis += 30_000;
+        rateLimitService.tryAcquire("cv-upload", "10.0.0.2", 5, 60_000);
+        clock.millis += 30_000;
+
+        rateLimitService.cleanup();
+
+        assertThat(rateLimitService.getTrackedKeys("cv-upload")).isEqualTo(1);
+    }//testCleanup_EvictsKeysBackAtFullBucket
+
+
+    // ===== Shared Limit Tests =====
+
+    @Test
+    void testCharge_TakesTokensGrantedElsewhere() {
+        rateLimitService.charge("ws-start", "10.0.0.1", 4, 5, 60_000);
+
+        assertThat(rateLimitService.tryAcquire("ws-start", "10.0.0.1", 5, 60_000)).isTrue();
+        assertThat(rateLimitService.tryAcquire("ws-start", "10.0.0.1", 5, 60_000)).isFalse();
+
+        // Charging past empty leaves it empty, not in debt
+        rateLimitService.charge("ws-start", "10.0.0.1", 100, 5, 60_000);
+        clock.millis += 12_000;
+        assertThat(rateLimitService.tryAcquire("ws-start", "10.0.0.1", 5, 60_000)).isTrue();
+    }//testCharge_TakesTokensGrantedElsewhere
+
+
+    @Test
+    void testDrainGrants_ReturnsGrantsSinceLastDrain() {
+        rateLimitService.enableGrantTracking();
+        rateLimitService.tryAcquire("ws-start", "10.0.0.1", 5, 60_000);
+        rateLimitService.tryAcquire("ws-start", "10.0.0.1", 5, 60_000);
+        rateLimitService.tryAcquire("cv-upload", "10.0.0.2", 5, 60_000);
+
+        assertThat(rateLimitService.drainGrants()).containsExactlyInAnyOrder(
+                new RateLimitService.Grant("ws-start", "10.0.0.1", 2, 5, 60_000),
+                new RateLimitService.Grant("cv-upload", "10.0.0.2", 1, 5, 60_000));
+        assertThat(rateLimitService.drainGrants()).isEmpty();
+    }//testDrainGrants_ReturnsGrantsSinceLastDrain
+
+
+    @Test
+    void testDrainGrants_EmptyWithoutTracking() {
+        rateLimitService.tryAcquire("ws-start", "10.0.0.1", 5, 60_000);
+
+        assertThat(rateLimitService.drainGrants()).isEmpty();
+    }//testDrainGrants_EmptyWithoutTracking
+
+
+    // ===== Bounded Memory Tests =====
+
+    @Test
+    void testTryAcquire_KeySprayStaysWithinCapAndKeepsHeldBackKeys() {
+        RateLimitService limiter = new RateLimitService(100, clock);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("ws-handshake", "attacker", 5, 60_000);
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            limiter.tryAcquire("ws-handshake", "10.0." + (i >> 8) + "." + (i & 255), 5, 60_000);
+        }
+
+        assertThat(limiter.getTrackedKeys("ws-handshake")).isLessThanOrEqualTo(100);
+        assertThat(limiter.getEvictedKeys("ws-handshake")).isGreaterThan(99_000);
+        // Only entries that refilled the most are evicted, never an exhausted one
+        assertThat(limiter.tryAcquire("ws-handshake", "attacker", 5, 60_000)).isFalse();
+    }//testTryAcquire_KeySprayStaysWithinCapAndKeepsHeldBackKeys
+
+
+    // ===== Concurrency Tests =====
+
+    @Test
+    void testTryAcquire_ConcurrentHitsNeverExceedLimit() throws Exception {
+        RateLimitService limiter = new RateLimitService(10_000, clock);
+        int threads = 16;
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10_000; i++) {
+                        if (limiter.tryAcquire("ws-start", "10.0.0.1", 1_000, 60_000)) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(acquired.get()).isEqualTo(1_000);
+    }//testTryAcquire_ConcurrentHitsNeverExceedLimit
+
+
+    @Test
+    void testTryAcquire_ConcurrentKeySprayStaysWithinCap() throws Exception {
+        RateLimitService limiter = new RateLimitService(1_000, clock);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        limiter.tryAcquire("ws-handshake", thread + ":" + i, 5, 60_000);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Concurrent inserts can overshoot by at most one key per thread
+        assertThat(limiter.getTrackedKeys("ws-handshake")).isLessThanOrEqualTo(1_000 + threads);
+    }//testTryAcquire_ConcurrentKeySprayStaysWithinCap
+
 }//RateLimitServiceTest
@@ -0,0 +1,127 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.entity.SessionMigration;
+import net.k2ai.interviewSimulator.repository.SessionMigrationRepository;
+import net.k2ai.interviewSimulator.service.SessionMigrationService.MigrationTicket;
+import net.k2ai.interviewSimulator.testutil.AbstractIntegrationTest;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class SessionMigrationServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private SessionMigrationService migrationService;
+
+    @Autowired
+    private SessionMigrationRepository migrationRepository;
+
+    @Autowired
+    private InterviewService interviewService;
+
+
+    @BeforeEach
+    void setUp() {
+        migrationRepository.deleteAll();
+    }//setUp
+
+
+    @Test
+    void testSave_StoresTicketEncrypted() {
+        UUID token = migrationService.save(ticket("[Candidate]: secret answer"));
+
+        SessionMigration migration = migrationRepository.findById(token).orElseThrow();
+        String stored = new String(migration.getPayload(), StandardCharsets.UTF_8);
+        assertThat(stored).doesNotContain("secret answer");
+        assertThat(stored).doesNotContain("handle-123");
+        assertThat(migration.getExpiresAt()).isAfter(LocalDateTime.now());
+    }//testSave_StoresTicketEncrypted
+
+
+    @Test
+    void testClaim_ReturnsTicketAndDeletesRow() {
+        MigrationTicket original = ticket("[Interviewer]: Tell me about yourself");
+        UUID token = migrationService.save(original);
+
+        MigrationTicket claimed = migrationService.claim(token).orElseThrow();
+
+        assertThat(claimed).isEqualTo(original);
+        assertThat(migrationRepository.existsById(token)).isFalse();
+    }//testClaim_ReturnsTicketAndDeletesRow
+
+
+    @Test
+    void testClaim_IsSingleUse() {
+        UUID token = migrationService.save(ticket("[Candidate]: hello"));
+
+        assertThat(migrationService.claim(token)).isPresent();
+        assertThat(migrationService.claim(token)).isEmpty();
+    }//testClaim_IsSingleUse
+
+
+    @Test
+    void testClaim_UnknownTokenIsEmpty() {
+        assertThat(migrationService.claim(UUID.randomUUID())).isEmpty();
+    }//testClaim_UnknownTokenIsEmpty
+
+
+    @Test
+    void testClaim_UnreadableTicketIsKeptUnderPerProcessKey() {
+        UUID token = migrationService.save(ticket("[Candidate]: hello"));
+        SessionMigration migration = migrationRepository.findById(token).orElseThrow();
+        // As if written by another process; tests run without a configured key
+        migration.getPayload()[migration.getPayload().length - 1] ^= 1;
+        migrationRepository.save(migration);
+
+        assertThat(migrationService.claim(token)).isEmpty();
+        assertThat(migrationRepository.existsById(token)).isTrue();
+    }//testClaim_UnreadableTicketIsKeptUnderPerProcessKey
+
+
+    @Test
+    void testClaim_ExpiredTicketIsEmpty() {
+        UUID token = migrationService.save(ticket("[Candidate]: hello"));
+        SessionMigration migration = migrationRepository.findById(token).orElseThrow();
+        migration.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        migrationRepository.save(migration);
+
+        assertThat(migrationService.claim(token)).isEmpty();
+        assertThat(migrationRepository.existsById(token)).isFalse();
+    }//testClaim_ExpiredTicketIsEmpty
+
+
+    @Test
+    void testPurgeExpired_RemovesOnlyExpiredTickets() {
+        UUID live = migrationService.save(ticket("[Candidate]: live"));
+        UUID expired = migrationService.save(ticket("[Candidate]: expired"));
+        SessionMigration migration = migrationRepository.findById(expired).orElseThrow();
+        migration.setExpiresAt(LocalDateTime.now().minusMinutes(5));
+        migrationRepository.save(migration);
+
+        migrationService.purgeExpired();
+
+        assertThat(migrationRepository.existsById(live)).isTrue();
+        assertThat(migrationRepository.existsById(expired)).isFalse();
+    }//testPurgeExpired_RemovesOnlyExpiredTickets
+
+
+    private MigrationTicket ticket(String transcript) {
+        UUID sessionId = interviewService.startSession("John Doe", "Java Developer", "Standard", "en");
+        return new MigrationTicket(sessionId, "en", "Fenrir", false, "user-key", "gemini-live-test",
+                "handle-123", "You are an interviewer", transcript, 185_000L);
+    }//ticket
+
+}//SessionMigrationServiceTest
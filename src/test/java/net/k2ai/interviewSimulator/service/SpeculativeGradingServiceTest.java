@@ -0,0 +1,141 @@
+package net.k2ai.interviewSimulator.service;
+
+import net.k2ai.interviewSimulator.entity.InterviewFeedback;
+import net.k2ai.interviewSimulator.testutil.ReplaceCamelCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayNameGeneration(ReplaceCamelCase.class)
+class SpeculativeGradingServiceTest {
+
+    private static final String SNAPSHOT = "\n[Interviewer]: Tell me about Java.\n[Candidate]: I like it."
+            + "\n[Interviewer]: Thank you for your time";
+
+    private GradingService gradingService;
+
+    private SpeculativeGradingService speculative;
+
+    private UUID sessionId;
+
+
+    @BeforeEach
+    void setUp() {
+        gradingService = mock(GradingService.class);
+        speculative = new SpeculativeGradingService(gradingService, true, 1, 60_000);
+        sessionId = UUID.randomUUID();
+    }//setUp
+
+
+    @AfterEach
+    void tearDown() {
+        speculative.shutdown();
+    }//tearDown
+
+
+    @Test
+    void testCommit_ReturnsResultWhenOnlyTheInterviewerSpokeSince() throws Exception {
+        InterviewFeedback feedback = InterviewFeedback.builder().overallScore(80).build();
+        when(gradingService.evaluateInterview(sessionId, SNAPSHOT, "key", "en")).thenReturn(feedback);
+
+        speculative.start(sessionId, SNAPSHOT, "key", "en");
+        CompletableFuture<InterviewFeedback> result = speculative.commit(sessionId, SNAPSHOT + " today. Best of luck!");
+
+        assertThat(result).isNotNull();
+        assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(feedback);
+        assertThat(speculative.isSpeculating(sessionId)).isFalse();
+    }//testCommit_ReturnsResultWhenOnlyTheInterviewerSpokeSince
+
+
+    @Test
+    void testCommit_DiscardsSpeculationWhenCandidateSpokeSince() {
+        speculative.start(sessionId, SNAPSHOT, "key", "en");
+
+        CompletableFuture<InterviewFeedback> result = speculative.commit(sessionId,
+                SNAPSHOT + ". One more question?\n[Candidate]: Sure.\n[Interviewer]: Goodbye.");
+
+        assertThat(result).isNull();
+        assertThat(speculative.isSpeculating(sessionId)).isFalse();
+    }//testCommit_DiscardsSpeculationWhenCandidateSpokeSince
+
+
+    @Test
+    void testCommit_ReturnsNullWithoutSpeculation() {
+        assertThat(speculative.commit(sessionId, SNAPSHOT)).isNull();
+    }//testCommit_ReturnsNullWithoutSpeculation
+
+
+    @Test
+    void testCancel_DropsSpeculation() {
+        speculative.start(sessionId, SNAPSHOT, "key", "en");
+
+        speculative.cancel(sessionId);
+
+        assertThat(speculative.isSpeculating(sessionId)).isFalse();
+        assertThat(speculative.commit(sessionId, SNAPSHOT)).isNull();
+    }//testCancel_DropsSpeculation
+
+
+    @Test
+    void testStart_KeepsSpeculationThatStillCoversTheTranscript() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(gradingService.evaluateInterview(eq(sessionId), any(), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return InterviewFeedback.builder().overallScore(70).build();
+        });
+
+        speculative.start(sessionId, SNAPSHOT, "key", "en");
+        speculative.start(sessionId, SNAPSHOT + " today.", "key", "en");
+        release.countDown();
+
+        assertThat(speculative.commit(sessionId, SNAPSHOT + " today.").get(5, TimeUnit.SECONDS).getOverallScore())
+                .isEqualTo(70);
+        verify(gradingService, times(1)).evaluateInterview(eq(sessionId), any(), any(), any());
+    }//testStart_KeepsSpeculationThatStillCoversTheTranscript
+
+
+    @Test
+    void testStart_SkipsWhenAllThreadsAreBusy() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(gradingService.evaluateInterview(any(), any(), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        UUID otherSession = UUID.randomUUID();
+
+        speculative.start(sessionId, SNAPSHOT, "key", "en");
+        speculative.start(otherSession, SNAPSHOT, "key", "en");
+        release.countDown();
+
+        assertThat(speculative.isSpeculating(sessionId)).isTrue();
+        assertThat(speculative.isSpeculating(otherSession)).isFalse();
+    }//testStart_SkipsWhenAllThreadsAreBusy
+
+
+    @Test
+    void testStart_DoesNothingWhenDisabled() {
+        SpeculativeGradingService disabled = new SpeculativeGradingService(gradingService, false, 1, 60_000);
+
+        disabled.start(sessionId, SNAPSHOT, "key", "en");
+
+        assertThat(disabled.isSpeculating(sessionId)).isFalse();
+        verify(gradingService, never()).evaluateInterview(any(), any(), any(), any());
+        disabled.shutdown();
+    }//testStart_DoesNothingWhenDisabled
+
+}//SpeculativeGradingServiceTest